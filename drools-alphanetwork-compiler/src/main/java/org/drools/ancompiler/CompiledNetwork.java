@@ -40,6 +40,11 @@ import org.drools.core.reteoo.WindowNode;
  */
 public abstract class CompiledNetwork implements ObjectSinkPropagator {
 
+    /**
+     * Name of the static field holding the fingerprint of the network a generated class has been compiled from
+     */
+    public static final String FINGERPRINT_FIELD_NAME = "NETWORK_FINGERPRINT";
+
     protected ObjectTypeNode objectTypeNode;
     protected ObjectSinkPropagator originalSinkPropagator;
 
@@ -159,6 +164,8 @@ public abstract class CompiledNetwork implements ObjectSinkPropagator {
         @Override
         public void startNonHashedAlphaNode(AlphaNode alphaNode) {
             setNetworkNodeReference(alphaNode);
+            // the compiled network calls the constraint directly, so it's worth compiling it as soon as possible
+            alphaNode.getConstraint().enableEagerJitting();
         }
 
         @Override
@@ -174,6 +181,7 @@ public abstract class CompiledNetwork implements ObjectSinkPropagator {
         @Override
         public void startHashedAlphaNode(AlphaNode hashedAlpha, Object hashedValue) {
             setNetworkNodeReference(hashedAlpha);
+            hashedAlpha.getConstraint().enableEagerJitting();
         }
 
         @Override
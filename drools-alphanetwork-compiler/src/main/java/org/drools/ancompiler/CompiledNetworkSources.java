@@ -37,6 +37,7 @@ public class CompiledNetworkSources {
     private final Logger logger = LoggerFactory.getLogger(CompiledNetworkSources.class);
 
     private final String source;
+    private final String fingerprint;
     private final IndexableConstraint indexableConstraint;
     private final String name;
     private final String sourceName;
@@ -45,6 +46,7 @@ public class CompiledNetworkSources {
     private Collection<CompilationUnit> initClasses;
 
     public CompiledNetworkSources(String source,
+                                  String fingerprint,
                                   IndexableConstraint indexableConstraint,
                                   String name,
                                   String sourceName,
@@ -52,6 +54,7 @@ public class CompiledNetworkSources {
                                   Map<String, AlphaRangeIndex> rangeIndexDeclarationMap,
                                   Collection<CompilationUnit> initClasses) {
         this.source = source;
+        this.fingerprint = fingerprint;
         this.indexableConstraint = indexableConstraint;
         this.name = name;
         this.sourceName = sourceName;
@@ -64,6 +67,10 @@ public class CompiledNetworkSources {
         return source;
     }
 
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
     public String getName() {
         return name;
     }
@@ -76,6 +83,20 @@ public class CompiledNetworkSources {
         return initClasses;
     }
 
+    /**
+     * Checks that the given class, usually precompiled in a kjar, has been generated from the same network of these sources
+     */
+    public boolean isUpToDate(Class<?> compiledNetworkClass) {
+        try {
+            return fingerprint.equals(compiledNetworkClass.getField(CompiledNetwork.FINGERPRINT_FIELD_NAME).get(null));
+        } catch (NoSuchFieldException e) {
+            // classes compiled before the introduction of the fingerprint cannot be checked
+            return true;
+        } catch (IllegalAccessException e) {
+            return false;
+        }
+    }
+
     public CompiledNetwork createInstanceAndSet(Class<?> compiledNetworkClass) {
         CompiledNetwork compiledNetwork = newCompiledNetworkInstance(compiledNetworkClass);
         compiledNetwork.setStartingObjectTypeNode(objectTypeNode);
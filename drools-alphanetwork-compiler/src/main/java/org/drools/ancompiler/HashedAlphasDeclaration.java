@@ -21,7 +21,7 @@ package org.drools.ancompiler;
 import org.drools.base.base.ValueType;
 
 import java.util.Map;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Collection;
 import java.util.Collections;
 
@@ -39,7 +39,7 @@ public class HashedAlphasDeclaration {
      * This map contains keys which are different values of the same field and the node id that of the
      * {@link org.kie.common.NetworkNode} the value is from.
      */
-    private final Map<Object, String> hashedValuesToNodeIds = new HashMap<>();
+    private final Map<Object, String> hashedValuesToNodeIds = new LinkedHashMap<>();
 
     HashedAlphasDeclaration(String variableName,ValueType valueType) {
         this.variableName = variableName;
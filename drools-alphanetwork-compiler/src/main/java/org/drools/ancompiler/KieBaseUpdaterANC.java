@@ -18,6 +18,7 @@
  */
 package org.drools.ancompiler;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -63,7 +64,10 @@ public class KieBaseUpdaterANC implements KieBaseUpdater {
      * This assumes the kie-memory-compiler module is provided at runtime
      */
     private void inMemoryUpdate(ClassLoader rootClassLoader, Rete rete) {
-        Map<String, CompiledNetworkSources> compiledNetworkSourcesMap = ObjectTypeNodeCompiler.compiledNetworkSourceMap(rete);
+        compileInMemory(rootClassLoader, ObjectTypeNodeCompiler.compiledNetworkSourceMap(rete));
+    }
+
+    private void compileInMemory(ClassLoader rootClassLoader, Map<String, CompiledNetworkSources> compiledNetworkSourcesMap) {
         if (!compiledNetworkSourcesMap.isEmpty()) {
             Map<String, Class<?>> compiledClasses = KieMemoryCompiler.compile(mapValues(compiledNetworkSourcesMap, CompiledNetworkSources::getSource),
                                                                               rootClassLoader);
@@ -80,16 +84,71 @@ public class KieBaseUpdaterANC implements KieBaseUpdater {
         // There's not actual need to regenerate the source here but the indexableConstraint is parsed throughout the generation
         // It should be possible to get the indexable constraint without generating the full source
         // see https://issues.redhat.com/browse/DROOLS-5718
+        // The generated source is also used to check that the precompiled classes still match the network
         Map<String, CompiledNetworkSources> compiledNetworkSourcesMap = ObjectTypeNodeCompiler.compiledNetworkSourceMap(rete);
+        Map<String, CompiledNetworkSources> staleNetworkSourcesMap = new HashMap<>();
         for (Map.Entry<String, CompiledNetworkSources> kv : compiledNetworkSourcesMap.entrySet()) {
-            String compiledNetworkClassName = kv.getValue().getName();
-            Class<?> aClass;
+            Class<?> aClass = loadPrecompiledClass(rootClassLoader, kv.getValue().getName());
+            if (aClass != null && kv.getValue().isUpToDate(aClass)) {
+                kv.getValue().createInstanceAndSet(aClass);
+            } else {
+                staleNetworkSourcesMap.put(kv.getKey(), kv.getValue());
+            }
+        }
+
+        if (!staleNetworkSourcesMap.isEmpty()) {
+            logger.warn("The compiled alpha networks {} in the kjar are missing or don't match the rule base, compiling them in memory",
+                        staleNetworkSourcesMap.keySet());
             try {
-                aClass = rootClassLoader.loadClass(compiledNetworkClassName);
+                recompileInMemory(rootClassLoader, staleNetworkSourcesMap);
+            } catch (NoClassDefFoundError e) {
+                throw new CouldNotCreateAlphaNetworkCompilerException("The compiled alpha networks " + staleNetworkSourcesMap.keySet() +
+                                                                              " don't match the rule base and kie-memory-compiler isn't available to recompile them");
+            }
+        }
+    }
+
+    private void recompileInMemory(ClassLoader rootClassLoader, Map<String, CompiledNetworkSources> staleNetworkSourcesMap) {
+        Map<String, byte[]> byteCode = KieMemoryCompiler.compileNoLoad(mapValues(staleNetworkSourcesMap, CompiledNetworkSources::getSource),
+                                                                       rootClassLoader);
+        RecompiledNetworkClassLoader recompiledClassLoader = new RecompiledNetworkClassLoader(rootClassLoader);
+        byteCode.forEach(recompiledClassLoader::addCode);
+        for (CompiledNetworkSources sources : staleNetworkSourcesMap.values()) {
+            try {
+                sources.createInstanceAndSet(recompiledClassLoader.loadClass(sources.getName()));
             } catch (ClassNotFoundException e) {
                 throw new CouldNotCreateAlphaNetworkCompilerException(e);
             }
-            kv.getValue().createInstanceAndSet(aClass);
+        }
+    }
+
+    /**
+     * The root class loader may contain a stale class with the same name of the recompiled one,
+     * so the recompiled classes have to be loaded before delegating to the parent
+     */
+    private static class RecompiledNetworkClassLoader extends KieMemoryCompiler.MemoryCompilerClassLoader {
+
+        private RecompiledNetworkClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (getCode(name) == null) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loadedClass = findLoadedClass(name);
+                return loadedClass != null ? loadedClass : findClass(name);
+            }
+        }
+    }
+
+    private static Class<?> loadPrecompiledClass(ClassLoader rootClassLoader, String compiledNetworkClassName) {
+        try {
+            return rootClassLoader.loadClass(compiledNetworkClassName);
+        } catch (ClassNotFoundException e) {
+            return null;
         }
     }
 
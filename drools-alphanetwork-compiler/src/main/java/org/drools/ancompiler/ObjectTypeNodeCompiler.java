@@ -50,6 +50,7 @@ import java.util.stream.Collectors;
 
 import static com.github.javaparser.StaticJavaParser.parse;
 import static com.github.javaparser.StaticJavaParser.parseType;
+import static org.drools.util.StringUtils.md5Hash;
 
 public class ObjectTypeNodeCompiler {
 
@@ -120,6 +121,9 @@ public class ObjectTypeNodeCompiler {
         if(parser.getIndexableConstraints().size() > 1) {
             logger.warn("Alpha Network Compiler with multiple Indexable Constraints is not supported, reverting to non hashed-ANC. This might be slower ");
             parser.setTraverseHashedAlphaNodes(false);
+        } else if (parser.getIndexableConstraints().stream().map(c -> c.getFieldExtractor().getExtractToClass()).anyMatch(t -> t != null && t.isEnum() && !isAccessibleEnum(t))) {
+            logger.warn("Alpha Network Compiler cannot reference the hashed values of a non public enum, reverting to non hashed-ANC. This might be slower ");
+            parser.setTraverseHashedAlphaNodes(false);
         }
 
         createAdditionalFields(builder);
@@ -168,6 +172,10 @@ public class ObjectTypeNodeCompiler {
         DelegateMethodsHandler delegateMethodsHandler = new DelegateMethodsHandler(builder);
         parser.accept(delegateMethodsHandler);
 
+        // the fingerprint allows to detect when a class precompiled in a kjar doesn't match the network anymore
+        String fingerprint = md5Hash(builder.toString());
+        builder.append(String.format("public static final String %s = \"%s\";", CompiledNetwork.FINGERPRINT_FIELD_NAME, fingerprint)).append(NEWLINE);
+
         // end of class
         builder.append("}").append(NEWLINE);
 
@@ -183,6 +191,7 @@ public class ObjectTypeNodeCompiler {
 
         return new CompiledNetworkSources(
                 sourceCode,
+                fingerprint,
                 parser.getIndexableConstraint(),
                 getName(),
                 getSourceName(),
@@ -274,6 +283,8 @@ public class ObjectTypeNodeCompiler {
                         value = "new java.math.BigDecimal(\"" + value + "\")";
                     } else if (value instanceof BigInteger) {
                         value = "new java.math.BigInteger(\"" + value + "\")";
+                    } else if (value instanceof Enum) {
+                        value = ((Enum<?>) value).getDeclaringClass().getCanonicalName() + "." + ((Enum<?>) value).name();
                     }
 
                     String nodeId = declaration.getNodeId(hashedValue);
@@ -351,6 +362,19 @@ public class ObjectTypeNodeCompiler {
                 && !(f.getObjectSinkPropagator() instanceof CompiledNetwork); // DROOLS-6336 Avoid generating an ANC from an ANC, it won't work anyway
     }
 
+    // the generated network lives in its own package, so it can only refer to enum constants declared in public types
+    static boolean isAccessibleEnum(Class<?> type) {
+        if (type == null || !type.isEnum() || type.getCanonicalName() == null) {
+            return false;
+        }
+        for (Class<?> c = type; c != null; c = c.getEnclosingClass()) {
+            if (!java.lang.reflect.Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static Map<String, CompiledNetworkSources> compiledNetworkSourceMap(Rete rete) {
         List<CompiledNetworkSources> compiledNetworkSources = ObjectTypeNodeCompiler.compiledNetworkSources(rete);
         return compiledNetworkSources
@@ -18,7 +18,9 @@
  */
 package org.drools.ancompiler;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -140,7 +142,12 @@ public class ObjectTypeNodeParser {
 
     private void traverseHashedAlphaNodes(Map<CompositeObjectSinkAdapter.HashKey, AlphaNode> hashedAlphaNodes, NetworkHandler handler) {
         if (hashedAlphaNodes != null && !hashedAlphaNodes.isEmpty()) {
-            AlphaNode firstAlpha = hashedAlphaNodes.values().iterator().next();
+            // the hashed map iteration order can change from a JVM to another, while the generated source,
+            // and so its fingerprint, must only depend on the network
+            List<Map.Entry<CompositeObjectSinkAdapter.HashKey, AlphaNode>> sortedEntries = new ArrayList<>(hashedAlphaNodes.entrySet());
+            sortedEntries.sort(Comparator.comparingInt(entry -> entry.getValue().getId()));
+
+            AlphaNode firstAlpha = sortedEntries.get(0).getValue();
             IndexableConstraint hashedFieldReader = getClassFieldReaderForHashedAlpha(firstAlpha);
             indexableConstraints.add(hashedFieldReader);
 
@@ -148,7 +155,7 @@ public class ObjectTypeNodeParser {
             handler.startHashedAlphaNodes(hashedFieldReader);
 
             AlphaNode optionalNullAlphaNodeCase = null;
-            for (Map.Entry<CompositeObjectSinkAdapter.HashKey, AlphaNode> entry : hashedAlphaNodes.entrySet()) {
+            for (Map.Entry<CompositeObjectSinkAdapter.HashKey, AlphaNode> entry : sortedEntries) {
                 CompositeObjectSinkAdapter.HashKey hashKey = entry.getKey();
                 AlphaNode alphaNode = entry.getValue();
 
@@ -178,7 +185,9 @@ public class ObjectTypeNodeParser {
         if (rangeIndexMap == null) {
             return;
         }
-        Collection<Entry<FieldIndex, AlphaRangeIndex>> entrySet = rangeIndexMap.entrySet();
+        // FieldIndex has an identity hashCode, so sort the range indexes to generate always the same source
+        List<Entry<FieldIndex, AlphaRangeIndex>> entrySet = new ArrayList<>(rangeIndexMap.entrySet());
+        entrySet.sort(Comparator.comparingInt(entry -> entry.getKey().getIndex()));
         for (Entry<FieldIndex, AlphaRangeIndex> entry : entrySet) {
             AlphaRangeIndex alphaRangeIndex = entry.getValue();
 
@@ -202,7 +202,8 @@ public abstract class PropagatorCompilerHandler extends AbstractCompilerHandler
     }
 
     protected boolean canInlineValue(Class<?> fieldType) {
-        return Stream.of(String.class, Integer.class, int.class).anyMatch(c -> c.isAssignableFrom(fieldType));
+        return Stream.of(String.class, Integer.class, int.class).anyMatch(c -> c.isAssignableFrom(fieldType)) ||
+                ObjectTypeNodeCompiler.isAccessibleEnum(fieldType);
     }
 
     @Override
@@ -215,6 +216,9 @@ public abstract class PropagatorCompilerHandler extends AbstractCompilerHandler
                 quotedHashedValue = new StringLiteralExpr((String) hashedValue);
             } else if (hashedValue instanceof Long) {
                 quotedHashedValue = new LongLiteralExpr((Long) hashedValue);
+            } else if (hashedValue instanceof Enum) {
+                // enum case labels must be the unqualified name of the constant
+                quotedHashedValue = new NameExpr(((Enum<?>) hashedValue).name());
             } else {
                 quotedHashedValue = new IntegerLiteralExpr((Integer) hashedValue);
             }
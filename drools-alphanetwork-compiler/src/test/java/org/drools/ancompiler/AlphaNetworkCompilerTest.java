@@ -379,6 +379,60 @@ public class AlphaNetworkCompilerTest extends BaseModelTest {
         assertThat(ksession.fireAllRules()).isEqualTo(2);
     }
 
+    @ParameterizedTest(name = "{0}")
+	@MethodSource("parameters")
+    public void testHashedEnum(RUN_TYPE testRunType) {
+        String str =
+                "import " + EnumFact1.class.getCanonicalName() + ";\n" +
+                        "import " + ChildFactWithEnum1.class.getCanonicalName() + ";\n" +
+                        "global java.util.List results;\n" +
+                        "rule R1 when\n" +
+                        "    ChildFactWithEnum1( enumValue == EnumFact1.FIRST, $id : id )\n" +
+                        "then\n" +
+                        "    results.add(\"FIRST \" + $id);\n" +
+                        "end\n" +
+                        "rule R2 when\n" +
+                        "    ChildFactWithEnum1( enumValue == EnumFact1.SECOND, $id : id )\n" +
+                        "then\n" +
+                        "    results.add(\"SECOND \" + $id);\n" +
+                        "end\n" +
+                        "rule R3 when\n" +
+                        "    ChildFactWithEnum1( enumValue == EnumFact1.THIRD, $id : id )\n" +
+                        "then\n" +
+                        "    results.add(\"THIRD \" + $id);\n" +
+                        "end\n" +
+                        "rule R4 when\n" +
+                        "    ChildFactWithEnum1( enumValue == EnumFact1.FIRST, id > 1, $id : id )\n" +
+                        "then\n" +
+                        "    results.add(\"BIG FIRST \" + $id);\n" +
+                        "end\n";
+
+        KieSession ksession = getKieSession(testRunType, str);
+        List<String> results = new ArrayList<>();
+        ksession.setGlobal("results", results);
+
+        ObjectTypeNode otn = ((NamedEntryPoint) ksession.getEntryPoint("DEFAULT")).getEntryPointNode().getObjectTypeNodes().entrySet()
+                .stream()
+                .filter(e -> e.getKey().getClassName().equals(ChildFactWithEnum1.class.getCanonicalName()))
+                .map(e -> e.getValue())
+                .findFirst()
+                .get();
+        ObjectSinkPropagator objectSinkPropagator = otn.getObjectSinkPropagator();
+        if(testRunType.isAlphaNetworkCompiler()) {
+            objectSinkPropagator = ((CompiledNetwork)objectSinkPropagator).getOriginalSinkPropagator();
+        }
+        CompositeObjectSinkAdapter sinkAdaptor = (CompositeObjectSinkAdapter) objectSinkPropagator;
+        assertThat(sinkAdaptor.getHashedSinkMap()).hasSize(3);
+
+        ksession.insert(new ChildFactWithEnum1(1, 3, EnumFact1.FIRST));
+        ksession.insert(new ChildFactWithEnum1(2, 3, EnumFact1.FIRST));
+        ksession.insert(new ChildFactWithEnum1(3, 3, EnumFact1.THIRD));
+        ksession.insert(new ChildFactWithEnum1(4, 3, EnumFact1.FOURTH));
+        ksession.insert(new ChildFactWithEnum1(5, 3, null));
+        assertThat(ksession.fireAllRules()).isEqualTo(4);
+        assertThat(results).containsExactlyInAnyOrder("FIRST 1", "FIRST 2", "BIG FIRST 2", "THIRD 3");
+    }
+
     @ParameterizedTest(name = "{0}")
 	@MethodSource("parameters")
     public void testAlphaConstraintWithModification(RUN_TYPE testRunType) {
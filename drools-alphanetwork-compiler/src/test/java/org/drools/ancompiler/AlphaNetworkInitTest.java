@@ -20,11 +20,20 @@ package org.drools.ancompiler;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.drools.compiler.kie.builder.impl.KieBaseUpdaterOptions;
+import org.drools.compiler.kie.builder.impl.KieBaseUpdatersContext;
+import org.drools.core.reteoo.ObjectTypeNode;
+import org.drools.kiesession.rulebase.InternalKnowledgeBase;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.kie.api.KieBase;
 import org.kie.api.runtime.KieSession;
+import org.kie.internal.builder.conf.AlphaNetworkCompilerOption;
+import org.kie.memorycompiler.KieMemoryCompiler;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -56,6 +65,85 @@ public class AlphaNetworkInitTest extends BaseModelTest {
         assertResult(results, kSession);
     }
 
+    @ParameterizedTest(name = "{0}")
+	@MethodSource("parameters")
+    public void testLoadPrecompiledANC(RUN_TYPE testRunType) {
+        KieSession kSession = setupKieSession(testRunType);
+        Map<String, Class<?>> precompiledClasses = precompileANC(kSession.getKieBase());
+
+        List<Class<?>> compiledNetworkClasses = loadANC(kSession.getKieBase(), precompiledClasses.values().iterator().next().getClassLoader());
+
+        assertThat(compiledNetworkClasses).containsExactlyInAnyOrderElementsOf(precompiledClasses.values());
+        assertResult(new ArrayList<>(), kSession);
+    }
+
+    @ParameterizedTest(name = "{0}")
+	@MethodSource("parameters")
+    public void testLoadStalePrecompiledANCRecompilesInMemory(RUN_TYPE testRunType) {
+        KieSession kSession = setupKieSession(testRunType);
+        KieSession otherKSession = getKieSession(testRunType,
+                                                 "import " + Person.class.getCanonicalName() + ";" +
+                                                         "rule \"Find Sean Connery\"\n" +
+                                                         "    when\n" +
+                                                         "        $p : Person(name == \"Sean Connery\")\n" +
+                                                         "    then\n" +
+                                                         "end");
+
+        // the class names only depend on the object type nodes, so the classes of the other network are found but don't match
+        Map<String, Class<?>> otherPrecompiledClasses = precompileANC(otherKSession.getKieBase());
+        assertThat(otherPrecompiledClasses.keySet()).isEqualTo(ObjectTypeNodeCompiler.compiledNetworkSourceMap(((InternalKnowledgeBase) kSession.getKieBase()).getRete()).keySet());
+
+        List<Class<?>> compiledNetworkClasses = loadANC(kSession.getKieBase(), otherPrecompiledClasses.values().iterator().next().getClassLoader());
+
+        assertThat(compiledNetworkClasses).hasSize(otherPrecompiledClasses.size())
+                .allMatch(CompiledNetwork.class::isAssignableFrom)
+                .doesNotContainAnyElementsOf(otherPrecompiledClasses.values());
+        assertResult(new ArrayList<>(), kSession);
+    }
+
+    @ParameterizedTest(name = "{0}")
+	@MethodSource("parameters")
+    public void testFingerprintIsStableAcrossBuilds(RUN_TYPE testRunType) {
+        StringBuilder str = new StringBuilder(
+                "import " + Person.class.getCanonicalName() + ";\n" +
+                "import " + EnumFact1.class.getCanonicalName() + ";\n" +
+                "import " + ChildFactWithEnum1.class.getCanonicalName() + ";\n");
+        // enough rules to hash the alpha nodes on a String field, on an enum field, and to range index an int field
+        String[] names = { "James Bond", "Sean Connery", "Roger Moore", "Daniel Craig", "Timothy Dalton" };
+        for (int i = 0; i < names.length; i++) {
+            str.append("rule N" + i + " when Person( name == \"" + names[i] + "\" ) then end\n");
+            str.append("rule A" + i + " when Person( age > " + (i * 10) + " ) then end\n");
+        }
+        for (EnumFact1 value : EnumFact1.values()) {
+            str.append("rule E" + value + " when ChildFactWithEnum1( enumValue == EnumFact1." + value + " ) then end\n");
+        }
+
+        Map<String, String> fingerprints = fingerprints(getKieSession(testRunType, str.toString()).getKieBase());
+        Map<String, String> otherFingerprints = fingerprints(getKieSession(testRunType, str.toString()).getKieBase());
+
+        assertThat(fingerprints).hasSize(2).isEqualTo(otherFingerprints);
+    }
+
+    private static Map<String, String> fingerprints(KieBase kbase) {
+        return MapUtils.mapValues(ObjectTypeNodeCompiler.compiledNetworkSourceMap(((InternalKnowledgeBase) kbase).getRete()), CompiledNetworkSources::getFingerprint);
+    }
+
+    private static Map<String, Class<?>> precompileANC(KieBase kbase) {
+        Map<String, CompiledNetworkSources> sources = ObjectTypeNodeCompiler.compiledNetworkSourceMap(((InternalKnowledgeBase) kbase).getRete());
+        return KieMemoryCompiler.compile(MapUtils.mapValues(sources, CompiledNetworkSources::getSource), ((InternalKnowledgeBase) kbase).getRootClassLoader());
+    }
+
+    // returns the classes of the compiled networks attached to the object type nodes
+    private static List<Class<?>> loadANC(KieBase kbase, ClassLoader kjarClassLoader) {
+        List<ObjectTypeNode> objectTypeNodes = ObjectTypeNodeCompiler.objectTypeNodes(((InternalKnowledgeBase) kbase).getRete());
+        KieBaseUpdaterOptions kieBaseUpdaterOptions = new KieBaseUpdaterOptions(new KieBaseUpdaterOptions.OptionEntry(
+                AlphaNetworkCompilerOption.class, AlphaNetworkCompilerOption.LOAD));
+        new KieBaseUpdaterANC(new KieBaseUpdatersContext(kieBaseUpdaterOptions, ((InternalKnowledgeBase) kbase).getRete(), kjarClassLoader)).run();
+        return objectTypeNodes.stream()
+                .map(otn -> otn.getObjectSinkPropagator().getClass())
+                .collect(Collectors.toList());
+    }
+
     private void assertResult(List<Person> results, KieSession ksession) {
         ksession.setGlobal("results", results);
         final Person jamesBond = new Person("James Bond", 40);
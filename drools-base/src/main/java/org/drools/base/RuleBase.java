@@ -49,6 +49,14 @@ public interface RuleBase {
     void addRules( Collection<RuleImpl> rules ) throws InvalidPatternException;
     void removeRules( Collection<RuleImpl> rules ) throws InvalidPatternException;
 
+    /**
+     * Removes and then adds the given rules, allowing the implementation to process them as a single update.
+     */
+    default void updateRules( Collection<RuleImpl> rulesToBeRemoved, Collection<RuleImpl> rulesToBeAdded ) throws InvalidPatternException {
+        removeRules( rulesToBeRemoved );
+        addRules( rulesToBeAdded );
+    }
+
     String getId();
     
     String getContainerId();
@@ -20,6 +20,7 @@ package org.drools.base.rule.accessor;
 import org.drools.base.base.ValueResolver;
 import org.drools.base.reteoo.BaseTuple;
 import org.drools.base.rule.Declaration;
+import org.kie.api.runtime.rule.AccumulateFunction;
 import org.kie.api.runtime.rule.FactHandle;
 
 /**
@@ -126,4 +127,10 @@ public interface Accumulator
     default void replaceDeclaration(Declaration declaration, Declaration resolved) { }
 
     default Declaration[] getRequiredDeclarations() { return new Declaration[0]; }
+
+    /**
+     * Returns the accumulate function invoked by this accumulator, or null
+     * if it is an inline accumulate or a custom accumulator
+     */
+    default AccumulateFunction getAccumulateFunction() { return null; }
 }
@@ -32,6 +32,11 @@ public interface TupleValueExtractor extends Cloneable {
 
     Object getValue(ValueResolver valueResolver, BaseTuple tuple);
 
+    default long getWholeNumberValue(BaseTuple tuple) {
+        Object value = getValue( null, tuple );
+        return value instanceof Character c ? c.charValue() : ((Number) value).longValue();
+    }
+
     TupleValueExtractor clone();
 
     default int getIndex() {
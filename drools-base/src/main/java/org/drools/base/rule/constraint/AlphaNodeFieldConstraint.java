@@ -31,4 +31,10 @@ public interface AlphaNodeFieldConstraint
      * Clone this constraints only if it is already used by a different node, otherwise returns this
      */
     AlphaNodeFieldConstraint cloneIfInUse();
+
+    /**
+     * Hints this constraint that it is evaluated by a compiled alpha network, so that, if it is interpreted,
+     * it should be compiled at its first evaluation instead of waiting for the jitting threshold
+     */
+    default void enableEagerJitting() { }
 }
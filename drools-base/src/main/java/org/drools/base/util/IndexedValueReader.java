@@ -18,6 +18,7 @@
  */
 package org.drools.base.util;
 
+import org.drools.base.base.ValueType;
 import org.drools.base.reteoo.BaseTuple;
 import org.drools.base.rule.accessor.TupleValueExtractor;
 
@@ -71,6 +72,24 @@ public class IndexedValueReader implements Externalizable {
         return requiresCoercion;
     }
 
+    /**
+     * True when both sides are read as the same primitive whole number type, so that the indexed value can be
+     * compared as a long without boxing or coercion
+     */
+    public boolean isWholeNumberIndexable() {
+        return !requiresCoercion && isPrimitiveWholeNumber(leftExtractor.getValueType()) && isPrimitiveWholeNumber(rightExtractor.getValueType());
+    }
+
+    private static boolean isPrimitiveWholeNumber(ValueType valueType) {
+        return valueType == ValueType.PINTEGER_TYPE || valueType == ValueType.PLONG_TYPE ||
+               valueType == ValueType.PSHORT_TYPE || valueType == ValueType.PBYTE_TYPE ||
+               valueType == ValueType.PCHAR_TYPE;
+    }
+
+    public long wholeNumberIndexedValueOf(BaseTuple tuple, boolean left) {
+        return left ? leftExtractor.getWholeNumberValue(tuple) : rightExtractor.getWholeNumberValue(tuple);
+    }
+
     public Object indexedValueOf(BaseTuple tuple, boolean left) {
         return left ?
                 (requiresCoercion ?
@@ -46,6 +46,7 @@ import org.drools.core.management.DroolsManagementAgent;
 import org.drools.core.management.DroolsManagementAgent.CBSKey;
 import org.drools.core.reteoo.RuntimeComponentFactory;
 import org.drools.kiesession.rulebase.InternalKnowledgeBase;
+import org.drools.kiesession.session.KieSessionsPoolOptions;
 import org.drools.kiesession.session.StatefulKnowledgeSessionImpl;
 import org.drools.kiesession.session.StatefulSessionPool;
 import org.drools.kiesession.session.StatelessKnowledgeSessionImpl;
@@ -534,17 +535,21 @@ public class KieContainerImpl
     }
 
     public KieContainerSessionsPool newKieSessionsPool( int initialSize) {
-        return new KieContainerSessionsPoolImpl(this, initialSize);
+        return newKieSessionsPool(KieSessionsPoolOptions.of(initialSize));
     }
 
-    StatefulSessionPool createKieSessionsPool(String kSessionName, KieSessionConfiguration conf, Environment env, int initialSize, boolean stateless) {
+    public KieContainerSessionsPool newKieSessionsPool( KieSessionsPoolOptions options ) {
+        return new KieContainerSessionsPoolImpl(this, options);
+    }
+
+    StatefulSessionPool createKieSessionsPool(String kSessionName, KieSessionConfiguration conf, Environment env, KieSessionsPoolOptions options, boolean stateless) {
         KieSessionModel kSessionModel = kSessionName != null ? getKieSessionModel(kSessionName) : findKieSessionModel(false);
         if ( kSessionModel == null ) {
             log.error("Unknown KieSession name: " + kSessionName);
             return null;
         }
         InternalKnowledgeBase kBase = (InternalKnowledgeBase) getKieBaseFromKieSessionModel(kSessionModel);
-        return kBase == null ? null : new StatefulSessionPool(kBase, initialSize, () -> {
+        return kBase == null ? null : new StatefulSessionPool(kBase, options, () -> {
             SessionConfiguration sessConf = conf != null ? conf.as(SessionConfiguration.KEY) : kBase.getSessionConfiguration().as(SessionConfiguration.KEY);
             StatefulKnowledgeSessionImpl kSession = stateless ?
                     ((StatefulKnowledgeSessionImpl) RuntimeComponentFactory.get().createStatefulSession(kBase, env, sessConf, false)).setStateless( true ) :
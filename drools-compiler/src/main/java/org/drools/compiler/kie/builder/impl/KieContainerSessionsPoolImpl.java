@@ -19,6 +19,7 @@
 package org.drools.compiler.kie.builder.impl;
 
 import org.drools.kiesession.session.AbstractKieSessionsPool;
+import org.drools.kiesession.session.KieSessionsPoolOptions;
 import org.drools.kiesession.session.StatefulSessionPool;
 import org.drools.kiesession.session.StatelessKnowledgeSessionImpl;
 import org.kie.api.runtime.KieContainerSessionsPool;
@@ -30,8 +31,8 @@ public class KieContainerSessionsPoolImpl extends AbstractKieSessionsPool implem
 
     private final KieContainerImpl kContainer;
 
-    KieContainerSessionsPoolImpl( KieContainerImpl kContainer, int initialSize ) {
-        super(initialSize);
+    KieContainerSessionsPoolImpl( KieContainerImpl kContainer, KieSessionsPoolOptions options ) {
+        super(options);
         this.kContainer = kContainer;
     }
 
@@ -77,7 +78,7 @@ public class KieContainerSessionsPoolImpl extends AbstractKieSessionsPool implem
 
     @Override
     protected StatefulSessionPool createStatefulSessionPool( String kSessionName, KieSessionConfiguration conf, boolean stateless ) {
-        return kContainer.createKieSessionsPool(kSessionName, conf, environment, initialSize, stateless);
+        return kContainer.createKieSessionsPool(kSessionName, conf, environment, options, stateless);
     }
 
     @Override
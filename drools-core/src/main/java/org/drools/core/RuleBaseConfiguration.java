@@ -45,6 +45,7 @@ import org.kie.api.conf.SingleValueKieBaseOption;
 import org.kie.api.runtime.rule.ConsequenceExceptionHandler;
 import org.kie.internal.conf.AlphaRangeIndexThresholdOption;
 import org.kie.internal.conf.AlphaThresholdOption;
+import org.kie.internal.conf.BucketedAgendaOption;
 import org.kie.internal.conf.CompositeConfiguration;
 import org.kie.internal.conf.CompositeKeyDepthOption;
 import org.kie.internal.conf.ConsequenceExceptionHandlerOption;
@@ -52,9 +53,13 @@ import org.kie.internal.conf.ConstraintJittingThresholdOption;
 import org.kie.internal.conf.IndexLeftBetaMemoryOption;
 import org.kie.internal.conf.IndexPrecedenceOption;
 import org.kie.internal.conf.IndexRightBetaMemoryOption;
+import org.kie.internal.conf.JoinReorderingOption;
+import org.kie.internal.conf.ParallelJoinThresholdOption;
+import org.kie.internal.conf.MaterializedMemoriesOption;
 import org.kie.internal.conf.MaxThreadsOption;
 import org.kie.internal.conf.ParallelExecutionOption;
 import org.kie.internal.conf.SequentialAgendaOption;
+import org.kie.internal.conf.SharedWindowAggregatesOption;
 import org.kie.internal.conf.ShareAlphaNodesOption;
 import org.kie.internal.conf.ShareBetaNodesOption;
 import org.slf4j.Logger;
@@ -84,6 +89,10 @@ import org.slf4j.LoggerFactory;
  * drools.removeIdentities = &lt;true|false&gt;
  * drools.shareAlphaNodes  = &lt;true|false&gt;
  * drools.shareBetaNodes = &lt;true|false&gt;
+ * drools.joinReordering = &lt;true|false&gt;
+ * drools.sharedWindowAggregates = &lt;true|false&gt;
+ * drools.bucketedAgenda = &lt;true|false&gt;
+ * drools.materializeMemories = &lt;true|false&gt;
  * drools.alphaNodeHashingThreshold = &lt;1...n&gt;
  * drools.alphaNodeRangeIndexThreshold = &lt;1...n&gt;
  * drools.betaNodeRangeIndexEnabled = &lt;true|false&gt;
@@ -101,6 +110,7 @@ import org.slf4j.LoggerFactory;
  * drools.declarativeAgendaEnabled =  &lt;true|false&gt;
  * drools.permgenThreshold = &lt;1...n&gt;
  * drools.jittingThreshold = &lt;1...n&gt;
+ * drools.parallelJoinThreshold = &lt;-1...n&gt;
  * </pre>
  */
 public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, SingleValueKieBaseOption, MultiValueKieBaseOption>
@@ -126,8 +136,13 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
     private boolean         removeIdentities;
     private boolean         shareAlphaNodes;
     private boolean         shareBetaNodes;
+    private boolean         joinReordering;
+    private boolean         sharedWindowAggregates;
+    private boolean         bucketedAgenda;
+    private boolean         materializedMemories;
     private int             permGenThreshold;
     private int             jittingThreshold;
+    private int             parallelJoinThreshold;
     private int             alphaNodeHashingThreshold;
     private int             alphaNodeRangeIndexThreshold;
     private boolean         betaNodeRangeIndexEnabled;
@@ -177,8 +192,18 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
 
         setShareBetaNodes(Boolean.parseBoolean(getPropertyValue(ShareBetaNodesOption.PROPERTY_NAME, "true")));
 
+        setJoinReordering(Boolean.parseBoolean(getPropertyValue(JoinReorderingOption.PROPERTY_NAME, "false")));
+
+        setSharedWindowAggregates(Boolean.parseBoolean(getPropertyValue(SharedWindowAggregatesOption.PROPERTY_NAME, "false")));
+
+        setBucketedAgenda(Boolean.parseBoolean(getPropertyValue(BucketedAgendaOption.PROPERTY_NAME, "false")));
+
+        setMaterializedMemories(Boolean.parseBoolean(getPropertyValue(MaterializedMemoriesOption.PROPERTY_NAME, "false")));
+
         setJittingThreshold( Integer.parseInt( getPropertyValue( ConstraintJittingThresholdOption.PROPERTY_NAME, "" + ConstraintJittingThresholdOption.DEFAULT_VALUE)));
 
+        setParallelJoinThreshold( Integer.parseInt( getPropertyValue( ParallelJoinThresholdOption.PROPERTY_NAME, "" + ParallelJoinThresholdOption.DEFAULT_VALUE)));
+
         setAlphaNodeHashingThreshold(Integer.parseInt(getPropertyValue(AlphaThresholdOption.PROPERTY_NAME, "3")));
 
         setAlphaNodeRangeIndexThreshold(Integer.parseInt(getPropertyValue(AlphaRangeIndexThresholdOption.PROPERTY_NAME, "" + AlphaRangeIndexThresholdOption.DEFAULT_VALUE)));
@@ -242,6 +267,11 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
         out.writeObject(eventProcessingMode);
         out.writeBoolean(declarativeAgenda);
         out.writeInt(sessionPoolSize);
+        out.writeBoolean(joinReordering);
+        out.writeBoolean(sharedWindowAggregates);
+        out.writeBoolean(bucketedAgenda);
+        out.writeBoolean(materializedMemories);
+        out.writeInt(parallelJoinThreshold);
     }
 
     public void readExternal(ObjectInput in) throws IOException,
@@ -271,6 +301,11 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
         eventProcessingMode = (EventProcessingOption) in.readObject();
         declarativeAgenda = in.readBoolean();
         sessionPoolSize = in.readInt();
+        joinReordering = in.readBoolean();
+        sharedWindowAggregates = in.readBoolean();
+        bucketedAgenda = in.readBoolean();
+        materializedMemories = in.readBoolean();
+        parallelJoinThreshold = in.readInt();
     }
 
     @SuppressWarnings("unchecked")
@@ -288,6 +323,18 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
             case ShareBetaNodesOption.PROPERTY_NAME: {
                 return (T) (this.shareBetaNodes ? ShareBetaNodesOption.YES : ShareBetaNodesOption.NO);
             }
+            case JoinReorderingOption.PROPERTY_NAME: {
+                return (T) (this.joinReordering ? JoinReorderingOption.YES : JoinReorderingOption.NO);
+            }
+            case SharedWindowAggregatesOption.PROPERTY_NAME: {
+                return (T) (this.sharedWindowAggregates ? SharedWindowAggregatesOption.YES : SharedWindowAggregatesOption.NO);
+            }
+            case BucketedAgendaOption.PROPERTY_NAME: {
+                return (T) (this.bucketedAgenda ? BucketedAgendaOption.YES : BucketedAgendaOption.NO);
+            }
+            case MaterializedMemoriesOption.PROPERTY_NAME: {
+                return (T) (this.materializedMemories ? MaterializedMemoriesOption.YES : MaterializedMemoriesOption.NO);
+            }
             case IndexRightBetaMemoryOption.PROPERTY_NAME: {
                 return (T) (this.indexRightBetaMemory ? IndexRightBetaMemoryOption.YES : IndexRightBetaMemoryOption.NO);
             }
@@ -306,6 +353,9 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
             case ConstraintJittingThresholdOption.PROPERTY_NAME: {
                 return (T) ConstraintJittingThresholdOption.get(jittingThreshold);
             }
+            case ParallelJoinThresholdOption.PROPERTY_NAME: {
+                return (T) ParallelJoinThresholdOption.get(parallelJoinThreshold);
+            }
             case AlphaThresholdOption.PROPERTY_NAME: {
                 return (T) AlphaThresholdOption.get(alphaNodeHashingThreshold);
             }
@@ -369,6 +419,22 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
                 setShareBetaNodes(((ShareBetaNodesOption) option).isShareBetaNodes());
                 break;
             }
+            case JoinReorderingOption.PROPERTY_NAME: {
+                setJoinReordering(((JoinReorderingOption) option).isJoinReordering());
+                break;
+            }
+            case SharedWindowAggregatesOption.PROPERTY_NAME: {
+                setSharedWindowAggregates(((SharedWindowAggregatesOption) option).isSharedWindowAggregates());
+                break;
+            }
+            case BucketedAgendaOption.PROPERTY_NAME: {
+                setBucketedAgenda(((BucketedAgendaOption) option).isBucketedAgenda());
+                break;
+            }
+            case MaterializedMemoriesOption.PROPERTY_NAME: {
+                setMaterializedMemories(((MaterializedMemoriesOption) option).isMaterializedMemories());
+                break;
+            }
             case IndexLeftBetaMemoryOption.PROPERTY_NAME: {
                 setIndexLeftBetaMemory(((IndexLeftBetaMemoryOption) option).isIndexLeftBetaMemory());
                 break;
@@ -393,6 +459,10 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
                 setJittingThreshold( ( (ConstraintJittingThresholdOption) option ).getThreshold());
                 break;
             }
+            case ParallelJoinThresholdOption.PROPERTY_NAME: {
+                setParallelJoinThreshold( ( (ParallelJoinThresholdOption) option ).getThreshold());
+                break;
+            }
             case AlphaThresholdOption.PROPERTY_NAME: {
                 setAlphaNodeHashingThreshold( ( (AlphaThresholdOption) option ).getThreshold());
                 break;
@@ -464,10 +534,30 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
                 setShareBetaNodes(StringUtils.isEmpty(value) ? false : Boolean.valueOf(value));
                 break;
             }
+            case JoinReorderingOption.PROPERTY_NAME: {
+                setJoinReordering(StringUtils.isEmpty(value) ? false : Boolean.valueOf(value));
+                break;
+            }
+            case SharedWindowAggregatesOption.PROPERTY_NAME: {
+                setSharedWindowAggregates(StringUtils.isEmpty(value) ? false : Boolean.valueOf(value));
+                break;
+            }
+            case BucketedAgendaOption.PROPERTY_NAME: {
+                setBucketedAgenda(StringUtils.isEmpty(value) ? false : Boolean.valueOf(value));
+                break;
+            }
+            case MaterializedMemoriesOption.PROPERTY_NAME: {
+                setMaterializedMemories(StringUtils.isEmpty(value) ? false : Boolean.valueOf(value));
+                break;
+            }
             case ConstraintJittingThresholdOption.PROPERTY_NAME: {
                 setJittingThreshold(StringUtils.isEmpty(value) ? ConstraintJittingThresholdOption.DEFAULT_VALUE : Integer.parseInt(value));
                 break;
             }
+            case ParallelJoinThresholdOption.PROPERTY_NAME: {
+                setParallelJoinThreshold(StringUtils.isEmpty(value) ? ParallelJoinThresholdOption.DEFAULT_VALUE : Integer.parseInt(value));
+                break;
+            }
             case AlphaThresholdOption.PROPERTY_NAME: {
                 setAlphaNodeHashingThreshold(StringUtils.isEmpty(value) ? 3 : Integer.parseInt(value));
                 break;
@@ -553,9 +643,24 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
             case ShareBetaNodesOption.PROPERTY_NAME: {
                 return Boolean.toString(isShareBetaNodes());
             }
+            case JoinReorderingOption.PROPERTY_NAME: {
+                return Boolean.toString(isJoinReordering());
+            }
+            case SharedWindowAggregatesOption.PROPERTY_NAME: {
+                return Boolean.toString(isSharedWindowAggregates());
+            }
+            case BucketedAgendaOption.PROPERTY_NAME: {
+                return Boolean.toString(isBucketedAgenda());
+            }
+            case MaterializedMemoriesOption.PROPERTY_NAME: {
+                return Boolean.toString(isMaterializedMemories());
+            }
             case ConstraintJittingThresholdOption.PROPERTY_NAME: {
                 return Integer.toString(getJittingThreshold());
             }
+            case ParallelJoinThresholdOption.PROPERTY_NAME: {
+                return Integer.toString(getParallelJoinThreshold());
+            }
             case AlphaThresholdOption.PROPERTY_NAME: {
                 return Integer.toString(getAlphaNodeHashingThreshold());
             }
@@ -650,6 +755,42 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
         this.shareBetaNodes = shareBetaNodes;
     }
 
+    public boolean isJoinReordering() {
+        return this.joinReordering;
+    }
+
+    public void setJoinReordering(final boolean joinReordering) {
+        checkCanChange(); // throws an exception if a change isn't possible;
+        this.joinReordering = joinReordering;
+    }
+
+    public boolean isSharedWindowAggregates() {
+        return this.sharedWindowAggregates;
+    }
+
+    public void setSharedWindowAggregates(final boolean sharedWindowAggregates) {
+        checkCanChange(); // throws an exception if a change isn't possible;
+        this.sharedWindowAggregates = sharedWindowAggregates;
+    }
+
+    public boolean isBucketedAgenda() {
+        return this.bucketedAgenda;
+    }
+
+    public void setBucketedAgenda(final boolean bucketedAgenda) {
+        checkCanChange(); // throws an exception if a change isn't possible;
+        this.bucketedAgenda = bucketedAgenda;
+    }
+
+    public boolean isMaterializedMemories() {
+        return this.materializedMemories;
+    }
+
+    public void setMaterializedMemories(final boolean materializedMemories) {
+        checkCanChange(); // throws an exception if a change isn't possible;
+        this.materializedMemories = materializedMemories;
+    }
+
     public int getJittingThreshold() {
         return jittingThreshold;
     }
@@ -659,6 +800,15 @@ public class RuleBaseConfiguration  extends BaseConfiguration<KieBaseOption, Sin
         this.jittingThreshold = jittingThreshold;
     }
 
+    public int getParallelJoinThreshold() {
+        return parallelJoinThreshold;
+    }
+
+    public void setParallelJoinThreshold( int parallelJoinThreshold ) {
+        checkCanChange(); // throws an exception if a change isn't possible;
+        this.parallelJoinThreshold = parallelJoinThreshold;
+    }
+
     public int getAlphaNodeHashingThreshold() {
         return this.alphaNodeHashingThreshold;
     }
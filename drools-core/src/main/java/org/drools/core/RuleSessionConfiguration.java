@@ -42,6 +42,9 @@ import org.kie.internal.conf.CompositeConfiguration;
 import org.kie.internal.conf.InternalPropertiesConfiguration;
 import org.kie.internal.runtime.conf.ForceEagerActivationFilter;
 import org.kie.internal.runtime.conf.ForceEagerActivationOption;
+import org.kie.internal.runtime.conf.ObjectStoreOption;
+import org.kie.internal.runtime.conf.PropagationListOption;
+import org.kie.internal.runtime.conf.TruthMaintenanceModeOption;
 
 public class RuleSessionConfiguration extends BaseConfiguration<KieSessionOption, SingleValueKieSessionOption, MultiValueKieSessionOption> implements KieSessionConfiguration, InternalPropertiesConfiguration, Externalizable {
 
@@ -62,6 +65,12 @@ public class RuleSessionConfiguration extends BaseConfiguration<KieSessionOption
 
     private QueryListenerOption            queryListener;
 
+    private ObjectStoreOption              objectStore;
+
+    private PropagationListOption          propagationList;
+
+    private TruthMaintenanceModeOption     truthMaintenanceMode;
+
     public void writeExternal(ObjectOutput out) throws IOException {
         super.writeExternal(out);
         out.writeObject( queryListener );
@@ -99,6 +108,12 @@ public class RuleSessionConfiguration extends BaseConfiguration<KieSessionOption
         setBeliefSystemType( BeliefSystemType.resolveBeliefSystemType( getPropertyValue( BeliefSystemTypeOption.PROPERTY_NAME, BeliefSystemType.SIMPLE.getId() ) ) );
 
         setQueryListenerOption( QueryListenerOption.determineQueryListenerClassOption( getPropertyValue( QueryListenerOption.PROPERTY_NAME, QueryListenerOption.STANDARD.getAsString() ) ) );
+
+        setObjectStoreOption( ObjectStoreOption.determineObjectStore( getPropertyValue( ObjectStoreOption.PROPERTY_NAME, ObjectStoreOption.DEFAULT.getAsString() ) ) );
+
+        setPropagationListOption( PropagationListOption.determinePropagationList( getPropertyValue( PropagationListOption.PROPERTY_NAME, PropagationListOption.DEFAULT.getAsString() ) ) );
+
+        setTruthMaintenanceModeOption( TruthMaintenanceModeOption.determineTruthMaintenanceMode( getPropertyValue( TruthMaintenanceModeOption.PROPERTY_NAME, TruthMaintenanceModeOption.DEFAULT.getAsString() ) ) );
     }
 
     public void setDirectFiring(boolean directFiring) {
@@ -164,6 +179,33 @@ public class RuleSessionConfiguration extends BaseConfiguration<KieSessionOption
         this.queryListener = queryListener;
     }
 
+    public ObjectStoreOption getObjectStoreOption() {
+        return this.objectStore;
+    }
+
+    public void setObjectStoreOption( ObjectStoreOption objectStore ) {
+        checkCanChange();
+        this.objectStore = objectStore;
+    }
+
+    public TruthMaintenanceModeOption getTruthMaintenanceModeOption() {
+        return this.truthMaintenanceMode;
+    }
+
+    public void setTruthMaintenanceModeOption( TruthMaintenanceModeOption truthMaintenanceMode ) {
+        checkCanChange();
+        this.truthMaintenanceMode = truthMaintenanceMode;
+    }
+
+    public PropagationListOption getPropagationListOption() {
+        return this.propagationList;
+    }
+
+    public void setPropagationListOption( PropagationListOption propagationList ) {
+        checkCanChange();
+        this.propagationList = propagationList;
+    }
+
 
     public final <T extends KieSessionOption> void setOption(T option) {
         switch (option.propertyName()) {
@@ -195,6 +237,18 @@ public class RuleSessionConfiguration extends BaseConfiguration<KieSessionOption
                 setBeliefSystemType(((BeliefSystemType.resolveBeliefSystemType(((BeliefSystemTypeOption) option).getBeliefSystemType()))));
                 break;
             }
+            case ObjectStoreOption.PROPERTY_NAME: {
+                setObjectStoreOption((ObjectStoreOption) option);
+                break;
+            }
+            case PropagationListOption.PROPERTY_NAME: {
+                setPropagationListOption((PropagationListOption) option);
+                break;
+            }
+            case TruthMaintenanceModeOption.PROPERTY_NAME: {
+                setTruthMaintenanceModeOption((TruthMaintenanceModeOption) option);
+                break;
+            }
             default:
                 compConfig.setOption(option);
         }
@@ -218,6 +272,15 @@ public class RuleSessionConfiguration extends BaseConfiguration<KieSessionOption
             case BeliefSystemTypeOption.PROPERTY_NAME: {
                 return (T) BeliefSystemTypeOption.get( this.getBeliefSystemType().getId() );
             }
+            case ObjectStoreOption.PROPERTY_NAME: {
+                return (T) getObjectStoreOption();
+            }
+            case PropagationListOption.PROPERTY_NAME: {
+                return (T) getPropagationListOption();
+            }
+            case TruthMaintenanceModeOption.PROPERTY_NAME: {
+                return (T) getTruthMaintenanceModeOption();
+            }
             default:
                 return compConfig.getOption(option);
         }
@@ -263,6 +326,18 @@ public class RuleSessionConfiguration extends BaseConfiguration<KieSessionOption
             case BeliefSystemTypeOption.PROPERTY_NAME: {
                 setBeliefSystemType(StringUtils.isEmpty(value) ? BeliefSystemType.SIMPLE : BeliefSystemType.resolveBeliefSystemType(value));
                 break;
+            }
+            case ObjectStoreOption.PROPERTY_NAME: {
+                setObjectStoreOption(ObjectStoreOption.determineObjectStore(value));
+                break;
+            }
+            case PropagationListOption.PROPERTY_NAME: {
+                setPropagationListOption(PropagationListOption.determinePropagationList(value));
+                break;
+            }
+            case TruthMaintenanceModeOption.PROPERTY_NAME: {
+                setTruthMaintenanceModeOption(TruthMaintenanceModeOption.determineTruthMaintenanceMode(value));
+                break;
             } default: {
                 return false;
             }
@@ -284,6 +359,12 @@ public class RuleSessionConfiguration extends BaseConfiguration<KieSessionOption
                 return getQueryListenerOption().getAsString();
             } case BeliefSystemTypeOption.PROPERTY_NAME: {
                 return getBeliefSystemType().getId();
+            } case ObjectStoreOption.PROPERTY_NAME: {
+                return getObjectStoreOption().getAsString();
+            } case PropagationListOption.PROPERTY_NAME: {
+                return getPropagationListOption().getAsString();
+            } case TruthMaintenanceModeOption.PROPERTY_NAME: {
+                return getTruthMaintenanceModeOption().getAsString();
             }
         }
 
@@ -43,6 +43,7 @@ import org.kie.api.runtime.conf.PersistedSessionOption;
 import org.kie.api.runtime.conf.SingleValueKieSessionOption;
 import org.kie.api.runtime.conf.TimerJobFactoryOption;
 import org.kie.internal.conf.CompositeConfiguration;
+import org.kie.internal.runtime.conf.TimerServiceOption;
 
 public class SessionConfiguration extends BaseConfiguration<KieSessionOption, SingleValueKieSessionOption, MultiValueKieSessionOption> implements KieSessionConfiguration, Externalizable {
 
@@ -56,6 +57,8 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
 
     private TimerJobFactoryType            timerJobFactoryType;
 
+    private TimerServiceOption             timerService = TimerServiceOption.DEFAULT;
+
     private PersistedSessionOption persistedSessionOption;
 
     private ExecutableRunner runner;
@@ -98,6 +101,8 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
 
 
         setTimerJobFactoryType(TimerJobFactoryType.resolveTimerJobFactoryType( getPropertyValue( TimerJobFactoryOption.PROPERTY_NAME, TimerJobFactoryType.THREAD_SAFE_TRACKABLE.getId() ) ));
+
+        setTimerServiceOption(TimerServiceOption.determineTimerService( getPropertyValue( TimerServiceOption.PROPERTY_NAME, TimerServiceOption.DEFAULT.getAsString() ) ));
     }
 
 
@@ -111,6 +116,10 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
                 setTimerJobFactoryType(TimerJobFactoryType.resolveTimerJobFactoryType(((TimerJobFactoryOption) option).getTimerJobType()));
                 break;
             }
+            case TimerServiceOption.PROPERTY_NAME: {
+                setTimerServiceOption((TimerServiceOption) option);
+                break;
+            }
             case KeepReferenceOption.PROPERTY_NAME: {
                 setKeepReference(((KeepReferenceOption)option).isKeepReference());
                 break;
@@ -133,6 +142,9 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
             case TimerJobFactoryOption.PROPERTY_NAME: {
                 return (T) TimerJobFactoryOption.get( getTimerJobFactoryType().toExternalForm() );
             }
+            case TimerServiceOption.PROPERTY_NAME: {
+                return (T) getTimerServiceOption();
+            }
             case KeepReferenceOption.PROPERTY_NAME: {
                 return (T) (isKeepReference() ? KeepReferenceOption.YES : KeepReferenceOption.NO);
             }
@@ -164,6 +176,10 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
             case TimerJobFactoryOption.PROPERTY_NAME: {
                 setTimerJobFactoryType(TimerJobFactoryType.resolveTimerJobFactoryType(StringUtils.isEmpty(value) ? "default" : value));
                 break;
+            }
+            case TimerServiceOption.PROPERTY_NAME: {
+                setTimerServiceOption(TimerServiceOption.determineTimerService(value));
+                break;
             } default : {
                 return false;
             }
@@ -180,6 +196,9 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
             case TimerJobFactoryOption.PROPERTY_NAME: {
                 return getTimerJobFactoryType().toExternalForm();
             }
+            case TimerServiceOption.PROPERTY_NAME: {
+                return getTimerServiceOption().getAsString();
+            }
         }
         return null;
     }
@@ -235,6 +254,15 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
         this.timerJobFactoryType = timerJobFactoryType;
     }
 
+    public TimerServiceOption getTimerServiceOption() {
+        return timerService;
+    }
+
+    public void setTimerServiceOption(TimerServiceOption timerService) {
+        checkCanChange(); // throws an exception if a change isn't possible;
+        this.timerService = timerService;
+    }
+
     public final TimerJobFactoryManager getTimerJobFactoryManager() {
         return getTimerJobFactoryType().createInstance();
     }
@@ -276,7 +304,9 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
     }
 
     public TimerService createTimerService() {
-        TimerService service = getClockType().createInstance();
+        TimerService service = getTimerServiceOption() == TimerServiceOption.TIMING_WHEEL ?
+                getClockType().createTimingWheelInstance() :
+                getClockType().createInstance();
         service.setTimerJobFactoryManager(getTimerJobFactoryManager());
         return service;
     }
@@ -294,13 +324,15 @@ public class SessionConfiguration extends BaseConfiguration<KieSessionOption, Si
 
 
         return getClockType() == that.getClockType() &&
-                getTimerJobFactoryType() == that.getTimerJobFactoryType();
+                getTimerJobFactoryType() == that.getTimerJobFactoryType() &&
+                getTimerServiceOption() == that.getTimerServiceOption();
     }
 
     @Override
     public final int hashCode() {
         int result = getClockType().hashCode();
         result = 31 * result + getTimerJobFactoryType().hashCode();
+        result = 31 * result + getTimerServiceOption().hashCode();
         return result;
     }
 }
@@ -142,6 +142,11 @@ public class JavaAccumulatorFunctionExecutor
         return this.function.supportsReverse();
     }
 
+    @Override
+    public org.kie.api.runtime.rule.AccumulateFunction getAccumulateFunction() {
+        return this.function;
+    }
+
     public ReturnValueExpression getExpression() {
         return expression;
     }
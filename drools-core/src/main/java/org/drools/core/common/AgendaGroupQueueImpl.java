@@ -31,6 +31,7 @@ import org.drools.base.phreak.PropagationEntry;
 import org.drools.base.phreak.actions.AbstractPropagationEntry;
 import org.drools.core.phreak.RuleAgendaItem;
 import org.drools.core.util.ArrayQueue;
+import org.drools.core.util.BucketedQueue;
 import org.drools.core.util.Queue;
 import org.drools.core.util.QueueFactory;
 
@@ -94,11 +95,18 @@ public class AgendaGroupQueueImpl
         // workingMemory can be null during deserialization
         if (reteEvaluator != null && reteEvaluator.getRuleSessionConfiguration().isDirectFiring()) {
             this.priorityQueue = new ArrayQueue<>();
+        } else if (reteEvaluator != null && !sequential && useBucketedQueue(reteEvaluator.getKnowledgeBase())) {
+            this.priorityQueue = new BucketedQueue<>(RuleAgendaItem::getSalience);
         } else {
             this.priorityQueue = QueueFactory.createQueue(RuleAgendaConflictResolver.INSTANCE);
         }
     }
 
+    private static boolean useBucketedQueue(InternalRuleBase kBase) {
+        // a FIFO bucket for each salience value is enough when the saliences don't change at runtime
+        return kBase.getRuleBaseConfiguration().isBucketedAgenda() && !kBase.hasDynamicSalienceOrRuleFlowGroups();
+    }
+
     @Override
     public void hasRuleFlowListener(boolean hasRuleFlowLister) {
         this.hasRuleFlowLister = hasRuleFlowLister;
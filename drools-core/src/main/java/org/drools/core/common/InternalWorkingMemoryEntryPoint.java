@@ -18,6 +18,8 @@
  */
 package org.drools.core.common;
 
+import java.util.Collection;
+
 import org.drools.base.definitions.rule.impl.RuleImpl;
 import org.drools.core.WorkingMemoryEntryPoint;
 import org.drools.core.base.TraitHelper;
@@ -66,6 +68,9 @@ public interface InternalWorkingMemoryEntryPoint extends WorkingMemoryEntryPoint
                 ObjectTypeConf typeConf,
                 PropagationContext propagationContext);
 
+    void updateAll(Collection<? extends FactHandle> handles,
+                   BitMask mask);
+
     PropagationContext delete(InternalFactHandle handle,
                               Object object,
                               ObjectTypeConf typeConf,
@@ -0,0 +1,466 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.common;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.kie.api.runtime.ClassObjectFilter;
+import org.kie.api.runtime.ObjectFilter;
+
+/**
+ * An identity based ObjectStore that keeps its fact handles in fixed size slabs of primitive columns instead of
+ * in map entries. Every stored handle takes a slot in the slabs, holding the handle itself, its id and the identity
+ * hash code of its object, while the object to slot and the id to slot lookups are two open addressing int tables
+ * pointing to those slots. Compared to the {@link IdentityObjectStore} this avoids one map entry object per fact,
+ * reconnects a handle by id without walking the whole store and only grows the lookup tables, never the slabs
+ * already allocated.
+ *
+ * The class based operations, {@link #getStoreForClass(Class)} and {@link #clearClassStore(Class)}, are instead
+ * linear: they scan every slot ever used, regardless of how many facts of that class the store holds.
+ *
+ * Like the IdentityObjectStore it doesn't support equality assert behaviour nor negated fact handles.
+ */
+public class SlabObjectStore implements Externalizable, ObjectStore {
+
+    static final int SLAB_BITS = 12;
+    static final int SLAB_SIZE = 1 << SLAB_BITS;
+    private static final int SLAB_MASK = SLAB_SIZE - 1;
+
+    private static final int FREE = 0;
+    private static final int DELETED = -1;
+
+    private InternalFactHandle[][] handleSlabs;
+    private long[][] idSlabs;
+    private int[][] hashSlabs;
+
+    // slot + 1 of the handle for the object hashed in this position, FREE or DELETED
+    private int[] lookup;
+    private int lookupUsed;
+
+    // slot + 1 of the handle with the id hashed in this position, FREE or DELETED
+    private int[] idLookup;
+    private int idLookupUsed;
+
+    private int[] freeSlots;
+    private int freeSlotsSize;
+
+    private int highWaterMark;
+
+    private int size;
+
+    public SlabObjectStore() {
+        init();
+    }
+
+    private void init() {
+        handleSlabs = new InternalFactHandle[1][];
+        idSlabs = new long[1][];
+        hashSlabs = new int[1][];
+        lookup = new int[64];
+        lookupUsed = 0;
+        idLookup = new int[64];
+        idLookupUsed = 0;
+        freeSlots = new int[16];
+        freeSlotsSize = 0;
+        highWaterMark = 0;
+        size = 0;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt(size);
+        for (Iterator<InternalFactHandle> it = iterateFactHandles(); it.hasNext(); ) {
+            out.writeObject(it.next());
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        init();
+        int storedSize = in.readInt();
+        for (int i = 0; i < storedSize; i++) {
+            InternalFactHandle handle = (InternalFactHandle) in.readObject();
+            addHandle(handle, handle.getObject());
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        init();
+    }
+
+    @Override
+    public Object getObjectForHandle(InternalFactHandle handle) {
+        InternalFactHandle reconnectedHandle = reconnect(handle);
+        return reconnectedHandle != null ? reconnectedHandle.getObject() : null;
+    }
+
+    @Override
+    public InternalFactHandle reconnect(InternalFactHandle handle) {
+        if (handle == null) {
+            return null;
+        }
+        InternalFactHandle reconnectedHandle = null;
+        if (!handle.isDisconnected() && handle.getObject() != null) {
+            reconnectedHandle = getHandleForObject(handle.getObject());
+        }
+        if (reconnectedHandle == null) {
+            reconnectedHandle = getHandleForId(handle.getId());
+        }
+        return reconnectedHandle != null && handle.getIdentityHashCode() == reconnectedHandle.getIdentityHashCode() ? reconnectedHandle : null;
+    }
+
+    private InternalFactHandle getHandleForId(long id) {
+        int mask = idLookup.length - 1;
+        for (int i = idHash(id) & mask; idLookup[i] != FREE; i = (i + 1) & mask) {
+            int slot = idLookup[i] - 1;
+            if (slot >= 0 && idAt(slot) == id) {
+                return handleAt(slot);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public InternalFactHandle getHandleForObject(Object object) {
+        if (object == null) {
+            return null;
+        }
+        int slot = findSlot(object, System.identityHashCode(object));
+        return slot >= 0 ? handleAt(slot) : null;
+    }
+
+    @Override
+    public void updateHandle(InternalFactHandle handle, Object object) {
+        removeHandle(handle);
+        handle.setObject(object);
+        addHandle(handle, object);
+    }
+
+    @Override
+    public void addHandle(InternalFactHandle handle, Object object) {
+        int hash = System.identityHashCode(object);
+        int existing = findSlot(object, hash);
+        if (existing >= 0) {
+            // same semantic of a map put: the new handle replaces the old one
+            removeIdLookup(existing);
+            setSlot(existing, handle, hash);
+            insertIdLookup(existing);
+            return;
+        }
+
+        int slot = allocateSlot();
+        setSlot(slot, handle, hash);
+        insertLookup(slot, hash);
+        insertIdLookup(slot);
+        size++;
+    }
+
+    @Override
+    public void removeHandle(InternalFactHandle handle) {
+        Object object = handle.getObject();
+        if (object == null) {
+            return;
+        }
+        int hash = System.identityHashCode(object);
+        int mask = lookup.length - 1;
+        for (int i = hash & mask; lookup[i] != FREE; i = (i + 1) & mask) {
+            int slot = lookup[i] - 1;
+            if (slot >= 0 && hashAt(slot) == hash && handleAt(slot).getObject() == object) {
+                lookup[i] = DELETED;
+                removeIdLookup(slot);
+                setSlot(slot, null, 0);
+                releaseSlot(slot);
+                size--;
+                return;
+            }
+        }
+    }
+
+    private int findSlot(Object object, int hash) {
+        int mask = lookup.length - 1;
+        for (int i = hash & mask; lookup[i] != FREE; i = (i + 1) & mask) {
+            int slot = lookup[i] - 1;
+            if (slot >= 0 && hashAt(slot) == hash && handleAt(slot).getObject() == object) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void insertLookup(int slot, int hash) {
+        int mask = lookup.length - 1;
+        int i = hash & mask;
+        while (lookup[i] > FREE) {
+            i = (i + 1) & mask;
+        }
+        if (lookup[i] == FREE) {
+            lookupUsed++;
+        }
+        lookup[i] = slot + 1;
+
+        if (lookupUsed > (lookup.length >> 1)) {
+            // grow only when live entries need it, otherwise rehashing at the same size just drops the tombstones
+            rehashLookup(size + 1 > (lookup.length >> 2) ? lookup.length << 1 : lookup.length);
+        }
+    }
+
+    private void rehashLookup(int newLength) {
+        int[] newLookup = new int[newLength];
+        int mask = newLength - 1;
+        int used = 0;
+        for (int entry : lookup) {
+            if (entry > FREE) {
+                int i = hashAt(entry - 1) & mask;
+                while (newLookup[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                newLookup[i] = entry;
+                used++;
+            }
+        }
+        lookup = newLookup;
+        lookupUsed = used;
+    }
+
+    private void insertIdLookup(int slot) {
+        int mask = idLookup.length - 1;
+        int i = idHash(idAt(slot)) & mask;
+        while (idLookup[i] > FREE) {
+            i = (i + 1) & mask;
+        }
+        if (idLookup[i] == FREE) {
+            idLookupUsed++;
+        }
+        idLookup[i] = slot + 1;
+
+        if (idLookupUsed > (idLookup.length >> 1)) {
+            rehashIdLookup(size + 1 > (idLookup.length >> 2) ? idLookup.length << 1 : idLookup.length);
+        }
+    }
+
+    private void removeIdLookup(int slot) {
+        int mask = idLookup.length - 1;
+        for (int i = idHash(idAt(slot)) & mask; idLookup[i] != FREE; i = (i + 1) & mask) {
+            if (idLookup[i] == slot + 1) {
+                idLookup[i] = DELETED;
+                return;
+            }
+        }
+    }
+
+    private void rehashIdLookup(int newLength) {
+        int[] newLookup = new int[newLength];
+        int mask = newLength - 1;
+        int used = 0;
+        for (int entry : idLookup) {
+            if (entry > FREE) {
+                int i = idHash(idAt(entry - 1)) & mask;
+                while (newLookup[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                newLookup[i] = entry;
+                used++;
+            }
+        }
+        idLookup = newLookup;
+        idLookupUsed = used;
+    }
+
+    private static int idHash(long id) {
+        // ids are mostly sequential, so spread them before masking
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private int allocateSlot() {
+        if (freeSlotsSize > 0) {
+            return freeSlots[--freeSlotsSize];
+        }
+        int slot = highWaterMark++;
+        int slab = slot >>> SLAB_BITS;
+        if (slab == handleSlabs.length) {
+            handleSlabs = Arrays.copyOf(handleSlabs, slab << 1);
+            idSlabs = Arrays.copyOf(idSlabs, slab << 1);
+            hashSlabs = Arrays.copyOf(hashSlabs, slab << 1);
+        }
+        if (handleSlabs[slab] == null) {
+            handleSlabs[slab] = new InternalFactHandle[SLAB_SIZE];
+            idSlabs[slab] = new long[SLAB_SIZE];
+            hashSlabs[slab] = new int[SLAB_SIZE];
+        }
+        return slot;
+    }
+
+    private void releaseSlot(int slot) {
+        if (freeSlotsSize == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlotsSize << 1);
+        }
+        freeSlots[freeSlotsSize++] = slot;
+    }
+
+    private void setSlot(int slot, InternalFactHandle handle, int hash) {
+        int slab = slot >>> SLAB_BITS;
+        int pos = slot & SLAB_MASK;
+        handleSlabs[slab][pos] = handle;
+        idSlabs[slab][pos] = handle != null ? handle.getId() : -1L;
+        hashSlabs[slab][pos] = hash;
+    }
+
+    private InternalFactHandle handleAt(int slot) {
+        return handleSlabs[slot >>> SLAB_BITS][slot & SLAB_MASK];
+    }
+
+    private long idAt(int slot) {
+        return idSlabs[slot >>> SLAB_BITS][slot & SLAB_MASK];
+    }
+
+    private int hashAt(int slot) {
+        return hashSlabs[slot >>> SLAB_BITS][slot & SLAB_MASK];
+    }
+
+    @Override
+    public Iterator<Object> iterateObjects() {
+        return new SlabObjectIterator(null);
+    }
+
+    @Override
+    public Iterator<Object> iterateObjects(ObjectFilter filter) {
+        return new SlabObjectIterator(filter);
+    }
+
+    @Override
+    public Iterator<InternalFactHandle> iterateFactHandles() {
+        return new SlabFactHandleIterator(null);
+    }
+
+    @Override
+    public Iterator<InternalFactHandle> iterateFactHandles(ObjectFilter filter) {
+        return new SlabFactHandleIterator(filter);
+    }
+
+    @Override
+    public Iterator<Object> iterateNegObjects(ObjectFilter filter) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<InternalFactHandle> iterateNegFactHandles(ObjectFilter filter) {
+        throw new UnsupportedOperationException();
+    }
+
+    // a view filtering the whole store: iterating it scans all the slots, not only the ones of the given class
+    @Override
+    public FactHandleClassStore getStoreForClass(Class<?> clazz) {
+        ObjectFilter filter = new ClassObjectFilter(clazz);
+        return () -> new SlabFactHandleIterator(filter);
+    }
+
+    // linear in the number of slots ever used, there is no per class index to drop at once
+    @Override
+    public boolean clearClassStore(Class<?> clazz) {
+        ObjectFilter filter = new ClassObjectFilter(clazz);
+        boolean removed = false;
+        for (int slot = 0; slot < highWaterMark; slot++) {
+            InternalFactHandle handle = handleAt(slot);
+            if (handle != null && filter.accept(handle.getObject())) {
+                removeHandle(handle);
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    private abstract class AbstractSlabIterator<T> implements Iterator<T> {
+        private final ObjectFilter filter;
+        private int slot = -1;
+        private InternalFactHandle next;
+
+        private AbstractSlabIterator(ObjectFilter filter) {
+            this.filter = filter;
+            fetchNext();
+        }
+
+        private void fetchNext() {
+            next = null;
+            while (++slot < highWaterMark) {
+                InternalFactHandle handle = handleAt(slot);
+                if (handle != null && (filter == null || filter.accept(handle.getObject()))) {
+                    next = handle;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            InternalFactHandle current = next;
+            fetchNext();
+            return convert(current);
+        }
+
+        protected abstract T convert(InternalFactHandle handle);
+    }
+
+    private class SlabObjectIterator extends AbstractSlabIterator<Object> {
+        private SlabObjectIterator(ObjectFilter filter) {
+            super(filter);
+        }
+
+        @Override
+        protected Object convert(InternalFactHandle handle) {
+            return handle.getObject();
+        }
+    }
+
+    private class SlabFactHandleIterator extends AbstractSlabIterator<InternalFactHandle> {
+        private SlabFactHandleIterator(ObjectFilter filter) {
+            super(filter);
+        }
+
+        @Override
+        protected InternalFactHandle convert(InternalFactHandle handle) {
+            return handle;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import org.drools.core.RuleBaseConfiguration;
 import org.drools.core.base.ClassFieldAccessorCache;
 import org.drools.core.common.InternalWorkingMemory;
 import org.drools.core.common.ReteEvaluator;
+import org.drools.core.phreak.RuleUpdateBatch;
 import org.drools.core.reteoo.AsyncReceiveNode;
 import org.drools.core.reteoo.EntryPointNode;
 import org.drools.core.reteoo.LeftTupleNode;
@@ -43,6 +44,7 @@ import org.drools.core.reteoo.ReteooBuilder;
 import org.drools.core.reteoo.SegmentMemory;
 import org.drools.core.reteoo.SegmentMemory.SegmentPrototype;
 import org.drools.core.reteoo.SegmentPrototypeRegistry;
+import org.drools.core.reteoo.SessionMemoriesTemplate;
 import org.drools.core.rule.accessor.FactHandleFactory;
 import org.kie.api.KieBaseConfiguration;
 import org.kie.api.builder.ReleaseId;
@@ -160,6 +162,12 @@ public interface InternalRuleBase extends RuleBase {
 
     boolean hasMultipleAgendaGroups();
 
+    boolean hasDynamicSalienceOrRuleFlowGroups();
+
+    SessionMemoriesTemplate getSessionMemoriesTemplate();
+
+    RuleUpdateBatch getRuleUpdateBatch();
+
     default int getWorkingMemoryCounter() {
         return 0;
     }
@@ -60,6 +60,7 @@ import org.drools.core.management.DroolsManagementAgent;
 import org.drools.core.phreak.BuildtimeSegmentUtilities;
 import org.drools.core.phreak.EagerPhreakBuilder.Add;
 import org.drools.core.phreak.PhreakBuilder;
+import org.drools.core.phreak.RuleUpdateBatch;
 import org.drools.core.reteoo.AsyncReceiveNode;
 import org.drools.core.reteoo.CompositePartitionAwareObjectSinkAdapter;
 import org.drools.core.reteoo.CoreComponentFactory;
@@ -74,6 +75,7 @@ import org.drools.core.reteoo.RuntimeComponentFactory;
 import org.drools.core.reteoo.SegmentMemory;
 import org.drools.core.reteoo.SegmentMemory.SegmentPrototype;
 import org.drools.core.reteoo.SegmentPrototypeRegistry;
+import org.drools.core.reteoo.SessionMemoriesTemplate;
 import org.drools.core.reteoo.SegmentPrototypeRegistryImpl;
 import org.drools.core.reteoo.TerminalNode;
 import org.drools.core.reteoo.builder.BuildContext;
@@ -157,6 +159,14 @@ public class KnowledgeBaseImpl implements InternalRuleBase {
 
     private boolean hasMultipleAgendaGroups = false;
 
+    private boolean hasDynamicSalienceOrRuleFlowGroups = false;
+
+    // lazily calculated and discarded when the network changes
+    private transient volatile SessionMemoriesTemplate sessionMemoriesTemplate;
+
+    // not null while a group of rules is being added to a rule base with live sessions, see RuleUpdateBatch
+    private transient RuleUpdateBatch ruleUpdateBatch;
+
     private final PartitionsManager partitionsManager = new PartitionsManager();
 
     private boolean partitioned;
@@ -427,6 +437,19 @@ public class KnowledgeBaseImpl implements InternalRuleBase {
         }
 
 
+        RuleUpdateBatch batch = openRuleUpdateBatch( workingMemories );
+        try {
+            addPackagesContent( clonedPkgs, workingMemories );
+        } finally {
+            closeRuleUpdateBatch( batch );
+        }
+
+        if (ruleBaseConfig.isParallelEvaluation()) {
+            setupParallelEvaluation();
+        }
+    }
+
+    private void addPackagesContent(Collection<InternalKnowledgePackage> clonedPkgs, Collection<InternalWorkingMemory> workingMemories) {
         for (InternalKnowledgePackage newPkg : clonedPkgs) {
             InternalKnowledgePackage pkg = this.pkgs.get( newPkg.getName() );
 
@@ -462,10 +485,6 @@ public class KnowledgeBaseImpl implements InternalRuleBase {
 
             ruleUnitDescriptionRegistry.add(newPkg.getRuleUnitDescriptionLoader());
         }
-
-        if (ruleBaseConfig.isParallelEvaluation()) {
-            setupParallelEvaluation();
-        }
     }
 
     private void setupParallelEvaluation() {
@@ -528,6 +547,49 @@ public class KnowledgeBaseImpl implements InternalRuleBase {
         return hasMultipleAgendaGroups;
     }
 
+    public boolean hasDynamicSalienceOrRuleFlowGroups() {
+        return hasDynamicSalienceOrRuleFlowGroups;
+    }
+
+    public RuleUpdateBatch getRuleUpdateBatch() {
+        return ruleUpdateBatch;
+    }
+
+    /**
+     * Starts a batch collecting the changes to the memories of the given sessions caused by the rules added until
+     * it is closed. Returns null if there is nothing to batch or if a batch is already open, in which case the
+     * caller joins the outer batch and must not close it.
+     */
+    private RuleUpdateBatch openRuleUpdateBatch(Collection<InternalWorkingMemory> wms) {
+        if (ruleUpdateBatch != null || wms.isEmpty() || !PhreakBuilder.isEagerSegmentCreation()) {
+            return null;
+        }
+        for (InternalWorkingMemory wm : wms) {
+            wm.flushPropagations();
+        }
+        ruleUpdateBatch = new RuleUpdateBatch();
+        return ruleUpdateBatch;
+    }
+
+    private void closeRuleUpdateBatch(RuleUpdateBatch batch) {
+        if (batch != null) {
+            try {
+                batch.flush();
+            } finally {
+                ruleUpdateBatch = null;
+            }
+        }
+    }
+
+    public SessionMemoriesTemplate getSessionMemoriesTemplate() {
+        SessionMemoriesTemplate template = sessionMemoriesTemplate;
+        if (template == null) {
+            template = SessionMemoriesTemplate.create(reteooBuilder.getTerminalNodes().values());
+            sessionMemoriesTemplate = template;
+        }
+        return template;
+    }
+
     private void disableParallelEvaluation(String warningMessage) {
         ruleBaseConfig.enforceSingleThreadEvaluation();
         logger.warn( warningMessage );
@@ -935,6 +997,7 @@ public class KnowledgeBaseImpl implements InternalRuleBase {
 
     public void invalidateSegmentPrototype(LeftTupleNode rootNode) {
         segmentPrototypeRegistry.invalidateSegmentPrototype(rootNode);
+        this.sessionMemoriesTemplate = null;
     }
 
     @Override
@@ -1047,14 +1110,25 @@ public class KnowledgeBaseImpl implements InternalRuleBase {
     }
 
     public void kBaseInternal_addRules(Collection<? extends Rule> rules, Collection<InternalWorkingMemory> wms ) {
+        RuleUpdateBatch batch = openRuleUpdateBatch( wms );
+        try {
+            addRulesToNetwork( rules, wms );
+        } finally {
+            closeRuleUpdateBatch( batch );
+        }
+    }
+
+    private void addRulesToNetwork(Collection<? extends Rule> rules, Collection<InternalWorkingMemory> wms ) {
         List<TerminalNode> terminalNodes = new ArrayList<>(rules.size() * 2);
 
         for (Rule r : rules) {
             RuleImpl rule = (RuleImpl) r;
             checkParallelEvaluation( rule );
             this.hasMultipleAgendaGroups |= !rule.isMainAgendaGroup();
+            this.hasDynamicSalienceOrRuleFlowGroups |= rule.getSalience().isDynamic() || rule.getRuleFlowGroup() != null;
             terminalNodes.addAll(this.reteooBuilder.addRule(rule, wms));
         }
+        this.sessionMemoriesTemplate = null;
 
         if (PhreakBuilder.isEagerSegmentCreation() && !hasSegmentPrototypes()) {
             // All Protos must be created, before inserting objects.
@@ -1066,8 +1140,8 @@ public class KnowledgeBaseImpl implements InternalRuleBase {
             for (TerminalNode tn : terminalNodes) {
                 // populate memories
                 wms.stream().forEach( wm -> {
-                    Add.insertLiaFacts(wm, tn.getPathNodes()[0], visited, true);
-                    Add.insertFacts(wm, tn, visited, true);
+                    Add.insertLiaFacts(wm, tn.getPathNodes()[0], visited, true, ruleUpdateBatch);
+                    Add.insertFacts(wm, tn, visited, true, ruleUpdateBatch);
                 });
             }
         }
@@ -1098,12 +1172,46 @@ public class KnowledgeBaseImpl implements InternalRuleBase {
 
     public void kBaseInternal_removeRule(InternalKnowledgePackage pkg, RuleImpl rule, Collection<InternalWorkingMemory> workingMemories) {
         this.reteooBuilder.removeRules(Collections.singletonList(rule), workingMemories);
+        this.sessionMemoriesTemplate = null;
         pkg.removeRule( rule );
         addReloadDialectDatas( pkg.getDialectRuntimeRegistry() );
     }
 
     public void kBaseInternal_removeRules(Collection<? extends Rule> rules, Collection<InternalWorkingMemory> workingMemories) {
         this.reteooBuilder.removeRules(rules, workingMemories);
+        this.sessionMemoriesTemplate = null;
+    }
+
+    @Override
+    public void updateRules(Collection<RuleImpl> rulesToBeRemoved, Collection<RuleImpl> rulesToBeAdded) {
+        kBaseInternal_updateRules( rulesToBeRemoved, rulesToBeAdded, Collections.emptyList() );
+    }
+
+    /**
+     * Removes and adds the given rules as a single update: the live sessions are flushed only once and the
+     * memories of all the added rules are populated at the end, iterating the facts of each alpha source once.
+     */
+    public void kBaseInternal_updateRules(Collection<? extends Rule> rulesToBeRemoved, Collection<? extends Rule> rulesToBeAdded, Collection<InternalWorkingMemory> workingMemories) {
+        kBaseInternal_updateRules( rulesToBeRemoved, rulesToBeAdded, workingMemories, null );
+    }
+
+    /**
+     * As above, running afterRemoval once the rules have been removed and before the new ones are added, so that
+     * callers can notify the removal and the addition in the same order as separate removeRules and addRules calls.
+     */
+    public void kBaseInternal_updateRules(Collection<? extends Rule> rulesToBeRemoved, Collection<? extends Rule> rulesToBeAdded, Collection<InternalWorkingMemory> workingMemories, Runnable afterRemoval) {
+        RuleUpdateBatch batch = openRuleUpdateBatch( workingMemories );
+        try {
+            if (!rulesToBeRemoved.isEmpty()) {
+                kBaseInternal_removeRules( rulesToBeRemoved, workingMemories );
+            }
+            if (afterRemoval != null) {
+                afterRemoval.run();
+            }
+            addRulesToNetwork( rulesToBeAdded, workingMemories );
+        } finally {
+            closeRuleUpdateBatch( batch );
+        }
     }
 
     public void removeFunction( final String packageName, final String functionName ) {
@@ -1249,6 +1357,7 @@ public class KnowledgeBaseImpl implements InternalRuleBase {
             List<RuleImpl> rulesToBeRemoved = pkg.getRulesGeneratedFromResource(resource);
             if (!rulesToBeRemoved.isEmpty()) {
                 this.reteooBuilder.removeRules( rulesToBeRemoved, workingMemories );
+                this.sessionMemoriesTemplate = null;
                 // removal of rule from package has to be delayed after the rule has been removed from the phreak network
                 // in order to allow the correct flushing of all outstanding staged tuples
                 for (RuleImpl rule : rulesToBeRemoved) {
@@ -95,18 +95,23 @@ public class EagerPhreakBuilder implements PhreakBuilder {
             log.trace("Adding Rule {}", tn.getRule().getName());
         }
 
-        for (InternalWorkingMemory wm : wms) {
-            wm.flushPropagations();
+        // when the rule is part of a batch the sessions have already been flushed when the batch started,
+        // while the facts propagation and the segments notification are deferred until the batch ends
+        RuleUpdateBatch batch = kBase.getRuleUpdateBatch();
+        if (batch == null) {
+            for (InternalWorkingMemory wm : wms) {
+                wm.flushPropagations();
+            }
         }
 
-        Set<SegmentMemoryPair> smemsToNotify = new HashSet<>();
+        Set<SegmentMemoryPair> smemsToNotify = batch != null ? batch.getSegmentsToNotify() : new HashSet<>();
 
         Set<Integer> visited = new HashSet<>();
         if (tn.getPathNodes()[0].getAssociatedTerminalsSize() == 1) {
             BuildtimeSegmentUtilities.createPathProtoMemories(kBase.getSegmentPrototypeRegistry(), tn, null);
 
             // rule added with no sharing, so populate it's lian
-            wms.forEach(wm -> Add.insertLiaFacts(wm, tn.getPathNodes()[0], visited, false));
+            wms.forEach(wm -> Add.insertLiaFacts(wm, tn.getPathNodes()[0], visited, false, batch));
         } else {
             List<Pair> exclBranchRoots = getExclusiveBranchRoots(tn);
 
@@ -120,10 +125,12 @@ public class EagerPhreakBuilder implements PhreakBuilder {
 
         for (InternalWorkingMemory wm : wms) {
             Add.addExistingSegmentMemories(wm, Arrays.asList(tn.getPathEndNodes()));
-            Add.insertFacts(wm, tn, visited, false);
+            Add.insertFacts(wm, tn, visited, false, batch);
         }
 
-        smemsToNotify.forEach(pair -> pair.sm.notifyRuleLinkSegment());
+        if (batch == null) {
+            smemsToNotify.forEach(pair -> pair.sm.notifyRuleLinkSegment());
+        }
     }
 
     /**
@@ -138,6 +145,12 @@ public class EagerPhreakBuilder implements PhreakBuilder {
             log.trace("Removing Rule {}", tn.getRule().getName());
         }
 
+        RuleUpdateBatch batch = kBase.getRuleUpdateBatch();
+        if (batch != null && !batch.isEmpty()) {
+            // the memories of the rules already added in this batch must be complete before changing the segments
+            batch.flush();
+        }
+
         for (InternalWorkingMemory wm : wms) {
             wm.flushPropagations();
         }
@@ -270,12 +283,24 @@ public class EagerPhreakBuilder implements PhreakBuilder {
                                           LeftTupleNode startNode,
                                           Set<Integer> visited,
                                           boolean allBranches) {
+            insertLiaFacts(wm, startNode, visited, allBranches, null);
+        }
+
+        public static void insertLiaFacts(InternalWorkingMemory wm,
+                                          LeftTupleNode startNode,
+                                          Set<Integer> visited,
+                                          boolean allBranches,
+                                          RuleUpdateBatch batch) {
             // rule added with no sharing
-            PropagationContextFactory pctxFactory = RuntimeComponentFactory.get().getPropagationContextFactory();
-            final PropagationContext pctx = pctxFactory.createPropagationContext(wm.getNextPropagationIdCounter(),
-                    PropagationContext.Type.RULE_ADDITION, null, null, null);
             LeftInputAdapterNode lian = (LeftInputAdapterNode) startNode;
             if (allBranches && visited.add(lian.getId()) || lian.getAssociatedTerminalsSize() == 1) {
+                if (batch != null) {
+                    batch.propagateToLeftInput(wm, lian);
+                    return;
+                }
+                PropagationContextFactory pctxFactory = RuntimeComponentFactory.get().getPropagationContextFactory();
+                final PropagationContext pctx = pctxFactory.createPropagationContext(wm.getNextPropagationIdCounter(),
+                        PropagationContext.Type.RULE_ADDITION, null, null, null);
                 attachAdapterAndPropagate(wm, lian, pctx);
             }
         }
@@ -343,6 +368,14 @@ public class EagerPhreakBuilder implements PhreakBuilder {
                                        TerminalNode tn,
                                        Set<Integer> visited,
                                        boolean allBranches) {
+            insertFacts(wm, tn, visited, allBranches, null);
+        }
+
+        public static void insertFacts(InternalWorkingMemory wm,
+                                       TerminalNode tn,
+                                       Set<Integer> visited,
+                                       boolean allBranches,
+                                       RuleUpdateBatch batch) {
             for (PathEndNode endNode : tn.getPathEndNodes()) {
                 LeftTupleNode[] nodes = endNode.getPathNodes();
 
@@ -358,7 +391,11 @@ public class EagerPhreakBuilder implements PhreakBuilder {
                         BetaNode bn = (BetaNode) node;
 
                         if (!bn.getRightInput().inputIsTupleToObjectNode()) {
-                            attachAdapterAndPropagate(wm, bn);
+                            if (batch != null) {
+                                batch.propagateToRightInput(wm, bn);
+                            } else {
+                                attachAdapterAndPropagate(wm, bn);
+                            }
                         }
                     }
                 }
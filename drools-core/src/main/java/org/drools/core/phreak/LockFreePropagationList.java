@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.phreak;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.drools.base.phreak.PropagationEntry;
+import org.drools.core.common.ReteEvaluator;
+
+/**
+ * A multi producer / single consumer PropagationList that doesn't lock the producers.
+ * The entries are pushed with a CAS on the top of an intrusive stack linked through the entries themselves, and
+ * the consumer detaches the whole stack at once and reverses it, so that the entries are still flushed in the same
+ * order they have been added. The monitor of this list is only used to park and wake up the thread firing until halt.
+ */
+public class LockFreePropagationList extends SynchronizedPropagationList {
+
+    private final AtomicReference<PropagationEntry<ReteEvaluator>> top = new AtomicReference<>();
+
+    // an upper bound of the entries deferring expiration currently in the list:
+    // it is incremented before the entry becomes visible and decremented only after it has been taken
+    private final AtomicInteger entriesDeferringExpiration = new AtomicInteger();
+
+    public LockFreePropagationList(ReteEvaluator reteEvaluator) {
+        super(reteEvaluator);
+    }
+
+    @Override
+    void internalAddEntry( PropagationEntry<ReteEvaluator> entry ) {
+        if (entry.defersExpiration()) {
+            entriesDeferringExpiration.incrementAndGet();
+        }
+
+        PropagationEntry<ReteEvaluator> currentTop;
+        do {
+            currentTop = top.get();
+            entry.setNext( currentTop );
+        } while (!top.compareAndSet( currentTop, entry ));
+
+        if (currentTop == null && firingUntilHalt) {
+            notifyWaitOnRest();
+        }
+    }
+
+    @Override
+    public boolean hasEntriesDeferringExpiration() {
+        return entriesDeferringExpiration.get() > 0;
+    }
+
+    @Override
+    public PropagationEntry<ReteEvaluator> takeAll() {
+        PropagationEntry<ReteEvaluator> entry = top.getAndSet( null );
+        if (entry == null) {
+            return null;
+        }
+
+        // the detached entries can't be reached anymore by the producers, so they can be safely relinked
+        int deferringExpiration = 0;
+        PropagationEntry<ReteEvaluator> reversed = null;
+        while (entry != null) {
+            PropagationEntry<ReteEvaluator> next = entry.getNext();
+            entry.setNext( reversed );
+            reversed = entry;
+            if (entry.defersExpiration()) {
+                deferringExpiration++;
+            }
+            entry = next;
+        }
+
+        if (deferringExpiration > 0) {
+            entriesDeferringExpiration.addAndGet( -deferringExpiration );
+        }
+        return reversed;
+    }
+
+    @Override
+    public void reset() {
+        top.set( null );
+        entriesDeferringExpiration.set( 0 );
+        disposed = false;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return top.get() == null;
+    }
+
+    @Override
+    public Iterator<PropagationEntry<ReteEvaluator>> iterator() {
+        // the entries still in the list are linked from the last to the first one and can't be relinked here
+        List<PropagationEntry<ReteEvaluator>> entries = new ArrayList<>();
+        for (PropagationEntry<ReteEvaluator> entry = top.get(); entry != null; entry = entry.getNext()) {
+            entries.add( entry );
+        }
+        Collections.reverse( entries );
+        return entries.iterator();
+    }
+}
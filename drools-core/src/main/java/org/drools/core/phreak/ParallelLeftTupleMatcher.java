@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.phreak;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.drools.base.util.FastIterator;
+import org.drools.core.common.BetaConstraints;
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.common.TupleSets;
+import org.drools.core.reteoo.BetaNode;
+import org.drools.core.reteoo.TupleImpl;
+import org.drools.core.reteoo.TupleMemory;
+import org.kie.api.runtime.rule.FactHandle;
+
+import static org.drools.base.common.PartitionsManager.doOnForkJoinPool;
+
+/**
+ * Matches a large set of staged left tuples against the right memory of a beta node using a fork-join pool.
+ * The left tuples are split in chunks, each one evaluated with its own constraints context, while the right memory
+ * is only read. The matches are returned in the same order of the staged left tuples, so that the caller can create
+ * the resulting child tuples on its own thread exactly as the sequential evaluation would do.
+ */
+class ParallelLeftTupleMatcher {
+
+    private static final TupleImpl[] NO_MATCHES = new TupleImpl[0];
+
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private ParallelLeftTupleMatcher() { }
+
+    static boolean isParallelizable(ReteEvaluator reteEvaluator, BetaNode betaNode, TupleSets srcLeftTuples) {
+        int threshold = reteEvaluator.getKnowledgeBase().getRuleBaseConfiguration().getParallelJoinThreshold();
+        int insertSize = srcLeftTuples.getInsertSize();
+        // the full iterator used by the indexed unification joins is stateful and then can't be shared among threads
+        return threshold >= 0 && insertSize >= threshold && insertSize > 1 && !betaNode.isIndexedUnificationJoin();
+    }
+
+    static List<TupleImpl> stagedInserts(TupleSets srcLeftTuples) {
+        List<TupleImpl> leftTuples = new ArrayList<>(srcLeftTuples.getInsertSize());
+        for (TupleImpl leftTuple = srcLeftTuples.getInsertFirst(); leftTuple != null; leftTuple = leftTuple.getStagedNext()) {
+            leftTuples.add(leftTuple);
+        }
+        return leftTuples;
+    }
+
+    static TupleImpl[][] findMatches(ReteEvaluator reteEvaluator, BetaNode betaNode, BetaConstraints constraints, TupleMemory rtm,
+                                     List<TupleImpl> leftTuples, Function<TupleImpl, FactHandle> handleForEvaluation) {
+        TupleImpl[][] matches = new TupleImpl[leftTuples.size()][];
+
+        // the lookup of the first right tuple is done on this thread, because the hash indexes reuse
+        // a single HashEntry to calculate the bucket of a tuple and then can't be read concurrently
+        FastIterator<TupleImpl>[] iterators = new FastIterator[leftTuples.size()];
+        TupleImpl[] firstRightTuples = new TupleImpl[leftTuples.size()];
+        for (int i = 0; i < firstRightTuples.length; i++) {
+            iterators[i] = betaNode.getRightIterator(rtm);
+            firstRightTuples[i] = betaNode.getFirstRightTuple(leftTuples.get(i), rtm, iterators[i]);
+        }
+
+        int chunksNr = Math.min(leftTuples.size(), Runtime.getRuntime().availableProcessors() * CHUNKS_PER_THREAD);
+        int chunkSize = (leftTuples.size() + chunksNr - 1) / chunksNr;
+
+        doOnForkJoinPool(() -> IntStream.range(0, chunksNr).parallel().forEach( chunk -> {
+            int start = chunk * chunkSize;
+            int end = Math.min(start + chunkSize, leftTuples.size());
+            Object contextEntry = constraints.createContext();
+            List<TupleImpl> leftMatches = new ArrayList<>();
+            for (int i = start; i < end; i++) {
+                TupleImpl leftTuple = leftTuples.get(i);
+                constraints.updateFromTuple(contextEntry, reteEvaluator, leftTuple);
+
+                FastIterator<TupleImpl> it = iterators[i];
+                for (TupleImpl rightTuple = firstRightTuples[i]; rightTuple != null; rightTuple = it.next(rightTuple)) {
+                    if (constraints.isAllowedCachedLeft(contextEntry, handleForEvaluation.apply(rightTuple))) {
+                        leftMatches.add(rightTuple);
+                    }
+                }
+                matches[i] = leftMatches.isEmpty() ? NO_MATCHES : leftMatches.toArray(new TupleImpl[leftMatches.size()]);
+                leftMatches.clear();
+            }
+            constraints.resetTuple(contextEntry);
+        } ));
+
+        return matches;
+    }
+}
@@ -18,6 +18,8 @@
  */
 package org.drools.core.phreak;
 
+import java.util.List;
+
 import org.drools.base.base.ValueResolver;
 import org.drools.base.reteoo.AccumulateContextEntry;
 import org.drools.base.reteoo.BaseTuple;
@@ -44,6 +46,9 @@ import org.drools.core.util.AbstractHashTable;
 import org.drools.base.util.FastIterator;
 import org.kie.api.runtime.rule.FactHandle;
 
+import static org.drools.core.phreak.ParallelLeftTupleMatcher.findMatches;
+import static org.drools.core.phreak.ParallelLeftTupleMatcher.isParallelizable;
+import static org.drools.core.phreak.ParallelLeftTupleMatcher.stagedInserts;
 import static org.drools.core.phreak.PhreakNodeOperations.doUpdatesReorderLeftMemory;
 import static org.drools.core.phreak.PhreakNodeOperations.doUpdatesReorderRightMemory;
 import static org.drools.core.phreak.PhreakNodeOperations.normalizeStagedTuples;
@@ -154,6 +159,11 @@ public class PhreakAccumulateNode {
 
         boolean leftTupleMemoryEnabled = accNode.isLeftTupleMemoryEnabled();
 
+        if (!accNode.getRightInput().inputIsTupleToObjectNode() && isParallelizable(reteEvaluator, accNode, srcLeftTuples)) {
+            doParallelLeftInserts(accNode, am, srcLeftTuples, trgLeftTuples);
+            return;
+        }
+
         for (TupleImpl leftTuple = srcLeftTuples.getInsertFirst(); leftTuple != null; ) {
             TupleImpl next = leftTuple.getStagedNext();
 
@@ -206,6 +216,40 @@ public class PhreakAccumulateNode {
         constraints.resetTuple( contextEntry );
     }
 
+    private void doParallelLeftInserts(AccumulateNode accNode,
+                                       AccumulateMemory am,
+                                       TupleSets srcLeftTuples,
+                                       TupleSets trgLeftTuples) {
+        Accumulate accumulate = accNode.getAccumulate();
+        BetaMemory bm = am.getBetaMemory();
+        TupleMemory ltm = bm.getLeftTupleMemory();
+        boolean leftTupleMemoryEnabled = accNode.isLeftTupleMemoryEnabled();
+        List<TupleImpl> leftTuples = stagedInserts(srcLeftTuples);
+
+        // only the matching is done in parallel, the accumulate functions are invoked in the staging order
+        TupleImpl[][] matches = findMatches(reteEvaluator, accNode, accNode.getRawConstraints(), bm.getRightTupleMemory(),
+                                            leftTuples, TupleImpl::getFactHandleForEvaluation);
+
+        for (int i = 0; i < matches.length; i++) {
+            TupleImpl leftTuple = leftTuples.get(i);
+            boolean useLeftMemory = leftTupleMemoryEnabled || useLeftMemory(accNode, leftTuple);
+
+            if (useLeftMemory) {
+                ltm.add(leftTuple);
+            }
+
+            BaseAccumulation accresult = initAccumulationContext( am, accumulate, leftTuple );
+            for (TupleImpl rightTuple : matches[i]) {
+                addMatch(accNode, accumulate, leftTuple, (RightTuple) rightTuple,
+                         null, null, am, accresult,
+                         useLeftMemory, true);
+            }
+
+            leftTuple.clearStaged();
+            trgLeftTuples.addInsert( leftTuple );
+        }
+    }
+
     BaseAccumulation initAccumulationContext(AccumulateMemory am, Accumulate accumulate, TupleImpl leftTuple) {
         AccumulateContext accContext = new AccumulateContext();
         leftTuple.setContextObject(accContext);
@@ -18,6 +18,8 @@
  */
 package org.drools.core.phreak;
 
+import java.util.List;
+
 import org.drools.core.common.BetaConstraints;
 import org.drools.core.common.ReteEvaluator;
 import org.drools.core.common.TupleSets;
@@ -31,6 +33,9 @@ import org.drools.core.reteoo.TupleMemory;
 import org.drools.core.util.AbstractHashTable;
 import org.drools.base.util.FastIterator;
 
+import static org.drools.core.phreak.ParallelLeftTupleMatcher.findMatches;
+import static org.drools.core.phreak.ParallelLeftTupleMatcher.isParallelizable;
+import static org.drools.core.phreak.ParallelLeftTupleMatcher.stagedInserts;
 import static org.drools.core.phreak.PhreakNodeOperations.doUpdatesReorderLeftMemory;
 import static org.drools.core.phreak.PhreakNodeOperations.doUpdatesReorderRightMemory;
 import static org.drools.core.phreak.PhreakNodeOperations.unlinkAndDeleteChildLeftTuple;
@@ -94,6 +99,11 @@ public class PhreakJoinNode {
                               BetaMemory<?> bm,
                               TupleSets srcLeftTuples,
                               TupleSets trgLeftTuples) {
+        if (isParallelizable(reteEvaluator, joinNode, srcLeftTuples)) {
+            doParallelLeftInserts(joinNode, sink, bm, srcLeftTuples, trgLeftTuples);
+            return;
+        }
+
         TupleMemory ltm = bm.getLeftTupleMemory();
         TupleMemory rtm = bm.getRightTupleMemory();
         Object contextEntry = bm.getContext();
@@ -132,6 +142,39 @@ public class PhreakJoinNode {
         constraints.resetTuple( contextEntry );
     }
 
+    private void doParallelLeftInserts(JoinNode joinNode,
+                                       LeftTupleSink sink,
+                                       BetaMemory<?> bm,
+                                       TupleSets srcLeftTuples,
+                                       TupleSets trgLeftTuples) {
+        TupleMemory ltm = bm.getLeftTupleMemory();
+        List<TupleImpl> leftTuples = stagedInserts(srcLeftTuples);
+
+        // the constraints are evaluated in parallel, while the child tuples are created in the staging order
+        TupleImpl[][] matches = findMatches(reteEvaluator, joinNode, joinNode.getRawConstraints(), bm.getRightTupleMemory(),
+                                            leftTuples, TupleImpl::getFactHandle);
+
+        for (int i = 0; i < matches.length; i++) {
+            TupleImpl leftTuple = leftTuples.get(i);
+            boolean useLeftMemory = useLeftMemory(joinNode, leftTuple);
+
+            if (useLeftMemory) {
+                ltm.add(leftTuple);
+            }
+
+            for (TupleImpl rightTuple : matches[i]) {
+                insertChildLeftTuple(trgLeftTuples,
+                                     leftTuple,
+                                     rightTuple,
+                                     null,
+                                     null,
+                                     sink,
+                                     useLeftMemory);
+            }
+            leftTuple.clearStaged();
+        }
+    }
+
     public void doRightInserts(JoinNode joinNode,
                                LeftTupleSink sink,
                                BetaMemory<?> bm,
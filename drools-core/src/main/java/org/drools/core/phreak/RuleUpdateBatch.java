@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.phreak;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.drools.base.common.NetworkNode;
+import org.drools.base.common.RuleBasePartitionId;
+import org.drools.base.reteoo.BaseTerminalNode;
+import org.drools.core.common.InternalFactHandle;
+import org.drools.core.common.InternalWorkingMemory;
+import org.drools.core.common.PropagationContext;
+import org.drools.core.common.PropagationContextFactory;
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.phreak.EagerPhreakBuilder.SegmentMemoryPair;
+import org.drools.core.reteoo.BetaNode;
+import org.drools.core.reteoo.BetaNode.RightTupleSinkAdapter;
+import org.drools.core.reteoo.LeftInputAdapterNode;
+import org.drools.core.reteoo.LeftInputAdapterNode.LeftTupleSinkAdapter;
+import org.drools.core.reteoo.ModifyPreviousTuples;
+import org.drools.core.reteoo.ObjectSink;
+import org.drools.core.reteoo.ObjectSource;
+import org.drools.core.reteoo.RuntimeComponentFactory;
+import org.kie.api.definition.rule.Rule;
+
+/**
+ * Collects the changes that adding a group of rules makes to the memories of the live sessions, so that they
+ * are applied once for the whole group instead of once per rule.
+ *
+ * The facts of the new left input adapters and of the new beta nodes right inputs are not propagated while the
+ * rules are added, but grouped by the ObjectSource feeding them: when the batch is flushed each source
+ * iterates its facts only once per session, passing them to all the new nodes attached to it.
+ * In the same way the segments to be notified are collected and notified only once at the end.
+ */
+public class RuleUpdateBatch {
+
+    private final Map<InternalWorkingMemory, Map<ObjectSource, FanOutSink>> propagations = new LinkedHashMap<>();
+
+    private final Set<SegmentMemoryPair> segmentsToNotify = new LinkedHashSet<>();
+
+    public void propagateToLeftInput(InternalWorkingMemory wm, LeftInputAdapterNode lian) {
+        FanOutSink fanOut = getFanOutSink(wm, lian.getObjectSource());
+        fanOut.sinks.add(new LeftTupleSinkAdapter(lian, fanOut.detachedLeftTuples));
+    }
+
+    public void propagateToRightInput(InternalWorkingMemory wm, BetaNode bn) {
+        FanOutSink fanOut = getFanOutSink(wm, bn.getRightInput().getParent());
+        fanOut.sinks.add(new RightTupleSinkAdapter(bn, fanOut.detachedRightTuples));
+    }
+
+    private FanOutSink getFanOutSink(InternalWorkingMemory wm, ObjectSource source) {
+        return propagations.computeIfAbsent(wm, k -> new LinkedHashMap<>()).computeIfAbsent(source, k -> new FanOutSink());
+    }
+
+    public Set<SegmentMemoryPair> getSegmentsToNotify() {
+        return segmentsToNotify;
+    }
+
+    public boolean isEmpty() {
+        return propagations.isEmpty() && segmentsToNotify.isEmpty();
+    }
+
+    public void flush() {
+        PropagationContextFactory pctxFactory = RuntimeComponentFactory.get().getPropagationContextFactory();
+        for (Map.Entry<InternalWorkingMemory, Map<ObjectSource, FanOutSink>> wmEntry : propagations.entrySet()) {
+            InternalWorkingMemory wm = wmEntry.getKey();
+            for (Map.Entry<ObjectSource, FanOutSink> sourceEntry : wmEntry.getValue().entrySet()) {
+                PropagationContext pctx = pctxFactory.createPropagationContext(wm.getNextPropagationIdCounter(),
+                        PropagationContext.Type.RULE_ADDITION, null, null, null);
+                sourceEntry.getKey().updateSink(sourceEntry.getValue(), pctx, wm);
+            }
+        }
+        propagations.clear();
+
+        segmentsToNotify.forEach(pair -> pair.sm.notifyRuleLinkSegment());
+        segmentsToNotify.clear();
+    }
+
+    /**
+     * Passes each fact of the updated ObjectSource to all the new sinks attached to it. The tuples detached by a
+     * LeftTupleSinkAdapter or a RightTupleSinkAdapter are reattached right after each assertion, so the next sink
+     * finds the fact's linked tuples in the same state, and in the same ObjectTypeNodeId order, as when the sinks
+     * are updated one at a time.
+     */
+    private static class FanOutSink implements ObjectSink {
+
+        private final List<ObjectSink> sinks = new ArrayList<>();
+
+        private final List<DetachedTuple> detachedLeftTuples = new ArrayList<>();
+
+        private final List<DetachedTuple> detachedRightTuples = new ArrayList<>();
+
+        @Override
+        public void assertObject(InternalFactHandle factHandle, PropagationContext context, ReteEvaluator reteEvaluator) {
+            for (ObjectSink sink : sinks) {
+                sink.assertObject(factHandle, context, reteEvaluator);
+                if (!detachedLeftTuples.isEmpty()) {
+                    detachedLeftTuples.forEach(DetachedTuple::reattachToLeft);
+                    detachedLeftTuples.clear();
+                }
+                if (!detachedRightTuples.isEmpty()) {
+                    detachedRightTuples.forEach(DetachedTuple::reattachToRight);
+                    detachedRightTuples.clear();
+                }
+            }
+        }
+
+        @Override
+        public void modifyObject(InternalFactHandle factHandle, ModifyPreviousTuples modifyPreviousTuples, PropagationContext context, ReteEvaluator reteEvaluator) {
+            throw new UnsupportedOperationException( "FanOutSink only supports assertObject method calls" );
+        }
+
+        @Override
+        public void byPassModifyToBetaNode(InternalFactHandle factHandle, ModifyPreviousTuples modifyPreviousTuples, PropagationContext context, ReteEvaluator reteEvaluator) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getId() {
+            return 0;
+        }
+
+        @Override
+        public RuleBasePartitionId getPartitionId() {
+            return sinks.get(0).getPartitionId();
+        }
+
+        @Override
+        public int getType() {
+            return sinks.get(0).getType();
+        }
+
+        @Override
+        public Rule[] getAssociatedRules() {
+            return sinks.get(0).getAssociatedRules();
+        }
+
+        @Override
+        public boolean isAssociatedWith(Rule rule) {
+            return sinks.get(0).isAssociatedWith(rule);
+        }
+
+        @Override
+        public void addAssociatedTerminal(BaseTerminalNode terminalNode) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void removeAssociatedTerminal(BaseTerminalNode terminalNode) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getAssociatedTerminalsSize() {
+            return sinks.get(0).getAssociatedTerminalsSize();
+        }
+
+        @Override
+        public boolean hasAssociatedTerminal(BaseTerminalNode terminalNode) {
+            return sinks.get(0).hasAssociatedTerminal(terminalNode);
+        }
+
+        @Override
+        public NetworkNode[] getSinks() {
+            return new NetworkNode[0];
+        }
+    }
+}
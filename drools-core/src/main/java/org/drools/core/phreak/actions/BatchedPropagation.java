@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.phreak.actions;
+
+import java.util.List;
+
+import org.drools.base.phreak.PropagationEntry;
+import org.drools.base.phreak.actions.AbstractPropagationEntry;
+import org.drools.core.common.ReteEvaluator;
+
+/**
+ * A single propagation entry wrapping the inserts or updates of a whole batch of facts, so that they are enqueued
+ * and flushed at once. The wrapped entries are executed in order and notified one by one to the session,
+ * exactly as if they had been enqueued separately.
+ */
+public class BatchedPropagation extends AbstractPropagationEntry<ReteEvaluator> {
+
+    private final List<? extends PropagationEntry<ReteEvaluator>> entries;
+
+    public BatchedPropagation(List<? extends PropagationEntry<ReteEvaluator>> entries) {
+        this.entries = entries;
+    }
+
+    @Override
+    public void internalExecute(ReteEvaluator reteEvaluator) {
+        for (PropagationEntry<ReteEvaluator> entry : entries) {
+            entry.execute(reteEvaluator);
+            reteEvaluator.onWorkingMemoryAction(entry);
+        }
+    }
+
+    public List<? extends PropagationEntry<ReteEvaluator>> getEntries() {
+        return entries;
+    }
+
+    @Override
+    public String toString() {
+        return "Batch of " + entries.size() + " propagations";
+    }
+}
@@ -157,6 +157,18 @@ public class AccumulateNode extends BetaNode {
     @Override
     public void doAttach( BuildContext context ) {
         super.doAttach( context );
+        if ( accumulate instanceof SharedWindowAccumulate shared ) {
+            shared.getWindowNode().attachSharedAccumulate( shared );
+        }
+    }
+
+    @Override
+    public boolean doRemove( RuleRemovalContext context, ReteooBuilder builder ) {
+        boolean removed = super.doRemove( context, builder );
+        if ( removed && accumulate instanceof SharedWindowAccumulate shared ) {
+            shared.getWindowNode().detachSharedAccumulate( shared );
+        }
+        return removed;
     }
 
     protected int calculateHashCode() {
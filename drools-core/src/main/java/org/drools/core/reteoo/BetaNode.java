@@ -204,7 +204,7 @@ public abstract class BetaNode extends LeftTupleSource
         if ( this.indexedUnificationJoin ) {
             return (RightTuple) it.next(null);
         } else {
-            return (RightTuple) memory.getFirst(leftTuple);
+            return (RightTuple) memory.getFirst(leftTuple, it);
         }
     }
 
@@ -229,7 +229,7 @@ public abstract class BetaNode extends LeftTupleSource
             if ( this.indexedUnificationJoin ) {
                 return it.next(null );
             } else {
-                return memory.getFirst(rightTuple);
+                return memory.getFirst(rightTuple, it);
             }
         }
     }
@@ -210,12 +210,18 @@ public class CompositeObjectSinkAdapter implements ObjectSinkPropagator {
 
     private static boolean isHashable( IndexableConstraint indexableConstraint ) {
         return indexableConstraint.getConstraintType() == ConstraintTypeOperator.EQUAL && indexableConstraint.getField() != null &&
-                indexableConstraint.getFieldExtractor().getValueType() != ValueType.OBJECT_TYPE &&
+                ( indexableConstraint.getFieldExtractor().getValueType() != ValueType.OBJECT_TYPE || isEnumEqualityConstraint(indexableConstraint) ) &&
                !isBigDecimalEqualityConstraint(indexableConstraint) &&
                // our current implementation does not support hashing of deeply nested properties
                 indexableConstraint.getFieldExtractor().getIndex() >= 0;
     }
 
+    // enum constants are singletons, so unlike other objects they can be safely hashed, see HashKey.hashOf
+    private static boolean isEnumEqualityConstraint( IndexableConstraint indexableConstraint ) {
+        Class<?> fieldType = indexableConstraint.getFieldExtractor().getExtractToClass();
+        return fieldType != null && fieldType.isEnum() && fieldType.isInstance( indexableConstraint.getField().getValue() );
+    }
+
     public ObjectSinkPropagator removeObjectSink(final ObjectSink sink) {
         this.sinks = null; // dirty it, so it'll rebuild on next get
         if (this.sinksMap != null) {
@@ -930,6 +936,10 @@ public class CompositeObjectSinkAdapter implements ObjectSinkPropagator {
             value = in.readObject();
             isNull = in.readBoolean();
             hashCode = in.readInt();
+            if ( value instanceof Enum ) {
+                // the key could have been written with the identity based hash of a previous version
+                setHashCode( hashOf( value ) );
+            }
         }
 
         public void writeExternal(ObjectOutput out) throws IOException {
@@ -951,7 +961,7 @@ public class CompositeObjectSinkAdapter implements ObjectSinkPropagator {
 
             if ( extractedValue != null ) {
                 try {
-                    this.setHashCode(extractedValue.hashCode());
+                    this.setHashCode(hashOf(extractedValue));
                 } catch (UnsupportedOperationException e) {
                     this.setHashCode( 0 );
                 }
@@ -970,12 +980,24 @@ public class CompositeObjectSinkAdapter implements ObjectSinkPropagator {
             this.isNull = value.isNull();
             if ( !isNull ) {
                 this.value = extractor.getValueType().coerce( value.getValue() );
-                this.setHashCode( this.value != null ? this.value.hashCode() : 0 );
+                this.setHashCode( this.value != null ? hashOf( this.value ) : 0 );
             } else {
                 this.setHashCode( 0 );
             }
         }
 
+        /**
+         * The hashCode of an enum constant is its identity hash, which changes in every JVM, so it is replaced by
+         * a hash of its class and name that stays the same when the key is serialized and read somewhere else.
+         */
+        private static int hashOf(final Object value) {
+            if ( value instanceof Enum ) {
+                Enum<?> enumValue = (Enum<?>) value;
+                return 31 * enumValue.getDeclaringClass().getName().hashCode() + enumValue.name().hashCode();
+            }
+            return value.hashCode();
+        }
+
         private void setHashCode(final int hashSeed) {
             final int PRIME = 31;
             int result = 1;
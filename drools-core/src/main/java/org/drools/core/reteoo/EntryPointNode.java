@@ -40,6 +40,7 @@ import org.drools.core.common.PropagationContext;
 import org.drools.core.common.ReteEvaluator;
 import org.drools.core.impl.InternalRuleBase;
 import org.drools.base.phreak.PropagationEntry;
+import org.drools.core.phreak.actions.BatchedPropagation;
 import org.drools.core.phreak.actions.Delete;
 import org.drools.core.phreak.actions.Insert;
 import org.drools.core.phreak.actions.Update;
@@ -208,6 +209,21 @@ public class EntryPointNode extends ObjectSource implements ObjectSink {
     }
 
 
+    /**
+     * Propagates the inserts of a batch of facts. When the propagation has to be enqueued,
+     * the whole batch is added to the propagation list as a single entry.
+     */
+    public void assertObjects(final List<Insert> inserts,
+                              final ReteEvaluator reteEvaluator) {
+        if ( parallelExecution || !reteEvaluator.isThreadSafe() ) {
+            for (Insert insert : inserts) {
+                insert.execute( reteEvaluator );
+            }
+        } else if ( !inserts.isEmpty() ) {
+            reteEvaluator.addPropagation( new BatchedPropagation( inserts ) );
+        }
+    }
+
     public void modifyObject(final InternalFactHandle handle,
                              final PropagationContext pctx,
                              final ObjectTypeConf objectTypeConf,
@@ -223,6 +239,26 @@ public class EntryPointNode extends ObjectSource implements ObjectSink {
         }
     }
 
+    /**
+     * Propagates the updates of a batch of facts. When the propagation has to be enqueued,
+     * the whole batch is added to the propagation list as a single entry.
+     */
+    public void modifyObjects(final List<Update> updates,
+                              final ReteEvaluator reteEvaluator) {
+        if ( !reteEvaluator.isThreadSafe() ) {
+            for (Update update : updates) {
+                update.execute( reteEvaluator );
+            }
+        } else if ( parallelExecution ) {
+            // updates are split among the partitions by the composite agenda, so they have to be enqueued one by one
+            for (Update update : updates) {
+                reteEvaluator.addPropagation( update );
+            }
+        } else if ( !updates.isEmpty() ) {
+            reteEvaluator.addPropagation( new BatchedPropagation( updates ) );
+        }
+    }
+
     public static void removeRightTuplesMatchingOTN( PropagationContext pctx, ReteEvaluator reteEvaluator, ModifyPreviousTuples modifyPreviousTuples, ObjectTypeNode node, int partition ) {
         // remove any right tuples that matches the current OTN before continue the modify on the next OTN cache entry
         TupleImpl rightTuple = modifyPreviousTuples.peekRightTuple(partition);
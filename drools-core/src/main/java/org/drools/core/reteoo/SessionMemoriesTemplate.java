@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.reteoo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.drools.core.common.NodeMemories;
+import org.drools.core.common.SegmentMemorySupport;
+import org.drools.core.reteoo.SegmentMemory.SegmentPrototype;
+
+/**
+ * The flattened list of the path end nodes and segment roots of a rule base, computed once and then used
+ * to materialize all the path and segment memories of a session without walking the network.
+ * Each segment memory is restored from its prototype, copying the masks and positions precalculated at build time.
+ */
+public class SessionMemoriesTemplate {
+
+    private final PathEndNode[] pathEndNodes;
+    private final LeftTupleNode[] segmentRoots;
+
+    private SessionMemoriesTemplate(PathEndNode[] pathEndNodes, LeftTupleNode[] segmentRoots) {
+        this.pathEndNodes = pathEndNodes;
+        this.segmentRoots = segmentRoots;
+    }
+
+    public static SessionMemoriesTemplate create(Collection<TerminalNode[]> terminalNodes) {
+        List<PathEndNode> pathEndNodes = new ArrayList<>();
+        // a segment shared by many rules has to be materialized only once
+        Set<LeftTupleNode> segmentRoots = new LinkedHashSet<>();
+        for (TerminalNode[] tns : terminalNodes) {
+            for (TerminalNode tn : tns) {
+                pathEndNodes.add(tn);
+                SegmentPrototype[] segmentPrototypes = tn.getSegmentPrototypes();
+                if (segmentPrototypes != null) {
+                    for (SegmentPrototype segmentPrototype : segmentPrototypes) {
+                        segmentRoots.add(segmentPrototype.getRootNode());
+                    }
+                }
+            }
+        }
+        return new SessionMemoriesTemplate(pathEndNodes.toArray(new PathEndNode[pathEndNodes.size()]),
+                                           segmentRoots.toArray(new LeftTupleNode[segmentRoots.size()]));
+    }
+
+    public void materialize(NodeMemories nodeMemories, SegmentMemorySupport segmentMemorySupport) {
+        // the path memories are created first, so restoring a segment ending with a terminal node doesn't need to create it
+        for (PathEndNode pathEndNode : pathEndNodes) {
+            nodeMemories.getNodeMemory(pathEndNode);
+        }
+        for (LeftTupleNode segmentRoot : segmentRoots) {
+            segmentMemorySupport.getOrCreateSegmentMemory(segmentRoot);
+        }
+    }
+
+    public int getPathsCount() {
+        return pathEndNodes.length;
+    }
+
+    public int getSegmentsCount() {
+        return segmentRoots.length;
+    }
+}
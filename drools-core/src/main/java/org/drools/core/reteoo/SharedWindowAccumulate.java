@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.reteoo;
+
+import org.drools.base.base.ValueResolver;
+import org.drools.base.reteoo.BaseTuple;
+import org.drools.base.rule.Accumulate;
+import org.drools.base.rule.Declaration;
+import org.drools.base.rule.accessor.Accumulator;
+import org.drools.core.common.ReteEvaluator;
+import org.kie.api.runtime.rule.FactHandle;
+
+/**
+ * An accumulate fed directly by a window, whose result is read from the WindowAggregate kept by the
+ * WindowNode and shared by all the equal accumulates over that window. The matches are still tracked by
+ * the AccumulateNode, but accumulating and reversing them is a no-op.
+ */
+public class SharedWindowAccumulate extends Accumulate {
+
+    private final Accumulate delegate;
+    private final WindowNode windowNode;
+    private final int        aggregateIndex;
+
+    public SharedWindowAccumulate(Accumulate delegate, WindowNode windowNode, int aggregateIndex) {
+        super(delegate.getSource(), delegate.getRequiredDeclarations());
+        this.delegate = delegate;
+        this.windowNode = windowNode;
+        this.aggregateIndex = aggregateIndex;
+    }
+
+    /**
+     * Returns true if the result of the given accumulate can be calculated once for the whole window
+     */
+    public static boolean isSupported(Accumulate accumulate) {
+        return !accumulate.isGroupBy() && !accumulate.hasRequiredDeclarations() && WindowAggregate.isSupported(accumulate.getAccumulators());
+    }
+
+    public Accumulate getDelegate() {
+        return delegate;
+    }
+
+    public WindowNode getWindowNode() {
+        return windowNode;
+    }
+
+    public int getAggregateIndex() {
+        return aggregateIndex;
+    }
+
+    public Declaration[] getSourceDeclarations() {
+        return getInnerDeclarationCache();
+    }
+
+    @Override
+    public Accumulator[] getAccumulators() {
+        return delegate.getAccumulators();
+    }
+
+    @Override
+    public Object createFunctionContext() {
+        return delegate.createFunctionContext();
+    }
+
+    @Override
+    public Object init(Object workingMemoryContext, Object accContext, Object funcContext, BaseTuple leftTuple, ValueResolver valueResolver) {
+        return funcContext;
+    }
+
+    @Override
+    public Object accumulate(Object workingMemoryContext, Object context, BaseTuple match, FactHandle handle, ValueResolver valueResolver) {
+        // already accumulated by the WindowNode
+        return null;
+    }
+
+    @Override
+    public Object accumulate(Object workingMemoryContext, BaseTuple match, FactHandle childHandle,
+                             Object groupByContext, Object tupleList, ValueResolver valueResolver) {
+        throw new UnsupportedOperationException("This should never be called, it's for LambdaGroupByAccumulate only.");
+    }
+
+    @Override
+    public boolean tryReverse(Object workingMemoryContext, Object context, BaseTuple leftTuple, FactHandle handle, BaseTuple match, ValueResolver valueResolver) {
+        // already reversed by the WindowNode
+        return true;
+    }
+
+    @Override
+    public Object getResult(Object workingMemoryContext, Object context, BaseTuple leftTuple, ValueResolver valueResolver) {
+        ReteEvaluator reteEvaluator = (ReteEvaluator) valueResolver;
+        return windowNode.getAggregate(reteEvaluator.getNodeMemory(windowNode), aggregateIndex, reteEvaluator).getResult(reteEvaluator);
+    }
+
+    @Override
+    public boolean supportsReverse() {
+        return true;
+    }
+
+    @Override
+    public SharedWindowAccumulate clone() {
+        return new SharedWindowAccumulate(delegate.clone(), windowNode, aggregateIndex);
+    }
+
+    @Override
+    public Object createWorkingMemoryContext() {
+        return delegate.createWorkingMemoryContext();
+    }
+
+    @Override
+    public boolean isMultiFunction() {
+        return delegate.isMultiFunction();
+    }
+
+    @Override
+    public void replaceAccumulatorDeclaration(Declaration declaration, Declaration resolved) {
+        delegate.replaceAccumulatorDeclaration(declaration, resolved);
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode() * 31 + aggregateIndex;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof SharedWindowAccumulate)) {
+            return false;
+        }
+        SharedWindowAccumulate other = (SharedWindowAccumulate) obj;
+        return windowNode == other.windowNode && aggregateIndex == other.aggregateIndex && delegate.equals(other.delegate);
+    }
+}
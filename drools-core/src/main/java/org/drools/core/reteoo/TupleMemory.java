@@ -42,6 +42,14 @@ public interface TupleMemory {
      * the same as the context fact.
      */
     TupleImpl getFirst(TupleImpl tuple );
+
+    /**
+     * Returns the first tuple matching the given one, also preparing the iterator, obtained from this memory,
+     * to iterate only the tuples that can match it. Memories that don't narrow their iteration don't need to override this.
+     */
+    default TupleImpl getFirst(TupleImpl tuple, FastIterator<TupleImpl> it) {
+        return getFirst(tuple);
+    }
     
     void removeAdd(TupleImpl tuple );
 
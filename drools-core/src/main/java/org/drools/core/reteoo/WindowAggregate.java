@@ -0,0 +1,383 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.reteoo;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.drools.base.rule.Declaration;
+import org.drools.base.rule.accessor.Accumulator;
+import org.drools.core.base.accumulators.AverageAccumulateFunction;
+import org.drools.core.base.accumulators.BigDecimalAverageAccumulateFunction;
+import org.drools.core.base.accumulators.BigDecimalMaxAccumulateFunction;
+import org.drools.core.base.accumulators.BigDecimalMinAccumulateFunction;
+import org.drools.core.base.accumulators.BigDecimalSumAccumulateFunction;
+import org.drools.core.base.accumulators.BigIntegerMaxAccumulateFunction;
+import org.drools.core.base.accumulators.BigIntegerMinAccumulateFunction;
+import org.drools.core.base.accumulators.BigIntegerSumAccumulateFunction;
+import org.drools.core.base.accumulators.CountAccumulateFunction;
+import org.drools.core.base.accumulators.IntegerMaxAccumulateFunction;
+import org.drools.core.base.accumulators.IntegerMinAccumulateFunction;
+import org.drools.core.base.accumulators.IntegerSumAccumulateFunction;
+import org.drools.core.base.accumulators.LongMaxAccumulateFunction;
+import org.drools.core.base.accumulators.LongMinAccumulateFunction;
+import org.drools.core.base.accumulators.LongSumAccumulateFunction;
+import org.drools.core.base.accumulators.MaxAccumulateFunction;
+import org.drools.core.base.accumulators.MinAccumulateFunction;
+import org.drools.core.base.accumulators.NumericMaxAccumulateFunction;
+import org.drools.core.base.accumulators.NumericMinAccumulateFunction;
+import org.drools.core.base.accumulators.SumAccumulateFunction;
+import org.drools.core.common.InternalFactHandle;
+import org.drools.core.common.ReteEvaluator;
+import org.kie.api.runtime.rule.AccumulateFunction;
+
+/**
+ * The result of an accumulate over the events of a window, calculated once per window and shared by all
+ * the accumulate nodes fed by it.
+ * <p/>
+ * Sum, count and average are reversible, so each of them keeps a single function context updated when an
+ * event enters or leaves the window. Min and max cannot be reversed when the extreme value leaves the window,
+ * so the events are sliced in panes of at most PANE_SIZE events, each one with its own function context:
+ * only the pane containing the removed extreme is recalculated, and the result for the whole window is the
+ * extreme among the results of its panes.
+ */
+public class WindowAggregate {
+
+    static final int PANE_SIZE = 64;
+
+    enum FunctionKind {
+        REVERSIBLE, MIN, MAX
+    }
+
+    private static final Map<Class<?>, FunctionKind> SUPPORTED_FUNCTIONS = Map.ofEntries(
+            Map.entry(CountAccumulateFunction.class, FunctionKind.REVERSIBLE),
+            Map.entry(SumAccumulateFunction.class, FunctionKind.REVERSIBLE),
+            Map.entry(IntegerSumAccumulateFunction.class, FunctionKind.REVERSIBLE),
+            Map.entry(LongSumAccumulateFunction.class, FunctionKind.REVERSIBLE),
+            Map.entry(BigDecimalSumAccumulateFunction.class, FunctionKind.REVERSIBLE),
+            Map.entry(BigIntegerSumAccumulateFunction.class, FunctionKind.REVERSIBLE),
+            Map.entry(AverageAccumulateFunction.class, FunctionKind.REVERSIBLE),
+            Map.entry(BigDecimalAverageAccumulateFunction.class, FunctionKind.REVERSIBLE),
+            Map.entry(MinAccumulateFunction.class, FunctionKind.MIN),
+            Map.entry(IntegerMinAccumulateFunction.class, FunctionKind.MIN),
+            Map.entry(LongMinAccumulateFunction.class, FunctionKind.MIN),
+            Map.entry(NumericMinAccumulateFunction.class, FunctionKind.MIN),
+            Map.entry(BigDecimalMinAccumulateFunction.class, FunctionKind.MIN),
+            Map.entry(BigIntegerMinAccumulateFunction.class, FunctionKind.MIN),
+            Map.entry(MaxAccumulateFunction.class, FunctionKind.MAX),
+            Map.entry(IntegerMaxAccumulateFunction.class, FunctionKind.MAX),
+            Map.entry(LongMaxAccumulateFunction.class, FunctionKind.MAX),
+            Map.entry(NumericMaxAccumulateFunction.class, FunctionKind.MAX),
+            Map.entry(BigDecimalMaxAccumulateFunction.class, FunctionKind.MAX),
+            Map.entry(BigIntegerMaxAccumulateFunction.class, FunctionKind.MAX));
+
+    private final SharedWindowAccumulate accumulate;
+    private final Accumulator[]   accumulators;
+    private final FunctionKind[]  kinds;
+    private final Declaration[]   requiredDeclarations;
+    private final Declaration[]   innerDeclarations;
+    private final boolean         multiFunction;
+
+    private final Object[]        workingMemoryContexts;
+    // the function contexts of the reversible functions, null for min and max
+    private final Object[]        contexts;
+    private final Object[]        results;
+    private final boolean[]       dirty;
+
+    private final Map<InternalFactHandle, Entry> entries = new IdentityHashMap<>();
+    private Pane firstPane;
+    private Pane lastPane;
+
+    public WindowAggregate(SharedWindowAccumulate accumulate, ReteEvaluator reteEvaluator) {
+        this.accumulate = accumulate;
+        this.accumulators = accumulate.getAccumulators();
+        this.requiredDeclarations = accumulate.getRequiredDeclarations();
+        this.innerDeclarations = accumulate.getSourceDeclarations();
+        this.multiFunction = accumulate.isMultiFunction();
+
+        this.kinds = new FunctionKind[accumulators.length];
+        this.workingMemoryContexts = new Object[accumulators.length];
+        this.contexts = new Object[accumulators.length];
+        this.results = new Object[accumulators.length];
+        this.dirty = new boolean[accumulators.length];
+        for (int i = 0; i < accumulators.length; i++) {
+            kinds[i] = getFunctionKind(accumulators[i]);
+            workingMemoryContexts[i] = accumulators[i].createWorkingMemoryContext();
+            if (kinds[i] == FunctionKind.REVERSIBLE) {
+                contexts[i] = initContext(i, reteEvaluator);
+            }
+            dirty[i] = true;
+        }
+    }
+
+    public SharedWindowAccumulate getAccumulate() {
+        return accumulate;
+    }
+
+    /**
+     * Returns true if all the functions of the given accumulators can be calculated by a WindowAggregate
+     */
+    public static boolean isSupported(Accumulator[] accumulators) {
+        for (Accumulator accumulator : accumulators) {
+            if (getFunctionKind(accumulator) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static FunctionKind getFunctionKind(Accumulator accumulator) {
+        AccumulateFunction function = accumulator.getAccumulateFunction();
+        return function != null ? SUPPORTED_FUNCTIONS.get(function.getClass()) : null;
+    }
+
+    public void addAll(Collection<? extends InternalFactHandle> handles, ReteEvaluator reteEvaluator) {
+        for (InternalFactHandle handle : handles) {
+            add(handle, reteEvaluator);
+        }
+    }
+
+    public void add(InternalFactHandle handle, ReteEvaluator reteEvaluator) {
+        if (entries.containsKey(handle)) {
+            return;
+        }
+
+        Pane pane = lastPane;
+        if (pane == null || pane.added == PANE_SIZE) {
+            pane = new Pane(accumulators.length);
+            if (lastPane == null) {
+                firstPane = pane;
+            } else {
+                lastPane.next = pane;
+                pane.previous = lastPane;
+            }
+            lastPane = pane;
+        }
+
+        Entry entry = new Entry(handle, accumulators.length);
+        pane.addEntry(entry);
+        entries.put(handle, entry);
+
+        for (int i = 0; i < accumulators.length; i++) {
+            if (kinds[i] == FunctionKind.REVERSIBLE) {
+                entry.values[i] = accumulate(i, contexts[i], handle, reteEvaluator);
+                dirty[i] = true;
+            } else {
+                if (pane.contexts[i] == null) {
+                    pane.contexts[i] = initContext(i, reteEvaluator);
+                }
+                entry.values[i] = accumulate(i, pane.contexts[i], handle, reteEvaluator);
+                pane.results[i] = accumulators[i].getResult(workingMemoryContexts[i], pane.contexts[i], null, requiredDeclarations, reteEvaluator);
+                if (!dirty[i]) {
+                    results[i] = extreme(kinds[i], results[i], pane.results[i]);
+                }
+            }
+        }
+    }
+
+    public void remove(InternalFactHandle handle, ReteEvaluator reteEvaluator) {
+        Entry entry = entries.remove(handle);
+        if (entry == null) {
+            return;
+        }
+
+        Pane pane = entry.pane;
+        pane.removeEntry(entry);
+
+        for (int i = 0; i < accumulators.length; i++) {
+            if (kinds[i] == FunctionKind.REVERSIBLE) {
+                if (!accumulators[i].tryReverse(workingMemoryContexts[i], contexts[i], null, handle, entry.values[i],
+                                                requiredDeclarations, innerDeclarations, reteEvaluator)) {
+                    contexts[i] = initContext(i, reteEvaluator);
+                    for (Pane p = firstPane; p != null; p = p.next) {
+                        reaccumulate(i, contexts[i], p, reteEvaluator);
+                    }
+                }
+                dirty[i] = true;
+            } else if (pane.size == 0) {
+                pane.contexts[i] = null;
+                pane.results[i] = null;
+                dirty[i] = true;
+            } else if (!accumulators[i].tryReverse(workingMemoryContexts[i], pane.contexts[i], null, handle, entry.values[i],
+                                                   requiredDeclarations, innerDeclarations, reteEvaluator)) {
+                // the removed value was the extreme of its pane, so only that pane has to be recalculated
+                pane.contexts[i] = initContext(i, reteEvaluator);
+                reaccumulate(i, pane.contexts[i], pane, reteEvaluator);
+                pane.results[i] = accumulators[i].getResult(workingMemoryContexts[i], pane.contexts[i], null, requiredDeclarations, reteEvaluator);
+                dirty[i] = true;
+            }
+        }
+
+        if (pane.size == 0) {
+            unlink(pane);
+        }
+    }
+
+    public Object getResult(ReteEvaluator reteEvaluator) {
+        if (!multiFunction) {
+            return getResult(0, reteEvaluator);
+        }
+        Object[] functionResults = new Object[accumulators.length];
+        for (int i = 0; i < accumulators.length; i++) {
+            functionResults[i] = getResult(i, reteEvaluator);
+        }
+        return functionResults;
+    }
+
+    private Object getResult(int i, ReteEvaluator reteEvaluator) {
+        if (dirty[i]) {
+            if (kinds[i] == FunctionKind.REVERSIBLE) {
+                results[i] = accumulators[i].getResult(workingMemoryContexts[i], contexts[i], null, requiredDeclarations, reteEvaluator);
+            } else if (firstPane == null) {
+                results[i] = accumulators[i].getResult(workingMemoryContexts[i], initContext(i, reteEvaluator), null, requiredDeclarations, reteEvaluator);
+            } else {
+                Object result = null;
+                for (Pane pane = firstPane; pane != null; pane = pane.next) {
+                    result = extreme(kinds[i], result, pane.results[i]);
+                }
+                results[i] = result;
+            }
+            dirty[i] = false;
+        }
+        return results[i];
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    int getPaneCount() {
+        int count = 0;
+        for (Pane pane = firstPane; pane != null; pane = pane.next) {
+            count++;
+        }
+        return count;
+    }
+
+    private Object initContext(int i, ReteEvaluator reteEvaluator) {
+        return accumulators[i].init(workingMemoryContexts[i], accumulators[i].createContext(), null, requiredDeclarations, reteEvaluator);
+    }
+
+    private Object accumulate(int i, Object context, InternalFactHandle handle, ReteEvaluator reteEvaluator) {
+        return accumulators[i].accumulate(workingMemoryContexts[i], context, null, handle, requiredDeclarations, innerDeclarations, reteEvaluator);
+    }
+
+    private void reaccumulate(int i, Object context, Pane pane, ReteEvaluator reteEvaluator) {
+        for (Entry entry = pane.firstEntry; entry != null; entry = entry.next) {
+            entry.values[i] = accumulate(i, context, entry.handle, reteEvaluator);
+        }
+    }
+
+    private void unlink(Pane pane) {
+        if (pane.previous == null) {
+            firstPane = pane.next;
+        } else {
+            pane.previous.next = pane.next;
+        }
+        if (pane.next == null) {
+            lastPane = pane.previous;
+        } else {
+            pane.next.previous = pane.previous;
+        }
+        pane.previous = null;
+        pane.next = null;
+    }
+
+    private static Object extreme(FunctionKind kind, Object current, Object candidate) {
+        if (current == null) {
+            return candidate;
+        }
+        if (candidate == null) {
+            return current;
+        }
+        int comparison = compare(candidate, current);
+        return (kind == FunctionKind.MAX ? comparison > 0 : comparison < 0) ? candidate : current;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object o1, Object o2) {
+        if (o1 instanceof Number n1 && o2 instanceof Number n2 && o1.getClass() != o2.getClass()) {
+            // the numeric min and max functions return the accumulated numbers as they are
+            return Double.compare(n1.doubleValue(), n2.doubleValue());
+        }
+        return ((Comparable<Object>) o1).compareTo(o2);
+    }
+
+    private static class Pane {
+        private final Object[] contexts;
+        private final Object[] results;
+
+        private Entry firstEntry;
+        private Entry lastEntry;
+        private int   added;
+        private int   size;
+
+        private Pane previous;
+        private Pane next;
+
+        private Pane(int functions) {
+            this.contexts = new Object[functions];
+            this.results = new Object[functions];
+        }
+
+        private void addEntry(Entry entry) {
+            entry.pane = this;
+            if (lastEntry == null) {
+                firstEntry = entry;
+            } else {
+                lastEntry.next = entry;
+                entry.previous = lastEntry;
+            }
+            lastEntry = entry;
+            added++;
+            size++;
+        }
+
+        private void removeEntry(Entry entry) {
+            if (entry.previous == null) {
+                firstEntry = entry.next;
+            } else {
+                entry.previous.next = entry.next;
+            }
+            if (entry.next == null) {
+                lastEntry = entry.previous;
+            } else {
+                entry.next.previous = entry.previous;
+            }
+            entry.previous = null;
+            entry.next = null;
+            size--;
+        }
+    }
+
+    private static class Entry {
+        private final InternalFactHandle handle;
+        private final Object[]           values;
+
+        private Pane  pane;
+        private Entry previous;
+        private Entry next;
+
+        private Entry(InternalFactHandle handle, int functions) {
+            this.handle = handle;
+            this.values = new Object[functions];
+        }
+    }
+}
@@ -18,13 +18,16 @@
  */
 package org.drools.core.reteoo;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 
 import org.drools.base.base.ObjectType;
 import org.drools.base.reteoo.NodeTypeEnums;
+import org.drools.base.rule.Accumulate;
 import org.drools.base.rule.EntryPointId;
 import org.drools.base.rule.Pattern;
 import org.drools.base.rule.constraint.AlphaNodeFieldConstraint;
@@ -41,6 +44,7 @@ import org.drools.core.reteoo.builder.BuildContext;
 import org.drools.core.rule.BehaviorContext;
 import org.drools.core.rule.BehaviorManager;
 import org.drools.core.rule.BehaviorRuntime;
+import org.drools.core.rule.SlidingLengthWindow;
 import org.drools.core.rule.SlidingTimeWindow;
 import org.drools.util.bitmask.BitMask;
 
@@ -68,6 +72,11 @@ public class WindowNode extends ObjectSource
 
     private ObjectTypeNodeId rightInputOtnId = ObjectTypeNodeId.DEFAULT_ID;
 
+    // the accumulates whose result is calculated by this node, null for the slots freed by removed rules
+    private final List<SharedAccumulateSlot> sharedAccumulates = new ArrayList<>();
+    // incremented when a shared accumulate is added or removed, so the memories can align their aggregates lazily
+    private int sharedAccumulatesVersion;
+
     public WindowNode() {
     }
 
@@ -97,6 +106,8 @@ public class WindowNode extends ObjectSource
         for ( BehaviorRuntime b :  behaviors ) {
             if ( b instanceof SlidingTimeWindow ) {
                 ((SlidingTimeWindow)b).setWindowNode( this );
+            } else if ( b instanceof SlidingLengthWindow ) {
+                ((SlidingLengthWindow)b).setWindowNode( this );
             }
         }
         hashcode = calculateHashCode();
@@ -148,6 +159,7 @@ public class WindowNode extends ObjectSource
         if (!behavior.assertFact(memory.behaviorContext, clonedFh, pctx, reteEvaluator)) {
             return;
         }
+        addToAggregates(memory, clonedFh, reteEvaluator);
 
         this.sink.propagateAssertObject(clonedFh, pctx, reteEvaluator);
     }
@@ -159,6 +171,7 @@ public class WindowNode extends ObjectSource
             // longer in use since an incremental update could have concurrently removed it
             WindowMemory memory = reteEvaluator.getNodeMemory( this );
             behavior.retractFact( memory.behaviorContext, rightTuple.getFactHandle(), pctx, reteEvaluator );
+            removeFromAggregates( memory, ( InternalFactHandle ) rightTuple.getContextObject(), reteEvaluator );
         }
 
         InternalFactHandle clonedFh = ( InternalFactHandle ) rightTuple.getContextObject();
@@ -180,6 +193,14 @@ public class WindowNode extends ObjectSource
             }
         }
 
+        if ( !sharedAccumulates.isEmpty() ) {
+            WindowMemory memory = reteEvaluator.getNodeMemory( this );
+            removeFromAggregates( memory, cloneFactHandle, reteEvaluator );
+            if ( isAllowed ) {
+                addToAggregates( memory, cloneFactHandle, reteEvaluator );
+            }
+        }
+
         if  ( isAllowed ) {
             ModifyPreviousTuples modifyPreviousTuples = new ModifyPreviousTuples(cloneFactHandle.detachLinkedTuples() );
 
@@ -216,6 +237,117 @@ public class WindowNode extends ObjectSource
         }
     }
 
+    /**
+     * Retracts an event leaving the window from the network
+     */
+    public void expireFact(final InternalFactHandle clonedFh,
+                           final PropagationContext pctx,
+                           final ReteEvaluator reteEvaluator) {
+        if ( !sharedAccumulates.isEmpty() ) {
+            removeFromAggregates( reteEvaluator.getNodeMemory( this ), clonedFh, reteEvaluator );
+        }
+        ObjectTypeNode.doRetractObject( clonedFh, pctx, reteEvaluator );
+    }
+
+    /**
+     * Returns an accumulate fed by this window whose result is calculated by this node, once for all the
+     * accumulates equal to the given one
+     */
+    public SharedWindowAccumulate shareAccumulate(Accumulate accumulate) {
+        int freeSlot = -1;
+        for (int i = 0; i < sharedAccumulates.size(); i++) {
+            SharedAccumulateSlot slot = sharedAccumulates.get(i);
+            if (slot == null) {
+                freeSlot = freeSlot < 0 ? i : freeSlot;
+            } else if (slot.accumulate.getDelegate().equals(accumulate)) {
+                return new SharedWindowAccumulate(accumulate, this, i);
+            }
+        }
+        int aggregateIndex = freeSlot >= 0 ? freeSlot : sharedAccumulates.size();
+        SharedWindowAccumulate shared = new SharedWindowAccumulate(accumulate, this, aggregateIndex);
+        if (freeSlot >= 0) {
+            sharedAccumulates.set(freeSlot, new SharedAccumulateSlot(shared));
+        } else {
+            sharedAccumulates.add(new SharedAccumulateSlot(shared));
+        }
+        sharedAccumulatesVersion++;
+        return shared;
+    }
+
+    /**
+     * Registers an AccumulateNode attached to the network and reading the result of the given shared accumulate
+     */
+    public void attachSharedAccumulate(SharedWindowAccumulate accumulate) {
+        sharedAccumulates.get(accumulate.getAggregateIndex()).users++;
+    }
+
+    /**
+     * Unregisters an AccumulateNode removed from the network: when no node reads the result of the given shared
+     * accumulate anymore, it stops being calculated and its slot can be reused by another accumulate
+     */
+    public void detachSharedAccumulate(SharedWindowAccumulate accumulate) {
+        int aggregateIndex = accumulate.getAggregateIndex();
+        SharedAccumulateSlot slot = sharedAccumulates.get(aggregateIndex);
+        if (slot != null && --slot.users <= 0) {
+            sharedAccumulates.set(aggregateIndex, null);
+            while (!sharedAccumulates.isEmpty() && sharedAccumulates.get(sharedAccumulates.size() - 1) == null) {
+                sharedAccumulates.remove(sharedAccumulates.size() - 1);
+            }
+            sharedAccumulatesVersion++;
+        }
+    }
+
+    public WindowAggregate getAggregate(WindowMemory memory, int aggregateIndex, ReteEvaluator reteEvaluator) {
+        if (memory.sharedAccumulatesVersion != sharedAccumulatesVersion) {
+            alignAggregates(memory, reteEvaluator);
+        }
+        return memory.aggregates[aggregateIndex];
+    }
+
+    private void addToAggregates(WindowMemory memory, InternalFactHandle clonedFh, ReteEvaluator reteEvaluator) {
+        boolean aligned = memory.sharedAccumulatesVersion == sharedAccumulatesVersion;
+        WindowAggregate[] aggregates = memory.aggregates;
+        for (int i = 0; i < aggregates.length; i++) {
+            if (aggregates[i] != null && (aligned || isCurrent(aggregates[i], i))) {
+                aggregates[i].add(clonedFh, reteEvaluator);
+            }
+        }
+    }
+
+    private void removeFromAggregates(WindowMemory memory, InternalFactHandle clonedFh, ReteEvaluator reteEvaluator) {
+        boolean aligned = memory.sharedAccumulatesVersion == sharedAccumulatesVersion;
+        WindowAggregate[] aggregates = memory.aggregates;
+        for (int i = 0; i < aggregates.length; i++) {
+            if (aggregates[i] != null && (aligned || isCurrent(aggregates[i], i))) {
+                aggregates[i].remove(clonedFh, reteEvaluator);
+            }
+        }
+    }
+
+    private boolean isCurrent(WindowAggregate aggregate, int aggregateIndex) {
+        SharedAccumulateSlot slot = aggregateIndex < sharedAccumulates.size() ? sharedAccumulates.get(aggregateIndex) : null;
+        return slot != null && aggregate.getAccumulate() == slot.accumulate;
+    }
+
+    private void alignAggregates(WindowMemory memory, ReteEvaluator reteEvaluator) {
+        // the aggregates of the removed accumulates are dropped, while the ones of the accumulates added after
+        // the creation of the memory are initialized with the events already in the window
+        WindowAggregate[] aggregates = Arrays.copyOf(memory.aggregates, sharedAccumulates.size());
+        for (int i = 0; i < aggregates.length; i++) {
+            SharedAccumulateSlot slot = sharedAccumulates.get(i);
+            if (slot == null) {
+                aggregates[i] = null;
+            } else if (aggregates[i] == null || aggregates[i].getAccumulate() != slot.accumulate) {
+                aggregates[i] = new WindowAggregate(slot.accumulate, reteEvaluator);
+                for (BehaviorContext ctx : memory.behaviorContext) {
+                    aggregates[i].addAll(ctx.getFactHandles(), reteEvaluator);
+                }
+            }
+        }
+        memory.aggregates = aggregates;
+        memory.sharedAccumulatesVersion = sharedAccumulatesVersion;
+    }
+
     public void byPassModifyToBetaNode(InternalFactHandle factHandle,
                                        ModifyPreviousTuples modifyPreviousTuples,
                                        PropagationContext context,
@@ -236,6 +368,12 @@ public class WindowNode extends ObjectSource
     public WindowMemory createMemory(final RuleBaseConfiguration config, ReteEvaluator reteEvaluator) {
         WindowMemory memory = new WindowMemory();
         memory.behaviorContext = this.behavior.createBehaviorContext();
+        memory.aggregates = new WindowAggregate[sharedAccumulates.size()];
+        for (int i = 0; i < memory.aggregates.length; i++) {
+            SharedAccumulateSlot slot = sharedAccumulates.get(i);
+            memory.aggregates[i] = slot != null ? new WindowAggregate(slot.accumulate, reteEvaluator) : null;
+        }
+        memory.sharedAccumulatesVersion = sharedAccumulatesVersion;
         return memory;
     }
 
@@ -305,8 +443,20 @@ public class WindowNode extends ObjectSource
         throw new UnsupportedOperationException();
     }
 
+    private static class SharedAccumulateSlot implements Serializable {
+        private final SharedWindowAccumulate accumulate;
+        // the number of AccumulateNodes in the network reading the result of this accumulate
+        private int users;
+
+        private SharedAccumulateSlot(SharedWindowAccumulate accumulate) {
+            this.accumulate = accumulate;
+        }
+    }
+
     public static class WindowMemory implements Memory {
         public BehaviorContext[] behaviorContext;
+        public WindowAggregate[] aggregates;
+        private int sharedAccumulatesVersion;
 
         public int getNodeType() {
             return NodeTypeEnums.WindowNode;
@@ -29,7 +29,9 @@ import org.drools.core.common.BetaConstraints;
 import org.drools.core.reteoo.AccumulateNode;
 import org.drools.core.reteoo.CoreComponentFactory;
 import org.drools.core.reteoo.LeftTupleSource;
+import org.drools.core.reteoo.SharedWindowAccumulate;
 import org.drools.core.reteoo.TupleToObjectNode;
+import org.drools.core.reteoo.WindowNode;
 import org.drools.base.rule.constraint.BetaConstraint;
 
 public class AccumulateBuilder
@@ -95,13 +97,22 @@ public class AccumulateBuilder
                                                                              context.getBetaconstraints(),
                                                                              false );
 
+        Accumulate nodeAccumulate = accumulate;
+        if ( context.getRuleBase().getRuleBaseConfiguration().isSharedWindowAggregates() &&
+             context.getObjectSource() instanceof WindowNode windowNode &&
+             context.getBetaconstraints().isEmpty() &&
+             SharedWindowAccumulate.isSupported( accumulate ) ) {
+            // the accumulate is fed directly by a window, so its result can be calculated once by the window itself
+            nodeAccumulate = windowNode.shareAccumulate( accumulate );
+        }
+
         AccumulateNode accNode = nfactory.buildAccumulateNode(context.getNextNodeId(),
                                                               context.getTupleSource(),
                                                               context.getObjectSource(),
                                                               resultAlphaConstraints.toArray(new AlphaNodeFieldConstraint[resultAlphaConstraints.size()]),
                                                               sourceBinder,
                                                               resultsBinder,
-                                                              accumulate,
+                                                              nodeAccumulate,
                                                               context);
 
         context.setTupleSource( utils.attachNode( context, accNode ) );
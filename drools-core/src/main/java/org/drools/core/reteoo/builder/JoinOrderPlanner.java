@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.reteoo.builder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.drools.base.InitialFact;
+import org.drools.base.definitions.InternalKnowledgePackage;
+import org.drools.base.definitions.rule.impl.RuleImpl;
+import org.drools.base.rule.Declaration;
+import org.drools.base.rule.EntryPointId;
+import org.drools.base.rule.GroupElement;
+import org.drools.base.rule.Pattern;
+import org.drools.base.rule.RuleConditionElement;
+import org.drools.core.impl.InternalRuleBase;
+import org.drools.core.reteoo.LeftTupleSource;
+import org.drools.core.reteoo.TerminalNode;
+import org.kie.api.definition.rule.Rule;
+import org.kie.internal.conf.JoinReorderingOption;
+
+/**
+ * Reorders the patterns of the rules of a KieBase using the cardinalities and selectivities recorded
+ * in a {@link JoinStatistics}, so that the joins producing the fewest partial matches are evaluated first.
+ *
+ * Only consecutive plain patterns of the top level AND of a rule are moved, any other condition element
+ * (not, exists, eval, from, accumulate, named consequences ...) keeps its position and delimits the groups of patterns
+ * that can be reordered. A pattern is never moved before the patterns binding the declarations it uses. The plan is a
+ * greedy left-deep one: at each step the pattern minimizing the estimated number of partial matches is joined next,
+ * and the new order is kept only if its estimated total of partial matches is lower than the one of the original order.
+ */
+public class JoinOrderPlanner {
+
+    private JoinOrderPlanner() { }
+
+    /**
+     * Rebuilds, with the join order planned from the given statistics, the rules of the KieBase that have a single
+     * subrule and share none of their beta nodes with other rules. Rules compiled from a DRL dialect are skipped because
+     * their generated consequences, evals and jitted constraints hardcode the position of each fact in the tuple. The rules are removed and added back to the KieBase,
+     * so the sessions already created from it repopulate the memories of the rebuilt rules as for any incremental update.
+     *
+     * @return the rules that have been rebuilt
+     */
+    public static List<RuleImpl> reorderJoins(InternalRuleBase kBase, JoinStatistics statistics) {
+        if (!kBase.getRuleBaseConfiguration().isJoinReordering()) {
+            throw new IllegalStateException("Join reordering is not enabled for this KieBase, please set " + JoinReorderingOption.PROPERTY_NAME + " to true");
+        }
+
+        Map<RuleImpl, List<RuleConditionElement>> plans = new LinkedHashMap<>();
+        for (InternalKnowledgePackage pkg : kBase.getPackages()) {
+            for (Rule r : pkg.getRules()) {
+                RuleImpl rule = (RuleImpl) r;
+                if (isReorderable(kBase, rule)) {
+                    List<RuleConditionElement> plan = planJoinOrder(rule, rule.getLhs(), statistics);
+                    if (plan != null) {
+                        plans.put(rule, plan);
+                    }
+                }
+            }
+        }
+
+        if (plans.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<RuleImpl> rules = new ArrayList<>(plans.keySet());
+        kBase.removeRules(rules);
+        for (Map.Entry<RuleImpl, List<RuleConditionElement>> entry : plans.entrySet()) {
+            List<RuleConditionElement> children = entry.getKey().getLhs().getChildren();
+            children.clear();
+            children.addAll(entry.getValue());
+        }
+        kBase.addRules(rules);
+        return rules;
+    }
+
+    private static boolean isReorderable(InternalRuleBase kBase, RuleImpl rule) {
+        if (rule.isQuery() || rule.getParent() != null || rule.hasChildren() || !rule.getLhs().isAnd() || rule.getDialect() != null) {
+            return false;
+        }
+        TerminalNode[] terminalNodes = kBase.getReteooBuilder().getTerminalNodes(rule.getFullyQualifiedName());
+        if (terminalNodes == null || terminalNodes.length != 1) {
+            return false;
+        }
+        for (LeftTupleSource node = terminalNodes[0].getLeftTupleSource(); node != null; node = node.getLeftTupleSource()) {
+            if (node.getAssociatedTerminalsSize() > 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Plans the join order of the children of the given AND group element of the given rule.
+     *
+     * @return the reordered children, or null if the current order is already the best one or there aren't
+     * enough statistics to decide
+     */
+    public static List<RuleConditionElement> planJoinOrder(RuleImpl rule, GroupElement and, JoinStatistics statistics) {
+        List<RuleConditionElement> children = and.getChildren();
+        List<RuleConditionElement> plan = new ArrayList<>(children.size());
+        Set<String> bound = new HashSet<>();
+        boolean changed = false;
+
+        int i = 0;
+        while (i < children.size()) {
+            int runEnd = i;
+            while (runEnd < children.size() && isReorderable(children.get(runEnd))) {
+                runEnd++;
+            }
+
+            if (runEnd - i > 1) {
+                List<Pattern> run = new ArrayList<>(runEnd - i);
+                for (RuleConditionElement child : children.subList(i, runEnd)) {
+                    run.add((Pattern) child);
+                }
+                List<Pattern> ordered = planRun(rule, run, bound, statistics);
+                changed |= ordered != run;
+                for (Pattern pattern : ordered) {
+                    plan.add(pattern);
+                    bound.addAll(pattern.getOuterDeclarations().keySet());
+                }
+                i = runEnd;
+            } else {
+                RuleConditionElement child = children.get(i);
+                plan.add(child);
+                bound.addAll(child.getOuterDeclarations().keySet());
+                i++;
+            }
+        }
+
+        return changed ? plan : null;
+    }
+
+    private static boolean isReorderable(RuleConditionElement element) {
+        if (!(element instanceof Pattern pattern)) {
+            return false;
+        }
+        return (pattern.getSource() == null || pattern.getSource() instanceof EntryPointId) &&
+                !pattern.isPassive() &&
+                !pattern.hasXPath() &&
+                pattern.getBehaviors().isEmpty() &&
+                !pattern.getObjectType().isAssignableTo(InitialFact.class);
+    }
+
+    private static List<Pattern> planRun(RuleImpl rule, List<Pattern> run, Set<String> bound, JoinStatistics statistics) {
+        for (Pattern pattern : run) {
+            if (statistics.getCardinality(rule, pattern) < 0) {
+                return run;
+            }
+        }
+
+        List<Pattern> remaining = new ArrayList<>(run);
+        List<Pattern> ordered = new ArrayList<>(run.size());
+        Set<String> planBound = new HashSet<>(bound);
+        double partialMatches = 1.0;
+        while (!remaining.isEmpty()) {
+            Pattern best = null;
+            double bestPartialMatches = 0;
+            for (Pattern candidate : remaining) {
+                if (!planBound.containsAll(requiredIdentifiers(candidate))) {
+                    continue;
+                }
+                double candidatePartialMatches = partialMatches * statistics.getCardinality(rule, candidate) * statistics.getSelectivity(rule, candidate);
+                if (best == null || candidatePartialMatches < bestPartialMatches) {
+                    best = candidate;
+                    bestPartialMatches = candidatePartialMatches;
+                }
+            }
+            if (best == null) {
+                // unresolvable declarations, leave the rule as it is
+                return run;
+            }
+            remaining.remove(best);
+            ordered.add(best);
+            planBound.addAll(best.getOuterDeclarations().keySet());
+            partialMatches = bestPartialMatches;
+        }
+
+        return estimateCost(rule, ordered, statistics) < estimateCost(rule, run, statistics) ? ordered : run;
+    }
+
+    private static double estimateCost(RuleImpl rule, List<Pattern> patterns, JoinStatistics statistics) {
+        double cost = 0;
+        double partialMatches = 1.0;
+        for (Pattern pattern : patterns) {
+            partialMatches *= statistics.getCardinality(rule, pattern) * statistics.getSelectivity(rule, pattern);
+            cost += partialMatches;
+        }
+        return cost;
+    }
+
+    private static Set<String> requiredIdentifiers(Pattern pattern) {
+        Set<String> required = new HashSet<>();
+        for (Declaration declaration : pattern.getRequiredDeclarations()) {
+            required.add(declaration.getIdentifier());
+        }
+        required.removeAll(pattern.getDeclarations().keySet());
+        return required;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.reteoo.builder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.drools.base.definitions.rule.impl.RuleImpl;
+import org.drools.base.reteoo.NodeTypeEnums;
+import org.drools.base.rule.Pattern;
+import org.drools.base.rule.RuleConditionElement;
+import org.drools.base.util.FastIterator;
+import org.drools.core.common.Memory;
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.impl.InternalRuleBase;
+import org.drools.core.reteoo.BetaMemory;
+import org.drools.core.reteoo.BetaNode;
+import org.drools.core.reteoo.LeftTupleSource;
+import org.drools.core.reteoo.TerminalNode;
+import org.drools.core.reteoo.TupleImpl;
+import org.drools.core.reteoo.TupleMemory;
+
+/**
+ * Cardinality and selectivity of the patterns joined by the rules of a KieBase, as observed in the beta memories
+ * of one or more sessions. For each pattern joined by a JoinNode the statistics record how many facts reached
+ * its right memory and which fraction of the left and right combinations produced a match, while the first pattern
+ * of a rule takes its cardinality from the left memory of the node following it.
+ *
+ * The statistics are keyed by rule and pattern id, so they remain valid when the rule is rebuilt with a different
+ * join order. They are consumed by the {@link JoinOrderPlanner}.
+ */
+public class JoinStatistics {
+
+    private final Map<PatternKey, PatternStatistics> patterns = new HashMap<>();
+
+    /**
+     * Adds the sizes of the beta memories currently held by the given session to these statistics.
+     */
+    public synchronized JoinStatistics collect(ReteEvaluator reteEvaluator) {
+        InternalRuleBase kBase = reteEvaluator.getKnowledgeBase();
+        for (TerminalNode[] terminalNodes : kBase.getReteooBuilder().getTerminalNodes().values()) {
+            for (TerminalNode terminalNode : terminalNodes) {
+                collect(reteEvaluator, terminalNode);
+            }
+        }
+        return this;
+    }
+
+    private void collect(ReteEvaluator reteEvaluator, TerminalNode terminalNode) {
+        RuleImpl rule = terminalNode.getRule();
+        if (rule.isQuery()) {
+            return;
+        }
+        for (LeftTupleSource node = terminalNode.getLeftTupleSource(); node != null; node = node.getLeftTupleSource()) {
+            if (node.getType() != NodeTypeEnums.JoinNode) {
+                continue;
+            }
+            Memory memory = reteEvaluator.getNodeMemories().peekNodeMemory(node);
+            if (!(memory instanceof BetaMemory)) {
+                continue;
+            }
+            BetaMemory<?> betaMemory = (BetaMemory<?>) memory;
+            TupleMemory leftMemory = betaMemory.getLeftTupleMemory();
+            TupleMemory rightMemory = betaMemory.getRightTupleMemory();
+            if (leftMemory == null || rightMemory == null) {
+                continue;
+            }
+
+            Pattern pattern = findPattern(terminalNode, node.getPathIndex());
+            if (pattern != null) {
+                getOrCreate(rule, pattern).addJoin(leftMemory.size(), rightMemory.size(), countMatches((BetaNode) node, leftMemory));
+            }
+            if (node.getLeftTupleSource().getType() == NodeTypeEnums.LeftInputAdapterNode) {
+                Pattern firstPattern = findPattern(terminalNode, 0);
+                if (firstPattern != null) {
+                    getOrCreate(rule, firstPattern).addCardinality(leftMemory.size());
+                }
+            }
+        }
+    }
+
+    private static long countMatches(BetaNode node, TupleMemory leftMemory) {
+        long matches = 0;
+        FastIterator<TupleImpl> it = leftMemory.fullFastIterator();
+        for (TupleImpl leftTuple = BetaNode.getFirstTuple(leftMemory, it); leftTuple != null; leftTuple = it.next(leftTuple)) {
+            for (TupleImpl child = leftTuple.getFirstChild(); child != null; child = child.getHandleNext()) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private static Pattern findPattern(TerminalNode terminalNode, int tupleIndex) {
+        for (RuleConditionElement child : terminalNode.getSubRule().getChildren()) {
+            if (child instanceof Pattern pattern && pattern.getTupleIndex() == tupleIndex) {
+                return pattern;
+            }
+        }
+        return null;
+    }
+
+    private PatternStatistics getOrCreate(RuleImpl rule, Pattern pattern) {
+        return patterns.computeIfAbsent(new PatternKey(rule.getFullyQualifiedName(), pattern.getPatternId()), k -> new PatternStatistics());
+    }
+
+    /**
+     * Returns the average number of facts matching the given pattern of the given rule, or -1 if it has never been observed.
+     */
+    public synchronized double getCardinality(RuleImpl rule, Pattern pattern) {
+        PatternStatistics statistics = patterns.get(new PatternKey(rule.getFullyQualifiedName(), pattern.getPatternId()));
+        return statistics != null && statistics.samples > 0 ? (double) statistics.cardinality / statistics.samples : -1;
+    }
+
+    /**
+     * Returns the fraction of left tuples and facts combinations accepted by the join of the given pattern
+     * of the given rule, or 1 if it has never been observed.
+     */
+    public synchronized double getSelectivity(RuleImpl rule, Pattern pattern) {
+        PatternStatistics statistics = patterns.get(new PatternKey(rule.getFullyQualifiedName(), pattern.getPatternId()));
+        return statistics != null && statistics.combinations > 0 ? statistics.matches / statistics.combinations : 1.0;
+    }
+
+    public synchronized boolean isEmpty() {
+        return patterns.isEmpty();
+    }
+
+    public synchronized void clear() {
+        patterns.clear();
+    }
+
+    private static class PatternKey {
+        private final String ruleName;
+        private final int patternId;
+
+        private PatternKey(String ruleName, int patternId) {
+            this.ruleName = ruleName;
+            this.patternId = patternId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PatternKey)) {
+                return false;
+            }
+            PatternKey other = (PatternKey) o;
+            return patternId == other.patternId && ruleName.equals(other.ruleName);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * ruleName.hashCode() + patternId;
+        }
+    }
+
+    private static class PatternStatistics {
+        private long cardinality;
+        private int samples;
+        private long matches;
+        private double combinations;
+
+        private void addCardinality(long size) {
+            cardinality += size;
+            samples++;
+        }
+
+        private void addJoin(long leftSize, long rightSize, long joinMatches) {
+            addCardinality(rightSize);
+            matches += joinMatches;
+            combinations += (double) leftSize * rightSize;
+        }
+    }
+}
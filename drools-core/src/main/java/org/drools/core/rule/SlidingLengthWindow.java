@@ -30,6 +30,7 @@ import org.drools.core.common.PhreakPropagationContextFactory;
 import org.drools.core.common.PropagationContext;
 import org.drools.core.common.ReteEvaluator;
 import org.drools.core.reteoo.ObjectTypeNode;
+import org.drools.core.reteoo.WindowNode;
 import org.kie.api.runtime.rule.FactHandle;
 
 /**
@@ -42,6 +43,8 @@ public class SlidingLengthWindow
 
     protected int size;
 
+    private transient WindowNode windowNode;
+
     public SlidingLengthWindow() {
         this( 0 );
     }
@@ -78,6 +81,10 @@ public class SlidingLengthWindow
         return BehaviorType.LENGTH_WINDOW;
     }
 
+    public void setWindowNode(WindowNode windowNode) {
+        this.windowNode = windowNode;
+    }
+
     /**
      * @return the size
      */
@@ -109,7 +116,11 @@ public class SlidingLengthWindow
             final DefaultEventHandle previous = window.handles[window.pos];
             // retract previous
             final PropagationContext expiresPctx = PhreakPropagationContextFactory.createPropagationContextForFact(reteEvaluator, previous, PropagationContext.Type.EXPIRATION);
-            ObjectTypeNode.doRetractObject( previous, expiresPctx, reteEvaluator);
+            if ( windowNode != null ) {
+                windowNode.expireFact( previous, expiresPctx, reteEvaluator );
+            } else {
+                ObjectTypeNode.doRetractObject( previous, expiresPctx, reteEvaluator );
+            }
         }
         window.handles[window.pos] = (DefaultEventHandle) handle;
         return true;
@@ -55,6 +55,8 @@ public class SlidingTimeWindow
 
     protected int nodeId;
 
+    private transient WindowNode windowNode;
+
     public SlidingTimeWindow() {
         this( 0 );
     }
@@ -94,6 +96,7 @@ public class SlidingTimeWindow
 
     public void setWindowNode(WindowNode windowNode) {
         this.nodeId = windowNode.getId();
+        this.windowNode = windowNode;
     }
 
     /**
@@ -178,7 +181,11 @@ public class SlidingTimeWindow
             if( handle.isValid()) {
                 // if not expired yet, expire it
                 final PropagationContext expiresPctx = PhreakPropagationContextFactory.createPropagationContextForFact(reteEvaluator, handle, PropagationContext.Type.EXPIRATION);
-                ObjectTypeNode.doRetractObject(handle, expiresPctx, reteEvaluator);
+                if (windowNode != null) {
+                    windowNode.expireFact(handle, expiresPctx, reteEvaluator);
+                } else {
+                    ObjectTypeNode.doRetractObject(handle, expiresPctx, reteEvaluator);
+                }
             }
             handle = queue.peek();
         }
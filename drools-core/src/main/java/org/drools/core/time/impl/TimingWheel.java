@@ -0,0 +1,343 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.time.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel holding the jobs scheduled on a timer service.
+ *
+ * The wheel has one level for each byte of the 64 bits timestamp: the slots of the first level are 1 ms wide,
+ * the ones of the second level 256 ms wide and so on. A job is kept on the lowest level where its fire time
+ * differs from the cursor of the wheel, so scheduling and cancelling a job are O(1). When the cursor enters
+ * a slot of a higher level, the jobs in that slot are cascaded to the lower levels. The empty slots are
+ * skipped using a bitmap per level, so the cost of advancing the wheel doesn't depend on the elapsed time.
+ *
+ * All the jobs expiring in the same millisecond are returned together as a single batch.
+ *
+ * This class is not thread safe.
+ */
+public class TimingWheel {
+
+    static final int SLOT_BITS = 8;
+    static final int SLOTS = 1 << SLOT_BITS;
+    static final int LEVELS = Long.SIZE / SLOT_BITS;
+
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int WORDS_PER_LEVEL = SLOTS / Long.SIZE;
+
+    private final Entry[][] heads = new Entry[LEVELS][];
+    private final Entry[][] tails = new Entry[LEVELS][];
+    private final long[][] occupied = new long[LEVELS][WORDS_PER_LEVEL];
+
+    private long cursor;
+    private int size;
+
+    public TimingWheel(long startTime) {
+        this.cursor = startTime;
+    }
+
+    public Entry add(TimerJobInstance job, long time) {
+        Entry entry = new Entry(job, time);
+        insert(entry);
+        size++;
+        return entry;
+    }
+
+    public boolean remove(Entry entry) {
+        if (entry.level < 0) {
+            // already expired or removed
+            return false;
+        }
+        unlink(entry);
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the batch of the jobs expiring first, if they expire not later than the given time, and
+     * moves the cursor of the wheel to their fire time. The returned entries are no longer part of the
+     * wheel and can be iterated with {@link Entry#getNext()}. Returns null when there aren't jobs expiring
+     * before the given time, after having moved the cursor to that time.
+     */
+    public Entry pollExpired(long endTime) {
+        while (cursor <= endTime) {
+            int slot = slotIndex(cursor, 0);
+            Entry[] levelHeads = heads[0];
+            Entry batch = levelHeads != null ? levelHeads[slot] : null;
+            if (batch != null) {
+                levelHeads[slot] = null;
+                tails[0][slot] = null;
+                clearOccupied(0, slot);
+                for (Entry entry = batch; entry != null; entry = entry.next) {
+                    entry.level = -1;
+                    size--;
+                }
+                return batch;
+            }
+            if (cursor == endTime) {
+                break;
+            }
+            moveCursor(Math.min(nextSlotStart(), endTime));
+        }
+        return null;
+    }
+
+    /**
+     * Returns the fire time of the first job to expire, or -1 if the wheel is empty
+     */
+    public long nextExpirationTime() {
+        if (size == 0) {
+            return -1;
+        }
+        if (isOccupied(0, slotIndex(cursor, 0))) {
+            return cursor;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            int slot = nextOccupiedSlot(level, slotIndex(cursor, level) + 1);
+            if (slot >= 0) {
+                if (level == 0) {
+                    return slotStart(level, slot);
+                }
+                long min = Long.MAX_VALUE;
+                for (Entry entry = heads[level][slot]; entry != null; entry = entry.next) {
+                    min = Math.min(min, entry.time);
+                }
+                return min;
+            }
+        }
+        return -1;
+    }
+
+    public List<TimerJobInstance> getJobs() {
+        List<TimerJobInstance> jobs = new ArrayList<>(size);
+        for (int level = 0; level < LEVELS; level++) {
+            if (heads[level] != null) {
+                for (Entry head : heads[level]) {
+                    for (Entry entry = head; entry != null; entry = entry.next) {
+                        jobs.add(entry.job);
+                    }
+                }
+            }
+        }
+        return jobs;
+    }
+
+    public long getCursor() {
+        return cursor;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void reset(long startTime) {
+        for (int level = 0; level < LEVELS; level++) {
+            if (heads[level] != null) {
+                for (Entry head : heads[level]) {
+                    for (Entry entry = head; entry != null; entry = entry.next) {
+                        entry.level = -1;
+                    }
+                }
+                heads[level] = null;
+                tails[level] = null;
+            }
+            Arrays.fill(occupied[level], 0L);
+        }
+        size = 0;
+        cursor = startTime;
+    }
+
+    private void insert(Entry entry) {
+        // jobs already expired are fired at the current cursor
+        long time = Math.max(entry.time, cursor);
+        long diff = time ^ cursor;
+        int level = diff == 0 ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(diff)) / SLOT_BITS;
+        link(entry, level, slotIndex(time, level));
+    }
+
+    private void moveCursor(long newCursor) {
+        long oldCursor = cursor;
+        cursor = newCursor;
+        for (int level = LEVELS - 1; level > 0; level--) {
+            int shift = level * SLOT_BITS;
+            if ((oldCursor >>> shift) != (newCursor >>> shift)) {
+                cascade(level, slotIndex(newCursor, level));
+            }
+        }
+    }
+
+    private void cascade(int level, int slot) {
+        Entry[] levelHeads = heads[level];
+        Entry entry = levelHeads != null ? levelHeads[slot] : null;
+        if (entry == null) {
+            return;
+        }
+        levelHeads[slot] = null;
+        tails[level][slot] = null;
+        clearOccupied(level, slot);
+        while (entry != null) {
+            Entry next = entry.next;
+            entry.previous = null;
+            entry.next = null;
+            insert(entry);
+            entry = next;
+        }
+    }
+
+    /**
+     * Returns the start time of the first not empty slot after the current position of the cursor
+     */
+    private long nextSlotStart() {
+        for (int level = 0; level < LEVELS; level++) {
+            int slot = nextOccupiedSlot(level, slotIndex(cursor, level) + 1);
+            if (slot >= 0) {
+                return slotStart(level, slot);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private long slotStart(int level, int slot) {
+        int shift = (level + 1) * SLOT_BITS;
+        long rotationStart = shift == Long.SIZE ? 0L : (cursor >>> shift) << shift;
+        return rotationStart + ((long) slot << (level * SLOT_BITS));
+    }
+
+    private static int slotIndex(long time, int level) {
+        return (int) (time >>> (level * SLOT_BITS)) & SLOT_MASK;
+    }
+
+    private void link(Entry entry, int level, int slot) {
+        if (heads[level] == null) {
+            heads[level] = new Entry[SLOTS];
+            tails[level] = new Entry[SLOTS];
+        }
+        entry.level = level;
+        entry.slot = slot;
+        Entry tail = tails[level][slot];
+        if (tail == null) {
+            heads[level][slot] = entry;
+            occupied[level][slot >>> 6] |= 1L << slot;
+        } else {
+            tail.next = entry;
+            entry.previous = tail;
+        }
+        tails[level][slot] = entry;
+    }
+
+    private void unlink(Entry entry) {
+        int level = entry.level;
+        int slot = entry.slot;
+        if (entry.previous == null) {
+            heads[level][slot] = entry.next;
+        } else {
+            entry.previous.next = entry.next;
+        }
+        if (entry.next == null) {
+            tails[level][slot] = entry.previous;
+        } else {
+            entry.next.previous = entry.previous;
+        }
+        if (heads[level][slot] == null) {
+            clearOccupied(level, slot);
+        }
+        entry.previous = null;
+        entry.next = null;
+        entry.level = -1;
+    }
+
+    private boolean isOccupied(int level, int slot) {
+        return (occupied[level][slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    private void clearOccupied(int level, int slot) {
+        occupied[level][slot >>> 6] &= ~(1L << slot);
+    }
+
+    private int nextOccupiedSlot(int level, int fromSlot) {
+        long[] words = occupied[level];
+        for (int i = fromSlot >>> 6; i < WORDS_PER_LEVEL && fromSlot < SLOTS; i++) {
+            long word = words[i];
+            if (i == fromSlot >>> 6) {
+                word &= -1L << fromSlot;
+            }
+            if (word != 0) {
+                return (i << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return -1;
+    }
+
+    public static class Entry {
+        private final TimerJobInstance job;
+        private final long time;
+
+        private Entry previous;
+        private Entry next;
+
+        private int level = -1;
+        private int slot;
+
+        private Entry(TimerJobInstance job, long time) {
+            this.job = job;
+            this.time = time;
+        }
+
+        public TimerJobInstance getJob() {
+            return job;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        public Entry getNext() {
+            return next;
+        }
+    }
+
+    /**
+     * A job handle keeping track of the entry of its job in the wheel, so the job can be removed in constant time
+     */
+    public static class TimingWheelJobHandle extends DefaultJobHandle {
+
+        private static final long serialVersionUID = 510l;
+
+        private transient Entry entry;
+
+        public TimingWheelJobHandle(long id) {
+            super(id);
+        }
+
+        public Entry getEntry() {
+            return entry;
+        }
+
+        public void setEntry(Entry entry) {
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.time.impl;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Date;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.base.time.JobHandle;
+import org.drools.base.time.Trigger;
+import org.drools.core.time.Job;
+import org.drools.core.time.JobContext;
+import org.drools.core.time.impl.TimingWheel.TimingWheelJobHandle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A PseudoClockScheduler keeping the scheduled jobs in a {@link TimingWheel} instead of a priority queue,
+ * so scheduling and removing a job take constant time regardless of the number of pending jobs.
+ */
+public class TimingWheelPseudoClockScheduler extends PseudoClockScheduler {
+
+    private final Logger logger = LoggerFactory.getLogger( TimingWheelPseudoClockScheduler.class );
+
+    private final TimingWheel wheel = new TimingWheel( 0 );
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void readExternal(ObjectInput in) throws IOException,
+                                            ClassNotFoundException {
+        super.readExternal( in );
+        wheel.reset( timer.get() );
+        for ( TimerJobInstance jobInstance : queue ) {
+            internalSchedule( jobInstance );
+        }
+        queue.clear();
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeLong( timer.get() );
+        PriorityQueue<TimerJobInstance> jobs;
+        synchronized (this) {
+            jobs = new PriorityQueue<>( wheel.getJobs() );
+        }
+        out.writeObject( jobs.isEmpty() ? null : jobs );
+    }
+
+    @Override
+    public JobHandle scheduleJob(Job job, JobContext ctx, Trigger trigger) {
+        Date date = trigger.hasNextFireTime();
+        if ( date == null ){
+            return null;
+        }
+
+        TimingWheelJobHandle jobHandle = new TimingWheelJobHandle( idCounter.getAndIncrement() );
+        TimerJobInstance jobInstance = getTimerJobFactoryManager().createTimerJobInstance( job, ctx, trigger, jobHandle, this );
+        jobHandle.setTimerJobInstance( jobInstance );
+        internalSchedule( jobInstance );
+        return jobHandle;
+    }
+
+    @Override
+    public void internalSchedule(TimerJobInstance timerJobInstance) {
+        getTimerJobFactoryManager().addTimerJobInstance(timerJobInstance);
+        synchronized (this) {
+            TimingWheel.Entry entry = wheel.add( timerJobInstance, timerJobInstance.getTrigger().hasNextFireTime().getTime() );
+            if ( timerJobInstance.getJobHandle() instanceof TimingWheelJobHandle jobHandle ) {
+                jobHandle.setEntry( entry );
+            }
+        }
+    }
+
+    @Override
+    public synchronized void removeJob(JobHandle jobHandle) {
+        jobHandle.cancel();
+        getTimerJobFactoryManager().removeTimerJobInstance(jobHandle);
+        if ( jobHandle instanceof TimingWheelJobHandle wheelJobHandle && wheelJobHandle.getEntry() != null ) {
+            wheel.remove( wheelJobHandle.getEntry() );
+            wheelJobHandle.setEntry( null );
+        }
+    }
+
+    @Override
+    public long advanceTime(long amount, TimeUnit unit) {
+        return this.runCallBacksAndIncreaseTimer( unit.toMillis( amount ) );
+    }
+
+    @Override
+    public synchronized void setStartupTime(long i) {
+        super.setStartupTime( i );
+        if ( wheel.isEmpty() ) {
+            wheel.reset( i );
+        }
+    }
+
+    @Override
+    public synchronized void reset() {
+        super.reset();
+        wheel.reset( 0 );
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized long runCallBacksAndIncreaseTimer( long increase ) {
+        long endTime = this.timer.get() + increase;
+        TimingWheel.Entry batch;
+        while ( (batch = wheel.pollExpired( endTime )) != null ) {
+            // all the jobs of the batch have the same fire time, but they have to be executed one by one
+            // since each of them could cancel the following ones
+            for ( TimingWheel.Entry entry = batch; entry != null; entry = entry.getNext() ) {
+                TimerJobInstance item = entry.getJob();
+                if ( !item.getJobHandle().isCancel() ) {
+                    try {
+                        // set the clock back to the trigger's fire time
+                        this.timer.set( entry.getTime() );
+                        // execute the call
+                        ((Callable<Void>) item).call();
+                    } catch (Exception e) {
+                        logger.error("Exception running callbacks: ", e);
+                    }
+                }
+            }
+        }
+        this.timer.set( endTime );
+        return this.timer.get();
+    }
+
+    @Override
+    public synchronized long getTimeToNextJob() {
+        long nextExpirationTime = wheel.nextExpirationTime();
+        return nextExpirationTime >= 0 ? nextExpirationTime - this.timer.get() : -1;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.time.impl;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.drools.base.time.JobHandle;
+import org.drools.base.time.Trigger;
+import org.drools.core.time.InternalSchedulerService;
+import org.drools.core.time.Job;
+import org.drools.core.time.JobContext;
+import org.drools.core.time.TimerService;
+import org.drools.core.time.impl.TimingWheel.TimingWheelJobHandle;
+import org.kie.api.time.SessionClock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A realtime TimerService keeping the scheduled jobs in a {@link TimingWheel} instead of the delay queue
+ * of a ScheduledThreadPoolExecutor. The jobs are executed by a single daemon thread, started when the first
+ * job is scheduled, that sleeps until the next expiration and then fires all the jobs expired in the meanwhile.
+ */
+public class TimingWheelTimerService implements TimerService, SessionClock, InternalSchedulerService {
+
+    private static final Logger logger = LoggerFactory.getLogger( TimingWheelTimerService.class );
+
+    private final AtomicLong idCounter = new AtomicLong( 0L );
+
+    private final TimingWheel wheel = new TimingWheel( System.currentTimeMillis() );
+
+    private TimerJobFactoryManager jobFactoryManager = DefaultTimerJobFactoryManager.INSTANCE;
+
+    private Thread worker;
+
+    private boolean shutdown;
+
+    public void setTimerJobFactoryManager(TimerJobFactoryManager timerJobFactoryManager) {
+        this.jobFactoryManager = timerJobFactoryManager;
+    }
+
+    public TimerJobFactoryManager getTimerJobFactoryManager() {
+        return this.jobFactoryManager;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    public long getCurrentTime() {
+        return System.currentTimeMillis();
+    }
+
+    public synchronized void reset() {
+        wheel.reset( getCurrentTime() );
+        idCounter.set( 0L );
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        this.shutdown = true;
+        wheel.reset( getCurrentTime() );
+        notifyAll();
+    }
+
+    public JobHandle scheduleJob(Job job, JobContext ctx, Trigger trigger) {
+        Date date = trigger.hasNextFireTime();
+        if (date == null) {
+            return null;
+        }
+
+        TimingWheelJobHandle jobHandle = new TimingWheelJobHandle( idCounter.getAndIncrement() );
+        TimerJobInstance jobInstance = jobFactoryManager.createTimerJobInstance( job, ctx, trigger, jobHandle, this );
+        jobHandle.setTimerJobInstance( jobInstance );
+        internalSchedule( jobInstance );
+        return jobHandle;
+    }
+
+    public void internalSchedule(TimerJobInstance timerJobInstance) {
+        jobFactoryManager.addTimerJobInstance( timerJobInstance );
+        synchronized (this) {
+            if (shutdown) {
+                return;
+            }
+            long fireTime = timerJobInstance.getTrigger().hasNextFireTime().getTime();
+            long nextExpirationTime = wheel.nextExpirationTime();
+            TimingWheel.Entry entry = wheel.add( timerJobInstance, fireTime );
+            if ( timerJobInstance.getJobHandle() instanceof TimingWheelJobHandle jobHandle ) {
+                jobHandle.setEntry( entry );
+            }
+            if (worker == null) {
+                worker = new Thread( this::runJobs, "drools-timing-wheel" );
+                worker.setDaemon( true );
+                worker.start();
+            } else if (nextExpirationTime < 0 || fireTime < nextExpirationTime) {
+                // the worker is sleeping until a later time
+                notifyAll();
+            }
+        }
+    }
+
+    public synchronized void removeJob(JobHandle jobHandle) {
+        jobHandle.cancel();
+        jobFactoryManager.removeTimerJobInstance( jobHandle );
+        if ( jobHandle instanceof TimingWheelJobHandle wheelJobHandle && wheelJobHandle.getEntry() != null ) {
+            wheel.remove( wheelJobHandle.getEntry() );
+            wheelJobHandle.setEntry( null );
+        }
+    }
+
+    public synchronized long getTimeToNextJob() {
+        long nextExpirationTime = wheel.nextExpirationTime();
+        return nextExpirationTime >= 0 ? Math.max( 0, nextExpirationTime - getCurrentTime() ) : -1;
+    }
+
+    public Collection<TimerJobInstance> getTimerJobInstances(long id) {
+        return jobFactoryManager.getTimerJobInstances();
+    }
+
+    private void runJobs() {
+        TimingWheel.Entry batch;
+        while ( (batch = nextBatch()) != null ) {
+            for ( TimingWheel.Entry entry = batch; entry != null; entry = entry.getNext() ) {
+                TimerJobInstance item = entry.getJob();
+                if ( !item.getJobHandle().isCancel() ) {
+                    try {
+                        ((Callable<?>) item).call();
+                    } catch (Exception e) {
+                        logger.error( "Exception running timer job: ", e );
+                    }
+                }
+            }
+        }
+    }
+
+    private synchronized TimingWheel.Entry nextBatch() {
+        while (!shutdown) {
+            long now = getCurrentTime();
+            TimingWheel.Entry batch = wheel.pollExpired( now );
+            if (batch != null) {
+                return batch;
+            }
+            long nextExpirationTime = wheel.nextExpirationTime();
+            try {
+                if (nextExpirationTime < 0) {
+                    wait();
+                } else {
+                    wait( Math.max( 1L, nextExpirationTime - now ) );
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+}
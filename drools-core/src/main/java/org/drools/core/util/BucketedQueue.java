@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import org.drools.core.util.Queue.QueueEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Queue keeping one FIFO bucket for each distinct priority value. The buckets are held in an array sorted by
+ * descending priority, so enqueueing is a binary search over the (usually very few) priorities followed by an
+ * append, while dequeueing takes the head of the first non empty bucket. Neither operation reorders the other
+ * entries as a heap or a tree would do.
+ * <p>
+ * Elements with the same priority are dequeued in insertion order. The queue index of an entry holds the
+ * sequence number it has been enqueued with, or -1 when it isn't in the queue: removing an arbitrary entry only
+ * resets it, and the stale slot is skipped when it reaches the head of its bucket. A full bucket drops its stale
+ * slots before growing, so its capacity stays bounded by twice its live entries even when the entries behind a
+ * live head are repeatedly removed and enqueued again.
+ */
+public class BucketedQueue<T extends QueueEntry> implements Queue<T> {
+
+    protected static final Logger log = LoggerFactory.getLogger(BucketedQueue.class);
+
+    private static final int[] NO_PRIORITIES = new int[0];
+
+    private final ToIntFunction<T> priority;
+
+    private int[] priorities = NO_PRIORITIES;
+    private Bucket<T>[] buckets = new Bucket[0];
+
+    private int size;
+    private int sequence;
+
+    public BucketedQueue(ToIntFunction<T> priority) {
+        this.priority = priority;
+    }
+
+    @Override
+    public void enqueue(T element) {
+        if (element.getQueueIndex() >= 0) {
+            // already in the queue
+            return;
+        }
+        int seq = sequence;
+        sequence = (sequence + 1) & Integer.MAX_VALUE;
+
+        getBucket(priority.applyAsInt(element)).add(element, seq);
+        element.setQueueIndex(seq);
+        element.setQueued(true);
+        size++;
+
+        if ( log.isTraceEnabled() ) {
+            log.trace( "Queue Added {}", element);
+        }
+    }
+
+    @Override
+    public T dequeue() {
+        if (size == 0) {
+            return null;
+        }
+        for (Bucket<T> bucket : buckets) {
+            T head = bucket.peek();
+            if (head != null) {
+                bucket.poll();
+                head.setQueueIndex(-1);
+                size--;
+                return head;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void dequeue(T element) {
+        if (element.getQueueIndex() >= 0) {
+            // the slot of the element becomes stale and will be discarded once at the head of its bucket
+            element.setQueueIndex(-1);
+            size--;
+        }
+    }
+
+    @Override
+    public T peek() {
+        if (size == 0) {
+            return null;
+        }
+        for (Bucket<T> bucket : buckets) {
+            T head = bucket.peek();
+            if (head != null) {
+                return head;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (Bucket<T> bucket : buckets) {
+            bucket.clear();
+        }
+        size = 0;
+    }
+
+    @Override
+    public Collection<T> getAll() {
+        List<T> all = new ArrayList<>(size);
+        for (Bucket<T> bucket : buckets) {
+            bucket.collect(all);
+        }
+        return all;
+    }
+
+    int getBucketsCount() {
+        return buckets.length;
+    }
+
+    int getSlotsCount() {
+        int slots = 0;
+        for (Bucket<T> bucket : buckets) {
+            slots += bucket.elements.length;
+        }
+        return slots;
+    }
+
+    private Bucket<T> getBucket(int value) {
+        int pos = indexOf(value);
+        if (pos >= 0) {
+            return buckets[pos];
+        }
+        return addBucket(-pos - 1, value);
+    }
+
+    private int indexOf(int value) {
+        // binary search on the priorities sorted in descending order
+        int low = 0;
+        int high = priorities.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midVal = priorities[mid];
+            if (midVal > value) {
+                low = mid + 1;
+            } else if (midVal < value) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private Bucket<T> addBucket(int pos, int value) {
+        int[] newPriorities = new int[priorities.length + 1];
+        System.arraycopy(priorities, 0, newPriorities, 0, pos);
+        System.arraycopy(priorities, pos, newPriorities, pos + 1, priorities.length - pos);
+        newPriorities[pos] = value;
+
+        Bucket<T>[] newBuckets = Arrays.copyOf(buckets, buckets.length + 1);
+        System.arraycopy(buckets, pos, newBuckets, pos + 1, buckets.length - pos);
+        Bucket<T> bucket = new Bucket<>();
+        newBuckets[pos] = bucket;
+
+        this.priorities = newPriorities;
+        this.buckets = newBuckets;
+        return bucket;
+    }
+
+    @Override
+    public String toString() {
+        return getAll().toString();
+    }
+
+    private static class Bucket<T extends QueueEntry> {
+        private Object[] elements = new Object[16];
+        private int[] sequences = new int[16];
+        private int head;
+        private int count;
+
+        private void add(T element, int seq) {
+            if (count == elements.length) {
+                compact();
+                // grow only when still more than half full, so that compactions stay amortized over the adds
+                if (count > (elements.length >> 1)) {
+                    grow();
+                }
+            }
+            int tail = (head + count) & (elements.length - 1);
+            elements[tail] = element;
+            sequences[tail] = seq;
+            count++;
+        }
+
+        private T peek() {
+            while (count > 0) {
+                T element = (T) elements[head];
+                if (element.getQueueIndex() == sequences[head]) {
+                    return element;
+                }
+                poll();
+            }
+            return null;
+        }
+
+        private void poll() {
+            elements[head] = null;
+            head = (head + 1) & (elements.length - 1);
+            count--;
+        }
+
+        private void clear() {
+            while (count > 0) {
+                T element = (T) elements[head];
+                if (element.getQueueIndex() == sequences[head]) {
+                    element.setQueueIndex(-1);
+                }
+                poll();
+            }
+            head = 0;
+        }
+
+        private void collect(List<T> list) {
+            for (int i = 0; i < count; i++) {
+                int pos = (head + i) & (elements.length - 1);
+                T element = (T) elements[pos];
+                if (element.getQueueIndex() == sequences[pos]) {
+                    list.add(element);
+                }
+            }
+        }
+
+        private void compact() {
+            int mask = elements.length - 1;
+            int live = 0;
+            for (int i = 0; i < count; i++) {
+                int pos = (head + i) & mask;
+                T element = (T) elements[pos];
+                if (element.getQueueIndex() == sequences[pos]) {
+                    int target = (head + live) & mask;
+                    elements[target] = element;
+                    sequences[target] = sequences[pos];
+                    live++;
+                }
+            }
+            for (int i = live; i < count; i++) {
+                elements[(head + i) & mask] = null;
+            }
+            count = live;
+        }
+
+        private void grow() {
+            int capacity = elements.length;
+            Object[] newElements = new Object[capacity << 1];
+            int[] newSequences = new int[capacity << 1];
+            for (int i = 0; i < count; i++) {
+                int pos = (head + i) & (capacity - 1);
+                newElements[i] = elements[pos];
+                newSequences[i] = sequences[pos];
+            }
+            this.elements = newElements;
+            this.sequences = newSequences;
+            this.head = 0;
+        }
+    }
+}
@@ -22,11 +22,25 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+/**
+ * A pool creating a new resource whenever it is empty. When a max idle size is given, the number of idle resources
+ * retained is sized on the demand: a released resource is kept only if the idle ones are fewer than the highest number
+ * of resources concurrently borrowed during the last sizing windows, never less than the initial size and never more
+ * than the max idle size. In this way the pool shrinks back after a burst, while without a max idle size all the
+ * released resources are retained.
+ */
 public class ScalablePool<T> {
 
+    // the number of borrows after which the demand observed so far is forgotten
+    static final int SIZING_WINDOW = 1000;
+
     private final java.util.Queue<T> pool = new ConcurrentLinkedQueue<>();
     private final List<T> resources = Collections.synchronizedList( new ArrayList<>() );
 
@@ -34,39 +48,236 @@ public class ScalablePool<T> {
     private final Consumer<? super T> resetter;
     private final Consumer<? super T> disposer;
 
+    private final int initialSize;
+
+    // the max number of idle resources kept in the pool, the released resources in excess are disposed
+    private final int maxIdle;
+
+    // when not null the released resources are reset asynchronously instead than in the releasing thread
+    private final Executor resetExecutor;
+
+    private volatile boolean alive = true;
+
+    // ConcurrentLinkedQueue.size() isn't a constant time operation
+    private final AtomicInteger idleCounter = new AtomicInteger();
+
+    private final AtomicInteger borrowedCounter = new AtomicInteger();
+    private final AtomicInteger windowBorrows = new AtomicInteger();
+    // the highest number of concurrently borrowed resources in the current and in the former sizing window
+    private final AtomicInteger windowPeak = new AtomicInteger();
+    private volatile int formerWindowPeak;
+
+    private final LongAdder borrowCounter = new LongAdder();
+    private final LongAdder missCounter = new LongAdder();
+    private final LongAdder borrowNanos = new LongAdder();
+    private final LongAdder resetCounter = new LongAdder();
+    private final LongAdder resetNanos = new LongAdder();
+    private final LongAdder discardCounter = new LongAdder();
+
     public ScalablePool( int initialSize, Supplier<? extends T> supplier, Consumer<? super T> resetter, Consumer<? super T> disposer ) {
+        this( initialSize, -1, null, supplier, resetter, disposer );
+    }
+
+    public ScalablePool( int initialSize, int maxIdle, Executor resetExecutor, Supplier<? extends T> supplier, Consumer<? super T> resetter, Consumer<? super T> disposer ) {
         this.supplier = supplier;
         this.resetter = resetter;
         this.disposer = disposer;
+        this.initialSize = initialSize;
+        this.maxIdle = maxIdle;
+        this.resetExecutor = resetExecutor;
 
         for (int i = 0; i < initialSize; i++) {
             T t = this.supplier.get();
             pool.offer( t );
             resources.add( t );
+            idleCounter.incrementAndGet();
         }
     }
 
     public T get() {
+        long start = System.nanoTime();
         T t = pool.poll();
         if (t != null) {
-            return t;
+            idleCounter.decrementAndGet();
+        } else {
+            missCounter.increment();
+            t = this.supplier.get();
+            resources.add( t );
         }
-
-        t = this.supplier.get();
-        resources.add( t );
+        if (maxIdle >= 0) {
+            trackDemand();
+        }
+        borrowCounter.increment();
+        borrowNanos.add( System.nanoTime() - start );
         return t;
     }
 
+    private void trackDemand() {
+        int borrowed = borrowedCounter.incrementAndGet();
+        windowPeak.accumulateAndGet( borrowed, Math::max );
+        int borrows = windowBorrows.incrementAndGet();
+        if (borrows >= SIZING_WINDOW && windowBorrows.compareAndSet( borrows, 0 )) {
+            formerWindowPeak = windowPeak.getAndSet( borrowed );
+        }
+    }
+
+    private int idleLimit() {
+        int demand = Math.max( initialSize, Math.max( formerWindowPeak, windowPeak.get() ) );
+        return Math.min( maxIdle, demand );
+    }
+
     public void release(T t) {
+        if (maxIdle >= 0) {
+            borrowedCounter.decrementAndGet();
+        }
+        if (resetExecutor == null) {
+            resetAndOffer( t );
+            return;
+        }
+        try {
+            resetExecutor.execute( () -> resetAndOffer( t ) );
+        } catch (RejectedExecutionException e) {
+            resetAndOffer( t );
+        }
+    }
+
+    private void resetAndOffer(T t) {
+        if (!alive) {
+            // the resource has been already disposed when the pool has been shut down
+            return;
+        }
+
+        if (!reserveIdleSlot()) {
+            resources.remove( t );
+            disposer.accept( t );
+            discardCounter.increment();
+            return;
+        }
+
+        long start = System.nanoTime();
         resetter.accept( t );
+        resetCounter.increment();
+        resetNanos.add( System.nanoTime() - start );
+
         pool.offer( t );
     }
 
+    // counts the released resource as idle, unless this would exceed the limit of idle resources
+    private boolean reserveIdleSlot() {
+        if (maxIdle < 0) {
+            idleCounter.incrementAndGet();
+            return true;
+        }
+        int limit = idleLimit();
+        while (true) {
+            int idle = idleCounter.get();
+            if (idle >= limit) {
+                return false;
+            }
+            if (idleCounter.compareAndSet( idle, idle + 1 )) {
+                return true;
+            }
+        }
+    }
+
     public void shutdown() {
-        for (T t : resources) {
+        alive = false;
+        List<T> toBeDisposed;
+        synchronized (resources) {
+            toBeDisposed = new ArrayList<>( resources );
+            resources.clear();
+        }
+        for (T t : toBeDisposed) {
             disposer.accept( t );
         }
         pool.clear();
-        resources.clear();
+        idleCounter.set( 0 );
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics( resources.size(), idleCounter.get(),
+                               borrowCounter.sum(), missCounter.sum(), borrowNanos.sum(),
+                               resetCounter.sum(), resetNanos.sum(), discardCounter.sum() );
+    }
+
+    /**
+     * A snapshot of the usage of a pool
+     */
+    public static class Statistics {
+
+        private final int size;
+        private final int idle;
+        private final long borrows;
+        private final long misses;
+        private final long borrowNanos;
+        private final long resets;
+        private final long resetNanos;
+        private final long discarded;
+
+        private Statistics( int size, int idle, long borrows, long misses, long borrowNanos, long resets, long resetNanos, long discarded ) {
+            this.size = size;
+            this.idle = idle;
+            this.borrows = borrows;
+            this.misses = misses;
+            this.borrowNanos = borrowNanos;
+            this.resets = resets;
+            this.resetNanos = resetNanos;
+            this.discarded = discarded;
+        }
+
+        /**
+         * The number of resources currently created by the pool, both borrowed and idle
+         */
+        public int getSize() {
+            return size;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public long getBorrows() {
+            return borrows;
+        }
+
+        /**
+         * The number of borrows that found the pool empty and then required the creation of a new resource
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getAverageBorrowNanos() {
+            return borrows == 0 ? 0 : borrowNanos / borrows;
+        }
+
+        public long getResets() {
+            return resets;
+        }
+
+        public long getAverageResetNanos() {
+            return resets == 0 ? 0 : resetNanos / resets;
+        }
+
+        /**
+         * The number of released resources that have been disposed because the pool already had enough idle ones
+         */
+        public long getDiscarded() {
+            return discarded;
+        }
+
+        @Override
+        public String toString() {
+            return "Statistics{" +
+                    "size=" + size +
+                    ", idle=" + idle +
+                    ", borrows=" + borrows +
+                    ", misses=" + misses +
+                    ", averageBorrowNanos=" + getAverageBorrowNanos() +
+                    ", resets=" + resets +
+                    ", averageResetNanos=" + getAverageResetNanos() +
+                    ", discarded=" + discarded +
+                    '}';
+        }
     }
 }
@@ -48,7 +48,7 @@ public interface IndexFactory {
         }
 
         if (indexSpec.getConstraintType() == ConstraintTypeOperator.EQUAL) {
-            return IndexMemory.createEqualityMemory(indexSpec, false);
+            return indexSpec.hasRangeIndex() ? createHashRangeMemory(indexSpec, false) : IndexMemory.createEqualityMemory(indexSpec, false);
         }
 
         if (indexSpec.getConstraintType().isComparison()) {
@@ -67,7 +67,7 @@ public interface IndexFactory {
         }
 
         if (indexSpec.getConstraintType() == ConstraintTypeOperator.EQUAL) {
-            return IndexMemory.createEqualityMemory(indexSpec, true);
+            return indexSpec.hasRangeIndex() ? createHashRangeMemory(indexSpec, true) : IndexMemory.createEqualityMemory(indexSpec, true);
         }
 
         if (indexSpec.getConstraintType().isComparison()) {
@@ -77,6 +77,11 @@ public interface IndexFactory {
         return new TupleList();
     }
 
+    private static TupleMemory createHashRangeMemory(IndexSpec indexSpec, boolean isLeft) {
+        return new TupleIndexHashRBTree(indexSpec.getIndex(), indexSpec.getRangeType(), indexSpec.getRangeIndex(),
+                                        indexSpec.getBoundType(), indexSpec.getBoundIndex(), isLeft);
+    }
+
     private static Object createContext(BetaConstraint... constraints) {
         if (constraints.length == 1) {
             // no array needed
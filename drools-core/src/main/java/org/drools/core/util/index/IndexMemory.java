@@ -79,9 +79,12 @@ public class IndexMemory {
 
     private static ComparisonMemoryType COMPARISON_MEMORY_TYPE; // did not set this as final, as some tests need to change this
 
+    private static boolean PRIMITIVE_EQUALITY_MEMORY; // did not set this as final, as some tests need to change this
+
     static {
         EQUALITY_MEMORY_TYPE = EqualityMemoryType.get(getConfig("org.drools.equalitymemory", DEFAULT_INDEX));
         COMPARISON_MEMORY_TYPE = ComparisonMemoryType.get(getConfig("org.drools.comparisonmemory", DEFAULT_INDEX));
+        PRIMITIVE_EQUALITY_MEMORY = Boolean.parseBoolean(getConfig("org.drools.equalitymemory.primitive", "true"));
     }
 
     public static EqualityMemoryType getEqualityMemoryType() {
@@ -102,6 +105,14 @@ public class IndexMemory {
         ComparisonMemoryFactoryHolder.reinit();
     }
 
+    public static boolean isPrimitiveEqualityMemory() {
+        return PRIMITIVE_EQUALITY_MEMORY;
+    }
+
+    public static void setPrimitiveEqualityMemory(boolean primitiveEqualityMemory) {
+        PRIMITIVE_EQUALITY_MEMORY = primitiveEqualityMemory;
+    }
+
     public static TupleMemory createEqualityMemory(IndexSpec indexSpec, boolean isLeft) {
         return EqualityMemoryFactoryHolder.INSTANCE.createMemory(indexSpec, isLeft);
     }
@@ -134,6 +145,10 @@ public class IndexMemory {
 
         @Override
         public TupleMemory createMemory(IndexSpec indexSpec, boolean isLeft) {
+            if (PRIMITIVE_EQUALITY_MEMORY && indexSpec.getIndexes().length == 1 && indexSpec.getIndex(0).isWholeNumberIndexable()) {
+                // a single int/long/short/byte/char key doesn't need to be boxed and wrapped in a HashEntry
+                return new TupleIndexLongHashTable(indexSpec.getIndex(), isLeft);
+            }
             return new TupleIndexHashTable(indexSpec.getIndex(), isLeft);
         }
     }
@@ -142,7 +157,7 @@ public class IndexMemory {
 
         @Override
         public TupleMemory createMemory(IndexSpec indexSpec, boolean isLeft) {
-            return new TupleIndexRBTree(indexSpec.getConstraintType(), indexSpec.getIndex(0), isLeft);
+            return new TupleIndexRBTree(indexSpec.getConstraintType(), indexSpec.getIndex(0), indexSpec.getBoundType(), indexSpec.getBoundIndex(), isLeft);
         }
     }
 }
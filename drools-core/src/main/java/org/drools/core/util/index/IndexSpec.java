@@ -22,6 +22,7 @@ import org.drools.base.rule.IndexableConstraint;
 import org.drools.base.rule.constraint.BetaConstraint;
 import org.drools.base.util.IndexedValueReader;
 import org.drools.base.util.index.ConstraintTypeOperator;
+import org.drools.base.util.index.IndexUtil;
 import org.drools.core.RuleBaseConfiguration;
 import org.drools.core.util.AbstractHashTable.DoubleCompositeIndex;
 import org.drools.core.util.AbstractHashTable.Index;
@@ -37,6 +38,14 @@ public class IndexSpec {
     private ConstraintTypeOperator constraintType = ConstraintTypeOperator.UNKNOWN;
     private IndexedValueReader[]   indexes;
 
+    // comparison used to sort the tuples sharing the same equality keys, when the equality index is composite
+    private ConstraintTypeOperator rangeType;
+    private IndexedValueReader     rangeIndex;
+
+    // comparison on the same field of the range index in the opposite direction, bounding the range scan
+    private ConstraintTypeOperator boundType;
+    private IndexedValueReader     boundIndex;
+
     public IndexSpec(int nodeType, BetaConstraint[] constraints, RuleBaseConfiguration config) {
         init(nodeType, constraints, config);
     }
@@ -95,6 +104,26 @@ public class IndexSpec {
         return indexes[pos];
     }
 
+    public boolean hasRangeIndex() {
+        return rangeIndex != null;
+    }
+
+    public ConstraintTypeOperator getRangeType() {
+        return rangeType;
+    }
+
+    public IndexedValueReader getRangeIndex() {
+        return rangeIndex;
+    }
+
+    public ConstraintTypeOperator getBoundType() {
+        return boundType;
+    }
+
+    public IndexedValueReader getBoundIndex() {
+        return boundIndex;
+    }
+
     public void init(int nodeType, BetaConstraint[] constraints, RuleBaseConfiguration config) {
         int keyDepth = config.getCompositeKeyDepth();
         IndexPrecedenceOption indexPrecedenceOption = config.getIndexPrecedenceOption();
@@ -116,12 +145,48 @@ public class IndexSpec {
             }
             indexes = indexList.toArray(new IndexedValueReader[indexList.size()]);
 
+            if (indexes.length > 0 && config.isBetaNodeRangeIndexEnabled()) {
+                initRangeIndex(nodeType, constraints, config);
+            }
+
         } else if (constraintType.isComparison()) {
+            IndexableConstraint indexed = (IndexableConstraint) constraints[firstIndexableConstraint];
+            indexes = new IndexedValueReader[]{ indexed.getFieldIndex() };
             // look for a dual constraint to create a range index
-            indexes = new IndexedValueReader[]{((IndexableConstraint)constraints[firstIndexableConstraint]).getFieldIndex() };
+            initBoundIndex(nodeType, constraints, config, indexed);
+        }
+    }
+
+    private void initRangeIndex(int nodeType, BetaConstraint[] constraints, RuleBaseConfiguration config) {
+        for (BetaConstraint constraint : constraints) {
+            if (constraint instanceof IndexableConstraint indexable && indexable.getConstraintType().isComparison() &&
+                    !indexable.isUnification() && IndexUtil.canHaveRangeIndex(nodeType, indexable, config)) {
+                rangeType = indexable.getConstraintType();
+                rangeIndex = indexable.getFieldIndex();
+                initBoundIndex(nodeType, constraints, config, indexable);
+                return;
+            }
         }
     }
 
+    private void initBoundIndex(int nodeType, BetaConstraint[] constraints, RuleBaseConfiguration config, IndexableConstraint indexed) {
+        ConstraintTypeOperator indexedType = indexed.getConstraintType();
+        for (BetaConstraint constraint : constraints) {
+            if (constraint != indexed && constraint instanceof IndexableConstraint indexable &&
+                    indexable.getConstraintType().isAscending() == indexedType.isDescending() &&
+                    indexable.getConstraintType().isComparison() && !indexable.isUnification() &&
+                    isSameField(indexed, indexable) && IndexUtil.canHaveRangeIndex(nodeType, indexable, config)) {
+                boundType = indexable.getConstraintType();
+                boundIndex = indexable.getFieldIndex();
+                return;
+            }
+        }
+    }
+
+    private static boolean isSameField(IndexableConstraint c1, IndexableConstraint c2) {
+        return c1.getFieldExtractor() != null && c1.getFieldExtractor().equals(c2.getFieldExtractor());
+    }
+
     public int determineTypeWithEqualityPriority(int nodeType, BetaConstraint[] constraints, RuleBaseConfiguration config) {
         int indexedConstraintPos = 0;
         for (int i = 0; i < constraints.length; i++) {
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.util.index;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.drools.base.util.FastIterator;
+import org.drools.base.util.IndexedValueReader;
+import org.drools.base.util.index.ConstraintTypeOperator;
+import org.drools.core.reteoo.TupleImpl;
+import org.drools.core.reteoo.TupleMemory;
+import org.drools.core.util.AbstractHashTable.HashEntry;
+import org.drools.core.util.AbstractHashTable.Index;
+import org.drools.core.util.TupleRBTree.Node;
+
+/**
+ * Composite index for joins mixing equality and comparison constraints, like
+ * <code>id == $x.id, ts &gt; $x.start, ts &lt; $x.end</code>. The tuples are hashed on the equality keys
+ * and each bucket is a TupleIndexRBTree sorted on the key of the range constraint, so the matching tuples are
+ * found with a single lookup followed by a bounded scan of the bucket.
+ */
+public class TupleIndexHashRBTree implements TupleMemory {
+
+    private final Index index;
+
+    private final ConstraintTypeOperator rangeType;
+    private final IndexedValueReader rangeIndex;
+
+    private final ConstraintTypeOperator boundType;
+    private final IndexedValueReader boundIndex;
+
+    private final boolean left;
+
+    private final Map<HashEntry, Bucket> buckets = new HashMap<>();
+
+    // the buckets are also linked together to allow the full iteration to resume from a given tuple
+    private Bucket firstBucket;
+    private Bucket lastBucket;
+
+    private int factSize;
+
+    public TupleIndexHashRBTree(Index index, ConstraintTypeOperator rangeType, IndexedValueReader rangeIndex,
+                                ConstraintTypeOperator boundType, IndexedValueReader boundIndex, boolean left) {
+        this.index = index;
+        this.rangeType = rangeType;
+        this.rangeIndex = rangeIndex;
+        this.boundType = boundType;
+        this.boundIndex = boundIndex;
+        this.left = left;
+    }
+
+    @Override
+    public Index getIndex() {
+        return index;
+    }
+
+    @Override
+    public void add(TupleImpl tuple) {
+        HashEntry hashEntry = index.hashCodeOf(tuple, left);
+        Bucket bucket = buckets.get(hashEntry);
+        if (bucket == null) {
+            bucket = new Bucket(hashEntry.clone(), rangeType, rangeIndex, boundType, boundIndex, left);
+            buckets.put(bucket.hashEntry, bucket);
+            linkBucket(bucket);
+        }
+        bucket.add(tuple);
+        factSize++;
+    }
+
+    @Override
+    public void remove(TupleImpl tuple) {
+        Bucket bucket = (Bucket) TupleIndexRBTree.getOwner(tuple);
+        bucket.remove(tuple);
+        if (bucket.size() == 0) {
+            buckets.remove(bucket.hashEntry);
+            unlinkBucket(bucket);
+        }
+        factSize--;
+    }
+
+    @Override
+    public void removeAdd(TupleImpl tuple) {
+        remove(tuple);
+        add(tuple);
+    }
+
+    @Override
+    public TupleImpl getFirst(TupleImpl tuple) {
+        if (tuple == null) {
+            return firstBucket != null ? firstBucket.getFirstInOrder() : null;
+        }
+        Bucket bucket = buckets.get(index.hashCodeOf(tuple, !left));
+        return bucket != null ? bucket.getFirst(tuple) : null;
+    }
+
+    @Override
+    public TupleImpl getFirst(TupleImpl tuple, FastIterator<TupleImpl> it) {
+        Bucket bucket = buckets.get(index.hashCodeOf(tuple, !left));
+        return bucket != null ? bucket.getFirst(tuple, it) : null;
+    }
+
+    @Override
+    public boolean isIndexed() {
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return factSize;
+    }
+
+    @Override
+    public FastIterator<TupleImpl> fastIterator() {
+        return new TupleIndexRBTree.TupleFastIterator(null);
+    }
+
+    @Override
+    public FastIterator<TupleImpl> fullFastIterator() {
+        return new FullFastIterator(this);
+    }
+
+    @Override
+    public FastIterator<TupleImpl> fullFastIterator(TupleImpl tuple) {
+        return new FullFastIterator(this);
+    }
+
+    @Override
+    public IndexType getIndexType() {
+        return IndexType.RANGE;
+    }
+
+    @Override
+    public void clear() {
+        buckets.clear();
+        firstBucket = null;
+        lastBucket = null;
+        factSize = 0;
+    }
+
+    int getBucketsCount() {
+        return buckets.size();
+    }
+
+    private void linkBucket(Bucket bucket) {
+        if (lastBucket == null) {
+            firstBucket = bucket;
+        } else {
+            lastBucket.next = bucket;
+            bucket.previous = lastBucket;
+        }
+        lastBucket = bucket;
+    }
+
+    private void unlinkBucket(Bucket bucket) {
+        if (bucket.previous == null) {
+            firstBucket = bucket.next;
+        } else {
+            bucket.previous.next = bucket.next;
+        }
+        if (bucket.next == null) {
+            lastBucket = bucket.previous;
+        } else {
+            bucket.next.previous = bucket.previous;
+        }
+        bucket.previous = null;
+        bucket.next = null;
+    }
+
+    private static class Bucket extends TupleIndexRBTree {
+        private final HashEntry hashEntry;
+
+        private Bucket previous;
+        private Bucket next;
+
+        private Bucket(HashEntry hashEntry, ConstraintTypeOperator rangeType, IndexedValueReader rangeIndex,
+                       ConstraintTypeOperator boundType, IndexedValueReader boundIndex, boolean left) {
+            super(rangeType, rangeIndex, boundType, boundIndex, left);
+            this.hashEntry = hashEntry;
+        }
+    }
+
+    private static class FullFastIterator implements FastIterator<TupleImpl> {
+        private final TupleIndexHashRBTree memory;
+
+        private FullFastIterator(TupleIndexHashRBTree memory) {
+            this.memory = memory;
+        }
+
+        @Override
+        public TupleImpl next(TupleImpl tuple) {
+            if (tuple == null) {
+                return memory.getFirst(null);
+            }
+            TupleImpl next = tuple.getNext();
+            if (next != null) {
+                return next;
+            }
+            Bucket bucket = (Bucket) TupleIndexRBTree.getOwner(tuple);
+            next = bucket.getNextInOrder((Node<Comparable<Comparable>>) tuple.getMemory());
+            for (bucket = bucket.next; next == null && bucket != null; bucket = bucket.next) {
+                next = bucket.getFirstInOrder();
+            }
+            return next;
+        }
+
+        @Override
+        public boolean isFullIterator() {
+            return true;
+        }
+    }
+}
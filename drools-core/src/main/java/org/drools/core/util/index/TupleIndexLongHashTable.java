@@ -0,0 +1,351 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.util.index;
+
+import org.drools.base.util.FastIterator;
+import org.drools.base.util.IndexedValueReader;
+import org.drools.base.util.LinkedList;
+import org.drools.core.reteoo.TupleImpl;
+import org.drools.core.reteoo.TupleMemory;
+import org.drools.core.util.AbstractHashTable.Index;
+
+/**
+ * Equality index for a single join key of a primitive whole number type (int, long, short, byte, char).
+ * Keys are read as longs through {@link IndexedValueReader#wholeNumberIndexedValueOf(org.drools.base.reteoo.BaseTuple, boolean)}
+ * and kept in an open addressing table with linear probing, so neither a boxed key nor a HashEntry is created per
+ * lookup. Removed slots are marked with a tombstone instead of shifting the following entries, so that a full
+ * iteration keeps working while the tuples it returns are being removed.
+ */
+public class TupleIndexLongHashTable implements TupleMemory {
+
+    private static final LongKeyTupleList DELETED = new LongKeyTupleList( 0 );
+
+    private long[]                 keys;
+
+    private LongKeyTupleList[]     buckets;
+
+    private int                    size;
+
+    private int                    used;
+
+    private int                    threshold;
+
+    private final float            loadFactor;
+
+    private int                    factSize;
+
+    private final Index            index;
+
+    private final IndexedValueReader fieldIndex;
+
+    private final boolean          left;
+
+    private transient FullFastIterator fullFastIterator;
+
+    public TupleIndexLongHashTable(Index index, boolean left) {
+        this( 128, 0.75f, index, left );
+    }
+
+    public TupleIndexLongHashTable(int capacity,
+                                   float loadFactor,
+                                   Index index,
+                                   boolean left) {
+        this.loadFactor = loadFactor;
+        this.index = index;
+        this.fieldIndex = index.getFieldIndex( 0 );
+        this.left = left;
+        init( capacity );
+    }
+
+    private void init(int capacity) {
+        this.keys = new long[capacity];
+        this.buckets = new LongKeyTupleList[capacity];
+        this.threshold = (int) (capacity * loadFactor);
+        this.size = 0;
+        this.used = 0;
+    }
+
+    @Override
+    public TupleImpl getFirst(TupleImpl tuple) {
+        long key;
+        try {
+            key = fieldIndex.wholeNumberIndexedValueOf( tuple, !left );
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
+        LongKeyTupleList bucket = get( key );
+        return bucket != null ? bucket.getFirst() : null;
+    }
+
+    @Override
+    public void removeAdd(TupleImpl tuple) {
+        long key;
+        try {
+            key = fieldIndex.wholeNumberIndexedValueOf( tuple, left );
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+
+        LongKeyTupleList memory = (LongKeyTupleList) tuple.getMemory();
+        memory.remove( tuple );
+
+        if ( memory.key == key ) {
+            // it's the same bucket, so re-use and return
+            memory.add( tuple );
+            return;
+        }
+
+        if ( memory.getFirst() == null ) {
+            removeBucket( memory );
+        }
+
+        getOrCreate( key ).add( tuple );
+    }
+
+    @Override
+    public void add(TupleImpl tuple) {
+        long key;
+        try {
+            key = fieldIndex.wholeNumberIndexedValueOf( tuple, left );
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+        getOrCreate( key ).add( tuple );
+        this.factSize++;
+    }
+
+    @Override
+    public void remove(TupleImpl tuple) {
+        LongKeyTupleList memory = (LongKeyTupleList) tuple.getMemory();
+        memory.remove( tuple );
+        this.factSize--;
+        if ( memory.getFirst() == null ) {
+            removeBucket( memory );
+        }
+        tuple.clear();
+    }
+
+    private static int indexOf(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private LongKeyTupleList get(long key) {
+        int mask = this.keys.length - 1;
+        for ( int i = indexOf( key, mask ); ; i = (i + 1) & mask ) {
+            LongKeyTupleList bucket = this.buckets[i];
+            if ( bucket == null ) {
+                return null;
+            }
+            if ( bucket != DELETED && this.keys[i] == key ) {
+                return bucket;
+            }
+        }
+    }
+
+    private LongKeyTupleList getOrCreate(long key) {
+        int mask = this.keys.length - 1;
+        int free = -1;
+        int i = indexOf( key, mask );
+        for ( LongKeyTupleList bucket = this.buckets[i]; bucket != null; bucket = this.buckets[i] ) {
+            if ( bucket == DELETED ) {
+                if ( free < 0 ) {
+                    free = i;
+                }
+            } else if ( this.keys[i] == key ) {
+                return bucket;
+            }
+            i = (i + 1) & mask;
+        }
+
+        LongKeyTupleList bucket = new LongKeyTupleList( key );
+        if ( free >= 0 ) {
+            // re-use the first tombstone found along the probe sequence
+            i = free;
+        } else {
+            this.used++;
+        }
+        this.keys[i] = key;
+        this.buckets[i] = bucket;
+        this.size++;
+
+        if ( this.used > this.threshold ) {
+            // only grow if the live buckets need it, otherwise just get rid of the tombstones
+            rehash( this.size > this.threshold / 2 ? this.keys.length * 2 : this.keys.length );
+        }
+        return bucket;
+    }
+
+    private void removeBucket(LongKeyTupleList bucket) {
+        int i = slotOf( bucket );
+        this.buckets[i] = DELETED;
+        this.size--;
+    }
+
+    private int slotOf(LongKeyTupleList bucket) {
+        int mask = this.keys.length - 1;
+        int i = indexOf( bucket.key, mask );
+        while ( this.buckets[i] != bucket ) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = this.keys;
+        LongKeyTupleList[] oldBuckets = this.buckets;
+
+        this.keys = new long[newCapacity];
+        this.buckets = new LongKeyTupleList[newCapacity];
+        this.threshold = (int) (newCapacity * loadFactor);
+
+        int mask = newCapacity - 1;
+        for ( int j = 0; j < oldBuckets.length; j++ ) {
+            LongKeyTupleList bucket = oldBuckets[j];
+            if ( bucket == null || bucket == DELETED ) {
+                continue;
+            }
+            int i = indexOf( oldKeys[j], mask );
+            while ( this.buckets[i] != null ) {
+                i = (i + 1) & mask;
+            }
+            this.keys[i] = oldKeys[j];
+            this.buckets[i] = bucket;
+        }
+        this.used = this.size;
+    }
+
+    @Override
+    public boolean isIndexed() {
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return this.factSize;
+    }
+
+    /**
+     * The number of distinct keys currently stored
+     */
+    public int keySize() {
+        return this.size;
+    }
+
+    @Override
+    public FastIterator<TupleImpl> fastIterator() {
+        return LinkedList.fastIterator;
+    }
+
+    @Override
+    public FastIterator<TupleImpl> fullFastIterator() {
+        if ( fullFastIterator == null ) {
+            fullFastIterator = new FullFastIterator( this );
+        } else {
+            fullFastIterator.reset();
+        }
+        return fullFastIterator;
+    }
+
+    @Override
+    public FastIterator<TupleImpl> fullFastIterator(TupleImpl tuple) {
+        if ( fullFastIterator == null ) {
+            fullFastIterator = new FullFastIterator( this );
+        }
+        fullFastIterator.resume( tuple );
+        return fullFastIterator;
+    }
+
+    @Override
+    public Index getIndex() {
+        return this.index;
+    }
+
+    @Override
+    public IndexType getIndexType() {
+        return IndexType.EQUAL;
+    }
+
+    @Override
+    public void clear() {
+        init( Math.min( this.keys.length, 16 ) );
+        this.factSize = 0;
+        this.fullFastIterator = null;
+    }
+
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        FastIterator<TupleImpl> it = new FullFastIterator( this );
+        for ( TupleImpl tuple = it.next( null ); tuple != null; tuple = it.next( tuple ) ) {
+            builder.append( tuple ).append( "\n" );
+        }
+        return builder.toString();
+    }
+
+    public static class LongKeyTupleList extends TupleList {
+        private final long key;
+
+        public LongKeyTupleList(long key) {
+            this.key = key;
+        }
+
+        public long getKey() {
+            return key;
+        }
+    }
+
+    public static class FullFastIterator implements FastIterator<TupleImpl> {
+        private final TupleIndexLongHashTable memory;
+        private int row;
+
+        public FullFastIterator(TupleIndexLongHashTable memory) {
+            this.memory = memory;
+        }
+
+        public void resume(TupleImpl target) {
+            row = memory.slotOf( (LongKeyTupleList) target.getMemory() ) + 1; // row always points to the slot after the current bucket
+        }
+
+        public TupleImpl next(TupleImpl tuple) {
+            if ( tuple != null ) {
+                TupleImpl next = tuple.getNext();
+                if ( next != null ) {
+                    return next;
+                }
+            }
+
+            LongKeyTupleList[] buckets = memory.buckets;
+            while ( row < buckets.length ) {
+                LongKeyTupleList bucket = buckets[row++];
+                if ( bucket != null && bucket != DELETED ) {
+                    return bucket.getFirst();
+                }
+            }
+            return null;
+        }
+
+        public boolean isFullIterator() {
+            return true;
+        }
+
+        public void reset() {
+            this.row = 0;
+        }
+    }
+}
@@ -38,15 +38,29 @@ public class TupleIndexRBTree extends AbstractTupleIndexTree implements External
 
     private TupleRBTree<Comparable<Comparable>> tree;
 
+    // a second comparison on the same right field, in the opposite direction of the indexed one (like
+    // ts > $x.start, ts < $x.end), bounding the iteration of the right memory to the tuples that can match
+    private IndexedValueReader boundIndex;
+    private ConstraintTypeOperator boundType;
+
     public TupleIndexRBTree() {
         // constructor for serialisation
     }
 
     public TupleIndexRBTree(ConstraintTypeOperator constraintType, IndexedValueReader index, boolean left) {
+        this(constraintType, index, null, null, left);
+    }
+
+    public TupleIndexRBTree(ConstraintTypeOperator constraintType, IndexedValueReader index,
+                            ConstraintTypeOperator boundType, IndexedValueReader boundIndex, boolean left) {
         this.index = index;
         this.constraintType = constraintType;
         this.left = left;
-        tree = new TupleRBTree<>();
+        if (!left) {
+            this.boundType = boundType;
+            this.boundIndex = boundType != null ? boundIndex : null;
+        }
+        tree = new IndexTree(this);
     }
 
     public void writeExternal(ObjectOutput out) throws IOException {
@@ -55,6 +69,8 @@ public class TupleIndexRBTree extends AbstractTupleIndexTree implements External
         out.writeObject( constraintType );
         out.writeInt(factSize);
         out.writeBoolean( left );
+        out.writeObject( boundIndex );
+        out.writeObject( boundType );
     }
 
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
@@ -63,6 +79,8 @@ public class TupleIndexRBTree extends AbstractTupleIndexTree implements External
         constraintType = (ConstraintTypeOperator) in.readObject();
         factSize = in.readInt();
         left = in.readBoolean();
+        boundIndex = (IndexedValueReader) in.readObject();
+        boundType = (ConstraintTypeOperator) in.readObject();
     }
 
     public void add(TupleImpl tuple) {
@@ -96,6 +114,68 @@ public class TupleIndexRBTree extends AbstractTupleIndexTree implements External
         return getNext(key, true);
     }
 
+    @Override
+    public TupleImpl getFirst(TupleImpl tuple, FastIterator<TupleImpl> it) {
+        TupleImpl first = getFirst(tuple);
+        if (it instanceof TupleFastIterator tupleIt) {
+            tupleIt.bound = first != null ? getBound(tuple) : null;
+            if (first != null && !tupleIt.isInBound(first)) {
+                return null;
+            }
+        }
+        return first;
+    }
+
+    private Comparable getBound(TupleImpl tuple) {
+        if (boundIndex == null) {
+            return null;
+        }
+        Comparable bound = (Comparable) boundIndex.getLeftExtractor().getValue( null, tuple );
+        return coerceType(boundIndex, tree.root != null ? tree.root.key : null, bound);
+    }
+
+    boolean isInBound(Comparable key, Comparable bound) {
+        if (key == null) {
+            return false;
+        }
+        int comparison = key.compareTo(bound);
+        return switch (boundType) {
+            case LESS_THAN -> comparison < 0;
+            case LESS_OR_EQUAL -> comparison <= 0;
+            case GREATER_THAN -> comparison > 0;
+            case GREATER_OR_EQUAL -> comparison >= 0;
+            default -> true;
+        };
+    }
+
+    TupleImpl getNextAfter(TupleImpl tuple) {
+        return getNext(getLeftIndexedValue(tuple), false);
+    }
+
+    TupleImpl getFirst() {
+        Node<Comparable<Comparable>> firstNode = tree.first();
+        return firstNode == null ? null : firstNode.getFirst();
+    }
+
+    TupleImpl getFirstInOrder() {
+        TupleImpl first = getFirst();
+        return first != null ? first : getFirstWithNullKey();
+    }
+
+    TupleImpl getNextInOrder(Node<Comparable<Comparable>> node) {
+        // the successor of the node in the ascending order of the keys, regardless of the indexed constraint,
+        // with the tuples having a null key coming last
+        if (node.key == null) {
+            return null;
+        }
+        Node<Comparable<Comparable>> next = tree.findNearestNode(node.key, false, Boundary.LOWER);
+        return next != null ? next.getFirst() : getFirstWithNullKey();
+    }
+
+    private TupleImpl getFirstWithNullKey() {
+        return tree.nullNode != null ? tree.nullNode.getFirst() : null;
+    }
+
     public Iterator<TupleImpl> iterator() {
         TupleList list = tree.first();
         TupleImpl firstTuple = list != null ? list.getFirst() : null;
@@ -103,11 +183,11 @@ public class TupleIndexRBTree extends AbstractTupleIndexTree implements External
     }
 
     public FastIterator<TupleImpl> fastIterator() {
-        return new TupleFastIterator();
+        return new TupleFastIterator(this);
     }
 
     public FastIterator<TupleImpl> fullFastIterator() {
-        return new TupleFastIterator();
+        return new TupleFastIterator(this);
     }
 
     public FastIterator<TupleImpl> fullFastIterator(TupleImpl leftTuple) {
@@ -180,18 +260,30 @@ public class TupleIndexRBTree extends AbstractTupleIndexTree implements External
         return key;
     }
 
-    public class TupleFastIterator implements FastIterator<TupleImpl> {
+    public static class TupleFastIterator implements FastIterator<TupleImpl> {
+        private final TupleIndexRBTree memory;
+
+        // the bound of the last tuple used to start the iteration, if any
+        private Comparable bound;
+
+        TupleFastIterator(TupleIndexRBTree memory) {
+            this.memory = memory;
+        }
+
         public TupleImpl next(TupleImpl tuple) {
             if (tuple == null) {
-                Node<Comparable<Comparable>> firstNode = tree.first();
-                return firstNode == null ? null : firstNode.getFirst();
+                return memory != null ? memory.getFirst() : null;
             }
             TupleImpl next = tuple.getNext();
             if (next != null) {
                 return next;
             }
-            Comparable key = getLeftIndexedValue(tuple);
-            return getNext(key, false);
+            next = getOwner(tuple).getNextAfter(tuple);
+            return next == null || isInBound(next) ? next : null;
+        }
+
+        private boolean isInBound(TupleImpl tuple) {
+            return bound == null || getOwner(tuple).isInBound(((Node<Comparable<Comparable>>) tuple.getMemory()).key, bound);
         }
 
         public boolean isFullIterator() {
@@ -200,10 +292,36 @@ public class TupleIndexRBTree extends AbstractTupleIndexTree implements External
     }
 
     public void clear() {
-        tree = new TupleRBTree<>();
+        tree = new IndexTree(this);
     }
 
     public IndexType getIndexType() {
         return IndexType.COMPARISON;
     }
+
+    static TupleIndexRBTree getOwner(TupleImpl tuple) {
+        return ((IndexNode) tuple.getMemory()).owner;
+    }
+
+    private static class IndexTree extends TupleRBTree<Comparable<Comparable>> {
+        private final TupleIndexRBTree owner;
+
+        private IndexTree(TupleIndexRBTree owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        protected Node<Comparable<Comparable>> newNode(Comparable<Comparable> key) {
+            return new IndexNode(key, owner);
+        }
+    }
+
+    private static class IndexNode extends Node<Comparable<Comparable>> {
+        private final TupleIndexRBTree owner;
+
+        private IndexNode(Comparable<Comparable> key, TupleIndexRBTree owner) {
+            super(key);
+            this.owner = owner;
+        }
+    }
 }
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.benchmark;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.drools.core.util.BinaryHeapQueue;
+import org.drools.core.util.BucketedQueue;
+import org.drools.core.util.Queue;
+import org.drools.core.util.Queue.QueueEntry;
+import org.drools.core.util.TreeSetQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the queues that can be used by an agenda group to schedule the rules to be evaluated, on a rule base
+ * where all rules have the default salience. Each operation simulates a fire cycle: a random subset of the rules
+ * gets activated, some of them are deactivated before firing and the remaining ones are dequeued.
+ */
+@Fork(1)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AgendaQueueBenchmark {
+
+    private static final Comparator<Item> CONFLICT_RESOLVER = (existing, adding) -> {
+        int s1 = existing.salience;
+        int s2 = adding.salience;
+        if (s1 != s2) {
+            return s1 > s2 ? 1 : -1;
+        }
+        return adding.loadOrder - existing.loadOrder;
+    };
+
+    public enum QueueType {
+        TREE_SET(() -> new TreeSetQueue<>(CONFLICT_RESOLVER)),
+        BINARY_HEAP(() -> new BinaryHeapQueue<>(CONFLICT_RESOLVER)),
+        BUCKETED(() -> new BucketedQueue<>(Item::getSalience));
+
+        private final Supplier<Queue<Item>> factory;
+
+        QueueType(Supplier<Queue<Item>> factory) {
+            this.factory = factory;
+        }
+
+        public Queue<Item> create() {
+            return factory.get();
+        }
+    }
+
+    @Param({"100", "1000"})
+    private int numberOfRules;
+
+    @Param({"TREE_SET", "BINARY_HEAP", "BUCKETED"})
+    private QueueType queueType;
+
+    private Item[] items;
+
+    private int[] activations;
+
+    private Queue<Item> queue;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        items = new Item[numberOfRules];
+        for (int i = 0; i < numberOfRules; i++) {
+            items[i] = new Item(i);
+        }
+        Random random = new Random(0);
+        activations = new int[numberOfRules * 4];
+        for (int i = 0; i < activations.length; i++) {
+            activations[i] = random.nextInt(numberOfRules);
+        }
+        queue = queueType.create();
+    }
+
+    @Benchmark
+    public void fireCycle(Blackhole bh) {
+        for (int i = 0; i < activations.length; i++) {
+            Item item = items[activations[i]];
+            if (item.isQueued()) {
+                if (i % 4 == 0) {
+                    item.dequeue(queue);
+                }
+            } else {
+                queue.enqueue(item);
+            }
+        }
+        for (Item item = queue.dequeue(); item != null; item = queue.dequeue()) {
+            item.setQueued(false);
+            bh.consume(item);
+        }
+    }
+
+    public static class Item implements QueueEntry {
+        private final int salience;
+        private final int loadOrder;
+        private int index = -1;
+        private boolean queued;
+
+        public Item(int loadOrder) {
+            this.salience = 0;
+            this.loadOrder = loadOrder;
+        }
+
+        public int getSalience() {
+            return salience;
+        }
+
+        private void dequeue(Queue<Item> queue) {
+            queue.dequeue(this);
+            this.queued = false;
+        }
+
+        @Override
+        public void setQueued(boolean queued) {
+            this.queued = queued;
+        }
+
+        @Override
+        public int getQueueIndex() {
+            return index;
+        }
+
+        @Override
+        public void setQueueIndex(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void dequeue() {
+            this.queued = false;
+        }
+
+        @Override
+        public boolean isQueued() {
+            return queued;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.benchmark;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.drools.core.common.ClassAwareObjectStore;
+import org.drools.core.common.DefaultFactHandle;
+import org.drools.core.common.IdentityObjectStore;
+import org.drools.core.common.InternalFactHandle;
+import org.drools.core.common.ObjectStore;
+import org.drools.core.common.SlabObjectStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the ObjectStore implementations when filled with a large number of facts.
+ * Run it with the JMH gc profiler (-prof gc) to also compare the allocations of the different stores.
+ */
+@Fork(1)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ObjectStoreBenchmark {
+
+    public enum StoreType {
+        IDENTITY(IdentityObjectStore::new),
+        CLASS_AWARE(() -> new ClassAwareObjectStore(false, new ReentrantLock())),
+        SLAB(SlabObjectStore::new);
+
+        private final Supplier<ObjectStore> factory;
+
+        StoreType(Supplier<ObjectStore> factory) {
+            this.factory = factory;
+        }
+
+        public ObjectStore create() {
+            return factory.get();
+        }
+    }
+
+    @Param({"1000000"})
+    private int numberOfFacts;
+
+    @Param({"IDENTITY", "CLASS_AWARE", "SLAB"})
+    private StoreType storeType;
+
+    private InternalFactHandle[] handles;
+
+    private ObjectStore filledStore;
+
+    @Setup(Level.Trial)
+    public void createHandles() {
+        handles = createHandles(numberOfFacts);
+        filledStore = fill(storeType.create(), handles);
+    }
+
+    @Benchmark
+    public ObjectStore insertAll() {
+        return fill(storeType.create(), handles);
+    }
+
+    @Benchmark
+    public void lookupAll(Blackhole bh) {
+        for (InternalFactHandle handle : handles) {
+            bh.consume(filledStore.getHandleForObject(handle.getObject()));
+        }
+    }
+
+    @Benchmark
+    public void iterateAll(Blackhole bh) {
+        for (Iterator<InternalFactHandle> it = filledStore.iterateFactHandles(); it.hasNext(); ) {
+            bh.consume(it.next());
+        }
+    }
+
+    @Benchmark
+    public ObjectStore insertAndRemoveAll() {
+        ObjectStore store = fill(storeType.create(), handles);
+        for (InternalFactHandle handle : handles) {
+            store.removeHandle(handle);
+        }
+        return store;
+    }
+
+    private static InternalFactHandle[] createHandles(int numberOfFacts) {
+        InternalFactHandle[] handles = new InternalFactHandle[numberOfFacts];
+        for (int i = 0; i < numberOfFacts; i++) {
+            handles[i] = new DefaultFactHandle(i, new Fact(i));
+        }
+        return handles;
+    }
+
+    private static ObjectStore fill(ObjectStore store, InternalFactHandle[] handles) {
+        for (InternalFactHandle handle : handles) {
+            store.addHandle(handle, handle.getObject());
+        }
+        return store;
+    }
+
+    public static class Fact {
+        private final int value;
+
+        public Fact(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+}
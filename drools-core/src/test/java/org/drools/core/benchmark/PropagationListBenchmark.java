@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.drools.base.phreak.PropagationEntry;
+import org.drools.base.phreak.actions.AbstractPropagationEntry;
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.phreak.LockFreePropagationList;
+import org.drools.core.phreak.PropagationList;
+import org.drools.core.phreak.SynchronizedPropagationList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the throughput of many threads concurrently adding entries to the same PropagationList,
+ * as it happens when several threads insert facts into the same thread safe session.
+ * The list is periodically drained by the producers themselves, simulating the thread evaluating the network.
+ * Running the main method executes the benchmark with 2, 4, 8, 16 and 32 producer threads.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PropagationListBenchmark {
+
+    public enum ListType {
+        SYNCHRONIZED(() -> new SynchronizedPropagationList(null)),
+        LOCK_FREE(() -> new LockFreePropagationList(null));
+
+        private final Supplier<PropagationList> factory;
+
+        ListType(Supplier<PropagationList> factory) {
+            this.factory = factory;
+        }
+
+        public PropagationList create() {
+            return factory.get();
+        }
+    }
+
+    private static final int DRAIN_EVERY = 1024;
+
+    @Param({"SYNCHRONIZED", "LOCK_FREE"})
+    private ListType listType;
+
+    private PropagationList propagationList;
+
+    @State(Scope.Thread)
+    public static class Producer {
+        private int added;
+    }
+
+    @Setup(Level.Iteration)
+    public void createList() {
+        propagationList = listType.create();
+    }
+
+    @Benchmark
+    public void addEntry(Producer producer) {
+        propagationList.addEntry(new Entry());
+        if (++producer.added % DRAIN_EVERY == 0) {
+            drain();
+        }
+    }
+
+    private int drain() {
+        int drained = 0;
+        for (PropagationEntry<ReteEvaluator> entry = propagationList.takeAll(); entry != null; entry = entry.getNext()) {
+            drained++;
+        }
+        return drained;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[] { 2, 4, 8, 16, 32 }) {
+            Options options = new OptionsBuilder()
+                    .include(PropagationListBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+
+    private static class Entry extends AbstractPropagationEntry<ReteEvaluator> {
+        @Override
+        public void internalExecute(ReteEvaluator reteEvaluator) { }
+    }
+}
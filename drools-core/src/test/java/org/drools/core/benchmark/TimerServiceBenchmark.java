@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.drools.base.time.JobHandle;
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.time.Job;
+import org.drools.core.time.JobContext;
+import org.drools.core.time.impl.PointInTimeTrigger;
+import org.drools.core.time.impl.PseudoClockScheduler;
+import org.drools.core.time.impl.TimingWheelPseudoClockScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the pseudo clock schedulers when a very high number of event expirations are pending:
+ * all the jobs are scheduled, some of them are cancelled (as it happens to events retracted before
+ * expiring) and then the clock is advanced in small steps until all the others are fired.
+ */
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx8g"})
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TimerServiceBenchmark {
+
+    public enum SchedulerType {
+        PRIORITY_QUEUE(PseudoClockScheduler::new),
+        TIMING_WHEEL(TimingWheelPseudoClockScheduler::new);
+
+        private final Supplier<PseudoClockScheduler> factory;
+
+        SchedulerType(Supplier<PseudoClockScheduler> factory) {
+            this.factory = factory;
+        }
+
+        public PseudoClockScheduler create() {
+            return factory.get();
+        }
+    }
+
+    private static final long EXPIRATION_WINDOW = TimeUnit.HOURS.toMillis(1);
+
+    private static final long ADVANCE_STEP = 100;
+
+    private static final int CANCELLED_JOBS_RATIO = 100;
+
+    @Param({"10000000"})
+    private int numberOfJobs;
+
+    @Param({"PRIORITY_QUEUE", "TIMING_WHEEL"})
+    private SchedulerType schedulerType;
+
+    private long[] expirationTimes;
+
+    private PseudoClockScheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void createExpirationTimes() {
+        Random random = new Random(0);
+        expirationTimes = new long[numberOfJobs];
+        for (int i = 0; i < numberOfJobs; i++) {
+            expirationTimes[i] = 1 + random.nextLong(EXPIRATION_WINDOW);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void createScheduler() {
+        scheduler = schedulerType.create();
+    }
+
+    @Benchmark
+    public int scheduleCancelAndExpire() {
+        CountingJob job = new CountingJob();
+        JobHandle[] handles = new JobHandle[numberOfJobs];
+        for (int i = 0; i < numberOfJobs; i++) {
+            handles[i] = scheduler.scheduleJob(job, new BenchmarkJobContext(), PointInTimeTrigger.createPointInTimeTrigger(expirationTimes[i], null));
+        }
+        for (int i = 0; i < numberOfJobs; i += CANCELLED_JOBS_RATIO) {
+            scheduler.removeJob(handles[i]);
+        }
+        for (long time = 0; time <= EXPIRATION_WINDOW; time += ADVANCE_STEP) {
+            scheduler.advanceTime(ADVANCE_STEP, TimeUnit.MILLISECONDS);
+        }
+        return job.counter;
+    }
+
+    private static class CountingJob implements Job {
+        private int counter;
+
+        @Override
+        public void execute(JobContext ctx) {
+            counter++;
+        }
+    }
+
+    private static class BenchmarkJobContext implements JobContext {
+        private JobHandle jobHandle;
+
+        @Override
+        public void setJobHandle(JobHandle jobHandle) {
+            this.jobHandle = jobHandle;
+        }
+
+        @Override
+        public JobHandle getJobHandle() {
+            return jobHandle;
+        }
+
+        @Override
+        public ReteEvaluator getReteEvaluator() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SlabObjectStoreTest {
+
+    private static final AtomicInteger factCounter = new AtomicInteger(0);
+
+    @Test
+    public void addAndLookupByObjectAndHandle() {
+        SlabObjectStore underTest = new SlabObjectStore();
+        SimpleClass object = new SimpleClass();
+        InternalFactHandle handle = handleFor(object);
+        underTest.addHandle(handle, object);
+
+        assertThat(underTest.size()).isEqualTo(1);
+        assertThat(underTest.getHandleForObject(object)).isSameAs(handle);
+        assertThat(underTest.getHandleForObject(new SimpleClass())).isNull();
+        assertThat(underTest.getObjectForHandle(handle)).isSameAs(object);
+        assertThat(underTest.reconnect(handle)).isSameAs(handle);
+    }
+
+    @Test
+    public void reconnectDisconnectedHandleById() {
+        SlabObjectStore underTest = new SlabObjectStore();
+        SimpleClass object = new SimpleClass();
+        InternalFactHandle handle = handleFor(object);
+        underTest.addHandle(handle, object);
+
+        InternalFactHandle disconnected = handle.clone();
+        disconnected.disconnect();
+        assertThat(underTest.reconnect(disconnected)).isSameAs(handle);
+    }
+
+    @Test
+    public void reconnectByIdAfterRemovalsAndReplacements() {
+        SlabObjectStore underTest = new SlabObjectStore();
+        int numberOfFacts = SlabObjectStore.SLAB_SIZE * 2;
+        List<InternalFactHandle> handles = new ArrayList<>();
+        for (int i = 0; i < numberOfFacts; i++) {
+            SimpleClass object = new SimpleClass();
+            InternalFactHandle handle = handleFor(object);
+            underTest.addHandle(handle, object);
+            handles.add(handle);
+        }
+        for (int i = 0; i < numberOfFacts; i += 2) {
+            underTest.removeHandle(handles.get(i));
+        }
+
+        for (int i = 0; i < numberOfFacts; i++) {
+            InternalFactHandle disconnected = handles.get(i).clone();
+            disconnected.disconnect();
+            assertThat(underTest.reconnect(disconnected)).isSameAs(i % 2 == 0 ? null : handles.get(i));
+        }
+
+        // the same object added with a new handle replaces the old one also in the id lookup
+        InternalFactHandle replaced = handles.get(1);
+        InternalFactHandle replacement = handleFor(replaced.getObject());
+        underTest.addHandle(replacement, replaced.getObject());
+
+        InternalFactHandle disconnectedReplaced = replaced.clone();
+        disconnectedReplaced.disconnect();
+        assertThat(underTest.reconnect(disconnectedReplaced)).isNull();
+        InternalFactHandle disconnectedReplacement = replacement.clone();
+        disconnectedReplacement.disconnect();
+        assertThat(underTest.reconnect(disconnectedReplacement)).isSameAs(replacement);
+    }
+
+    @Test
+    public void removeAndReuseSlots() {
+        SlabObjectStore underTest = new SlabObjectStore();
+        int numberOfFacts = SlabObjectStore.SLAB_SIZE * 3;
+        List<InternalFactHandle> handles = new ArrayList<>();
+        for (int i = 0; i < numberOfFacts; i++) {
+            SimpleClass object = new SimpleClass();
+            InternalFactHandle handle = handleFor(object);
+            underTest.addHandle(handle, object);
+            handles.add(handle);
+        }
+        assertThat(underTest.size()).isEqualTo(numberOfFacts);
+        assertThat(collect(underTest.iterateFactHandles())).containsExactlyElementsOf(handles);
+
+        for (int i = 0; i < numberOfFacts; i += 2) {
+            underTest.removeHandle(handles.get(i));
+        }
+        assertThat(underTest.size()).isEqualTo(numberOfFacts / 2);
+        for (int i = 0; i < numberOfFacts; i++) {
+            InternalFactHandle handle = handles.get(i);
+            assertThat(underTest.getHandleForObject(handle.getObject())).isSameAs(i % 2 == 0 ? null : handle);
+        }
+
+        SimpleClass object = new SimpleClass();
+        InternalFactHandle handle = handleFor(object);
+        underTest.addHandle(handle, object);
+        assertThat(underTest.size()).isEqualTo(numberOfFacts / 2 + 1);
+        assertThat(underTest.getHandleForObject(object)).isSameAs(handle);
+    }
+
+    @Test
+    public void updateHandle() {
+        SlabObjectStore underTest = new SlabObjectStore();
+        SimpleClass object = new SimpleClass();
+        InternalFactHandle handle = handleFor(object);
+        underTest.addHandle(handle, object);
+
+        SimpleClass newObject = new SimpleClass();
+        underTest.updateHandle(handle, newObject);
+
+        assertThat(underTest.size()).isEqualTo(1);
+        assertThat(underTest.getHandleForObject(object)).isNull();
+        assertThat(underTest.getHandleForObject(newObject)).isSameAs(handle);
+    }
+
+    @Test
+    public void iterateByClassAndClearClassStore() {
+        SlabObjectStore underTest = new SlabObjectStore();
+        Object superObject = new SuperClass();
+        underTest.addHandle(handleFor(superObject), superObject);
+        Object subObject = new SubClass();
+        underTest.addHandle(handleFor(subObject), subObject);
+        underTest.addHandle(handleFor("a string"), "a string");
+
+        assertThat(collect(underTest.iterateObjects())).hasSize(3);
+        assertThat(collect(underTest.iterateObjects(SubClass.class::isInstance))).containsExactly(subObject);
+        assertThat(collect(underTest.iterateFactHandles(SuperClass.class))).hasSize(2);
+        assertThat(collect(underTest.getStoreForClass(SuperClass.class).iterator())).hasSize(2);
+
+        assertThat(underTest.clearClassStore(SuperClass.class)).isTrue();
+        assertThat(collect(underTest.iterateObjects())).containsExactly("a string");
+        assertThat(underTest.clearClassStore(SuperClass.class)).isFalse();
+
+        underTest.clear();
+        assertThat(underTest.isEmpty()).isTrue();
+        assertThat(collect(underTest.iterateObjects())).isEmpty();
+    }
+
+    private static <T> Collection<T> collect(Iterator<T> objects) {
+        List<T> result = new ArrayList<>();
+        while (objects.hasNext()) {
+            result.add(objects.next());
+        }
+        return result;
+    }
+
+    private static InternalFactHandle handleFor(Object object) {
+        return new DefaultFactHandle(factCounter.getAndIncrement(), object);
+    }
+
+    private static class SimpleClass {
+    }
+
+    private static class SuperClass {
+    }
+
+    private static class SubClass extends SuperClass {
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.phreak;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.drools.base.phreak.PropagationEntry;
+import org.drools.base.phreak.actions.AbstractPropagationEntry;
+import org.drools.core.common.ReteEvaluator;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LockFreePropagationListTest {
+
+    @Test
+    public void takeAllInInsertionOrder() {
+        LockFreePropagationList list = new LockFreePropagationList(null);
+        assertThat(list.isEmpty()).isTrue();
+        assertThat(list.takeAll()).isNull();
+
+        for (int i = 0; i < 5; i++) {
+            list.addEntry(new Entry(0, i, i == 3));
+        }
+        assertThat(list.isEmpty()).isFalse();
+        assertThat(list.hasEntriesDeferringExpiration()).isTrue();
+        assertThat(sequences(list.iterator())).containsExactly(0, 1, 2, 3, 4);
+
+        PropagationEntry<ReteEvaluator> head = list.takeAll();
+        assertThat(list.isEmpty()).isTrue();
+        assertThat(list.hasEntriesDeferringExpiration()).isFalse();
+        assertThat(sequences(new SynchronizedPropagationList.PropagationEntryIterator(head))).containsExactly(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    public void concurrentProducersKeepTheirOrder() throws InterruptedException {
+        int producersNr = 8;
+        int entriesPerProducer = 10_000;
+        LockFreePropagationList list = new LockFreePropagationList(null);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < producersNr; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                for (int i = 0; i < entriesPerProducer; i++) {
+                    list.addEntry(new Entry(producer, i, false));
+                }
+            });
+            thread.start();
+            producers.add(thread);
+        }
+
+        int[] lastSequence = new int[producersNr];
+        Arrays.fill(lastSequence, -1);
+        int taken = 0;
+        start.countDown();
+        while (taken < producersNr * entriesPerProducer) {
+            for (PropagationEntry<ReteEvaluator> entry = list.takeAll(); entry != null; entry = entry.getNext()) {
+                Entry e = (Entry) entry;
+                assertThat(e.sequence).isEqualTo(lastSequence[e.producer] + 1);
+                lastSequence[e.producer] = e.sequence;
+                taken++;
+            }
+        }
+
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertThat(list.isEmpty()).isTrue();
+        assertThat(lastSequence).containsOnly(entriesPerProducer - 1);
+    }
+
+    private static List<Integer> sequences(Iterator<PropagationEntry<ReteEvaluator>> iterator) {
+        List<Integer> sequences = new ArrayList<>();
+        while (iterator.hasNext()) {
+            sequences.add(((Entry) iterator.next()).sequence);
+        }
+        return sequences;
+    }
+
+    private static class Entry extends AbstractPropagationEntry<ReteEvaluator> {
+        private final int producer;
+        private final int sequence;
+        private final boolean defersExpiration;
+
+        private Entry(int producer, int sequence, boolean defersExpiration) {
+            this.producer = producer;
+            this.sequence = sequence;
+            this.defersExpiration = defersExpiration;
+        }
+
+        @Override
+        public void internalExecute(ReteEvaluator reteEvaluator) { }
+
+        @Override
+        public boolean defersExpiration() {
+            return defersExpiration;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.time.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.base.time.JobHandle;
+import org.drools.core.ClockType;
+import org.drools.core.SessionConfiguration;
+import org.drools.core.impl.RuleBaseFactory;
+import org.drools.core.time.Job;
+import org.drools.core.time.JobContext;
+import org.drools.core.time.TimerService;
+import org.junit.jupiter.api.Test;
+import org.kie.internal.runtime.conf.TimerServiceOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class TimingWheelTest {
+
+    @Test
+    public void pollExpiredInFireTimeOrderAcrossLevels() {
+        TimingWheel wheel = new TimingWheel(0);
+        long[] times = { 5, 300, 5, 70_000, 1L << 40, 255, 256, 65_536, 20_000_000 };
+        for (long time : times) {
+            wheel.add(null, time);
+        }
+        assertThat(wheel.size()).isEqualTo(times.length);
+        assertThat(wheel.nextExpirationTime()).isEqualTo(5);
+
+        List<Long> expired = new ArrayList<>();
+        TimingWheel.Entry batch = wheel.pollExpired(5);
+        for (TimingWheel.Entry entry = batch; entry != null; entry = entry.getNext()) {
+            expired.add(entry.getTime());
+        }
+        // the jobs expiring in the same millisecond are coalesced in a single batch
+        assertThat(expired).containsExactly(5L, 5L);
+        assertThat(wheel.pollExpired(254)).isNull();
+        assertThat(wheel.getCursor()).isEqualTo(254);
+        assertThat(wheel.nextExpirationTime()).isEqualTo(255);
+
+        expired.clear();
+        while ((batch = wheel.pollExpired(Long.MAX_VALUE - 1)) != null) {
+            for (TimingWheel.Entry entry = batch; entry != null; entry = entry.getNext()) {
+                expired.add(entry.getTime());
+            }
+        }
+        assertThat(expired).containsExactly(255L, 256L, 300L, 65_536L, 70_000L, 20_000_000L, 1L << 40);
+        assertThat(wheel.isEmpty()).isTrue();
+        assertThat(wheel.nextExpirationTime()).isEqualTo(-1);
+    }
+
+    @Test
+    public void removeAndScheduleInThePast() {
+        TimingWheel wheel = new TimingWheel(1000);
+        TimingWheel.Entry first = wheel.add(null, 2000);
+        TimingWheel.Entry second = wheel.add(null, 3000);
+        assertThat(wheel.remove(first)).isTrue();
+        assertThat(wheel.remove(first)).isFalse();
+        assertThat(wheel.nextExpirationTime()).isEqualTo(3000);
+
+        // a job scheduled before the cursor expires immediately
+        TimingWheel.Entry past = wheel.add(null, 10);
+        assertThat(wheel.nextExpirationTime()).isEqualTo(1000);
+        assertThat(wheel.pollExpired(1000)).isSameAs(past);
+
+        assertThat(wheel.pollExpired(2999)).isNull();
+        assertThat(wheel.pollExpired(3000)).isSameAs(second);
+        assertThat(wheel.remove(second)).isFalse();
+        assertThat(wheel.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void expireAsPriorityQueue() {
+        Random random = new Random(0);
+        TimingWheel wheel = new TimingWheel(0);
+        List<TimingWheel.Entry> entries = new ArrayList<>();
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            long time = random.nextInt(3) == 0 ? random.nextInt(1000) : random.nextLong(100_000_000L);
+            entries.add(wheel.add(null, time));
+            expected.add(time);
+        }
+        for (int i = 0; i < entries.size(); i += 3) {
+            wheel.remove(entries.get(i));
+            expected.remove(Long.valueOf(entries.get(i).getTime()));
+        }
+        expected.sort(Long::compare);
+
+        List<Long> expired = new ArrayList<>();
+        long now = 0;
+        while (!wheel.isEmpty()) {
+            now += random.nextInt(50_000);
+            TimingWheel.Entry batch;
+            while ((batch = wheel.pollExpired(now)) != null) {
+                for (TimingWheel.Entry entry = batch; entry != null; entry = entry.getNext()) {
+                    assertThat(entry.getTime()).isLessThanOrEqualTo(now);
+                    expired.add(entry.getTime());
+                }
+            }
+        }
+        assertThat(expired).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    public void pseudoClockSchedulerFiresJobsAtTheirTime() {
+        TimingWheelPseudoClockScheduler scheduler = new TimingWheelPseudoClockScheduler();
+        List<Long> firedAt = new ArrayList<>();
+        Job job = ctx -> firedAt.add(scheduler.getCurrentTime());
+
+        scheduler.scheduleJob(job, mock(JobContext.class), PointInTimeTrigger.createPointInTimeTrigger(3000, null));
+        JobHandle cancelled = scheduler.scheduleJob(job, mock(JobContext.class), PointInTimeTrigger.createPointInTimeTrigger(2000, null));
+        scheduler.scheduleJob(job, mock(JobContext.class), PointInTimeTrigger.createPointInTimeTrigger(1000, null));
+        scheduler.scheduleJob(job, mock(JobContext.class), PointInTimeTrigger.createPointInTimeTrigger(10_000, null));
+        assertThat(scheduler.getTimeToNextJob()).isEqualTo(1000L);
+
+        scheduler.removeJob(cancelled);
+        assertThat(scheduler.advanceTime(5000, TimeUnit.MILLISECONDS)).isEqualTo(5000L);
+        assertThat(firedAt).containsExactly(1000L, 3000L);
+        assertThat(scheduler.getTimeToNextJob()).isEqualTo(5000L);
+
+        scheduler.advanceTime(5000, TimeUnit.MILLISECONDS);
+        assertThat(firedAt).containsExactly(1000L, 3000L, 10_000L);
+        assertThat(scheduler.getTimeToNextJob()).isEqualTo(-1L);
+    }
+
+    @Test
+    public void timerServiceOptionCreatesTimingWheelServices() {
+        SessionConfiguration config = RuleBaseFactory.newKnowledgeSessionConfiguration().as(SessionConfiguration.KEY);
+        assertThat(config.getOption(TimerServiceOption.KEY)).isEqualTo(TimerServiceOption.DEFAULT);
+
+        config.setOption(TimerServiceOption.TIMING_WHEEL);
+        config.setClockType(ClockType.PSEUDO_CLOCK);
+        assertThat(config.createTimerService()).isInstanceOf(TimingWheelPseudoClockScheduler.class);
+
+        config.setClockType(ClockType.REALTIME_CLOCK);
+        TimerService timerService = config.createTimerService();
+        assertThat(timerService).isInstanceOf(TimingWheelTimerService.class);
+        timerService.shutdown();
+    }
+
+    @Test
+    public void realtimeTimerServiceFiresJobs() throws Exception {
+        TimingWheelTimerService timerService = new TimingWheelTimerService();
+        try {
+            JDKTimerServiceTest.HelloWorldJobContext ctx = new JDKTimerServiceTest.HelloWorldJobContext("hello world", timerService);
+            timerService.scheduleJob(new JDKTimerServiceTest.HelloWorldJob(), ctx, new JDKTimerServiceTest.DelayedTrigger(new long[] { 100, 100, 100 }));
+
+            JDKTimerServiceTest.HelloWorldJobContext cancelledCtx = new JDKTimerServiceTest.HelloWorldJobContext("cancelled", timerService);
+            JobHandle cancelled = timerService.scheduleJob(new JDKTimerServiceTest.HelloWorldJob(), cancelledCtx, new JDKTimerServiceTest.DelayedTrigger(200));
+            timerService.removeJob(cancelled);
+
+            Thread.sleep(500);
+            assertThat(ctx.getList()).hasSize(3);
+            assertThat(cancelledCtx.getList()).isEmpty();
+            assertThat(timerService.getTimeToNextJob()).isEqualTo(-1L);
+        } finally {
+            timerService.shutdown();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.drools.core.util.Queue.QueueEntry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BucketedQueueTest {
+
+    @Test
+    public void dequeueByPriorityThenInsertionOrder() {
+        BucketedQueue<Entry> queue = new BucketedQueue<>(Entry::getPriority);
+        Entry a = new Entry("a", 0);
+        Entry b = new Entry("b", 10);
+        Entry c = new Entry("c", 0);
+        Entry d = new Entry("d", -5);
+        Entry e = new Entry("e", 10);
+        for (Entry entry : new Entry[] { a, b, c, d, e }) {
+            queue.enqueue(entry);
+        }
+
+        assertThat(queue.size()).isEqualTo(5);
+        assertThat(queue.getBucketsCount()).isEqualTo(3);
+        assertThat(queue.getAll()).containsExactly(b, e, a, c, d);
+        assertThat(queue.peek()).isSameAs(b);
+        assertThat(drain(queue)).containsExactly(b, e, a, c, d);
+        assertThat(queue.isEmpty()).isTrue();
+        assertThat(queue.dequeue()).isNull();
+    }
+
+    @Test
+    public void enqueueTwiceIsIgnored() {
+        BucketedQueue<Entry> queue = new BucketedQueue<>(Entry::getPriority);
+        Entry a = new Entry("a", 0);
+        queue.enqueue(a);
+        queue.enqueue(a);
+
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(a.isQueued()).isTrue();
+        assertThat(drain(queue)).containsExactly(a);
+        assertThat(a.getQueueIndex()).isEqualTo(-1);
+    }
+
+    @Test
+    public void removeAndReenqueue() {
+        BucketedQueue<Entry> queue = new BucketedQueue<>(Entry::getPriority);
+        Entry a = new Entry("a", 0);
+        Entry b = new Entry("b", 0);
+        Entry c = new Entry("c", 0);
+        queue.enqueue(a);
+        queue.enqueue(b);
+        queue.enqueue(c);
+
+        queue.dequeue(a);
+        queue.dequeue(a);
+        assertThat(queue.size()).isEqualTo(2);
+        assertThat(queue.peek()).isSameAs(b);
+
+        // a goes to the tail of its bucket, its former slot is discarded
+        queue.enqueue(a);
+        // b changes priority while not queued
+        queue.dequeue(b);
+        b.priority = 1;
+        queue.enqueue(b);
+
+        assertThat(queue.size()).isEqualTo(3);
+        assertThat(drain(queue)).containsExactly(b, c, a);
+    }
+
+    @Test
+    public void staleSlotsBehindALiveHeadAreCompacted() {
+        BucketedQueue<Entry> queue = new BucketedQueue<>(Entry::getPriority);
+        Entry head = new Entry("head", 0);
+        Entry a = new Entry("a", 0);
+        Entry b = new Entry("b", 0);
+        queue.enqueue(head);
+        queue.enqueue(a);
+        queue.enqueue(b);
+
+        for (int i = 0; i < 10_000; i++) {
+            queue.dequeue(a);
+            queue.enqueue(a);
+        }
+
+        assertThat(queue.size()).isEqualTo(3);
+        assertThat(queue.getSlotsCount()).isLessThanOrEqualTo(16);
+        assertThat(queue.getAll()).containsExactly(head, b, a);
+        assertThat(drain(queue)).containsExactly(head, b, a);
+    }
+
+    @Test
+    public void growAndClear() {
+        BucketedQueue<Entry> queue = new BucketedQueue<>(Entry::getPriority);
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Entry entry = new Entry("e" + i, i % 2);
+            entries.add(entry);
+            queue.enqueue(entry);
+            if (i % 3 == 0) {
+                queue.dequeue(entries.get(i / 2));
+            }
+        }
+
+        List<Entry> expected = new ArrayList<>();
+        for (int parity = 1; parity >= 0; parity--) {
+            for (Entry entry : entries) {
+                if (entry.priority == parity && entry.getQueueIndex() >= 0) {
+                    expected.add(entry);
+                }
+            }
+        }
+        assertThat(queue.size()).isEqualTo(expected.size());
+        assertThat(queue.getAll()).containsExactlyElementsOf(expected);
+
+        queue.clear();
+        assertThat(queue.isEmpty()).isTrue();
+        assertThat(queue.peek()).isNull();
+        assertThat(entries).allMatch(entry -> entry.getQueueIndex() == -1);
+
+        queue.enqueue(entries.get(0));
+        assertThat(drain(queue)).containsExactly(entries.get(0));
+    }
+
+    private static List<Entry> drain(Queue<Entry> queue) {
+        List<Entry> result = new ArrayList<>();
+        for (Entry entry = queue.dequeue(); entry != null; entry = queue.dequeue()) {
+            result.add(entry);
+        }
+        return result;
+    }
+
+    private static class Entry implements QueueEntry {
+        private final String name;
+        private int priority;
+        private int index = -1;
+        private boolean queued;
+
+        private Entry(String name, int priority) {
+            this.name = name;
+            this.priority = priority;
+        }
+
+        private int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public void setQueued(boolean queued) {
+            this.queued = queued;
+        }
+
+        @Override
+        public int getQueueIndex() {
+            return index;
+        }
+
+        @Override
+        public void setQueueIndex(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void dequeue() {
+            this.queued = false;
+        }
+
+        @Override
+        public boolean isQueued() {
+            return queued;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -18,6 +18,15 @@
  */
 package org.drools.core.util;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -109,6 +118,135 @@ public class ScalablePoolTest {
         check( monitor, 5, 2, 5 );
     }
 
+    @Test
+    public void testDiscardReleasedResourcesExceedingMaxIdle() {
+        Monitor monitor = new Monitor();
+        ScalablePool<PooledResource> pool = new ScalablePool<>( 1, 2, null, () -> new PooledResource( monitor ), PooledResource::reset, PooledResource::dispose );
+        check( monitor, 1, 0, 0 );
+
+        PooledResource resource1 = pool.get();
+        PooledResource resource2 = pool.get();
+        PooledResource resource3 = pool.get();
+        check( monitor, 3, 0, 0 );
+
+        pool.release( resource1 );
+        pool.release( resource2 );
+        check( monitor, 3, 2, 0 );
+
+        // the pool already has 2 idle resources, so the third one is disposed instead of being reset
+        pool.release( resource3 );
+        check( monitor, 3, 2, 1 );
+
+        ScalablePool.Statistics statistics = pool.getStatistics();
+        assertThat(statistics.getSize()).isEqualTo(2);
+        assertThat(statistics.getIdle()).isEqualTo(2);
+        assertThat(statistics.getBorrows()).isEqualTo(3);
+        assertThat(statistics.getMisses()).isEqualTo(2);
+        assertThat(statistics.getResets()).isEqualTo(2);
+        assertThat(statistics.getDiscarded()).isEqualTo(1);
+
+        pool.shutdown();
+        check( monitor, 3, 2, 3 );
+    }
+
+    @Test
+    public void testConcurrentReleasesDoNotExceedMaxIdle() throws Exception {
+        int threads = 8;
+        ScalablePool<Object> pool = new ScalablePool<>( 0, 2, null, Object::new, o -> { }, o -> { } );
+
+        List<Object> borrowed = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            borrowed.add( pool.get() );
+        }
+
+        CountDownLatch start = new CountDownLatch( 1 );
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try {
+            List<Future<?>> releases = new ArrayList<>();
+            for (Object resource : borrowed) {
+                releases.add( executor.submit( () -> {
+                    start.await();
+                    pool.release( resource );
+                    return null;
+                } ) );
+            }
+            start.countDown();
+            for (Future<?> release : releases) {
+                release.get( 10, TimeUnit.SECONDS );
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ScalablePool.Statistics statistics = pool.getStatistics();
+        assertThat(statistics.getIdle()).isEqualTo(2);
+        assertThat(statistics.getSize()).isEqualTo(2);
+        assertThat(statistics.getDiscarded()).isEqualTo(threads - 2);
+
+        pool.shutdown();
+    }
+
+    @Test
+    public void testIdleResourcesFollowTheDemand() {
+        Monitor monitor = new Monitor();
+        ScalablePool<PooledResource> pool = new ScalablePool<>( 1, 5, null, () -> new PooledResource( monitor ), PooledResource::reset, PooledResource::dispose );
+
+        // a burst of 4 concurrent borrows grows the pool
+        List<PooledResource> burst = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            burst.add( pool.get() );
+        }
+        burst.forEach( pool::release );
+        assertThat(pool.getStatistics().getIdle()).isEqualTo(4);
+
+        // once the burst is out of the sizing windows only the resources actually needed are retained
+        for (int i = 0; i < 3 * ScalablePool.SIZING_WINDOW; i++) {
+            pool.release( pool.get() );
+        }
+        ScalablePool.Statistics statistics = pool.getStatistics();
+        assertThat(statistics.getIdle()).isEqualTo(1);
+        assertThat(statistics.getSize()).isEqualTo(1);
+        assertThat(statistics.getDiscarded()).isEqualTo(3);
+
+        pool.shutdown();
+    }
+
+    @Test
+    public void testAsyncReset() {
+        Monitor monitor = new Monitor();
+        List<Runnable> tasks = new ArrayList<>();
+        ScalablePool<PooledResource> pool = new ScalablePool<>( 1, -1, tasks::add, () -> new PooledResource( monitor ), PooledResource::reset, PooledResource::dispose );
+
+        PooledResource resource = pool.get();
+        pool.release( resource );
+
+        // the reset is delegated to the executor and the resource isn't available until it completes
+        check( monitor, 1, 0, 0 );
+        assertThat(tasks).hasSize(1);
+        assertThat(pool.getStatistics().getIdle()).isZero();
+
+        tasks.remove( 0 ).run();
+        check( monitor, 1, 1, 0 );
+        assertThat(pool.get()).isSameAs(resource);
+
+        pool.shutdown();
+        check( monitor, 1, 1, 1 );
+    }
+
+    @Test
+    public void testResetInReleasingThreadWhenExecutorRejects() {
+        Monitor monitor = new Monitor();
+        ScalablePool<PooledResource> pool = new ScalablePool<>( 1, -1, task -> { throw new RejectedExecutionException(); },
+                                                                () -> new PooledResource( monitor ), PooledResource::reset, PooledResource::dispose );
+
+        PooledResource resource = pool.get();
+        pool.release( resource );
+        check( monitor, 1, 1, 0 );
+        assertThat(pool.get()).isSameAs(resource);
+
+        pool.shutdown();
+    }
+
     private void check( Monitor monitor, int expectedNew, int expectedReset, int expectedDispose ) {
         assertThat(monitor.newCounter).isEqualTo(expectedNew);
         assertThat(monitor.resetCounter).isEqualTo(expectedReset);
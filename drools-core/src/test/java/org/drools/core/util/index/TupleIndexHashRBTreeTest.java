@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.util.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import org.drools.base.base.ValueResolver;
+import org.drools.base.base.ValueType;
+import org.drools.base.base.extractors.BaseObjectClassFieldReader;
+import org.drools.base.reteoo.BaseTuple;
+import org.drools.base.rule.accessor.RightTupleValueExtractor;
+import org.drools.base.rule.accessor.TupleValueExtractor;
+import org.drools.base.util.FastIterator;
+import org.drools.base.util.IndexedValueReader;
+import org.drools.base.util.index.ConstraintTypeOperator;
+import org.drools.core.common.DefaultFactHandle;
+import org.drools.core.reteoo.RightTuple;
+import org.drools.core.reteoo.TupleImpl;
+import org.drools.core.util.AbstractHashTable.SingleIndex;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TupleIndexHashRBTreeTest {
+
+    private static final IndexedValueReader ID_INDEX = new IndexedValueReader(new WindowReader(w -> w.id), new RightTupleValueExtractor(new EventReader(e -> e.id)));
+    private static final IndexedValueReader START_INDEX = new IndexedValueReader(new WindowReader(w -> w.start), new RightTupleValueExtractor(new EventReader(e -> e.ts)));
+    private static final IndexedValueReader END_INDEX = new IndexedValueReader(new WindowReader(w -> w.end), new RightTupleValueExtractor(new EventReader(e -> e.ts)));
+
+    private int counter;
+
+    @Test
+    public void testBoundedScanOfTheMatchingBucket() {
+        TupleIndexHashRBTree memory = createMemory();
+        List<RightTuple> events = new ArrayList<>();
+        for (int id = 0; id < 3; id++) {
+            for (int ts = 0; ts < 20; ts++) {
+                RightTuple event = createEvent(id, ts);
+                memory.add(event);
+                events.add(event);
+            }
+        }
+        assertThat(memory.size()).isEqualTo(60);
+        assertThat(memory.getBucketsCount()).isEqualTo(3);
+
+        // ts > 5 && ts < 9 for the events with id 1
+        assertThat(matches(memory, createWindow(1, 5, 9))).extracting(TupleIndexHashRBTreeTest::ts).containsExactly(6L, 7L, 8L);
+        assertThat(matches(memory, createWindow(1, 5, 9))).allMatch(t -> id(t) == 1);
+        assertThat(matches(memory, createWindow(2, 18, 30))).extracting(TupleIndexHashRBTreeTest::ts).containsExactly(19L);
+        assertThat(matches(memory, createWindow(2, 8, 8))).isEmpty();
+        assertThat(matches(memory, createWindow(5, 0, 10))).isEmpty();
+
+        for (RightTuple event : events) {
+            memory.remove(event);
+        }
+        assertThat(memory.size()).isZero();
+        assertThat(memory.getBucketsCount()).isZero();
+        assertThat(memory.fullFastIterator().next(null)).isNull();
+    }
+
+    @Test
+    public void testEventsWithSameTimestamp() {
+        TupleIndexHashRBTree memory = createMemory();
+        RightTuple first = createEvent(1, 10);
+        RightTuple second = createEvent(1, 10);
+        memory.add(first);
+        memory.add(second);
+        memory.add(createEvent(1, 11));
+
+        assertThat(matches(memory, createWindow(1, 9, 11))).containsExactly(first, second);
+
+        memory.remove(first);
+        assertThat(matches(memory, createWindow(1, 9, 11))).containsExactly(second);
+    }
+
+    @Test
+    public void testRemoveAddMovesToAnotherBucket() {
+        TupleIndexHashRBTree memory = createMemory();
+        RightTuple event = createEvent(1, 10);
+        memory.add(event);
+
+        ((Event) event.getFactHandle().getObject()).id = 2;
+        memory.removeAdd(event);
+
+        assertThat(memory.size()).isEqualTo(1);
+        assertThat(memory.getBucketsCount()).isEqualTo(1);
+        assertThat(matches(memory, createWindow(1, 0, 20))).isEmpty();
+        assertThat(matches(memory, createWindow(2, 0, 20))).containsExactly(event);
+    }
+
+    @Test
+    public void testFullIterationWhileRemoving() {
+        TupleIndexHashRBTree memory = createMemory();
+        int numEntries = 300;
+        for (int i = 0; i < numEntries; i++) {
+            memory.add(createEvent(i % 7, i % 13));
+        }
+
+        List<TupleImpl> tuples = new ArrayList<>();
+        FastIterator<TupleImpl> it = memory.fullFastIterator();
+        for (TupleImpl tuple = it.next(null); tuple != null; ) {
+            TupleImpl next = it.next(tuple);
+            tuples.add(tuple);
+            memory.remove(tuple);
+            tuple = next;
+        }
+
+        assertThat(tuples).hasSize(numEntries).doesNotHaveDuplicates();
+        assertThat(memory.size()).isZero();
+        assertThat(memory.getBucketsCount()).isZero();
+    }
+
+    @Test
+    public void testComparisonIndexBoundedByDualConstraint() {
+        TupleIndexRBTree memory = new TupleIndexRBTree(ConstraintTypeOperator.GREATER_OR_EQUAL, START_INDEX, ConstraintTypeOperator.LESS_OR_EQUAL, END_INDEX, false);
+        for (int ts = 0; ts < 100; ts++) {
+            memory.add(createEvent(0, ts));
+        }
+
+        FastIterator<TupleImpl> it = memory.fastIterator();
+        List<TupleImpl> tuples = new ArrayList<>();
+        for (TupleImpl tuple = memory.getFirst(createWindow(0, 40, 42), it); tuple != null; tuple = it.next(tuple)) {
+            tuples.add(tuple);
+        }
+        assertThat(tuples).extracting(TupleIndexHashRBTreeTest::ts).containsExactly(40L, 41L, 42L);
+
+        // without the bound the iteration goes on until the end of the tree
+        it = memory.fastIterator();
+        tuples.clear();
+        for (TupleImpl tuple = memory.getFirst(createWindow(0, 40, 42)); tuple != null; tuple = it.next(tuple)) {
+            tuples.add(tuple);
+        }
+        assertThat(tuples).hasSize(60);
+    }
+
+    private static List<TupleImpl> matches(TupleIndexHashRBTree memory, RightTuple window) {
+        FastIterator<TupleImpl> it = memory.fastIterator();
+        List<TupleImpl> tuples = new ArrayList<>();
+        for (TupleImpl tuple = memory.getFirst(window, it); tuple != null; tuple = it.next(tuple)) {
+            tuples.add(tuple);
+        }
+        return tuples;
+    }
+
+    private static TupleIndexHashRBTree createMemory() {
+        return new TupleIndexHashRBTree(new SingleIndex(new IndexedValueReader[] { ID_INDEX }, 1),
+                                        ConstraintTypeOperator.GREATER_THAN, START_INDEX,
+                                        ConstraintTypeOperator.LESS_THAN, END_INDEX, false);
+    }
+
+    private RightTuple createEvent(long id, long ts) {
+        return new RightTuple(new DefaultFactHandle(counter++, new Event(id, ts)));
+    }
+
+    private RightTuple createWindow(long id, long start, long end) {
+        return new RightTuple(new DefaultFactHandle(counter++, new Window(id, start, end)));
+    }
+
+    private static long id(TupleImpl tuple) {
+        return ((Event) tuple.getFactHandle().getObject()).id;
+    }
+
+    private static long ts(TupleImpl tuple) {
+        return ((Event) tuple.getFactHandle().getObject()).ts;
+    }
+
+    public static class Event {
+        private long id;
+        private final long ts;
+
+        public Event(long id, long ts) {
+            this.id = id;
+            this.ts = ts;
+        }
+    }
+
+    public static class Window {
+        private final long id;
+        private final long start;
+        private final long end;
+
+        public Window(long id, long start, long end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    public static class EventReader extends BaseObjectClassFieldReader {
+        private final transient ToLongFunction<Event> field;
+
+        public EventReader(ToLongFunction<Event> field) {
+            super(0, Long.class, ValueType.LONG_TYPE);
+            this.field = field;
+        }
+
+        @Override
+        public Object getValue(ValueResolver valueResolver, Object object) {
+            return field.applyAsLong((Event) object);
+        }
+    }
+
+    public static class WindowReader implements TupleValueExtractor {
+        private final transient ToLongFunction<Window> field;
+
+        public WindowReader(ToLongFunction<Window> field) {
+            this.field = field;
+        }
+
+        @Override
+        public ValueType getValueType() {
+            return ValueType.LONG_TYPE;
+        }
+
+        @Override
+        public Object getValue(ValueResolver valueResolver, BaseTuple tuple) {
+            return field.applyAsLong((Window) tuple.getFactHandle().getObject());
+        }
+
+        @Override
+        public TupleValueExtractor clone() {
+            return this;
+        }
+    }
+}
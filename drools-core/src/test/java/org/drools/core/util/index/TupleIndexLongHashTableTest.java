@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.core.util.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.drools.base.base.ClassObjectType;
+import org.drools.base.base.ValueResolver;
+import org.drools.base.base.ValueType;
+import org.drools.base.base.extractors.BaseObjectClassFieldReader;
+import org.drools.base.reteoo.BaseTuple;
+import org.drools.base.rule.Declaration;
+import org.drools.base.rule.Pattern;
+import org.drools.base.rule.accessor.RightTupleValueExtractor;
+import org.drools.base.rule.accessor.TupleValueExtractor;
+import org.drools.base.util.FastIterator;
+import org.drools.base.util.IndexedValueReader;
+import org.drools.core.common.DefaultFactHandle;
+import org.drools.core.impl.KnowledgeBaseImpl;
+import org.drools.core.reteoo.LeftTuple;
+import org.drools.core.reteoo.MockLeftTupleSink;
+import org.drools.core.reteoo.RightTuple;
+import org.drools.core.reteoo.TupleImpl;
+import org.drools.core.reteoo.builder.BuildContext;
+import org.drools.core.util.AbstractHashTable.SingleIndex;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TupleIndexLongHashTableTest {
+
+    @Test
+    public void testAddAndGetFirst() {
+        TupleIndexLongHashTable memory = createMemory();
+
+        RightTuple stilton1 = createTuple(1, 10);
+        RightTuple stilton2 = createTuple(2, 10);
+        RightTuple brie = createTuple(3, 20);
+        memory.add(stilton1);
+        memory.add(stilton2);
+        memory.add(brie);
+
+        assertThat(memory.size()).isEqualTo(3);
+        assertThat(memory.keySize()).isEqualTo(2);
+
+        TupleImpl first = memory.getFirst(createTuple(4, 10));
+        assertThat(first).isSameAs(stilton1);
+        assertThat(first.getNext()).isSameAs(stilton2);
+        assertThat(memory.getFirst(createTuple(5, 20))).isSameAs(brie);
+        assertThat(memory.getFirst(createTuple(6, 30))).isNull();
+    }
+
+    @Test
+    public void testRemoveAndRemoveAdd() {
+        TupleIndexLongHashTable memory = createMemory();
+
+        RightTuple stilton = createTuple(1, 10);
+        RightTuple brie = createTuple(2, 20);
+        memory.add(stilton);
+        memory.add(brie);
+
+        memory.remove(brie);
+        assertThat(memory.size()).isEqualTo(1);
+        assertThat(memory.keySize()).isEqualTo(1);
+        assertThat(memory.getFirst(createTuple(3, 20))).isNull();
+
+        ((Cheese) stilton.getFactHandle().getObject()).price = 30;
+        memory.removeAdd(stilton);
+        assertThat(memory.size()).isEqualTo(1);
+        assertThat(memory.keySize()).isEqualTo(1);
+        assertThat(memory.getFirst(createTuple(4, 10))).isNull();
+        assertThat(memory.getFirst(createTuple(5, 30))).isSameAs(stilton);
+    }
+
+    @Test
+    public void testResizeAndFullIteration() {
+        TupleIndexLongHashTable memory = new TupleIndexLongHashTable(4, 0.75f, createIndex(), false);
+
+        int numEntries = 1000;
+        for (int i = 0; i < numEntries; i++) {
+            memory.add(createTuple(i, i % 100));
+        }
+        assertThat(memory.size()).isEqualTo(numEntries);
+        assertThat(memory.keySize()).isEqualTo(100);
+
+        FastIterator<TupleImpl> it = memory.fullFastIterator();
+        List<TupleImpl> tuples = new ArrayList<>();
+        for (TupleImpl tuple = it.next(null); tuple != null; tuple = it.next(tuple)) {
+            tuples.add(tuple);
+        }
+        assertThat(tuples).hasSize(numEntries).doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void testRemoveWhileIterating() {
+        TupleIndexLongHashTable memory = createMemory();
+
+        int numEntries = 500;
+        for (int i = 0; i < numEntries; i++) {
+            memory.add(createTuple(i, i % 50));
+        }
+
+        int removed = 0;
+        FastIterator<TupleImpl> it = memory.fullFastIterator();
+        for (TupleImpl tuple = it.next(null); tuple != null; ) {
+            TupleImpl next = it.next(tuple);
+            memory.remove(tuple);
+            removed++;
+            tuple = next;
+        }
+
+        assertThat(removed).isEqualTo(numEntries);
+        assertThat(memory.size()).isZero();
+        assertThat(memory.keySize()).isZero();
+        assertThat(memory.fullFastIterator().next(null)).isNull();
+
+        // tombstones left by the removals must not hide re-inserted keys
+        RightTuple stilton = createTuple(1, 10);
+        memory.add(stilton);
+        assertThat(memory.getFirst(createTuple(2, 10))).isSameAs(stilton);
+    }
+
+    @Test
+    public void testLeftMemoryReadThroughDeclaration() {
+        Declaration declaration = new Declaration("$price", new PriceReader(), new Pattern(0, new ClassObjectType(Cheese.class)));
+        IndexedValueReader fieldIndex = new IndexedValueReader(declaration, new RightTupleValueExtractor(new PriceReader()));
+        assertThat(fieldIndex.isWholeNumberIndexable()).isTrue();
+        TupleIndexLongHashTable memory = new TupleIndexLongHashTable(new SingleIndex(new IndexedValueReader[] { fieldIndex }, 1), true);
+
+        BuildContext context = new BuildContext(new KnowledgeBaseImpl("1"), Collections.emptyList());
+        LeftTuple stilton = new LeftTuple(new DefaultFactHandle(1, new Cheese(10)), new MockLeftTupleSink(0, context), true);
+        LeftTuple brie = new LeftTuple(new DefaultFactHandle(2, new Cheese(20)), new MockLeftTupleSink(0, context), true);
+        memory.add(stilton);
+        memory.add(brie);
+
+        assertThat(memory.keySize()).isEqualTo(2);
+        assertThat(memory.getFirst(createTuple(3, 10))).isSameAs(stilton);
+        assertThat(memory.getFirst(createTuple(4, 20))).isSameAs(brie);
+    }
+
+    private static TupleIndexLongHashTable createMemory() {
+        return new TupleIndexLongHashTable(createIndex(), false);
+    }
+
+    private static SingleIndex createIndex() {
+        IndexedValueReader fieldIndex = new IndexedValueReader(new PriceTupleValueExtractor(), new RightTupleValueExtractor(new PriceReader()));
+        assertThat(fieldIndex.isWholeNumberIndexable()).isTrue();
+        return new SingleIndex(new IndexedValueReader[] { fieldIndex }, 1);
+    }
+
+    private static RightTuple createTuple(long id, long price) {
+        return new RightTuple(new DefaultFactHandle(id, new Cheese(price)));
+    }
+
+    public static class Cheese {
+        private long price;
+
+        public Cheese(long price) {
+            this.price = price;
+        }
+    }
+
+    public static class PriceReader extends BaseObjectClassFieldReader {
+
+        public PriceReader() {
+            super(0, long.class, ValueType.PLONG_TYPE);
+        }
+
+        @Override
+        public Object getValue(ValueResolver valueResolver, Object object) {
+            return ((Cheese) object).price;
+        }
+
+        @Override
+        public long getWholeNumberValue(ValueResolver valueResolver, Object object) {
+            return ((Cheese) object).price;
+        }
+    }
+
+    public static class PriceTupleValueExtractor implements TupleValueExtractor {
+
+        @Override
+        public ValueType getValueType() {
+            return ValueType.PLONG_TYPE;
+        }
+
+        @Override
+        public Object getValue(ValueResolver valueResolver, BaseTuple tuple) {
+            return ((Cheese) tuple.getFactHandle().getObject()).price;
+        }
+
+        @Override
+        public TupleValueExtractor clone() {
+            return this;
+        }
+    }
+}
@@ -24,9 +24,11 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -48,9 +50,12 @@ import org.drools.core.common.ObjectTypeConfigurationRegistry;
 import org.drools.core.common.PropagationContext;
 import org.drools.core.common.PropagationContextFactory;
 import org.drools.core.common.ReteEvaluator;
+import org.drools.core.common.SlabObjectStore;
 import org.drools.core.common.SuperCacheFixer;
 import org.drools.core.common.TruthMaintenanceSystemFactory;
 import org.drools.core.impl.InternalRuleBase;
+import org.drools.core.phreak.actions.Insert;
+import org.drools.core.phreak.actions.Update;
 import org.drools.core.reteoo.EntryPointNode;
 import org.drools.core.reteoo.ObjectTypeConf;
 import org.drools.core.reteoo.ObjectTypeNode;
@@ -63,6 +68,7 @@ import org.drools.util.bitmask.BitMask;
 import org.kie.api.conf.KieBaseMutabilityOption;
 import org.kie.api.prototype.PrototypeFactInstance;
 import org.kie.api.runtime.rule.FactHandle;
+import org.kie.internal.runtime.conf.ObjectStoreOption;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -122,6 +128,9 @@ public class NamedEntryPoint implements InternalWorkingMemoryEntryPoint, Propert
     }
 
     protected ObjectStore createObjectStore(EntryPointId entryPoint, RuleBaseConfiguration conf, ReteEvaluator reteEvaluator) {
+        if (!isEqualityBehaviour && reteEvaluator.getRuleSessionConfiguration().getObjectStoreOption() == ObjectStoreOption.SLAB) {
+            return new SlabObjectStore();
+        }
         boolean useClassAwareStore = isEqualityBehaviour || conf.getOption(KieBaseMutabilityOption.KEY).isMutabilityEnabled();
         return useClassAwareStore ?
                 new ClassAwareObjectStore( isEqualityBehaviour, this.lock ) :
@@ -205,41 +214,125 @@ public class NamedEntryPoint implements InternalWorkingMemoryEntryPoint, Propert
             try {
                 lock();
 
-                // check if the object already exists in the WM
-                handle = this.objectStore.getHandleForObject( object );
+                handle = createHandleForInsert( object, dynamic, typeConf, propagationContext );
+                if ( handle == null ) {
+                    // it's already stated, so just return the existing handle
+                    return this.objectStore.getHandleForObject( object );
+                }
+
+                insert( handle, object, rule, typeConf, propagationContext );
+            } finally {
+                unlock();
+            }
+            return handle;
+        } finally {
+            this.reteEvaluator.endOperation(ReteEvaluator.InternalOperationType.INSERT);
+        }
+
+    }
 
-                if ( typeConf.isTMSEnabled() ) {
-                    if ( handle != null && handle.getEqualityKey().getStatus() == EqualityKey.STATED ) {
-                        // it's already stated, so just return the handle
-                        return handle;
+    /**
+     * Inserts all the given objects taking the lock, draining the queued kbase actions and enqueueing
+     * the propagation only once for the whole batch. The ObjectTypeConf is also resolved once per class.
+     */
+    @Override
+    public List<FactHandle> insertAll(Collection<?> objects) {
+        List<FactHandle> handles = new ArrayList<>( objects.size() );
+        if ( this.reteEvaluator.isSequential() ) {
+            for (Object object : objects) {
+                handles.add( insert( object ) );
+            }
+            return handles;
+        }
+
+        try {
+            this.reteEvaluator.startOperation(ReteEvaluator.InternalOperationType.INSERT);
+            lock();
+            try {
+                this.ruleBase.executeQueuedActions();
+
+                Map<Class<?>, ObjectTypeConf> typeConfs = new HashMap<>();
+                List<Insert> inserts = new ArrayList<>( objects.size() );
+                List<PropagationContext> contexts = new ArrayList<>( objects.size() );
+                for (Object object : objects) {
+                    if ( object == null ) {
+                        // you cannot assert a null object
+                        handles.add( null );
+                        continue;
                     }
 
-                    handle = TruthMaintenanceSystemFactory.get().getOrCreateTruthMaintenanceSystem(this).insertOnTms(object, typeConf, propagationContext, handle, this::createHandle);
-                } else {
-                    // TMS not enabled for this object type
-                    if ( handle != null ) {
-                        return handle;
+                    ObjectTypeConf typeConf = getObjectTypeConf( object, typeConfs );
+                    PropagationContext propagationContext = this.pctxFactory.createPropagationContext(this.reteEvaluator.getNextPropagationIdCounter(),
+                            PropagationContext.Type.INSERTION,
+                            null,
+                            null,
+                            null,
+                            entryPoint);
+
+                    InternalFactHandle handle = createHandleForInsert( object, false, typeConf, propagationContext );
+                    if ( handle == null ) {
+                        handles.add( this.objectStore.getHandleForObject( object ) );
+                        continue;
                     }
-                    handle = createHandle( object, typeConf );
+
+                    this.objectStore.addHandle( handle, object );
+                    inserts.add( new Insert( handle, propagationContext, this.reteEvaluator, typeConf ) );
+                    contexts.add( propagationContext );
+                    handles.add( handle );
                 }
 
-                propagationContext.setFactHandle(handle);
+                this.entryPointNode.assertObjects( inserts, this.reteEvaluator );
 
-                // if the dynamic parameter is true or if the user declared the fact type with the meta tag:
-                // @propertyChangeSupport
-                if ( dynamic || typeConf.isDynamic() ) {
-                    addPropertyChangeListener( handle, dynamic );
+                for (int i = 0; i < inserts.size(); i++) {
+                    InternalFactHandle handle = inserts.get(i).getHandle();
+                    this.reteEvaluator.getRuleRuntimeEventSupport().fireObjectInserted(contexts.get(i), handle, handle.getObject(), this.reteEvaluator);
                 }
-
-                insert( handle, object, rule, typeConf, propagationContext );
             } finally {
                 unlock();
             }
-            return handle;
+            return handles;
         } finally {
             this.reteEvaluator.endOperation(ReteEvaluator.InternalOperationType.INSERT);
         }
+    }
 
+    /**
+     * Creates the handle for an object being inserted, or returns null if the object is already stated in this entry point.
+     */
+    private InternalFactHandle createHandleForInsert(Object object, boolean dynamic, ObjectTypeConf typeConf, PropagationContext propagationContext) {
+        // check if the object already exists in the WM
+        InternalFactHandle handle = this.objectStore.getHandleForObject( object );
+
+        if ( typeConf.isTMSEnabled() ) {
+            if ( handle != null && handle.getEqualityKey().getStatus() == EqualityKey.STATED ) {
+                return null;
+            }
+
+            handle = TruthMaintenanceSystemFactory.get().getOrCreateTruthMaintenanceSystem(this).insertOnTms(object, typeConf, propagationContext, handle, this::createHandle);
+        } else {
+            // TMS not enabled for this object type
+            if ( handle != null ) {
+                return null;
+            }
+            handle = createHandle( object, typeConf );
+        }
+
+        propagationContext.setFactHandle(handle);
+
+        // if the dynamic parameter is true or if the user declared the fact type with the meta tag:
+        // @propertyChangeSupport
+        if ( dynamic || typeConf.isDynamic() ) {
+            addPropertyChangeListener( handle, dynamic );
+        }
+        return handle;
+    }
+
+    private ObjectTypeConf getObjectTypeConf(Object object, Map<Class<?>, ObjectTypeConf> typeConfs) {
+        if ( object instanceof PrototypeFactInstance ) {
+            // prototype instances share the same class, but not the same ObjectTypeConf
+            return getObjectTypeConfigurationRegistry().getOrCreateObjectTypeConf( this.entryPoint, object );
+        }
+        return typeConfs.computeIfAbsent( object.getClass(), c -> getObjectTypeConfigurationRegistry().getOrCreateObjectTypeConf( this.entryPoint, object ) );
     }
 
     public void insert(InternalFactHandle handle) {
@@ -339,58 +432,120 @@ public class NamedEntryPoint implements InternalWorkingMemoryEntryPoint, Propert
             try {
                 this.ruleBase.executeQueuedActions();
 
-                // the handle might have been disconnected, so reconnect if it has
-                if (handle.isDisconnected()) {
-                    InternalFactHandle reconnectedHandle = this.objectStore.reconnect(handle);
-                    if (reconnectedHandle == null) {
-                        handle.setDisconnected(false);
-                        insert(handle, object, null, null, getObjectTypeConfigurationRegistry().getObjectTypeConf(object));
-                        return handle;
-                    }
-                    handle = reconnectedHandle;
+                InternalFactHandle reconnectedHandle = reconnectForUpdate(handle, object);
+                if (reconnectedHandle == null) {
+                    return handle;
                 }
+                handle = reconnectedHandle;
 
                 final Object originalObject = handle.getObject();
-                final boolean changedObject = originalObject != object;
+                final ObjectTypeConf typeConf = originalObject != object ?
+                        getObjectTypeConfigurationRegistry().getOrCreateObjectTypeConf(this.entryPoint, object) :
+                        getObjectTypeConfigurationRegistry().getObjectTypeConf(object);
 
-                if (!handle.getEntryPointId().equals( entryPoint )) {
-                    throw new IllegalArgumentException("Invalid Entry Point. You updated the FactHandle on entry point '" + handle.getEntryPointId() + "' instead of '" + getEntryPointId() + "'");
-                }
+                final PropagationContext propagationContext = prepareUpdate(handle, object, originalObject, typeConf, mask, modifiedClass, internalMatch);
 
-                if (handle.isExpired()) {
-                    // let an expired event potentially (re)enters the objectStore, but make sure that it will be clear at the end of the inference cycle
-                    ((DefaultEventHandle)handle).setPendingRemoveFromStore(true);
-                }
+                update(handle, object, originalObject, typeConf, propagationContext);
+            } finally {
+                this.reteEvaluator.endOperation(ReteEvaluator.InternalOperationType.UPDATE);
+            }
+        } finally {
+            unlock();
+        }
+        return handle;
+    }
 
-                final ObjectTypeConf typeConf = changedObject ?
-                        getObjectTypeConfigurationRegistry().getOrCreateObjectTypeConf(this.entryPoint, object) :
-                        getObjectTypeConfigurationRegistry().getObjectTypeConf(object);
+    @Override
+    public void updateAll(Collection<? extends FactHandle> handles) {
+        updateAll(handles, allSetBitMask());
+    }
 
-                if (changedObject || isEqualityBehaviour) {
-                    this.objectStore.updateHandle(handle, object);
-                }
+    /**
+     * Updates the given handles with their current objects taking the lock, draining the queued kbase actions
+     * and enqueueing the propagation only once for the whole batch.
+     */
+    public void updateAll(Collection<? extends FactHandle> handles, BitMask mask) {
+        lock();
+        try {
+            this.reteEvaluator.startOperation(ReteEvaluator.InternalOperationType.UPDATE);
+            try {
+                this.ruleBase.executeQueuedActions();
 
-                this.factHandleFactory.increaseFactHandleRecency(handle);
+                Map<Class<?>, ObjectTypeConf> typeConfs = new HashMap<>();
+                List<Update> updates = new ArrayList<>( handles.size() );
+                List<PropagationContext> contexts = new ArrayList<>( handles.size() );
+                for (FactHandle factHandle : handles) {
+                    InternalFactHandle handle = reconnectForUpdate( (InternalFactHandle) factHandle, factHandle.getObject() );
+                    if (handle == null) {
+                        continue;
+                    }
 
-                final PropagationContext propagationContext = pctxFactory.createPropagationContext(this.reteEvaluator.getNextPropagationIdCounter(), PropagationContext.Type.MODIFICATION,
-                                                                                                   internalMatch == null ? null : internalMatch.getRule(),
-                                                                                                   internalMatch == null ? null : SuperCacheFixer.asTerminalNode(internalMatch.getTuple()),
-                                                                                                   handle, entryPoint, mask, modifiedClass, null);
+                    Object object = handle.getObject();
+                    ObjectTypeConf typeConf = getObjectTypeConf(object, typeConfs);
+                    PropagationContext propagationContext = prepareUpdate(handle, object, object, typeConf, mask, Object.class, null);
 
-                if (typeConf.isTMSEnabled()) {
-                    TruthMaintenanceSystemFactory.get().getOrCreateTruthMaintenanceSystem(this).updateOnTms(handle, object, internalMatch);
+                    updates.add( new Update( handle, propagationContext, typeConf ) );
+                    contexts.add( propagationContext );
                 }
 
-                beforeUpdate(handle, object, internalMatch, originalObject, propagationContext);
+                this.entryPointNode.modifyObjects( updates, this.reteEvaluator );
 
-                update(handle, object, originalObject, typeConf, propagationContext);
+                for (int i = 0; i < updates.size(); i++) {
+                    InternalFactHandle handle = updates.get(i).getHandle();
+                    this.reteEvaluator.getRuleRuntimeEventSupport().fireObjectUpdated(contexts.get(i), handle, handle.getObject(), handle.getObject(), this.reteEvaluator);
+                }
             } finally {
                 this.reteEvaluator.endOperation(ReteEvaluator.InternalOperationType.UPDATE);
             }
         } finally {
             unlock();
         }
-        return handle;
+    }
+
+    /**
+     * Reconnects a disconnected handle to the one in the object store. If the handle isn't in the store
+     * anymore it is inserted again and null is returned, since there is nothing left to update.
+     */
+    private InternalFactHandle reconnectForUpdate(InternalFactHandle handle, Object object) {
+        if (!handle.isDisconnected()) {
+            return handle;
+        }
+        InternalFactHandle reconnectedHandle = this.objectStore.reconnect(handle);
+        if (reconnectedHandle == null) {
+            handle.setDisconnected(false);
+            insert(handle, object, null, null, getObjectTypeConfigurationRegistry().getObjectTypeConf(object));
+        }
+        return reconnectedHandle;
+    }
+
+    private PropagationContext prepareUpdate(InternalFactHandle handle, Object object, Object originalObject, ObjectTypeConf typeConf,
+                                             BitMask mask, Class<?> modifiedClass, InternalMatch internalMatch) {
+        if (!handle.getEntryPointId().equals( entryPoint )) {
+            throw new IllegalArgumentException("Invalid Entry Point. You updated the FactHandle on entry point '" + handle.getEntryPointId() + "' instead of '" + getEntryPointId() + "'");
+        }
+
+        if (handle.isExpired()) {
+            // let an expired event potentially (re)enters the objectStore, but make sure that it will be clear at the end of the inference cycle
+            ((DefaultEventHandle)handle).setPendingRemoveFromStore(true);
+        }
+
+        if (originalObject != object || isEqualityBehaviour) {
+            this.objectStore.updateHandle(handle, object);
+        }
+
+        this.factHandleFactory.increaseFactHandleRecency(handle);
+
+        final PropagationContext propagationContext = pctxFactory.createPropagationContext(this.reteEvaluator.getNextPropagationIdCounter(), PropagationContext.Type.MODIFICATION,
+                                                                                           internalMatch == null ? null : internalMatch.getRule(),
+                                                                                           internalMatch == null ? null : SuperCacheFixer.asTerminalNode(internalMatch.getTuple()),
+                                                                                           handle, entryPoint, mask, modifiedClass, null);
+
+        if (typeConf.isTMSEnabled()) {
+            TruthMaintenanceSystemFactory.get().getOrCreateTruthMaintenanceSystem(this).updateOnTms(handle, object, internalMatch);
+        }
+
+        beforeUpdate(handle, object, internalMatch, originalObject, propagationContext);
+        return propagationContext;
     }
 
     protected void beforeUpdate(InternalFactHandle handle, Object object, InternalMatch internalMatch, Object originalObject, PropagationContext propagationContext) {
@@ -37,6 +37,7 @@ import org.drools.core.impl.KieBaseUpdate;
 import org.drools.core.impl.KnowledgeBaseImpl;
 import org.drools.core.impl.RuleBaseFactory;
 import org.drools.core.management.DroolsManagementAgent;
+import org.drools.core.phreak.RuleUpdateBatch;
 import org.drools.core.reteoo.AsyncReceiveNode;
 import org.drools.core.reteoo.EntryPointNode;
 import org.drools.core.reteoo.LeftTupleNode;
@@ -47,6 +48,7 @@ import org.drools.core.reteoo.RuntimeComponentFactory;
 import org.drools.core.reteoo.SegmentMemory;
 import org.drools.core.reteoo.SegmentMemory.SegmentPrototype;
 import org.drools.core.reteoo.SegmentPrototypeRegistry;
+import org.drools.core.reteoo.SessionMemoriesTemplate;
 import org.drools.core.rule.accessor.FactHandleFactory;
 import org.kie.api.KieBaseConfiguration;
 import org.kie.api.builder.ReleaseId;
@@ -558,6 +560,21 @@ public class SessionsAwareKnowledgeBase implements InternalKnowledgeBase {
         return delegate.hasMultipleAgendaGroups();
     }
 
+    @Override
+    public boolean hasDynamicSalienceOrRuleFlowGroups() {
+        return delegate.hasDynamicSalienceOrRuleFlowGroups();
+    }
+
+    @Override
+    public SessionMemoriesTemplate getSessionMemoriesTemplate() {
+        return delegate.getSessionMemoriesTemplate();
+    }
+
+    @Override
+    public RuleUpdateBatch getRuleUpdateBatch() {
+        return delegate.getRuleUpdateBatch();
+    }
+
     @Override
     public void registerTypeDeclaration(TypeDeclaration newDecl, InternalKnowledgePackage newPkg) {
         delegate.registerTypeDeclaration(newDecl, newPkg);
@@ -689,6 +706,26 @@ public class SessionsAwareKnowledgeBase implements InternalKnowledgeBase {
         } );
     }
 
+    @Override
+    public void updateRules( Collection<RuleImpl> rulesToBeRemoved, Collection<RuleImpl> rulesToBeAdded ) {
+        enqueueModification( () -> {
+            for (RuleImpl rule : rulesToBeRemoved) {
+                this.eventSupport.fireBeforeRuleRemoved(rule);
+            }
+            delegate.kBaseInternal_updateRules( rulesToBeRemoved, rulesToBeAdded, statefulSessions, () -> {
+                for (RuleImpl rule : rulesToBeRemoved) {
+                    this.eventSupport.fireAfterRuleRemoved(rule);
+                }
+                for (RuleImpl rule : rulesToBeAdded) {
+                    this.eventSupport.fireBeforeRuleAdded(rule);
+                }
+            } );
+            for (RuleImpl rule : rulesToBeAdded) {
+                this.eventSupport.fireAfterRuleAdded(rule);
+            }
+        } );
+    }
+
     @Override
     public void removeFunction( final String packageName, final String functionName ) {
         enqueueModification( () -> {
@@ -20,8 +20,10 @@ package org.drools.kiesession.session;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import org.drools.core.impl.EnvironmentFactory;
+import org.drools.core.util.ScalablePool;
 import org.kie.api.runtime.Environment;
 import org.kie.api.runtime.KieSessionConfiguration;
 import org.kie.api.runtime.KieSessionsPool;
@@ -30,14 +32,18 @@ public abstract class AbstractKieSessionsPool implements KieSessionsPool {
 
     private volatile boolean alive = true;
 
-    protected final int initialSize;
+    protected final KieSessionsPoolOptions options;
 
     private final Map<String, StatefulSessionPool> pools = new ConcurrentHashMap<>();
 
     protected final Environment environment = EnvironmentFactory.newEnvironment();
 
     protected AbstractKieSessionsPool( int initialSize ) {
-        this.initialSize = initialSize;
+        this( KieSessionsPoolOptions.of( initialSize ) );
+    }
+
+    protected AbstractKieSessionsPool( KieSessionsPoolOptions options ) {
+        this.options = options;
     }
 
     @Override
@@ -47,6 +53,13 @@ public abstract class AbstractKieSessionsPool implements KieSessionsPool {
         pools.clear();
     }
 
+    /**
+     * Returns the statistics of the pools of sessions created so far, one for each different session configuration
+     */
+    public Map<String, ScalablePool.Statistics> getStatistics() {
+        return pools.entrySet().stream().collect( Collectors.toMap( Map.Entry::getKey, e -> e.getValue().getStatistics() ) );
+    }
+
     protected StatefulSessionPool getPool( KieSessionConfiguration conf, boolean stateless) {
         return getPool( null, conf, stateless);
     }
@@ -30,7 +30,11 @@ public class KieSessionsPoolImpl extends AbstractKieSessionsPool {
     private final InternalKnowledgeBase kBase;
 
     public KieSessionsPoolImpl(InternalKnowledgeBase kBase, int initialSize) {
-        super(initialSize);
+        this(kBase, KieSessionsPoolOptions.of(initialSize));
+    }
+
+    public KieSessionsPoolImpl(InternalKnowledgeBase kBase, KieSessionsPoolOptions options) {
+        super(options);
         this.kBase = kBase;
     }
 
@@ -62,7 +66,7 @@ public class KieSessionsPoolImpl extends AbstractKieSessionsPool {
 
     @Override
     protected StatefulSessionPool createStatefulSessionPool( String kSessionName, KieSessionConfiguration conf, boolean stateless ) {
-        return new StatefulSessionPool(kBase, initialSize, () ->
+        return new StatefulSessionPool(kBase, options, () ->
                 stateless ?
                     ((StatefulKnowledgeSessionImpl ) RuntimeComponentFactory.get().createStatefulSession(kBase, environment, conf.as(SessionConfiguration.KEY), true )).setStateless( true ) :
                     (StatefulKnowledgeSessionImpl ) kBase.newKieSession(conf, environment, true));
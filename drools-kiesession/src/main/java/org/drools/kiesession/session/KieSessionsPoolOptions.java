@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.kiesession.session;
+
+import java.util.concurrent.Executor;
+
+import org.kie.internal.concurrent.ExecutorProviderFactory;
+
+/**
+ * Tunes the behaviour of a sessions pool. The default options, as obtained by {@link #of(int)}, create a pool that
+ * never shrinks and resets the sessions synchronously when they are disposed.
+ */
+public class KieSessionsPoolOptions {
+
+    private final int initialSize;
+    private final int maxIdle;
+    private final Executor resetExecutor;
+    private final boolean preWarmMemories;
+
+    private KieSessionsPoolOptions( int initialSize, int maxIdle, Executor resetExecutor, boolean preWarmMemories ) {
+        this.initialSize = initialSize;
+        this.maxIdle = maxIdle;
+        this.resetExecutor = resetExecutor;
+        this.preWarmMemories = preWarmMemories;
+    }
+
+    public static KieSessionsPoolOptions of( int initialSize ) {
+        return new KieSessionsPoolOptions( initialSize, -1, null, false );
+    }
+
+    /**
+     * The max number of idle sessions kept by the pool: the sessions disposed when the pool already has this number
+     * of idle sessions, or as many idle sessions as were concurrently in use during the last sizing windows, are really
+     * disposed, so that a pool grown during a peak can shrink back, but never below its initial size
+     */
+    public KieSessionsPoolOptions withMaxIdle( int maxIdle ) {
+        if (maxIdle < initialSize) {
+            throw new IllegalArgumentException( "The max number of idle sessions cannot be lower than the initial size of the pool" );
+        }
+        return new KieSessionsPoolOptions( initialSize, maxIdle, resetExecutor, preWarmMemories );
+    }
+
+    /**
+     * Resets the disposed sessions on the default kie executor instead than in the thread calling dispose
+     */
+    public KieSessionsPoolOptions withAsyncReset() {
+        return withAsyncReset( ExecutorProviderFactory.getExecutorProvider().getExecutor() );
+    }
+
+    /**
+     * Resets the disposed sessions on the given executor instead than in the thread calling dispose
+     */
+    public KieSessionsPoolOptions withAsyncReset( Executor resetExecutor ) {
+        return new KieSessionsPoolOptions( initialSize, maxIdle, resetExecutor, preWarmMemories );
+    }
+
+    /**
+     * Creates the node and segment memories of all the rules when a session is added to the pool,
+     * instead than lazily when the first facts are inserted into it
+     */
+    public KieSessionsPoolOptions withPreWarmedMemories() {
+        return new KieSessionsPoolOptions( initialSize, maxIdle, resetExecutor, true );
+    }
+
+    public int getInitialSize() {
+        return initialSize;
+    }
+
+    public int getMaxIdle() {
+        return maxIdle;
+    }
+
+    public Executor getResetExecutor() {
+        return resetExecutor;
+    }
+
+    public boolean isPreWarmMemories() {
+        return preWarmMemories;
+    }
+}
@@ -0,0 +1,373 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.kiesession.session;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+import org.drools.core.common.InternalFactHandle;
+import org.drools.core.QueryResultsRowImpl;
+import org.drools.util.ClassUtils;
+import org.kie.api.KieBase;
+import org.kie.api.definition.type.Partition;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionConfiguration;
+import org.kie.api.runtime.rule.FactHandle;
+import org.kie.api.runtime.rule.QueryResultsRow;
+
+/**
+ * A set of independent sessions, each one owned by a dedicated thread, among which the inserted facts are distributed
+ * by the value of their {@link Partition} key. All the facts having the same key are evaluated by the same session,
+ * so the rules only joining facts with the same key, like per account rules, produce the same results they would
+ * have in a single session while scaling with the number of partitions.
+ * The facts without a partition key are broadcast to all the partitions. The same broadcast instance is inserted in every
+ * partition and is then read concurrently by their threads, so it has to be immutable: the consequences must never modify
+ * it and it cannot be updated, but only deleted and replaced by a new instance. Moreover each partition evaluates the
+ * broadcast facts on its own, so a rule matching only broadcast facts fires once per partition.
+ *
+ * The operations on each partition are executed in order on its own thread: inserts, updates and deletes are asynchronous,
+ * while firing the rules, querying and reading the facts wait for the operations previously submitted to all the partitions.
+ */
+public class PartitionedKieSession implements AutoCloseable {
+
+    public static final int BROADCAST = -1;
+
+    private static final ClassValue<Function<Object, Object>> KEY_EXTRACTORS = new ClassValue<>() {
+        @Override
+        protected Function<Object, Object> computeValue(Class<?> type) {
+            return createKeyExtractor(type);
+        }
+    };
+
+    private static final Function<Object, Object> NO_KEY = fact -> null;
+
+    private final KieSession[] sessions;
+    private final ExecutorService[] executors;
+
+    public PartitionedKieSession(int partitionsCount, Supplier<KieSession> sessionFactory) {
+        if (partitionsCount < 1) {
+            throw new IllegalArgumentException("A partitioned session needs at least 1 partition");
+        }
+        this.sessions = new KieSession[partitionsCount];
+        this.executors = new ExecutorService[partitionsCount];
+        for (int i = 0; i < partitionsCount; i++) {
+            String threadName = "drools-partition-" + i;
+            executors[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, threadName);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        // each session is created by the thread owning it
+        join(onAllPartitions(i -> sessions[i] = sessionFactory.get()));
+    }
+
+    public static PartitionedKieSession create(KieBase kBase, int partitionsCount) {
+        return new PartitionedKieSession(partitionsCount, kBase::newKieSession);
+    }
+
+    public static PartitionedKieSession create(KieBase kBase, KieSessionConfiguration conf, int partitionsCount) {
+        return new PartitionedKieSession(partitionsCount, () -> kBase.newKieSession(conf, null));
+    }
+
+    public int getPartitionsCount() {
+        return sessions.length;
+    }
+
+    /**
+     * Returns the index of the partition where the given fact is inserted, or {@link #BROADCAST} if it is inserted in all of them.
+     * Throws an IllegalArgumentException if the fact has a partition key field, but its value is null.
+     */
+    public int partitionOf(Object fact) {
+        Function<Object, Object> keyExtractor = KEY_EXTRACTORS.get(fact.getClass());
+        if (keyExtractor == NO_KEY) {
+            return BROADCAST;
+        }
+        Object key = keyExtractor.apply(fact);
+        if (key == null) {
+            throw new IllegalArgumentException("The partition key of the fact " + fact + " is null");
+        }
+        return Math.floorMod(key.hashCode(), sessions.length);
+    }
+
+    public CompletableFuture<Void> insert(Object fact) {
+        return onPartitionsOf(fact, session -> session.insert(fact));
+    }
+
+    /**
+     * Notifies the partition of the given fact that it has been modified. The partition key of a fact cannot be changed.
+     * Throws an UnsupportedOperationException for a broadcast fact, that is immutable and has to be replaced instead.
+     */
+    public CompletableFuture<Void> update(Object fact) {
+        if (partitionOf(fact) == BROADCAST) {
+            throw new UnsupportedOperationException("The broadcast fact " + fact + " is shared by all the partitions and cannot be updated, " +
+                                                    "delete it and insert a new instance instead");
+        }
+        return onPartitionsOf(fact, session -> {
+            FactHandle fh = session.getFactHandle(fact);
+            if (fh != null) {
+                session.update(fh, fact);
+            }
+        });
+    }
+
+    public CompletableFuture<Void> delete(Object fact) {
+        return onPartitionsOf(fact, session -> {
+            FactHandle fh = session.getFactHandle(fact);
+            if (fh != null) {
+                session.delete(fh);
+            }
+        });
+    }
+
+    public void setGlobal(String identifier, Object value) {
+        join(runOnAllPartitions(i -> sessions[i].setGlobal(identifier, value)));
+    }
+
+    public int fireAllRules() {
+        int fired = 0;
+        for (int count : join(onAllPartitions(i -> sessions[i].fireAllRules()))) {
+            fired += count;
+        }
+        return fired;
+    }
+
+    /**
+     * Runs the given query on all the partitions and returns the concatenation of their results. The rows only made of
+     * broadcast facts, which are found by all the partitions, are returned only once.
+     */
+    public List<QueryResultsRow> getQueryResults(String query, Object... arguments) {
+        List<QueryResultsRow> rows = new ArrayList<>();
+        Set<BroadcastRow> broadcastRows = new HashSet<>();
+        for (List<PartitionRow> partitionRows : join(onAllPartitions(i -> {
+            List<PartitionRow> result = new ArrayList<>();
+            for (QueryResultsRow row : sessions[i].getQueryResults(query, arguments)) {
+                result.add(new PartitionRow(row, broadcastRowOf(sessions[i], row)));
+            }
+            return result;
+        }))) {
+            for (PartitionRow partitionRow : partitionRows) {
+                if (partitionRow.broadcastRow == null || broadcastRows.add(partitionRow.broadcastRow)) {
+                    rows.add(partitionRow.row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the facts of the given row if all of them have been broadcast, and then are the same objects in every partition,
+     * or null if the row contains any fact owned by this partition only, like a partitioned fact or the result of an accumulate.
+     * Must be invoked by the thread owning the session.
+     */
+    private BroadcastRow broadcastRowOf(KieSession session, QueryResultsRow row) {
+        if (!(row instanceof QueryResultsRowImpl rowImpl)) {
+            return null;
+        }
+        List<Object> facts = new ArrayList<>();
+        for (FactHandle fh : rowImpl.getFactHandles()) {
+            if (fh == null) {
+                continue;
+            }
+            Object fact = ((InternalFactHandle) fh).getObject();
+            if (KEY_EXTRACTORS.get(fact.getClass()) != NO_KEY || session.getFactHandle(fact) == null) {
+                return null;
+            }
+            facts.add(fact);
+        }
+        return facts.isEmpty() ? null : new BroadcastRow(facts.toArray());
+    }
+
+    /**
+     * Returns the facts of all the partitions, with the broadcast ones returned only once
+     */
+    public Collection<Object> getObjects() {
+        Set<Object> objects = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Collection<?> partitionObjects : join(onAllPartitions(i -> new ArrayList<>(sessions[i].getObjects())))) {
+            objects.addAll(partitionObjects);
+        }
+        return objects;
+    }
+
+    /**
+     * Returns the number of facts in each partition, useful to check how evenly the keys are distributed
+     */
+    public long[] getFactCounts() {
+        List<Long> counts = join(onAllPartitions(i -> sessions[i].getFactCount()));
+        return counts.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @Override
+    public void close() {
+        try {
+            join(runOnAllPartitions(i -> sessions[i].dispose()));
+        } finally {
+            for (ExecutorService executor : executors) {
+                executor.shutdown();
+            }
+            for (ExecutorService executor : executors) {
+                try {
+                    executor.awaitTermination(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private CompletableFuture<Void> onPartitionsOf(Object fact, Consumer<KieSession> action) {
+        int partition = partitionOf(fact);
+        if (partition != BROADCAST) {
+            return CompletableFuture.runAsync(() -> action.accept(sessions[partition]), executors[partition]);
+        }
+        CompletableFuture<?>[] futures = new CompletableFuture[sessions.length];
+        for (int i = 0; i < sessions.length; i++) {
+            KieSession session = sessions[i];
+            futures[i] = CompletableFuture.runAsync(() -> action.accept(session), executors[i]);
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    private <T> List<CompletableFuture<T>> onAllPartitions(Function<Integer, T> task) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(sessions.length);
+        for (int i = 0; i < sessions.length; i++) {
+            int partition = i;
+            futures.add(CompletableFuture.supplyAsync(() -> task.apply(partition), executors[i]));
+        }
+        return futures;
+    }
+
+    private List<CompletableFuture<Void>> runOnAllPartitions(IntConsumer task) {
+        return onAllPartitions(i -> {
+            task.accept(i);
+            return null;
+        });
+    }
+
+    private static <T> List<T> join(List<CompletableFuture<T>> futures) {
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private static class PartitionRow {
+
+        private final QueryResultsRow row;
+        private final BroadcastRow broadcastRow;
+
+        private PartitionRow(QueryResultsRow row, BroadcastRow broadcastRow) {
+            this.row = row;
+            this.broadcastRow = broadcastRow;
+        }
+    }
+
+    // compares the broadcast facts by identity, since they are the same instances in all the partitions
+    private static class BroadcastRow {
+
+        private final Object[] facts;
+
+        private BroadcastRow(Object[] facts) {
+            this.facts = facts;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof BroadcastRow other) || facts.length != other.facts.length) {
+                return false;
+            }
+            for (int i = 0; i < facts.length; i++) {
+                if (facts[i] != other.facts[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 1;
+            for (Object fact : facts) {
+                hash = 31 * hash + System.identityHashCode(fact);
+            }
+            return hash;
+        }
+    }
+
+    private static Function<Object, Object> createKeyExtractor(Class<?> type) {
+        Field keyField = null;
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Partition.class)) {
+                    if (keyField != null) {
+                        throw new IllegalArgumentException("Class " + type.getName() + " has more than one field annotated with @Partition");
+                    }
+                    keyField = field;
+                }
+            }
+        }
+        if (keyField == null) {
+            return NO_KEY;
+        }
+
+        Method getter = ClassUtils.getGetterMethod(type, keyField.getName());
+        if (getter != null) {
+            return fact -> {
+                try {
+                    return getter.invoke(fact);
+                } catch (ReflectiveOperationException e) {
+                    throw new RuntimeException(e);
+                }
+            };
+        }
+        Field field = keyField;
+        field.setAccessible(true);
+        return fact -> {
+            try {
+                return field.get(fact);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,366 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.kiesession.session;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import org.drools.base.common.DroolsObjectInputStream;
+import org.drools.base.definitions.rule.impl.RuleImpl;
+import org.drools.base.util.LinkedList;
+import org.drools.core.WorkingMemoryEntryPoint;
+import org.drools.core.common.ActivationsFilter;
+import org.drools.core.common.DefaultEventHandle;
+import org.drools.core.common.EqualityKey;
+import org.drools.core.common.InternalAgenda;
+import org.drools.core.common.InternalAgendaGroup;
+import org.drools.core.common.InternalFactHandle;
+import org.drools.core.common.PropagationContext;
+import org.drools.core.common.PropagationContextFactory;
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.impl.EnvironmentFactory;
+import org.drools.core.impl.WorkingMemoryReteExpireAction;
+import org.drools.core.phreak.RuleAgendaItem;
+import org.drools.core.reteoo.ObjectTypeConf;
+import org.drools.core.reteoo.PathMemory;
+import org.drools.core.reteoo.RuleTerminalNode;
+import org.drools.core.reteoo.RuntimeComponentFactory;
+import org.drools.core.reteoo.TerminalNode;
+import org.drools.core.reteoo.TupleImpl;
+import org.drools.core.rule.accessor.FactHandleFactory;
+import org.drools.core.rule.consequence.InternalMatch;
+import org.drools.core.time.impl.PseudoClockScheduler;
+import org.drools.kiesession.factory.PhreakWorkingMemoryFactory;
+import org.drools.kiesession.rulebase.InternalKnowledgeBase;
+import org.kie.api.runtime.rule.EntryPoint;
+import org.kie.api.runtime.rule.Match;
+
+/**
+ * Creates a copy of a session rebuilding its network state in memory, without marshalling it.
+ * The node memories of the original session are not reused: the copies of its facts are inserted again in the new
+ * session, with the same handle ids and recency, while an activations filter prevents the matches already fired in the
+ * original session from firing again. The facts and the globals are deep copied, by default with a single java
+ * serialization round trip, so forking a session costs as much as copying its facts and globals and inserting them all
+ * in a new session: this spares the marshalling of the node memories, but not the work needed to rebuild them.
+ */
+class SessionForker {
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(String.class, Boolean.class, Character.class, Byte.class, Short.class,
+                                                                Integer.class, Long.class, Float.class, Double.class,
+                                                                BigInteger.class, BigDecimal.class);
+
+    private final StatefulKnowledgeSessionImpl parent;
+
+    // when null the facts and the globals are copied serializing them all together, so the references among them are preserved
+    private final UnaryOperator<Object> factCloner;
+
+    // the ids of the fact handles copied from the parent, that are the same in the fork
+    private final Set<Long> copiedHandleIds = new HashSet<>();
+
+    private SessionForker(StatefulKnowledgeSessionImpl parent, UnaryOperator<Object> factCloner) {
+        this.parent = parent;
+        this.factCloner = factCloner;
+    }
+
+    static StatefulKnowledgeSessionImpl fork(StatefulKnowledgeSessionImpl parent, UnaryOperator<Object> factCloner) {
+        return new SessionForker(parent, factCloner).fork();
+    }
+
+    private StatefulKnowledgeSessionImpl fork() {
+        if (parent.getAgenda().isFiring()) {
+            throw new IllegalStateException("Cannot fork a session while it is firing");
+        }
+        parent.flushPropagations();
+
+        List<InternalFactHandle> handles = collectHandles();
+        List<String> globalNames = new ArrayList<>();
+        List<Object> originals = new ArrayList<>(handles.size());
+        for (InternalFactHandle handle : handles) {
+            originals.add(handle.getObject());
+        }
+        for (String global : parent.getGlobals().getGlobalKeys()) {
+            Object value = parent.getGlobal(global);
+            if (value != null) {
+                globalNames.add(global);
+                originals.add(value);
+            }
+        }
+        List<Object> copies = copy(originals);
+
+        InternalKnowledgeBase kBase = parent.getKnowledgeBase();
+        FactHandleFactory parentHandleFactory = parent.getFactHandleFactory();
+        FactHandleFactory handleFactory = parentHandleFactory.newInstance(parentHandleFactory.getId(), parentHandleFactory.getRecency());
+
+        StatefulKnowledgeSessionImpl fork = (StatefulKnowledgeSessionImpl) PhreakWorkingMemoryFactory.getInstance()
+                .createWorkingMemory(kBase.nextWorkingMemoryCounter(), kBase, handleFactory, 1,
+                                     parent.getSessionConfiguration(), EnvironmentFactory.newEnvironment());
+        if (parent.getSessionConfiguration().isKeepReference()) {
+            kBase.addStatefulSession(fork);
+        }
+
+        for (int i = 0; i < globalNames.size(); i++) {
+            fork.setGlobal(globalNames.get(i), copies.get(handles.size() + i));
+        }
+
+        if (parent.getTimerService() instanceof PseudoClockScheduler parentClock) {
+            PseudoClockScheduler clock = (PseudoClockScheduler) fork.getTimerService();
+            clock.advanceTime(parentClock.getCurrentTime() - clock.getCurrentTime(), TimeUnit.MILLISECONDS);
+        }
+
+        copyFocusStack(fork.getAgenda());
+
+        ForkActivationsFilter filter = new ForkActivationsFilter(collectFiredMatches());
+        fork.getAgenda().setActivationsFilter(filter);
+        try {
+            if (parent.getInitialFactHandle() != null) {
+                fork.setInitialFactHandle(fork.initInitialFact(null));
+            }
+            for (int i = 0; i < handles.size(); i++) {
+                insert(fork, handleFactory, handles.get(i), copies.get(i));
+            }
+            fork.flushPropagations();
+            filter.evaluateRuleAgendaItems(fork);
+        } finally {
+            fork.getAgenda().setActivationsFilter(null);
+        }
+        return fork;
+    }
+
+    private List<InternalFactHandle> collectHandles() {
+        if (parent.getInitialFactHandle() != null) {
+            copiedHandleIds.add(parent.getInitialFactHandle().getId());
+        }
+
+        List<InternalFactHandle> handles = new ArrayList<>();
+        for (EntryPoint entryPoint : parent.getEntryPoints()) {
+            WorkingMemoryEntryPoint ep = (WorkingMemoryEntryPoint) entryPoint;
+            for (Iterator<InternalFactHandle> it = ep.getObjectStore().iterateFactHandles(); it.hasNext(); ) {
+                InternalFactHandle handle = it.next();
+                EqualityKey key = handle.getEqualityKey();
+                if (key != null && key.getStatus() == EqualityKey.JUSTIFIED) {
+                    throw new UnsupportedOperationException("Cannot fork a session containing logically inserted facts, marshall it instead");
+                }
+                handles.add(handle);
+                copiedHandleIds.add(handle.getId());
+            }
+        }
+        // re-inserting the facts in their original order keeps the same conflict resolution of the parent session
+        handles.sort(Comparator.comparingLong(InternalFactHandle::getRecency));
+        return handles;
+    }
+
+    private List<Object> copy(List<Object> objects) {
+        List<Object> copies = new ArrayList<>(objects.size());
+        if (factCloner != null) {
+            for (Object object : objects) {
+                copies.add(factCloner.apply(object));
+            }
+            return copies;
+        }
+
+        List<Object> toBeSerialized = new ArrayList<>();
+        for (Object object : objects) {
+            if (isImmutable(object)) {
+                continue;
+            }
+            if (!(object instanceof Serializable)) {
+                throw new UnsupportedOperationException("Cannot copy " + object + " of the session to be forked because " +
+                                                        object.getClass().getName() + " is not Serializable, use fork(factCloner) instead");
+            }
+            toBeSerialized.add(object);
+        }
+
+        Iterator<Object> serialized = serializeAll(toBeSerialized).iterator();
+        for (Object object : objects) {
+            copies.add(isImmutable(object) ? object : serialized.next());
+        }
+        return copies;
+    }
+
+    private static boolean isImmutable(Object object) {
+        return object instanceof Enum || IMMUTABLE_TYPES.contains(object.getClass());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object> serializeAll(List<Object> objects) {
+        if (objects.isEmpty()) {
+            return objects;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(objects);
+            }
+            try (ObjectInputStream in = new DroolsObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()), parent.getKnowledgeBase().getRootClassLoader())) {
+                return (List<Object>) in.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException("Cannot copy the facts and globals of the session to be forked", e);
+        }
+    }
+
+    private void copyFocusStack(InternalAgenda agenda) {
+        for (String groupName : parent.getAgenda().getAgendaGroupsManager().getGroupsName()) {
+            if (InternalAgendaGroup.MAIN.equals(groupName)) {
+                continue;
+            }
+            InternalAgendaGroup group = (InternalAgendaGroup) agenda.getAgendaGroup(groupName);
+            group.setActive(((InternalAgendaGroup) parent.getAgenda().getAgendaGroup(groupName)).isActive());
+            agenda.getAgendaGroupsManager().addAgendaGroupOnStack(group);
+        }
+    }
+
+    private Set<MatchKey> collectFiredMatches() {
+        Set<MatchKey> fired = new HashSet<>();
+        for (TerminalNode[] terminalNodes : parent.getKnowledgeBase().getReteooBuilder().getTerminalNodes().values()) {
+            for (TerminalNode tn : terminalNodes) {
+                if (!(tn instanceof RuleTerminalNode)) {
+                    continue;
+                }
+                PathMemory pmem = (PathMemory) parent.getNodeMemories().peekNodeMemory(tn);
+                RuleAgendaItem item = pmem != null ? pmem.getRuleAgendaItem() : null;
+                if (item == null) {
+                    continue;
+                }
+                LinkedList<TupleImpl> dormantMatches = item.getRuleExecutor().getDormantMatches();
+                for (TupleImpl tuple = dormantMatches.getFirst(); tuple != null; tuple = tuple.getNext()) {
+                    fired.add(matchKey(tn.getRule(), tuple));
+                }
+            }
+        }
+        return fired;
+    }
+
+    private void insert(StatefulKnowledgeSessionImpl fork, FactHandleFactory handleFactory, InternalFactHandle parentHandle, Object object) {
+        WorkingMemoryEntryPoint ep = fork.getEntryPoint(parentHandle.getEntryPointName());
+
+        InternalFactHandle handle;
+        if (parentHandle.isEvent()) {
+            DefaultEventHandle parentEvent = (DefaultEventHandle) parentHandle;
+            DefaultEventHandle event = handleFactory.createEventFactHandle(parentHandle.getId(), object, parentHandle.getRecency(), ep,
+                                                                           parentEvent.getStartTimestamp(), parentEvent.getDuration());
+            event.setExpired(parentEvent.isExpired());
+            handle = event;
+        } else {
+            handle = handleFactory.createDefaultFactHandle(parentHandle.getId(), object, parentHandle.getRecency(), ep);
+        }
+
+        ep.getObjectStore().addHandle(handle, object);
+
+        ObjectTypeConf typeConf = ep.getObjectTypeConfigurationRegistry().getOrCreateObjectTypeConf(ep.getEntryPoint(), object);
+        PropagationContextFactory pctxFactory = RuntimeComponentFactory.get().getPropagationContextFactory();
+        PropagationContext pctx = pctxFactory.createPropagationContext(fork.getNextPropagationIdCounter(), PropagationContext.Type.INSERTION,
+                                                                       null, null, handle, ep.getEntryPoint());
+        ep.getEntryPointNode().assertObject(handle, pctx, typeConf, fork);
+
+        if (handle.isExpired()) {
+            fork.addPropagation(new WorkingMemoryReteExpireAction((DefaultEventHandle) handle));
+        }
+    }
+
+    private MatchKey matchKey(RuleImpl rule, TupleImpl tuple) {
+        List<Object> elements = new ArrayList<>();
+        for (TupleImpl entry = tuple.skipEmptyHandles(); entry != null; entry = entry.getParent()) {
+            InternalFactHandle fh = entry.getFactHandle();
+            if (fh == null) {
+                elements.add(null);
+            } else {
+                // the handles created by the network, e.g. for the results of an accumulate, have different ids in the fork,
+                // so they are compared by their objects: a result containing facts only matches when the fact copies are equal
+                elements.add(copiedHandleIds.contains(fh.getId()) ? (Object) fh.getId() : fh.getObject());
+            }
+        }
+        return new MatchKey(rule, elements.toArray());
+    }
+
+    private static class MatchKey {
+        private final RuleImpl rule;
+        private final Object[] elements;
+        private final int hashCode;
+
+        private MatchKey(RuleImpl rule, Object[] elements) {
+            this.rule = rule;
+            this.elements = elements;
+            this.hashCode = 31 * rule.hashCode() + Arrays.hashCode(elements);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MatchKey)) {
+                return false;
+            }
+            MatchKey other = (MatchKey) o;
+            return rule == other.rule && Arrays.equals(elements, other.elements);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private class ForkActivationsFilter implements ActivationsFilter {
+
+        private final Set<MatchKey> firedMatches;
+        private final List<RuleAgendaItem> ruleAgendaItems = new ArrayList<>();
+
+        private ForkActivationsFilter(Set<MatchKey> firedMatches) {
+            this.firedMatches = firedMatches;
+        }
+
+        @Override
+        public boolean accept(Match match) {
+            InternalMatch internalMatch = (InternalMatch) match;
+            return !firedMatches.contains(matchKey(internalMatch.getRule(), (TupleImpl) internalMatch.getTuple()));
+        }
+
+        @Override
+        public void accept(RuleAgendaItem item) {
+            ruleAgendaItems.add(item);
+        }
+
+        private void evaluateRuleAgendaItems(ReteEvaluator reteEvaluator) {
+            // the networks have to be evaluated while the filter is in place, so the fired matches are kept dormant
+            for (RuleAgendaItem item : ruleAgendaItems) {
+                item.getRuleExecutor().evaluateNetworkIfDirty(reteEvaluator);
+            }
+            for (RuleAgendaItem item : ruleAgendaItems) {
+                item.getRuleExecutor().removeRuleAgendaItemWhenEmpty();
+            }
+        }
+    }
+}
@@ -148,6 +148,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 import static java.util.stream.Collectors.toList;
 import static org.drools.base.base.ClassObjectType.InitialFact_ObjectType;
@@ -364,11 +365,36 @@ public class StatefulKnowledgeSessionImpl extends AbstractRuntime
         
         this.ruleNetworkEvaluator = new RuleNetworkEvaluatorImpl(this, nodeMemories, segmentMemorySupport);
 
+        if (conf.isMaterializedMemories()) {
+            kBase.getSessionMemoriesTemplate().materialize(nodeMemories, segmentMemorySupport);
+        }
+
         if (initInitFactHandle) {
             this.initialFactHandle = initInitialFact(null);
         }
     }
 
+    /**
+     * Creates a new session with copies of the facts and globals of this one and the same clock and agenda focus. The matches
+     * already fired in this session won't fire again in the forked one, while the ones still on the agenda will.
+     * The facts and the globals are copied serializing them all together, so they have to be Serializable, while the immutable
+     * ones, like strings, boxed primitives and enums, are shared. In this way the consequences fired in the fork never change
+     * the objects of this session, including its global collections.
+     * This doesn't reuse the node memories of this session, but replays the insertion of the copied facts in memory: it
+     * avoids marshalling the session, but still costs a serialization round trip of its facts plus their insertion in a new
+     * session. Sessions with logically inserted facts cannot be forked.
+     */
+    public StatefulKnowledgeSessionImpl fork() {
+        return SessionForker.fork(this, null);
+    }
+
+    /**
+     * As {@link #fork()}, using in the new session the copies of the facts and of the globals returned by the given cloner
+     */
+    public StatefulKnowledgeSessionImpl fork(UnaryOperator<Object> factCloner) {
+        return SessionForker.fork(this, factCloner);
+    }
+
     public StatefulKnowledgeSessionImpl setStateless( boolean stateless ) {
         this.stateless = stateless;
         return this;
@@ -1329,6 +1355,18 @@ public class StatefulKnowledgeSessionImpl extends AbstractRuntime
                null);
     }
 
+    @Override
+    public List<FactHandle> insertAll(Collection<?> objects) {
+        checkAlive();
+        return this.entryPointsManager.getDefaultEntryPoint().insertAll(objects);
+    }
+
+    @Override
+    public void updateAll(Collection<? extends FactHandle> handles) {
+        checkAlive();
+        this.entryPointsManager.getDefaultEntryPoint().updateAll(handles, allSetButTraitBitMask());
+    }
+
     public void update(FactHandle handle,
                        Object object,
                        String... modifiedProperties) {
@@ -29,8 +29,14 @@ public class StatefulSessionPool {
     private final ScalablePool<StatefulKnowledgeSessionImpl> pool;
 
     public StatefulSessionPool(InternalKnowledgeBase kbase, int initialSize, Supplier<StatefulKnowledgeSessionImpl> supplier) {
+        this(kbase, KieSessionsPoolOptions.of(initialSize), supplier);
+    }
+
+    public StatefulSessionPool(InternalKnowledgeBase kbase, KieSessionsPoolOptions options, Supplier<StatefulKnowledgeSessionImpl> supplier) {
         this.kbase = kbase;
-        this.pool = new ScalablePool<>(initialSize, supplier, s -> s.reset(), s -> s.fromPool(null).dispose());
+        Supplier<StatefulKnowledgeSessionImpl> sessionSupplier = options.isPreWarmMemories() ? () -> preWarm(supplier.get()) : supplier;
+        this.pool = new ScalablePool<>(options.getInitialSize(), options.getMaxIdle(), options.getResetExecutor(),
+                                       sessionSupplier, s -> s.reset(), s -> s.fromPool(null).dispose());
     }
 
     public InternalKnowledgeBase getKieBase() {
@@ -48,4 +54,16 @@ public class StatefulSessionPool {
     public void shutdown() {
         pool.shutdown();
     }
+
+    public ScalablePool.Statistics getStatistics() {
+        return pool.getStatistics();
+    }
+
+    // the memories are kept when the session is reset, so they are created only once for each pooled session
+    private StatefulKnowledgeSessionImpl preWarm(StatefulKnowledgeSessionImpl session) {
+        if (!kbase.getRuleBaseConfiguration().isMaterializedMemories()) {
+            kbase.getSessionMemoriesTemplate().materialize(session.getNodeMemories(), session.getSegmentMemorySupport());
+        }
+        return session;
+    }
 }
@@ -23,6 +23,7 @@ import org.drools.core.common.TupleSets;
 import org.drools.core.phreak.PhreakAccumulateNode;
 import org.drools.core.reteoo.AccumulateNode;
 import org.drools.core.reteoo.AccumulateNode.AccumulateMemory;
+import org.drools.core.reteoo.BetaMemory;
 import org.drools.core.reteoo.LeftTupleSink;
 import org.drools.metric.util.MetricLogUtils;
 
@@ -40,10 +41,13 @@ public class PhreakAccumulateNodeMetric extends PhreakAccumulateNode {
                        TupleSets stagedLeftTuples,
                        TupleSets trgLeftTuples) {
 
+        int trgInsertSize = trgLeftTuples.getInsertSize();
         try {
             MetricLogUtils.getInstance().startMetrics(accNode);
 
             super.doNode(accNode, sink, am, srcLeftTuples, stagedLeftTuples, trgLeftTuples);
+            BetaMemory bm = am.getBetaMemory();
+            MetricLogUtils.getInstance().recordTupleStats(trgLeftTuples.getInsertSize() - trgInsertSize, bm.getLeftTupleMemory().size() + bm.getRightTupleMemory().size());
 
         } finally {
             MetricLogUtils.getInstance().logAndEndMetrics();
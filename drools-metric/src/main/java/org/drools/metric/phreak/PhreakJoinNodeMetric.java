@@ -39,10 +39,12 @@ public class PhreakJoinNodeMetric extends PhreakJoinNode {
                        TupleSets srcLeftTuples,
                        TupleSets stagedLeftTuples,
                        TupleSets trgLeftTuples) {
+        int trgInsertSize = trgLeftTuples.getInsertSize();
         try {
             MetricLogUtils.getInstance().startMetrics(joinNode);
 
             super.doNode(joinNode, sink, bm, srcLeftTuples, stagedLeftTuples, trgLeftTuples);
+            MetricLogUtils.getInstance().recordTupleStats(trgLeftTuples.getInsertSize() - trgInsertSize, bm.getLeftTupleMemory().size() + bm.getRightTupleMemory().size());
 
         } finally {
             MetricLogUtils.getInstance().logAndEndMetrics();
@@ -40,10 +40,12 @@ public class PhreakNotNodeMetric extends PhreakNotNode {
                        TupleSets stagedLeftTuples,
                        TupleSets trgLeftTuples) {
 
+        int trgInsertSize = trgLeftTuples.getInsertSize();
         try {
             MetricLogUtils.getInstance().startMetrics(notNode);
 
             super.doNode(notNode, sink, bm, srcLeftTuples, stagedLeftTuples, trgLeftTuples);
+            MetricLogUtils.getInstance().recordTupleStats(trgLeftTuples.getInsertSize() - trgInsertSize, bm.getLeftTupleMemory().size() + bm.getRightTupleMemory().size());
 
         } finally {
             MetricLogUtils.getInstance().logAndEndMetrics();
@@ -40,7 +40,24 @@ public class MetricLogUtils {
     public static final String METRIC_LOGGER_THRESHOLD = "drools.metric.logger.threshold";
     private int threshold = Integer.parseInt(getConfig(METRIC_LOGGER_THRESHOLD, "500")); // microseconds
 
-    private final ThreadLocal<NodeStats> nodeStats = new ThreadLocal<>();
+    // Only 1 out of samplingRate node evaluations is measured by each thread, set it higher than 1 to reduce the overhead in production
+    public static final String METRIC_SAMPLING_RATE = "drools.metric.sampling.rate";
+    private int samplingRate = Math.max(1, Integer.parseInt(getConfig(METRIC_SAMPLING_RATE, "1")));
+
+    // Set true to aggregate the sampled evaluations per rule and per node, regardless of the threshold
+    public static final String METRIC_PROFILER_ENABLED = "drools.metric.profiler.enabled";
+    private boolean profilerEnabled = Boolean.parseBoolean(getConfig(METRIC_PROFILER_ENABLED, "false"));
+
+    // Interval in seconds at which the profiler logs the top costly rules and nodes, 0 to not log them
+    public static final String METRIC_PROFILER_REPORT_INTERVAL = "drools.metric.profiler.report.interval";
+    private long reportInterval = Long.parseLong(getConfig(METRIC_PROFILER_REPORT_INTERVAL, "0")); // seconds
+
+    public static final String METRIC_PROFILER_REPORT_TOP = "drools.metric.profiler.report.top";
+    private int reportTop = Integer.parseInt(getConfig(METRIC_PROFILER_REPORT_TOP, "10"));
+
+    private final RuleProfiler profiler = new RuleProfiler(samplingRate);
+
+    private final ThreadLocal<NodeStats> nodeStats = ThreadLocal.withInitial(NodeStats::new);
 
     private static MetricLogUtils INSTANCE = new MetricLogUtils();
 
@@ -60,6 +77,9 @@ public class MetricLogUtils {
 
     private MetricLogUtils() {
         // It is not allowed to create instances of util classes.
+        if (enabled && profilerEnabled && reportInterval > 0) {
+            profiler.startReporting(reportInterval, reportTop);
+        }
     }
 
     public int getThreshold() {
@@ -70,9 +90,17 @@ public class MetricLogUtils {
         return enabled;
     }
 
+    public int getSamplingRate() {
+        return samplingRate;
+    }
+
+    public RuleProfiler getProfiler() {
+        return profiler;
+    }
+
     public void startMetrics(BaseNode baseNode) {
         if (enabled) {
-            nodeStats.set(new NodeStats(baseNode));
+            nodeStats.get().start(baseNode, samplingRate);
         } else {
             logger.warn("Metrics must not be started when disabled");
         }
@@ -81,7 +109,7 @@ public class MetricLogUtils {
     public void incrementEvalCount() {
         if (enabled) {
             NodeStats stats = nodeStats.get();
-            if (stats != null && stats.isStarted()) {
+            if (stats.isStarted()) {
                 stats.incrementEvalCount();
             }
         } else {
@@ -89,24 +117,39 @@ public class MetricLogUtils {
         }
     }
 
+    /**
+     * Records the number of tuples propagated by the node currently measured and the size of its memory
+     */
+    public void recordTupleStats(long tupleCount, long memorySize) {
+        if (enabled) {
+            NodeStats stats = nodeStats.get();
+            if (stats.isStarted()) {
+                stats.setTupleStats(tupleCount, memorySize);
+            }
+        }
+    }
+
     public void logAndEndMetrics() {
         if (enabled) {
             NodeStats stats = nodeStats.get();
-            if (stats != null && stats.isStarted()) {
+            if (stats.isStarted()) {
                 long evalCount = stats.getEvalCount();
                 long elapsedTimeInNanos = (System.nanoTime() - stats.getStartTime());
                 long elapsedTimeInMicro = elapsedTimeInNanos / 1000;
+                if (profilerEnabled) {
+                    profiler.record(stats.getNode(), evalCount, elapsedTimeInNanos, stats.getTupleCount(), stats.getMemorySize());
+                }
                 if (evalCount > 0 && elapsedTimeInMicro > threshold) {
                     if (micrometerAvailable && !micrometerDisabled) {
-                        MicrometerUtils.INSTANCE.triggerMicrometer(stats.getNode(), evalCount, elapsedTimeInNanos);
+                        MicrometerUtils.INSTANCE.triggerMicrometer(stats.getNode(), evalCount, elapsedTimeInNanos, stats.getTupleCount(), stats.getMemorySize(), samplingRate);
                     } else {  // Only log when Micrometer is not enabled.
                         logger.trace("{}, evalCount:{}, elapsedMicro:{}", stats.getNode(), evalCount, elapsedTimeInMicro);
                     }
                 }
-            } else {
+            } else if (!stats.isSkipped()) {
                 logger.warn("nodeStats has to be initialized. Call startMetrics() beforehand : stats = {}", stats);
             }
-            nodeStats.remove();
+            stats.end();
         }
     }
 
@@ -114,6 +157,7 @@ public class MetricLogUtils {
      * This method is only used for testing purposes.
      */
     public static void recreateInstance() {
+        MetricLogUtils.INSTANCE.profiler.stopReporting();
         MetricLogUtils.INSTANCE = new MetricLogUtils();
     }
 }
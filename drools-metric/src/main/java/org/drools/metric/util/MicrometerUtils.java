@@ -19,6 +19,8 @@
 package org.drools.metric.util;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
 import java.util.function.Consumer;
@@ -27,6 +29,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Metrics;
@@ -46,12 +49,24 @@ public final class MicrometerUtils {
     private final Map<BaseNode, Timer> averageElapsedTimeCache = new WeakHashMap<>(0);
     private final Map<BaseNode, Timer> elapsedTimeCache = new WeakHashMap<>(0);
     private final Map<BaseNode, Counter> evaluationCountCache = new WeakHashMap<>(0);
+    private final Map<BaseNode, List<Timer>> ruleElapsedTimeCache = new WeakHashMap<>(0);
+    private final Map<BaseNode, DistributionSummary> tupleCountCache = new WeakHashMap<>(0);
+    private final Map<BaseNode, DistributionSummary> memorySizeCache = new WeakHashMap<>(0);
 
     private MicrometerUtils() {
         // No external instances.
     }
 
     public void triggerMicrometer(BaseNode node, long evalCount, long elapsedTimeInNanos) {
+        triggerMicrometer(node, evalCount, elapsedTimeInNanos, -1, -1, 1);
+    }
+
+    /**
+     * Records a sampled node evaluation: the timers only record the sampled evaluations, while the evaluation count
+     * is estimated multiplying the sampled one by the sampling rate. The tuple count and memory size are only recorded
+     * when not negative, i.e. when measured by the node.
+     */
+    public void triggerMicrometer(BaseNode node, long evalCount, long elapsedTimeInNanos, long tupleCount, long memorySize, int samplingRate) {
         MeterRegistry meterRegistry = Metrics.globalRegistry;
         MicrometerUtils.triggerMicrometer(averageElapsedTimeCache,
                 tags -> Timer.builder("org.drools.metric.elapsed.time.per.evaluation")
@@ -69,8 +84,37 @@ public final class MicrometerUtils {
                 tags -> Counter.builder("org.drools.metric.evaluation.count")
                         .tags(tags)
                         .register(meterRegistry),
-                counter -> counter.increment(evalCount),
+                counter -> counter.increment((double) evalCount * samplingRate),
                 node);
+        Duration elapsedTime = Duration.ofNanos(elapsedTimeInNanos);
+        for (Timer timer : ruleElapsedTimeCache.computeIfAbsent(node, k -> ruleTimers(k, meterRegistry))) {
+            timer.record(elapsedTime);
+        }
+        if (tupleCount >= 0) {
+            MicrometerUtils.triggerMicrometer(tupleCountCache,
+                    tags -> DistributionSummary.builder("org.drools.metric.tuple.count")
+                            .tags(tags)
+                            .register(meterRegistry),
+                    summary -> summary.record(tupleCount),
+                    node);
+            MicrometerUtils.triggerMicrometer(memorySizeCache,
+                    tags -> DistributionSummary.builder("org.drools.metric.memory.size")
+                            .tags(tags)
+                            .register(meterRegistry),
+                    summary -> summary.record(memorySize),
+                    node);
+        }
+    }
+
+    // the time spent in a node shared by more rules is accounted to each of them
+    private static List<Timer> ruleTimers(BaseNode node, MeterRegistry meterRegistry) {
+        List<Timer> timers = new ArrayList<>();
+        for (Rule rule : node.getAssociatedRules()) {
+            timers.add(Timer.builder("org.drools.metric.rule.elapsed.time")
+                               .tag("rule", rule.getPackageName() + "." + rule.getName())
+                               .register(meterRegistry));
+        }
+        return timers;
     }
 
     private static <Meter_ extends Meter> void triggerMicrometer(Map<BaseNode, Meter_> cache, Function<Iterable<Tag>,
@@ -95,6 +139,9 @@ public final class MicrometerUtils {
         averageElapsedTimeCache.clear();
         elapsedTimeCache.clear();
         evaluationCountCache.clear();
+        ruleElapsedTimeCache.clear();
+        tupleCountCache.clear();
+        memorySizeCache.clear();
     }
 
 }
@@ -18,28 +18,67 @@
  */
 package org.drools.metric.util;
 
-import java.lang.ref.WeakReference;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.drools.core.common.BaseNode;
 
+/**
+ * The stats of the node evaluation currently measured by a thread. An instance is reused by all the evaluations of
+ * the same thread, so that measuring a node, or skipping it because not sampled, doesn't allocate anything.
+ */
 public class NodeStats {
 
     private boolean started = false;
+    private boolean skipped = false;
+    private int toBeSkipped = 0;
     private long evalCount = 0;
     private long startTime = 0;
-    private WeakReference<BaseNode> nodeRef = null;
+    private long tupleCount = -1;
+    private long memorySize = -1;
+    private BaseNode node = null;
+
+    public NodeStats() { }
 
     public NodeStats(BaseNode node) {
+        start(node, 1);
+    }
+
+    /**
+     * Starts measuring the evaluation of the given node if it is the one to be sampled, on average 1 out of samplingRate evaluations.
+     * The number of evaluations skipped between 2 samples is random, so that the sampling doesn't align with periodic workloads.
+     */
+    public boolean start(BaseNode node, int samplingRate) {
+        if (--toBeSkipped >= 0) {
+            this.started = false;
+            this.skipped = true;
+            this.node = null;
+            return false;
+        }
+        this.toBeSkipped = samplingRate > 1 ? ThreadLocalRandom.current().nextInt(2 * samplingRate - 1) : 0;
         this.started = true;
+        this.skipped = false;
         this.evalCount = 0;
+        this.tupleCount = -1;
+        this.memorySize = -1;
+        this.node = node;
         this.startTime = System.nanoTime();
-        this.nodeRef = new WeakReference<>(node);
+        return true;
+    }
+
+    public void end() {
+        this.started = false;
+        this.skipped = false;
+        this.node = null;
     }
 
     public boolean isStarted() {
         return started;
     }
 
+    public boolean isSkipped() {
+        return skipped;
+    }
+
     public long getEvalCount() {
         return evalCount;
     }
@@ -52,12 +91,25 @@ public class NodeStats {
         return startTime;
     }
 
+    public long getTupleCount() {
+        return tupleCount;
+    }
+
+    public long getMemorySize() {
+        return memorySize;
+    }
+
+    public void setTupleStats(long tupleCount, long memorySize) {
+        this.tupleCount = tupleCount;
+        this.memorySize = memorySize;
+    }
+
     public BaseNode getNode() {
-        return nodeRef.get();
+        return node;
     }
 
     @Override
     public String toString() {
-        return "NodeStats [started=" + started + ", evalCount=" + evalCount + ", startTime=" + startTime + ", node=" + (nodeRef == null ? "null" : nodeRef.get()) + "]";
+        return "NodeStats [started=" + started + ", evalCount=" + evalCount + ", startTime=" + startTime + ", node=" + node + "]";
     }
 }
@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.metric.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.drools.core.common.BaseNode;
+import org.kie.api.definition.rule.Rule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aggregates the sampled node evaluations per node and per rule, so that the most costly ones can be reported.
+ * The totals are estimated multiplying the sampled values by the sampling rate. The time spent in a node shared by
+ * more rules is accounted to each of them.
+ * The profile of each node is shared by all the threads evaluating it and accumulates their samples in LongAdders,
+ * which are summed only when reporting.
+ */
+public class RuleProfiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuleProfiler.class);
+
+    private final int samplingRate;
+
+    private final Map<BaseNode, NodeProfile> nodeProfiles = Collections.synchronizedMap(new WeakHashMap<>());
+
+    // the profiles already met by each thread, so that the threads only contend on the shared map when they record a node for the first time
+    private volatile ThreadLocal<Map<BaseNode, NodeProfile>> threadProfiles = ThreadLocal.withInitial(WeakHashMap::new);
+
+    private ScheduledExecutorService reporter;
+
+    public RuleProfiler(int samplingRate) {
+        this.samplingRate = samplingRate;
+    }
+
+    public int getSamplingRate() {
+        return samplingRate;
+    }
+
+    public void record(BaseNode node, long evalCount, long elapsedTimeInNanos, long tupleCount, long memorySize) {
+        Map<BaseNode, NodeProfile> profiles = threadProfiles.get();
+        NodeProfile profile = profiles.get(node);
+        if (profile == null) {
+            profile = nodeProfiles.computeIfAbsent(node, NodeProfile::new);
+            profiles.put(node, profile);
+        }
+        profile.samples.increment();
+        profile.evalCount.add(evalCount);
+        profile.elapsedTime.add(elapsedTimeInNanos);
+        if (tupleCount >= 0) {
+            profile.tupleCount.add(tupleCount);
+            profile.maxMemorySize.accumulate(memorySize);
+        }
+    }
+
+    public List<NodeProfile> getTopNodes(int n) {
+        List<NodeProfile> profiles;
+        synchronized (nodeProfiles) {
+            profiles = new ArrayList<>(nodeProfiles.values());
+        }
+        profiles.sort(Comparator.comparingLong(NodeProfile::getElapsedTime).reversed());
+        return profiles.subList(0, Math.min(n, profiles.size()));
+    }
+
+    public List<RuleProfile> getTopRules(int n) {
+        Map<String, RuleProfile> ruleProfiles = new HashMap<>();
+        for (NodeProfile nodeProfile : getTopNodes(Integer.MAX_VALUE)) {
+            for (String rule : nodeProfile.getRules()) {
+                ruleProfiles.computeIfAbsent(rule, RuleProfile::new).add(nodeProfile);
+            }
+        }
+        List<RuleProfile> profiles = new ArrayList<>(ruleProfiles.values());
+        profiles.sort(Comparator.comparingLong(RuleProfile::getElapsedTime).reversed());
+        return profiles.subList(0, Math.min(n, profiles.size()));
+    }
+
+    public String report(int n) {
+        StringBuilder sb = new StringBuilder("Top ").append(n).append(" costly rules (sampling 1 out of ").append(samplingRate).append(" node evaluations):");
+        for (RuleProfile rule : getTopRules(n)) {
+            sb.append("\n  ").append(rule.getRule())
+              .append(", elapsedMicro:").append(estimate(rule.getElapsedTime()) / 1000)
+              .append(", evalCount:").append(estimate(rule.getEvalCount()))
+              .append(", tupleCount:").append(estimate(rule.getTupleCount()));
+        }
+        sb.append("\nTop ").append(n).append(" costly nodes:");
+        for (NodeProfile node : getTopNodes(n)) {
+            sb.append("\n  ").append(node.getNode())
+              .append(", elapsedMicro:").append(estimate(node.getElapsedTime()) / 1000)
+              .append(", evalCount:").append(estimate(node.getEvalCount()))
+              .append(", tupleCount:").append(estimate(node.getTupleCount()))
+              .append(", maxMemorySize:").append(node.getMaxMemorySize())
+              .append(", rules:").append(node.getRules());
+        }
+        return sb.toString();
+    }
+
+    private long estimate(long sampledValue) {
+        return sampledValue * samplingRate;
+    }
+
+    public synchronized void startReporting(long intervalInSeconds, int topN) {
+        stopReporting();
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "drools-metric-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        reporter.scheduleAtFixedRate(() -> logger.info(report(topN)), intervalInSeconds, intervalInSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stopReporting() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    public void clear() {
+        threadProfiles = ThreadLocal.withInitial(WeakHashMap::new);
+        nodeProfiles.clear();
+    }
+
+    public static class NodeProfile {
+
+        private final String node;
+        private final List<String> rules = new ArrayList<>();
+
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder evalCount = new LongAdder();
+        private final LongAdder elapsedTime = new LongAdder();
+        private final LongAdder tupleCount = new LongAdder();
+        private final LongAccumulator maxMemorySize = new LongAccumulator(Math::max, 0);
+
+        private NodeProfile(BaseNode node) {
+            this.node = node.toString();
+            for (Rule rule : node.getAssociatedRules()) {
+                rules.add(rule.getPackageName() + "." + rule.getName());
+            }
+        }
+
+        public String getNode() {
+            return node;
+        }
+
+        public List<String> getRules() {
+            return rules;
+        }
+
+        public long getSamples() {
+            return samples.sum();
+        }
+
+        public long getEvalCount() {
+            return evalCount.sum();
+        }
+
+        public long getElapsedTime() {
+            return elapsedTime.sum();
+        }
+
+        public long getTupleCount() {
+            return tupleCount.sum();
+        }
+
+        public long getMaxMemorySize() {
+            return maxMemorySize.get();
+        }
+    }
+
+    public static class RuleProfile {
+
+        private final String rule;
+
+        private long samples;
+        private long evalCount;
+        private long elapsedTime;
+        private long tupleCount;
+
+        private RuleProfile(String rule) {
+            this.rule = rule;
+        }
+
+        private void add(NodeProfile nodeProfile) {
+            samples += nodeProfile.getSamples();
+            evalCount += nodeProfile.getEvalCount();
+            elapsedTime += nodeProfile.getElapsedTime();
+            tupleCount += nodeProfile.getTupleCount();
+        }
+
+        public String getRule() {
+            return rule;
+        }
+
+        public long getSamples() {
+            return samples;
+        }
+
+        public long getEvalCount() {
+            return evalCount;
+        }
+
+        public long getElapsedTime() {
+            return elapsedTime;
+        }
+
+        public long getTupleCount() {
+            return tupleCount;
+        }
+    }
+}
@@ -18,15 +18,21 @@
  */
 package org.drools.metric;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.search.Search;
 import org.drools.metric.util.MetricLogUtils;
+import org.drools.metric.util.RuleProfiler;
 import org.drools.mvel.compiler.Address;
 import org.drools.mvel.compiler.Person;
 import org.junit.jupiter.api.Test;
@@ -58,6 +64,10 @@ public class MetricLogUtilsTest extends AbstractMetricTest {
     }
 
     private void runJoinRules() {
+        runJoinSession(createJoinKieBase());
+    }
+
+    private KieBase createJoinKieBase() {
         String str =
                 "import " + Address.class.getCanonicalName() + "\n" +
                         "import " + Person.class.getCanonicalName() + "\n" +
@@ -74,8 +84,10 @@ public class MetricLogUtilsTest extends AbstractMetricTest {
                         "then\n" +
                         "end\n";
 
-        KieBase kbase = loadKnowledgeBaseFromString(str);
+        return loadKnowledgeBaseFromString(str);
+    }
 
+    private static void runJoinSession(KieBase kbase) {
         List<Person> personList = IntStream.range(0, 10)
                 .mapToObj(i -> new Person("John" + i, i))
                 .collect(Collectors.toList());
@@ -108,6 +120,105 @@ public class MetricLogUtilsTest extends AbstractMetricTest {
         }
     }
 
+    @Test
+    public void testRuleAndTupleMeters() {
+
+        runJoinRules();
+
+        Collection<Timer> ruleTimers = Search.in(registry)
+                .name("org.drools.metric.rule.elapsed.time")
+                .timers();
+        assertThat(ruleTimers).hasSize(2);
+        Collection<DistributionSummary> tupleCounts = Search.in(registry)
+                .name("org.drools.metric.tuple.count")
+                .summaries();
+        assertThat(tupleCounts).hasSize(2);
+        Collection<DistributionSummary> memorySizes = Search.in(registry)
+                .name("org.drools.metric.memory.size")
+                .summaries();
+        assertThat(memorySizes).hasSize(2);
+    }
+
+    @Test
+    public void testProfiler() {
+
+        try {
+            System.setProperty(MetricLogUtils.METRIC_PROFILER_ENABLED, "true");
+            MetricLogUtils.recreateInstance();
+
+            runJoinRules();
+
+            RuleProfiler profiler = MetricLogUtils.getInstance().getProfiler();
+            assertThat(profiler.getTopRules(10)).extracting(RuleProfiler.RuleProfile::getRule)
+                    .containsExactlyInAnyOrder("defaultpkg.R1", "defaultpkg.R2");
+            assertThat(profiler.getTopRules(1)).hasSize(1);
+            List<RuleProfiler.NodeProfile> nodes = profiler.getTopNodes(10);
+            assertThat(nodes).hasSize(2);
+            assertThat(nodes.get(0).getElapsedTime()).isGreaterThanOrEqualTo(nodes.get(1).getElapsedTime());
+            assertThat(nodes.stream().mapToLong(RuleProfiler.NodeProfile::getTupleCount).sum()).isEqualTo(36);
+            assertThat(profiler.report(10)).contains("defaultpkg.R1", "defaultpkg.R2");
+        } finally {
+            System.clearProperty(MetricLogUtils.METRIC_PROFILER_ENABLED);
+            MetricLogUtils.recreateInstance();
+        }
+    }
+
+    @Test
+    public void testProfilerWithConcurrentSessions() throws Exception {
+
+        try {
+            System.setProperty(MetricLogUtils.METRIC_PROFILER_ENABLED, "true");
+            MetricLogUtils.recreateInstance();
+
+            KieBase kbase = createJoinKieBase();
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    futures.add(executor.submit(() -> runJoinSession(kbase)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            // the samples of all the threads are aggregated in the same profiles
+            List<RuleProfiler.NodeProfile> nodes = MetricLogUtils.getInstance().getProfiler().getTopNodes(10);
+            assertThat(nodes).hasSize(2);
+            assertThat(nodes.stream().mapToLong(RuleProfiler.NodeProfile::getTupleCount).sum()).isEqualTo(8 * 36);
+        } finally {
+            System.clearProperty(MetricLogUtils.METRIC_PROFILER_ENABLED);
+            MetricLogUtils.recreateInstance();
+        }
+    }
+
+    @Test
+    public void testSampling() {
+
+        try {
+            System.setProperty(MetricLogUtils.METRIC_PROFILER_ENABLED, "true");
+            MetricLogUtils.recreateInstance();
+            runJoinRules();
+            long allSamples = MetricLogUtils.getInstance().getProfiler().getTopNodes(10).stream().mapToLong(RuleProfiler.NodeProfile::getSamples).sum();
+
+            System.setProperty(MetricLogUtils.METRIC_SAMPLING_RATE, "1000");
+            MetricLogUtils.recreateInstance();
+            runJoinRules();
+
+            // only 1 out of 1000 node evaluations is measured on each thread
+            RuleProfiler profiler = MetricLogUtils.getInstance().getProfiler();
+            assertThat(profiler.getSamplingRate()).isEqualTo(1000);
+            long samples = profiler.getTopNodes(10).stream().mapToLong(RuleProfiler.NodeProfile::getSamples).sum();
+            assertThat(samples).isLessThan(allSamples);
+        } finally {
+            System.clearProperty(MetricLogUtils.METRIC_PROFILER_ENABLED);
+            System.clearProperty(MetricLogUtils.METRIC_SAMPLING_RATE);
+            MetricLogUtils.recreateInstance();
+        }
+    }
+
     @Test
     public void testFrom() {
 
@@ -122,8 +233,10 @@ public class MetricLogUtilsTest extends AbstractMetricTest {
                         "then\n" +
                         "end\n";
 
-        KieBase kbase = loadKnowledgeBaseFromString(str);
+        return loadKnowledgeBaseFromString(str);
+    }
 
+    private static void runJoinSession(KieBase kbase) {
         List<Person> personList = IntStream.range(0, 10)
                 .mapToObj(i -> new Person("John" + i, i))
                 .map(p -> {
@@ -170,8 +283,10 @@ public class MetricLogUtilsTest extends AbstractMetricTest {
                         "then\n" +
                         "end\n";
 
-        KieBase kbase = loadKnowledgeBaseFromString(str);
+        return loadKnowledgeBaseFromString(str);
+    }
 
+    private static void runJoinSession(KieBase kbase) {
         List<Person> personList = IntStream.range(0, 10)
                 .mapToObj(i -> new Person("John" + i, i))
                 .collect(Collectors.toList());
@@ -212,8 +327,10 @@ public class MetricLogUtilsTest extends AbstractMetricTest {
                         "then\n" +
                         "end\n";
 
-        KieBase kbase = loadKnowledgeBaseFromString(str);
+        return loadKnowledgeBaseFromString(str);
+    }
 
+    private static void runJoinSession(KieBase kbase) {
         List<Person> personList = IntStream.range(0, 10)
                 .mapToObj(i -> new Person("John" + i, i))
                 .collect(Collectors.toList());
@@ -257,8 +374,10 @@ public class MetricLogUtilsTest extends AbstractMetricTest {
                         //                     "  System.out.println(\"$p1.name = \" + $p1.getName() + \", other's $average = \" + $average);\n" +
                         "end\n";
 
-        KieBase kbase = loadKnowledgeBaseFromString(str);
+        return loadKnowledgeBaseFromString(str);
+    }
 
+    private static void runJoinSession(KieBase kbase) {
         List<Person> personList = IntStream.range(0, 10)
                 .mapToObj(i -> new Person("John" + i, i))
                 .collect(Collectors.toList());
@@ -301,8 +420,10 @@ public class MetricLogUtilsTest extends AbstractMetricTest {
                         //                     "  System.out.println(\"$p1.name = \" + $p1.getName() + \", other's $average = \" + $average);\n" +
                         "end\n";
 
-        KieBase kbase = loadKnowledgeBaseFromString(str);
+        return loadKnowledgeBaseFromString(str);
+    }
 
+    private static void runJoinSession(KieBase kbase) {
         List<Person> personList = IntStream.range(0, 10)
                 .mapToObj(i -> new Person("John" + i, i))
                 .collect(Collectors.toList());
@@ -344,8 +465,10 @@ public class MetricLogUtilsTest extends AbstractMetricTest {
                         //                                          "  System.out.println(\"$p1.name = \" + $p1.getName());\n" +
                         "end\n";
 
-        KieBase kbase = loadKnowledgeBaseFromString(str);
+        return loadKnowledgeBaseFromString(str);
+    }
 
+    private static void runJoinSession(KieBase kbase) {
         List<Person> personList = IntStream.range(0, 10)
                 .mapToObj(i -> new Person("John" + i, i))
                 .collect(Collectors.toList());
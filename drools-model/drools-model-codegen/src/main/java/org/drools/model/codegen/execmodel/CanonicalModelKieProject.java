@@ -18,6 +18,10 @@
  */
 package org.drools.model.codegen.execmodel;
 
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -25,10 +29,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.drools.base.util.Drools;
+import org.drools.codegen.common.GeneratedFile;
 import org.drools.compiler.builder.impl.KnowledgeBuilderConfigurationImpl;
 import org.drools.compiler.compiler.io.File;
 import org.drools.compiler.compiler.io.memory.MemoryFile;
@@ -40,12 +47,14 @@ import org.drools.compiler.kie.builder.impl.KieModuleKieProject;
 import org.drools.compiler.kie.builder.impl.ResultsImpl;
 import org.drools.compiler.kproject.models.KieBaseModelImpl;
 import org.drools.util.ClassUtils;
+import org.drools.util.StringUtils;
 import org.drools.modelcompiler.CanonicalKieModule;
 import org.drools.wiring.api.classloader.ProjectClassLoader;
 import org.kie.api.builder.Message;
 import org.kie.internal.builder.KnowledgeBuilder;
 import org.kie.memorycompiler.CompilationProblem;
 import org.kie.memorycompiler.CompilationResult;
+import org.kie.util.maven.support.DependencyFilter;
 import org.drools.util.PortablePath;
 
 import static java.util.stream.Collectors.groupingBy;
@@ -107,8 +116,10 @@ public class CanonicalModelKieProject extends KieModuleKieProject {
 
         Set<PortablePath> origFileNames = new HashSet<>(trgMfs.getFilePaths());
 
-        String[] sources = sourceFiles.toArray(new String[sourceFiles.size()]);
-        CompilationResult res = getCompiler().compile(sources, srcMfs, trgMfs, getClassLoader());
+        ExecModelBuildCache buildCache = ExecModelBuildCache.fromConfig();
+        CompilationResult res = buildCache == null ?
+                getCompiler().compile(sourceFiles.toArray(new String[sourceFiles.size()]), srcMfs, trgMfs, getClassLoader()) :
+                compileWithCache(buildCache, modelWriter.getBasePath().asString(), sourceFiles, srcMfs, trgMfs);
 
         Stream.of(res.getErrors()).collect(groupingBy( CompilationProblem::getFileName))
                 .forEach( (name, errors) -> {
@@ -138,6 +149,108 @@ public class CanonicalModelKieProject extends KieModuleKieProject {
         modelWriter.writeRuleUnitServiceFile(ruleUnitClassNames, trgMfs);
     }
 
+    private CompilationResult compileWithCache(ExecModelBuildCache buildCache, String basePath, Collection<String> sourceFiles,
+                                               MemoryFileSystem srcMfs, MemoryFileSystem trgMfs) {
+        Map<String, String> sourcePaths = new HashMap<>();
+        Map<String, String> sources = new HashMap<>();
+        for (String sourceFile : sourceFiles) {
+            String className = ClassUtils.convertResourceToClassName(sourceFile.substring(basePath.length() + 1));
+            sourcePaths.put(className, sourceFile);
+            sources.put(className, new String(srcMfs.read(PortablePath.of(sourceFile)), StandardCharsets.UTF_8));
+        }
+
+        ProjectClassLoader classLoader = (ProjectClassLoader) getClassLoader();
+        CompilationResult[] result = new CompilationResult[1];
+        Map<String, byte[]> classes = buildCache.compile(sources, compilationContext(trgMfs), request -> {
+            // the classes retrieved from the cache are made visible to the compiler only while compiling the other sources
+            for (Map.Entry<String, byte[]> cachedClass : request.getCachedClasses().entrySet()) {
+                classLoader.storeClass(cachedClass.getKey(), cachedClass.getValue());
+            }
+            MemoryFileSystem compiledMfs = new MemoryFileSystem();
+            try {
+                String[] paths = request.getSources().keySet().stream().map(sourcePaths::get).toArray(String[]::new);
+                result[0] = getCompiler().compile(paths, srcMfs, compiledMfs, classLoader);
+            } finally {
+                for (String cachedClass : request.getCachedClasses().keySet()) {
+                    classLoader.getStore().remove(ClassUtils.convertClassToResourcePath(cachedClass));
+                }
+            }
+            if (result[0].getErrors().length > 0) {
+                return null;
+            }
+            Map<String, byte[]> compiledClasses = new HashMap<>();
+            compiledMfs.getMap().forEach((path, bytecode) -> compiledClasses.put(ClassUtils.convertResourceToClassName(path.asString()), bytecode));
+            return compiledClasses;
+        });
+
+        if (classes == null) {
+            if (result[0] == null || buildCache.getHits() == 0) {
+                return result[0];
+            }
+            // the errors could be caused by a stale cached class, so compile everything again to report the actual ones
+            return getCompiler().compile(sourceFiles.toArray(new String[sourceFiles.size()]), srcMfs, trgMfs, classLoader);
+        }
+        classes.forEach((className, bytecode) -> trgMfs.write(ClassUtils.convertClassToResourcePath(className), bytecode));
+        return result[0] != null ? result[0] : new CompilationResult(new CompilationProblem[0]);
+    }
+
+    // everything that can change the result of the compilation of a generated source without changing the source itself
+    private String compilationContext(MemoryFileSystem trgMfs) {
+        Map<String, byte[]> contextFiles = new TreeMap<>();
+        for (ModelBuilderImpl<?> modelBuilder : modelBuilders.values()) {
+            List<GeneratedFile> typeFiles = new ArrayList<>();
+            for (Object pkgSources : modelBuilder.getPackageSources()) {
+                ((PackageSources) pkgSources).collectTypeFiles(typeFiles);
+            }
+            typeFiles.forEach(typeFile -> contextFiles.put(typeFile.relativePath(), typeFile.contents()));
+        }
+        trgMfs.getMap().forEach((path, contents) -> {
+            if (path.asString().endsWith(".class")) {
+                contextFiles.put(path.asString(), contents);
+            }
+        });
+
+        MessageDigest digest = ExecModelBuildCache.newDigest();
+        digest.update(Drools.getFullVersion().getBytes(StandardCharsets.UTF_8));
+        digest.update(System.getProperty("java.version").getBytes(StandardCharsets.UTF_8));
+        contextFiles.forEach((path, contents) -> {
+            digest.update(path.getBytes(StandardCharsets.UTF_8));
+            digest.update(contents);
+        });
+        digestDependencies(digest);
+        return StringUtils.bytesToHex(digest.digest());
+    }
+
+    // a dependency class can change without changing the generated sources using it, so all the dependencies are part of the context
+    private void digestDependencies(MessageDigest digest) {
+        InternalKieModule kieModule = getInternalKieModule();
+
+        Map<String, InternalKieModule> kieDependencies = new TreeMap<>();
+        kieModule.getKieDependencies().forEach((releaseId, dependency) -> kieDependencies.put(releaseId.toString(), dependency));
+        kieDependencies.forEach((releaseId, dependency) -> {
+            digest.update(releaseId.getBytes(StandardCharsets.UTF_8));
+            new TreeMap<>(dependency.getClassesMap()).forEach((className, bytecode) -> {
+                digest.update(className.getBytes(StandardCharsets.UTF_8));
+                digest.update(bytecode);
+            });
+        });
+
+        kieModule.getJarDependencies(DependencyFilter.COMPILE_FILTER).stream()
+                .map(Object::toString)
+                .sorted()
+                .forEach(releaseId -> digest.update(releaseId.getBytes(StandardCharsets.UTF_8)));
+
+        // the jars resolved for the dependencies are in the classloaders parent of the project one
+        for (ClassLoader cl = getClassLoader().getParent(); cl != null; cl = cl.getParent()) {
+            if (cl instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) cl).getURLs()) {
+                    digest.update(url.toString().getBytes(StandardCharsets.UTF_8));
+                    digest.update(ExecModelBuildCache.contentDigest(url).getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+    }
+
     @Override
     protected boolean compileIncludedKieBases() {
         return false;
@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.model.codegen.execmodel;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.drools.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An on disk cache of the classes compiled from the sources generated by the executable model. The classes compiled from
+ * a source are stored under the hash of that source together with the hash of its compilation context, so that an
+ * incremental build only needs to compile the sources that actually changed. The context has to include everything that
+ * can affect the compilation of a source without changing it, like the declared types or the classes of the project.
+ */
+public class ExecModelBuildCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecModelBuildCache.class);
+
+    public static final String BUILD_CACHE_DIR = "drools.execmodel.buildCache";
+
+    private static final Map<String, String> FILE_DIGESTS = new ConcurrentHashMap<>();
+
+    private final Path directory;
+
+    private int hits;
+    private int misses;
+
+    public ExecModelBuildCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the cache in the directory configured with the {@link #BUILD_CACHE_DIR} property, or null if not configured
+     */
+    public static ExecModelBuildCache fromConfig() {
+        String dir = System.getProperty(BUILD_CACHE_DIR);
+        return dir == null || dir.isEmpty() ? null : new ExecModelBuildCache(Paths.get(dir));
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    /**
+     * Compiles the given sources, indexed by the name of the class they declare, reusing the classes compiled from
+     * the same sources in the same context. The compiler receives the sources to be compiled and the classes retrieved
+     * from the cache, that have to be visible during the compilation, and returns the compiled classes or null if
+     * the compilation failed, in which case nothing is cached.
+     *
+     * @return the classes, indexed by name, of all the given sources or null if the compilation failed
+     */
+    public Map<String, byte[]> compile(Map<String, String> sources, String context,
+                                       Function<CompilationRequest, Map<String, byte[]>> compiler) {
+        Map<String, String> keys = new HashMap<>();
+        Map<String, byte[]> cachedClasses = new HashMap<>();
+        Map<String, String> sourcesToCompile = new HashMap<>();
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            String key = hash(context, source.getKey(), source.getValue());
+            keys.put(source.getKey(), key);
+            Map<String, byte[]> classes = read(key);
+            if (classes != null) {
+                cachedClasses.putAll(classes);
+            } else {
+                sourcesToCompile.put(source.getKey(), source.getValue());
+            }
+        }
+        hits += sources.size() - sourcesToCompile.size();
+        misses += sourcesToCompile.size();
+
+        if (sourcesToCompile.isEmpty()) {
+            return cachedClasses;
+        }
+
+        Map<String, byte[]> compiledClasses = compiler.apply(new CompilationRequest(sourcesToCompile, cachedClasses));
+        if (compiledClasses == null) {
+            return null;
+        }
+
+        Map<String, Map<String, byte[]>> classesBySource = new HashMap<>();
+        for (Map.Entry<String, byte[]> compiledClass : compiledClasses.entrySet()) {
+            String sourceName = topLevelClassName(compiledClass.getKey());
+            if (sourcesToCompile.containsKey(sourceName)) {
+                classesBySource.computeIfAbsent(sourceName, k -> new HashMap<>()).put(compiledClass.getKey(), compiledClass.getValue());
+            } else if (!sources.containsKey(sourceName)) {
+                // a class that cannot be associated to its source would be lost when retrieving that source from the cache
+                logger.debug("Cannot cache the compiled class {} because its source is unknown", compiledClass.getKey());
+                return merge(cachedClasses, compiledClasses);
+            }
+        }
+        for (Map.Entry<String, Map<String, byte[]>> entry : classesBySource.entrySet()) {
+            write(keys.get(entry.getKey()), entry.getValue());
+        }
+        return merge(cachedClasses, compiledClasses);
+    }
+
+    private static Map<String, byte[]> merge(Map<String, byte[]> cachedClasses, Map<String, byte[]> compiledClasses) {
+        Map<String, byte[]> result = new HashMap<>(cachedClasses);
+        result.putAll(compiledClasses);
+        return result;
+    }
+
+    private static String topLevelClassName(String className) {
+        int innerClassPos = className.indexOf('$');
+        return innerClassPos < 0 ? className : className.substring(0, innerClassPos);
+    }
+
+    private Map<String, byte[]> read(String key) {
+        Path entry = entryPath(key);
+        if (!Files.exists(entry)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(entry)))) {
+            int size = in.readInt();
+            Map<String, byte[]> classes = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                String className = in.readUTF();
+                byte[] bytecode = new byte[in.readInt()];
+                in.readFully(bytecode);
+                classes.put(className, bytecode);
+            }
+            return classes;
+        } catch (IOException e) {
+            logger.warn("Cannot read the build cache entry {}, it will be recompiled", entry, e);
+            return null;
+        }
+    }
+
+    private void write(String key, Map<String, byte[]> classes) {
+        Path entry = entryPath(key);
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(baos)) {
+                out.writeInt(classes.size());
+                for (Map.Entry<String, byte[]> compiledClass : classes.entrySet()) {
+                    out.writeUTF(compiledClass.getKey());
+                    out.writeInt(compiledClass.getValue().length);
+                    out.write(compiledClass.getValue());
+                }
+            }
+            Files.createDirectories(entry.getParent());
+            // written on a temporary file and then moved, so that concurrent builds never read a partially written entry
+            Path tmp = Files.createTempFile(entry.getParent(), key, ".tmp");
+            Files.write(tmp, baos.toByteArray());
+            Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Cannot write the build cache entry {}", entry, e);
+        }
+    }
+
+    private Path entryPath(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    public static String hash(String... values) {
+        MessageDigest digest = newDigest();
+        for (String value : values) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return StringUtils.bytesToHex(digest.digest());
+    }
+
+    /**
+     * Returns the digest of the content of the file or the directory referenced by the given classpath url. The digest of
+     * a jar is computed only once as long as its size and its last modification time don't change.
+     */
+    public static String contentDigest(URL url) {
+        Path path;
+        try {
+            path = Paths.get(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+            // not a local file, the url alone has to identify its content
+            return "";
+        }
+        try {
+            if (Files.isDirectory(path)) {
+                return directoryDigest(path);
+            }
+            if (!Files.exists(path)) {
+                return "";
+            }
+            String fileKey = path + ":" + Files.size(path) + ":" + Files.getLastModifiedTime(path).toMillis();
+            String cached = FILE_DIGESTS.get(fileKey);
+            if (cached == null) {
+                cached = fileDigest(path);
+                FILE_DIGESTS.put(fileKey, cached);
+            }
+            return cached;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String fileDigest(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[8192];
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return StringUtils.bytesToHex(digest.digest());
+    }
+
+    private static String directoryDigest(Path directory) throws IOException {
+        MessageDigest digest = newDigest();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile).sorted()::iterator) {
+                digest.update(directory.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                digest.update(Files.readAllBytes(file));
+            }
+        }
+        return StringUtils.bytesToHex(digest.digest());
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static class CompilationRequest {
+
+        private final Map<String, String> sources;
+        private final Map<String, byte[]> cachedClasses;
+
+        private CompilationRequest(Map<String, String> sources, Map<String, byte[]> cachedClasses) {
+            this.sources = sources;
+            this.cachedClasses = cachedClasses;
+        }
+
+        /**
+         * The sources to be compiled, indexed by the name of the class they declare
+         */
+        public Map<String, String> getSources() {
+            return sources;
+        }
+
+        /**
+         * The classes retrieved from the cache, indexed by name, that have to be visible when compiling the sources
+         */
+        public Map<String, byte[]> getCachedClasses() {
+            return cachedClasses;
+        }
+    }
+}
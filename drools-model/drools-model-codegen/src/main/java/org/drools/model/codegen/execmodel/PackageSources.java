@@ -120,4 +120,16 @@ public class PackageSources {
         generatedFiles.add( domainClassSource );
         generatedFiles.addAll(lambdaClasses );
     }
+
+    /**
+     * Collects the generated files that can affect the compilation of the other ones without changing them,
+     * like the declared types
+     */
+    public void collectTypeFiles( List<GeneratedFile> generatedFiles ) {
+        generatedFiles.addAll( pojoSources );
+        generatedFiles.addAll( accumulateSources );
+        if ( domainClassSource != null ) {
+            generatedFiles.add( domainClassSource );
+        }
+    }
 }
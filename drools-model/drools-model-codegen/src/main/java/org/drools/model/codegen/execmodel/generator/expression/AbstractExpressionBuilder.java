@@ -223,6 +223,26 @@ public abstract class AbstractExpressionBuilder {
                 ((NameExpr) expression).getNameAsString().startsWith( CoercedExpression.STRING_TO_DATE_FIELD_START );
     }
 
+    // an enum constant like MyEnum.VALUE is a singleton, so it can be indexed as any other literal
+    protected boolean isEnumConstantExpression(TypedExpression typedExpression) {
+        Class<?> type = typedExpression.getRawClass();
+        if (type == null || !type.isEnum() || !(typedExpression.getExpression() instanceof FieldAccessExpr)) {
+            return false;
+        }
+        FieldAccessExpr fieldAccess = (FieldAccessExpr) typedExpression.getExpression();
+        String scope = fieldAccess.getScope().toString();
+        String typeName = type.getCanonicalName();
+        if (typeName == null || !(typeName.equals(scope) || typeName.endsWith("." + scope))) {
+            return false;
+        }
+        for (Object constant : type.getEnumConstants()) {
+            if (((Enum<?>) constant).name().equals(fieldAccess.getNameAsString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     protected boolean isNumberToStringExpression(Expression expression) {
         return expression instanceof MethodCallExpr &&
                 ((MethodCallExpr) expression).getNameAsString().equals("valueOf") &&
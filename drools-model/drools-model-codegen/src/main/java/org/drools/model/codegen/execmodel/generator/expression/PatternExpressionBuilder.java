@@ -209,7 +209,7 @@ public class PatternExpressionBuilder extends AbstractExpressionBuilder {
         TypedExpression right = drlxParseResult.getRight();
 
         Expression rightExpression = right.getExpression();
-        if (!drlxParseResult.isBetaConstraint() && !(rightExpression instanceof LiteralExpr || isStringToDateExpression(rightExpression) || isNumberToStringExpression(rightExpression))) {
+        if (!drlxParseResult.isBetaConstraint() && !(rightExpression instanceof LiteralExpr || isStringToDateExpression(rightExpression) || isNumberToStringExpression(rightExpression) || isEnumConstantExpression(right))) {
             return Optional.empty();
         }
 
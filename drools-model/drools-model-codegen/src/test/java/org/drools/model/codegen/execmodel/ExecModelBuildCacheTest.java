@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.model.codegen.execmodel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.drools.compiler.kie.builder.impl.InternalKieModule;
+import org.drools.compiler.kie.builder.impl.MemoryKieModule;
+import org.drools.model.codegen.ExecutableModelProject;
+import org.drools.model.codegen.execmodel.domain.Person;
+import org.drools.modelcompiler.CanonicalKieModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+import org.kie.api.builder.ReleaseId;
+import org.kie.api.io.Resource;
+import org.kie.api.runtime.KieSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExecModelBuildCacheTest {
+
+    @TempDir
+    Path cacheDir;
+
+    @AfterEach
+    public void clearProperty() {
+        System.clearProperty(ExecModelBuildCache.BUILD_CACHE_DIR);
+    }
+
+    @Test
+    public void testCompileOnlyChangedSources() {
+        ExecModelBuildCache cache = new ExecModelBuildCache(cacheDir);
+        Map<String, String> sources = new HashMap<>();
+        sources.put("org.test.A", "class A {}");
+        sources.put("org.test.B", "class B {}");
+
+        List<ExecModelBuildCache.CompilationRequest> requests = new ArrayList<>();
+        Map<String, byte[]> classes = cache.compile(sources, "ctx", request -> fakeCompile(request, requests));
+        assertThat(classes).containsOnlyKeys("org.test.A", "org.test.A$Inner", "org.test.B", "org.test.B$Inner");
+        assertThat(requests.get(0).getSources()).containsOnlyKeys("org.test.A", "org.test.B");
+
+        sources.put("org.test.B", "class B { int x; }");
+        classes = cache.compile(sources, "ctx", request -> fakeCompile(request, requests));
+        assertThat(classes).containsOnlyKeys("org.test.A", "org.test.A$Inner", "org.test.B", "org.test.B$Inner");
+        assertThat(requests.get(1).getSources()).containsOnlyKeys("org.test.B");
+        assertThat(requests.get(1).getCachedClasses()).containsOnlyKeys("org.test.A", "org.test.A$Inner");
+        assertThat(cache.getHits()).isEqualTo(1);
+
+        // nothing to compile
+        classes = cache.compile(sources, "ctx", request -> fakeCompile(request, requests));
+        assertThat(classes).hasSize(4);
+        assertThat(requests).hasSize(2);
+
+        // a different context invalidates all the cached classes
+        cache.compile(sources, "ctx2", request -> fakeCompile(request, requests));
+        assertThat(requests.get(2).getSources()).containsOnlyKeys("org.test.A", "org.test.B");
+    }
+
+    @Test
+    public void testFailedCompilationIsNotCached() {
+        ExecModelBuildCache cache = new ExecModelBuildCache(cacheDir);
+        Map<String, String> sources = Map.of("org.test.A", "class A {");
+
+        assertThat(cache.compile(sources, "ctx", request -> null)).isNull();
+        assertThat(cache.compile(sources, "ctx", request -> null)).isNull();
+        assertThat(cache.getHits()).isZero();
+    }
+
+    private static Map<String, byte[]> fakeCompile(ExecModelBuildCache.CompilationRequest request, List<ExecModelBuildCache.CompilationRequest> requests) {
+        requests.add(request);
+        Map<String, byte[]> classes = new HashMap<>();
+        request.getSources().forEach((className, source) -> {
+            classes.put(className, source.getBytes());
+            classes.put(className + "$Inner", source.getBytes());
+        });
+        return classes;
+    }
+
+    @Test
+    public void testIncrementalKJarBuild() throws IOException {
+        System.setProperty(ExecModelBuildCache.BUILD_CACHE_DIR, cacheDir.toString());
+
+        String drl1 =
+                "package org.test1;\n" +
+                "import " + Person.class.getCanonicalName() + ";\n" +
+                "global java.util.List list;\n" +
+                "rule R1 when\n" +
+                "  $p : Person(age > 18)\n" +
+                "then\n" +
+                "  list.add(\"R1 \" + $p.getName());\n" +
+                "end\n";
+        String drl2 =
+                "package org.test2;\n" +
+                "import " + Person.class.getCanonicalName() + ";\n" +
+                "global java.util.List list;\n" +
+                "rule R2 when\n" +
+                "  $p : Person(name.startsWith(\"M\"))\n" +
+                "then\n" +
+                "  list.add(\"R2 \" + $p.getName());\n" +
+                "end\n";
+
+        KieServices ks = KieServices.get();
+        ReleaseId releaseId = ks.newReleaseId("org.kie", "build-cache-test", "1.0");
+
+        assertThat(fire(build(ks, releaseId, drl1, drl2))).containsExactlyInAnyOrder("R1 Mario", "R2 Mario");
+        long entries = countEntries();
+        assertThat(entries).isPositive();
+
+        // rebuilding the same kjar doesn't compile anything
+        assertThat(fire(build(ks, releaseId, drl1, drl2))).containsExactlyInAnyOrder("R1 Mario", "R2 Mario");
+        assertThat(countEntries()).isEqualTo(entries);
+
+        // only the sources generated from the changed rule are compiled again
+        String changedDrl2 = drl2.replace("startsWith(\"M\")", "startsWith(\"L\")");
+        assertThat(fire(build(ks, releaseId, drl1, changedDrl2))).containsExactly("R1 Mario");
+        long newEntries = countEntries() - entries;
+        assertThat(newEntries).isPositive().isLessThan(entries);
+    }
+
+    @Test
+    public void testChangedDependencyInvalidatesCache() throws IOException {
+        System.setProperty(ExecModelBuildCache.BUILD_CACHE_DIR, cacheDir.toString());
+
+        KieServices ks = KieServices.get();
+        ReleaseId depReleaseId = ks.newReleaseId("org.kie", "build-cache-dep", "1.0");
+        ReleaseId mainReleaseId = ks.newReleaseId("org.kie", "build-cache-main", "1.0");
+
+        // the generated sources only refer to Helper.value(), so they don't change when its return type does
+        String drl =
+                "package org.test;\n" +
+                "import org.dep.Helper;\n" +
+                "global java.util.List list;\n" +
+                "rule R when\n" +
+                "  String()\n" +
+                "then\n" +
+                "  list.add(\"R \" + Helper.value());\n" +
+                "end\n";
+
+        Resource depV1 = buildDependency(ks, depReleaseId, "public static String value() { return \"v1\"; }");
+        assertThat(fireDependent(ks, mainReleaseId, depReleaseId, depV1, drl)).containsExactly("R v1");
+        long entries = countEntries();
+        assertThat(entries).isPositive();
+
+        assertThat(fireDependent(ks, mainReleaseId, depReleaseId, depV1, drl)).containsExactly("R v1");
+        assertThat(countEntries()).isEqualTo(entries);
+
+        // the classes compiled against the previous version of Helper must not be reused
+        Resource depV2 = buildDependency(ks, depReleaseId, "public static int value() { return 2; }");
+        assertThat(fireDependent(ks, mainReleaseId, depReleaseId, depV2, drl)).containsExactly("R 2");
+        assertThat(countEntries()).isGreaterThan(entries);
+    }
+
+    private static Resource buildDependency(KieServices ks, ReleaseId releaseId, String valueMethod) {
+        KieFileSystem kfs = ks.newKieFileSystem();
+        kfs.writePomXML(KJARUtils.getPom(releaseId));
+        kfs.write("src/main/java/org/dep/Helper.java", "package org.dep;\npublic class Helper {\n" + valueMethod + "\n}\n");
+        KieBuilder kieBuilder = ks.newKieBuilder(kfs).buildAll(ExecutableModelProject.class);
+        assertThat(kieBuilder.getResults().getMessages(Message.Level.ERROR)).isEmpty();
+        InternalKieModule kieModule = ((CanonicalKieModule) kieBuilder.getKieModule()).getInternalKieModule();
+        return ks.getResources().newByteArrayResource(((MemoryKieModule) kieModule).getMemoryFileSystem().writeAsBytes());
+    }
+
+    private static List<String> fireDependent(KieServices ks, ReleaseId releaseId, ReleaseId depReleaseId, Resource dependency, String drl) {
+        KieFileSystem kfs = ks.newKieFileSystem();
+        kfs.writePomXML(
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n" +
+                "  <modelVersion>4.0.0</modelVersion>\n" +
+                "  <groupId>" + releaseId.getGroupId() + "</groupId>\n" +
+                "  <artifactId>" + releaseId.getArtifactId() + "</artifactId>\n" +
+                "  <version>" + releaseId.getVersion() + "</version>\n" +
+                "  <dependencies>\n" +
+                "    <dependency>\n" +
+                "      <groupId>" + depReleaseId.getGroupId() + "</groupId>\n" +
+                "      <artifactId>" + depReleaseId.getArtifactId() + "</artifactId>\n" +
+                "      <version>" + depReleaseId.getVersion() + "</version>\n" +
+                "    </dependency>\n" +
+                "  </dependencies>\n" +
+                "</project>");
+        kfs.write("src/main/resources/org/test/rules.drl", drl);
+        KieBuilder kieBuilder = ks.newKieBuilder(kfs);
+        kieBuilder.setDependencies(dependency);
+        kieBuilder.buildAll(ExecutableModelProject.class);
+        assertThat(kieBuilder.getResults().getMessages(Message.Level.ERROR)).isEmpty();
+
+        KieSession ksession = ks.newKieContainer(releaseId).newKieSession();
+        List<String> list = new ArrayList<>();
+        ksession.setGlobal("list", list);
+        ksession.insert("test");
+        ksession.fireAllRules();
+        ksession.dispose();
+        return list;
+    }
+
+    private static KieSession build(KieServices ks, ReleaseId releaseId, String... drls) {
+        KieFileSystem kfs = ks.newKieFileSystem();
+        kfs.writePomXML(KJARUtils.getPom(releaseId));
+        for (int i = 0; i < drls.length; i++) {
+            kfs.write("src/main/resources/org/test" + (i + 1) + "/rules.drl", drls[i]);
+        }
+        KieBuilder kieBuilder = ks.newKieBuilder(kfs).buildAll(ExecutableModelProject.class);
+        assertThat(kieBuilder.getResults().getMessages(Message.Level.ERROR)).isEmpty();
+        return ks.newKieContainer(releaseId).newKieSession();
+    }
+
+    private static List<String> fire(KieSession ksession) {
+        List<String> list = new ArrayList<>();
+        ksession.setGlobal("list", list);
+        ksession.insert(new Person("Mario", 40));
+        ksession.fireAllRules();
+        ksession.dispose();
+        return list;
+    }
+
+    private long countEntries() throws IOException {
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
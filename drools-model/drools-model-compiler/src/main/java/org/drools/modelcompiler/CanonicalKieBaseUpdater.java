@@ -186,8 +186,7 @@ public class CanonicalKieBaseUpdater extends KieBaseUpdaterImpl {
 
         KieBaseUpdate kieBaseUpdate = new KieBaseUpdate(rulesToBeRemoved, rulesToBeAdded);
         ctx.kBase.beforeIncrementalUpdate( kieBaseUpdate );
-        ctx.kBase.removeRules( rulesToBeRemoved );
-        ctx.kBase.addRules( rulesToBeAdded );
+        ctx.kBase.updateRules( rulesToBeRemoved, rulesToBeAdded );
         ctx.kBase.afterIncrementalUpdate( kieBaseUpdate );
 
         for ( InternalWorkingMemory wm : ctx.kBase.getWorkingMemories() ) {
@@ -64,10 +64,13 @@ public class LambdaConsequence implements Consequence<KnowledgeHelper> {
 
     @Override
     public void evaluate(KnowledgeHelper knowledgeHelper, ValueResolver valueResolver) throws Exception {
-        if ( this.requiredDeclarations == null ) {
-            Declaration[] declarations = (( RuleTerminalNode ) knowledgeHelper.getMatch().getTuple().getSink()).getRequiredDeclarations();
+        Declaration[] declarations = (( RuleTerminalNode ) knowledgeHelper.getMatch().getTuple().getSink()).getRequiredDeclarations();
+        if ( this.requiredDeclarations != declarations ) {
             if (enabledTupleOptimization) {
+                // the declarations change when the rule is rebuilt, for instance with a different join order,
+                // so the fact suppliers calculated for the former terminal node have to be discarded
                 this.requiredDeclarations = declarations;
+                this.factSuppliers = null;
             } else {
                 Object[] facts = declarationsToFacts( knowledgeHelper, valueResolver, knowledgeHelper.getTuple(), declarations, consequence.getVariables(), consequence.isUsingDrools() );
                 consequence.getBlock().execute( facts );
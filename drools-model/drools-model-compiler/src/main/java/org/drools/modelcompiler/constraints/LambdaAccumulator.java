@@ -86,6 +86,11 @@ public abstract class LambdaAccumulator implements Accumulator {
         return accumulateFunction.supportsReverse();
     }
 
+    @Override
+    public AccumulateFunction getAccumulateFunction() {
+        return accumulateFunction;
+    }
+
     @Override
     public boolean tryReverse(Object workingMemoryContext, Object context, BaseTuple leftTuple, FactHandle handle, Object value,
                               Declaration[] declarations, Declaration[] innerDeclarations, ValueResolver valueResolver) {
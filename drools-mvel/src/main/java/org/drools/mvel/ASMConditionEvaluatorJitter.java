@@ -121,6 +121,20 @@ public class ASMConditionEvaluatorJitter {
                                                    EvaluatorWrapper[] operators,
                                                    ClassLoader classLoader,
                                                    BaseTuple tuple) {
+        return newEvaluator(jitEvaluatorClass(expression, condition, declarations, operators, classLoader, tuple), declarations, operators);
+    }
+
+    /**
+     * Generates the class of the jitted evaluator. The declarations and the operators are not part of the generated
+     * class, but passed to its constructor, so the same class can be instantiated by any constraint having the
+     * same expression, declarations layout and analyzed condition.
+     */
+    public static Class<?> jitEvaluatorClass( String expression,
+                                              Condition condition,
+                                              Declaration[] declarations,
+                                              EvaluatorWrapper[] operators,
+                                              ClassLoader classLoader,
+                                              BaseTuple tuple) {
         ClassGenerator generator = new ClassGenerator(getUniqueClassName(), classLoader)
                 .setInterfaces(ConditionEvaluator.class)
                 .addStaticField(ACC_PRIVATE | ACC_FINAL, "EXPRESSION", String.class, expression)
@@ -139,7 +153,7 @@ public class ASMConditionEvaluatorJitter {
                 }
             }, Declaration[].class);
 
-            return generator.newInstance(Declaration[].class, declarations);
+            return generator.generateClass();
         }
 
         generator.addField(ACC_PRIVATE | ACC_FINAL, "operators", EvaluatorWrapper[].class);
@@ -152,7 +166,17 @@ public class ASMConditionEvaluatorJitter {
             }
         }, Declaration[].class, EvaluatorWrapper[].class);
 
-        return generator.newInstance(Declaration[].class, declarations, EvaluatorWrapper[].class, operators);
+        return generator.generateClass();
+    }
+
+    public static ConditionEvaluator newEvaluator( Class<?> evaluatorClass, Declaration[] declarations, EvaluatorWrapper[] operators ) {
+        try {
+            return operators.length == 0 ?
+                    (ConditionEvaluator) evaluatorClass.getConstructor(Declaration[].class).newInstance((Object) declarations) :
+                    (ConditionEvaluator) evaluatorClass.getConstructor(Declaration[].class, EvaluatorWrapper[].class).newInstance(declarations, operators);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
     }
 
     private static String getUniqueClassName() {
@@ -0,0 +1,422 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.mvel;
+
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.drools.base.reteoo.BaseTuple;
+import org.drools.base.rule.Declaration;
+import org.drools.compiler.rule.builder.EvaluatorWrapper;
+import org.drools.mvel.ConditionAnalyzer.AritmeticExpression;
+import org.drools.mvel.ConditionAnalyzer.ArrayAccessInvocation;
+import org.drools.mvel.ConditionAnalyzer.ArrayCreationExpression;
+import org.drools.mvel.ConditionAnalyzer.CastExpression;
+import org.drools.mvel.ConditionAnalyzer.CombinedCondition;
+import org.drools.mvel.ConditionAnalyzer.Condition;
+import org.drools.mvel.ConditionAnalyzer.ConstructorInvocation;
+import org.drools.mvel.ConditionAnalyzer.EvaluatedExpression;
+import org.drools.mvel.ConditionAnalyzer.Expression;
+import org.drools.mvel.ConditionAnalyzer.FieldAccessInvocation;
+import org.drools.mvel.ConditionAnalyzer.FixedExpression;
+import org.drools.mvel.ConditionAnalyzer.Invocation;
+import org.drools.mvel.ConditionAnalyzer.ListAccessInvocation;
+import org.drools.mvel.ConditionAnalyzer.MapAccessInvocation;
+import org.drools.mvel.ConditionAnalyzer.MethodInvocation;
+import org.drools.mvel.ConditionAnalyzer.SingleCondition;
+import org.drools.mvel.ConditionAnalyzer.VariableExpression;
+
+/**
+ * Jits the MVEL constraints of all the KieBases living in this JVM.
+ *
+ * The jitting requests are executed by a small pool of low priority daemon threads fed by a bounded queue, so that
+ * jitting never competes with rule evaluation for more than the configured number of threads. When the queue is full
+ * the request is rejected and the constraint keeps being evaluated in interpreted mode until it crosses the jitting
+ * threshold again.
+ *
+ * The generated evaluator classes are cached by a key built from the expression and from everything else that
+ * contributes to the generated bytecode, so identical constraints of different rules or of different KieBases created
+ * from the same KieContainer share a single class. The cache is partitioned by the classloader the classes are jitted
+ * into, which is only weakly referenced, so a class jitted for a KieBase never keeps alive the classloader of another
+ * one, and the classes jitted for a discarded KieBase are released together with its classloader. A cached class is
+ * reused only if its classloader resolves all the classes referenced by the constraint to the very same classes visible
+ * by the requesting KieBase. Concurrent requests for the same key and classloader are deduplicated and wait for the
+ * class generated by the first one.
+ */
+public class ConstraintJittingService {
+
+    public static final String THREADS_PROPERTY = "drools.jittingThreads";
+    public static final String QUEUE_SIZE_PROPERTY = "drools.jittingQueueSize";
+    public static final String CACHE_SIZE_PROPERTY = "drools.jittingCacheSize";
+
+    private static final ConstraintJittingService INSTANCE = new ConstraintJittingService(
+            Integer.getInteger(THREADS_PROPERTY, 1),
+            Integer.getInteger(QUEUE_SIZE_PROPERTY, 1000),
+            Integer.getInteger(CACHE_SIZE_PROPERTY, 2000));
+
+    private final ThreadPoolExecutor executor;
+
+    private final int maxCacheSize;
+    private final Map<ClassLoader, ClassCache> classCaches = new WeakHashMap<>();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong jitted = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+
+    ConstraintJittingService(int threads, int queueSize, int cacheSize) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                                               new ArrayBlockingQueue<>(Math.max(queueSize, 1)),
+                                               new JitterThreadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.maxCacheSize = cacheSize;
+    }
+
+    public static ConstraintJittingService get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Enqueues the jitting of a constraint.
+     *
+     * @return false if the request has been rejected because the jitting queue is full
+     */
+    public boolean submit(Runnable jittingRequest) {
+        try {
+            executor.execute(jittingRequest);
+            submitted.incrementAndGet();
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Returns the evaluator class for the given key, either taking it from the cache, waiting for an identical jitting
+     * request in progress or generating it with the supplied generator.
+     *
+     * @param classLoader the classloader in which the supplied generator defines the evaluator class
+     * @param referencedClasses the classes that the generated bytecode resolves by name
+     */
+    public Class<?> getEvaluatorClass(ClassLoader classLoader, String key, Collection<Class<?>> referencedClasses, Supplier<Class<?>> generator) {
+        ClassCache classCache = getClassCache(classLoader);
+        Class<?> cached = classCache.get(key, referencedClasses);
+        if (cached != null) {
+            cacheHits.incrementAndGet();
+            return cached;
+        }
+
+        CompletableFuture<Class<?>> future = new CompletableFuture<>();
+        CompletableFuture<Class<?>> existing = classCache.inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            Class<?> evaluatorClass = existing.join();
+            if (isCompatible(evaluatorClass, referencedClasses)) {
+                deduplicated.incrementAndGet();
+                return evaluatorClass;
+            }
+            // the identical request comes from a KieBase seeing different versions of the same classes
+            return generate(generator);
+        }
+
+        try {
+            Class<?> evaluatorClass = generate(generator);
+            if (maxCacheSize > 0) {
+                classCache.put(key, evaluatorClass);
+            }
+            future.complete(evaluatorClass);
+            return evaluatorClass;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            classCache.inFlight.remove(key, future);
+        }
+    }
+
+    private ClassCache getClassCache(ClassLoader classLoader) {
+        synchronized (classCaches) {
+            return classCaches.computeIfAbsent(classLoader, cl -> new ClassCache(maxCacheSize));
+        }
+    }
+
+    private Class<?> generate(Supplier<Class<?>> generator) {
+        try {
+            Class<?> evaluatorClass = generator.get();
+            jitted.incrementAndGet();
+            return evaluatorClass;
+        } catch (RuntimeException | Error e) {
+            failed.incrementAndGet();
+            throw e;
+        }
+    }
+
+    private static boolean isCompatible(Class<?> evaluatorClass, Collection<Class<?>> referencedClasses) {
+        ClassLoader evaluatorClassLoader = evaluatorClass.getClassLoader();
+        for (Class<?> referencedClass : referencedClasses) {
+            if (referencedClass.getClassLoader() == null || referencedClass.getClassLoader() == evaluatorClassLoader) {
+                continue;
+            }
+            try {
+                if (Class.forName(referencedClass.getName(), false, evaluatorClassLoader) != referencedClass) {
+                    return false;
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates the key identifying the bytecode generated for a constraint: two constraints having the same key
+     * and whose referenced classes are the same can share the same jitted evaluator class.
+     */
+    static String createKey(String expression, Declaration[] declarations, EvaluatorWrapper[] operators, BaseTuple tuple, Collection<Class<?>> referencedClasses) {
+        StringBuilder sb = new StringBuilder(expression.length() + 128).append(expression).append('|');
+        for (BaseTuple current = tuple; current != null; current = current.getParent()) {
+            sb.append(current.getIndex()).append(',');
+        }
+        for (Declaration declaration : declarations) {
+            sb.append('|').append(declaration.getBindingName())
+              .append(':').append(declaration.getTupleIndex())
+              .append(':').append(declaration.getTypeName())
+              .append(':').append(declaration.getNativeReadMethodName())
+              .append(':').append(declaration.getDeclarationClass() != null ? declaration.getDeclarationClass().getName() : null)
+              .append(':').append(declaration.getExtractor().getExtractToClassName());
+        }
+        for (EvaluatorWrapper operator : operators) {
+            sb.append("|op:").append(operator.getBindingName());
+        }
+        Set<String> classNames = new TreeSet<>();
+        for (Class<?> referencedClass : referencedClasses) {
+            classNames.add(referencedClass.getName());
+        }
+        return sb.append('|').append(classNames).toString();
+    }
+
+    static void collectReferencedClasses(Condition condition, Set<Class<?>> classes) {
+        if (condition instanceof CombinedCondition) {
+            for (Condition c : ((CombinedCondition) condition).getConditions()) {
+                collectReferencedClasses(c, classes);
+            }
+        } else if (condition instanceof SingleCondition) {
+            collectReferencedClasses(((SingleCondition) condition).getLeft(), classes);
+            collectReferencedClasses(((SingleCondition) condition).getRight(), classes);
+        }
+    }
+
+    private static void collectReferencedClasses(Expression expression, Set<Class<?>> classes) {
+        if (expression == null) {
+            return;
+        }
+        addClass(expression.getType(), classes);
+        if (expression instanceof FixedExpression) {
+            Object value = ((FixedExpression) expression).getValue();
+            if (value instanceof Class) {
+                addClass((Class<?>) value, classes);
+            }
+        } else if (expression instanceof VariableExpression) {
+            addClass(((VariableExpression) expression).getVariableType(), classes);
+            collectReferencedClasses(((VariableExpression) expression).subsequentInvocations, classes);
+        } else if (expression instanceof EvaluatedExpression) {
+            collectReferencedClasses(((EvaluatedExpression) expression).firstExpression, classes);
+            for (Invocation invocation : ((EvaluatedExpression) expression).invocations) {
+                collectReferencedClasses(invocation, classes);
+            }
+        } else if (expression instanceof AritmeticExpression) {
+            collectReferencedClasses(((AritmeticExpression) expression).left, classes);
+            collectReferencedClasses(((AritmeticExpression) expression).right, classes);
+        } else if (expression instanceof CastExpression) {
+            collectReferencedClasses(((CastExpression) expression).expression, classes);
+        } else if (expression instanceof ArrayCreationExpression) {
+            for (Expression item : ((ArrayCreationExpression) expression).items) {
+                collectReferencedClasses(item, classes);
+            }
+        }
+    }
+
+    private static void collectReferencedClasses(Invocation invocation, Set<Class<?>> classes) {
+        addClass(invocation.getReturnType(), classes);
+        if (invocation instanceof MethodInvocation && ((MethodInvocation) invocation).getMethod() != null) {
+            addClass(((MethodInvocation) invocation).getMethod().getDeclaringClass(), classes);
+            for (Class<?> parameterType : ((MethodInvocation) invocation).getMethod().getParameterTypes()) {
+                addClass(parameterType, classes);
+            }
+        } else if (invocation instanceof ConstructorInvocation) {
+            for (Class<?> parameterType : ((ConstructorInvocation) invocation).getConstructor().getParameterTypes()) {
+                addClass(parameterType, classes);
+            }
+        } else if (invocation instanceof FieldAccessInvocation) {
+            addClass(((FieldAccessInvocation) invocation).getField().getDeclaringClass(), classes);
+        } else if (invocation instanceof ArrayAccessInvocation) {
+            addClass(((ArrayAccessInvocation) invocation).getArrayType(), classes);
+            collectReferencedClasses(((ArrayAccessInvocation) invocation).getIndex(), classes);
+        } else if (invocation instanceof ListAccessInvocation) {
+            collectReferencedClasses(((ListAccessInvocation) invocation).getIndex(), classes);
+        } else if (invocation instanceof MapAccessInvocation) {
+            addClass(((MapAccessInvocation) invocation).getKeyType(), classes);
+            collectReferencedClasses(((MapAccessInvocation) invocation).getKey(), classes);
+        }
+        for (Expression argument : invocation.getArguments()) {
+            collectReferencedClasses(argument, classes);
+        }
+    }
+
+    static void addClass(Class<?> clazz, Set<Class<?>> classes) {
+        while (clazz != null && clazz.isArray()) {
+            clazz = clazz.getComponentType();
+        }
+        if (clazz != null && !clazz.isPrimitive()) {
+            classes.add(clazz);
+        }
+    }
+
+    /**
+     * @return the number of jitting requests waiting in the queue or being processed
+     */
+    public int getBacklog() {
+        return executor.getQueue().size() + executor.getActiveCount();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getJittedCount() {
+        return jitted.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getCacheHitCount() {
+        return cacheHits.get();
+    }
+
+    public long getDeduplicatedCount() {
+        return deduplicated.get();
+    }
+
+    public int getCachedClassesCount() {
+        int count = 0;
+        synchronized (classCaches) {
+            for (ClassCache classCache : classCaches.values()) {
+                count += classCache.size();
+            }
+        }
+        return count;
+    }
+
+    public void clearCache() {
+        synchronized (classCaches) {
+            classCaches.clear();
+        }
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * The evaluator classes jitted into a single classloader, evicting the least recently used ones when more than
+     * the configured cache size. The classes are only weakly referenced, so that they never keep their classloader,
+     * which is the key of this cache, strongly reachable.
+     */
+    private static class ClassCache {
+        private final Map<String, CachedClass> classes;
+        private final Map<String, CompletableFuture<Class<?>>> inFlight = new ConcurrentHashMap<>();
+
+        private ClassCache(int maxSize) {
+            this.classes = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedClass> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        private Class<?> get(String key, Collection<Class<?>> referencedClasses) {
+            CachedClass cachedClass;
+            synchronized (classes) {
+                cachedClass = classes.get(key);
+            }
+            Class<?> evaluatorClass = cachedClass != null ? cachedClass.get() : null;
+            return evaluatorClass != null && isCompatible(evaluatorClass, referencedClasses) ? evaluatorClass : null;
+        }
+
+        private void put(String key, Class<?> evaluatorClass) {
+            synchronized (classes) {
+                for (Iterator<CachedClass> i = classes.values().iterator(); i.hasNext(); ) {
+                    if (i.next().get() == null) {
+                        i.remove();
+                    }
+                }
+                classes.put(key, new CachedClass(evaluatorClass));
+            }
+        }
+
+        private int size() {
+            synchronized (classes) {
+                return classes.size();
+            }
+        }
+    }
+
+    private static class CachedClass extends WeakReference<Class<?>> {
+        private CachedClass(Class<?> evaluatorClass) {
+            super(evaluatorClass);
+        }
+    }
+
+    private static class JitterThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "drools-constraint-jitter-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    }
+}
@@ -34,7 +34,6 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.drools.base.RuleBase;
@@ -77,7 +76,6 @@ import org.drools.wiring.api.classloader.ProjectClassLoader;
 import org.kie.api.KieBaseConfiguration;
 import org.kie.api.runtime.rule.FactHandle;
 import org.kie.api.runtime.rule.Variable;
-import org.kie.internal.concurrent.ExecutorProviderFactory;
 import org.kie.internal.conf.ConstraintJittingThresholdOption;
 import org.mvel2.ParserConfiguration;
 import org.mvel2.compiler.CompiledExpression;
@@ -105,6 +103,7 @@ public class MVELConstraint extends MutableTypeConstraint<ContextEntry> implemen
 
     protected final transient AtomicInteger invocationCounter = new AtomicInteger(1);
     protected transient volatile boolean jitted = false;
+    private transient volatile boolean eagerJitting = false;
 
     private Set<String> packageNames;
     protected String expression;
@@ -274,17 +273,28 @@ public class MVELConstraint extends MutableTypeConstraint<ContextEntry> implemen
 
     protected boolean evaluate(FactHandle handle, ValueResolver valueResolver, BaseTuple tuple) {
         if (!jitted) {
-            int jittingThreshold = TEST_JITTING ? 0 : valueResolver.getRuleBase().getConfiguration().getOption(ConstraintJittingThresholdOption.KEY).getThreshold();
+            boolean forceJitting = TEST_JITTING || eagerJitting;
+            int jittingThreshold = forceJitting ? 0 : valueResolver.getRuleBase().getConfiguration().getOption(ConstraintJittingThresholdOption.KEY).getThreshold();
             if (conditionEvaluator == null) {
                 if (jittingThreshold == 0 && !isDynamic) { // Only for test purposes or when jitting is enforced at first evaluation
                     synchronized (this) {
                         if (conditionEvaluator == null) {
                             conditionEvaluator = forceJitEvaluator(handle, valueResolver, tuple);
+                            // no further jitting can happen, so avoid reading the threshold at each evaluation
+                            jitted = true;
                         }
                     }
                 } else {
                     conditionEvaluator = createMvelConditionEvaluator(valueResolver);
                 }
+            } else if (forceJitting && !isDynamic) {
+                // eager jitting has been enabled when the interpreted evaluator already existed
+                synchronized (this) {
+                    if (!jitted) {
+                        conditionEvaluator = executeJitting(handle, valueResolver, tuple, conditionEvaluator);
+                        jitted = true;
+                    }
+                }
             }
 
             if (jittingThreshold != 0 && !isDynamic && invocationCounter.getAndIncrement() == jittingThreshold) {
@@ -298,6 +308,11 @@ public class MVELConstraint extends MutableTypeConstraint<ContextEntry> implemen
         }
     }
 
+    @Override
+    public void enableEagerJitting() {
+        eagerJitting = true;
+    }
+
     protected ConditionEvaluator createMvelConditionEvaluator(ValueResolver valueResolver) {
         if (compilationUnit != null) {
             MVELDialectRuntimeData data = getMVELDialectRuntimeData(valueResolver);
@@ -324,7 +339,11 @@ public class MVELConstraint extends MutableTypeConstraint<ContextEntry> implemen
 
     protected void jitEvaluator(FactHandle handle, ValueResolver valueResolver, BaseTuple tuple) {
         jitted = true;
-        ExecutorHolder.executor.execute(new ConditionJitter(this, handle, valueResolver, tuple));
+        if (!ConstraintJittingService.get().submit(new ConditionJitter(this, handle, valueResolver, tuple))) {
+            // the jitting queue is full: keep evaluating in interpreted mode and retry when the threshold is reached again
+            invocationCounter.set(1);
+            jitted = false;
+        }
     }
 
     private static class ConditionJitter implements Runnable {
@@ -349,10 +368,6 @@ public class MVELConstraint extends MutableTypeConstraint<ContextEntry> implemen
         }
     }
 
-    private static class ExecutorHolder {
-        private static final Executor executor = ExecutorProviderFactory.getExecutorProvider().getExecutor();
-    }
-
     private ConditionEvaluator executeJitting(FactHandle handle, ValueResolver valueResolver, BaseTuple tuple, ConditionEvaluator mvelEvaluator) {
         RuleBase kBase = valueResolver.getRuleBase();
 
@@ -367,7 +382,7 @@ public class MVELConstraint extends MutableTypeConstraint<ContextEntry> implemen
             ClassLoader jitClassLoader = kBase.getRootClassLoader() instanceof ProjectClassLoader ?
                     ((ProjectClassLoader) kBase.getRootClassLoader()).getTypesClassLoader() :
                     kBase.getRootClassLoader();
-            return ASMConditionEvaluatorJitter.jitEvaluator(expression, analyzedCondition, declarations, operators, jitClassLoader, tuple);
+            return ASMConditionEvaluatorJitter.newEvaluator(getJittedClass(handle, tuple, jitClassLoader), declarations, operators);
         } catch (Throwable t) {
             if (TEST_JITTING) {
                 if (analyzedCondition == null) {
@@ -384,6 +399,18 @@ public class MVELConstraint extends MutableTypeConstraint<ContextEntry> implemen
         return mvelEvaluator;
     }
 
+    private Class<?> getJittedClass(FactHandle handle, BaseTuple tuple, ClassLoader jitClassLoader) {
+        Set<Class<?>> referencedClasses = new HashSet<>();
+        ConstraintJittingService.collectReferencedClasses(analyzedCondition, referencedClasses);
+        ConstraintJittingService.addClass(handle.getObject().getClass(), referencedClasses);
+        for (Declaration declaration : declarations) {
+            ConstraintJittingService.addClass(declaration.getDeclarationClass(), referencedClasses);
+        }
+        String key = ConstraintJittingService.createKey(expression, declarations, operators, tuple, referencedClasses);
+        return ConstraintJittingService.get().getEvaluatorClass(jitClassLoader, key, referencedClasses,
+                () -> ASMConditionEvaluatorJitter.jitEvaluatorClass(expression, analyzedCondition, declarations, operators, jitClassLoader, tuple));
+    }
+
     public ContextEntry createContext() {
         if (declarations.length == 0) return null;
         ContextEntry contextEntry = new MvelContextEntry(declarations);
@@ -148,7 +148,7 @@ public class ClassGenerator {
         return bytecode;
     }
 
-    private Class<?> generateClass() {
+    public Class<?> generateClass() {
         if (clazz == null) {
             byte[] bytecode = generateBytecode();
             clazz = writableClassLoader.writeClass( className, bytecode );
@@ -21,6 +21,7 @@ package org.drools.mvel.builder;
 import org.drools.compiler.compiler.AnalysisResult;
 import org.drools.compiler.compiler.BoundIdentifiers;
 import org.drools.compiler.compiler.DescrBuildError;
+import org.drools.compiler.compiler.Dialect;
 import org.drools.compiler.rule.builder.ConsequenceBuilder;
 import org.drools.compiler.rule.builder.RuleBuildContext;
 import org.drools.base.definitions.rule.impl.RuleImpl;
@@ -36,6 +37,8 @@ import org.drools.mvel.expr.MVELCompilationUnit;
 import org.drools.mvel.expr.MVELConsequence;
 import org.mvel2.Macro;
 import org.mvel2.MacroProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import static org.drools.base.reteoo.PropertySpecificUtil.allSetButTraitBitMask;
 import static org.drools.base.reteoo.PropertySpecificUtil.getEmptyPropertyReactiveMask;
@@ -54,6 +57,8 @@ public class MVELConsequenceBuilder
     implements
     ConsequenceBuilder {
 
+    private static final Logger logger = LoggerFactory.getLogger( MVELConsequenceBuilder.class );
+
     public static final Map<String, Macro> macros = new HashMap<>( 10 );
     static {
         macros.put( "insert",
@@ -131,6 +136,14 @@ public class MVELConsequenceBuilder
 
     public void build(final RuleBuildContext context, String consequenceName) {
 
+        if ( translateConsequence( context, consequenceName ) ) {
+            return;
+        }
+
+        buildInterpretedConsequence( context, consequenceName );
+    }
+
+    void buildInterpretedConsequence(final RuleBuildContext context, String consequenceName) {
         // pushing consequence LHS into the stack for variable resolution
         context.getDeclarationResolver().pushOnBuildStack( context.getRule().getLhs() );
 
@@ -214,6 +227,71 @@ public class MVELConsequenceBuilder
         }
     }
 
+    /**
+     * When enabled, translates the consequence to java, deferring its build until the translations of all the
+     * consequences of the package are verified by {@link MVELDialect#compileAll()}.
+     * Returns false if the consequence has to be interpreted by MVEL, because the compilation is disabled
+     * or because the consequence cannot be translated.
+     */
+    private boolean translateConsequence( RuleBuildContext context, String consequenceName ) {
+        MVELDialect dialect = (MVELDialect) context.getDialect( "mvel" );
+        Dialect javaDialect = context.getDialect( "java" );
+        if ( !dialect.isCompileConsequences() || javaDialect == null ) {
+            return false;
+        }
+
+        RuleDescr ruleDescr = context.getRuleDescr();
+        boolean isDefaultConsequence = RuleImpl.DEFAULT_CONSEQUENCE_NAME.equals( consequenceName );
+        String text = isDefaultConsequence ?
+                (String) ruleDescr.getConsequence() :
+                (String) ruleDescr.getNamedConsequences().get( consequenceName );
+
+        context.getDeclarationResolver().pushOnBuildStack( context.getRule().getLhs() );
+        try {
+            Map<String, Declaration> decls = context.getDeclarationResolver().getDeclarations( context.getRule(), consequenceName );
+            String javaText = MVELConsequenceTranslator.translate( context, text, decls );
+            dialect.addTranslatedConsequence( new TranslatedConsequence( context, consequenceName, javaText, decls ) );
+            return true;
+        } catch ( RuntimeException e ) {
+            logger.debug( "Unable to compile the consequence of rule '{}', it will be interpreted: {}", ruleDescr.getName(), e.getMessage() );
+            return false;
+        } finally {
+            context.getDeclarationResolver().popBuildStack();
+        }
+    }
+
+    /**
+     * Lets the java dialect build the verified translation of an MVEL consequence
+     */
+    static void buildJavaConsequence( TranslatedConsequence consequence ) {
+        RuleBuildContext context = consequence.getContext();
+        String consequenceName = consequence.getConsequenceName();
+        RuleDescr ruleDescr = context.getRuleDescr();
+        boolean isDefaultConsequence = RuleImpl.DEFAULT_CONSEQUENCE_NAME.equals( consequenceName );
+        String text = isDefaultConsequence ?
+                (String) ruleDescr.getConsequence() :
+                (String) ruleDescr.getNamedConsequences().get( consequenceName );
+
+        Dialect ruleDialect = context.getDialect();
+        Dialect javaDialect = context.getDialect( "java" );
+        setConsequence( ruleDescr, consequenceName, isDefaultConsequence, consequence.getJavaConsequence() );
+        context.setDialect( javaDialect );
+        try {
+            javaDialect.getConsequenceBuilder().build( context, consequenceName );
+        } finally {
+            context.setDialect( ruleDialect );
+            setConsequence( ruleDescr, consequenceName, isDefaultConsequence, text );
+        }
+    }
+
+    private static void setConsequence( RuleDescr ruleDescr, String consequenceName, boolean isDefaultConsequence, String text ) {
+        if ( isDefaultConsequence ) {
+            ruleDescr.setConsequence( text );
+        } else {
+            ruleDescr.getNamedConsequences().put( consequenceName, text );
+        }
+    }
+
     private static String rewriteModify( String text ) {
         int modifyPos = text.indexOf( "@Modify with" );
         if (modifyPos < 0) {
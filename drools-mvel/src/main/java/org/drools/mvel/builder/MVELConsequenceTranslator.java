@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.mvel.builder;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import org.drools.base.definitions.InternalKnowledgePackage;
+import org.drools.base.rule.Declaration;
+import org.drools.compiler.rule.builder.RuleBuildContext;
+import org.drools.core.rule.consequence.KnowledgeHelper;
+import org.drools.mvel.asm.KnowledgeHelperFixer;
+import org.drools.mvelcompiler.MvelCompiler;
+import org.drools.mvelcompiler.context.MvelCompilerContext;
+import org.kie.api.runtime.rule.RuleContext;
+import org.kie.memorycompiler.KieMemoryCompiler;
+
+import static org.drools.mvel.parser.printer.PrintUtil.printNode;
+
+/**
+ * Translates an MVEL consequence into java with the drools-mvel-compiler, the same compiler used by the executable
+ * model, so that the consequence can be compiled to bytecode by the java dialect instead of being interpreted.
+ *
+ * The drools-mvel-compiler is an optional dependency of this module: this class must be used only after having
+ * checked that it is available.
+ */
+public class MVELConsequenceTranslator {
+
+    private static final String VERIFICATION_PACKAGE = "org.drools.mvel.consequence.verification";
+    private static final String VERIFICATION_CLASS = "ConsequenceVerifier";
+
+    private static final boolean AVAILABLE = checkAvailability();
+
+    private MVELConsequenceTranslator() { }
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    private static boolean checkAvailability() {
+        try {
+            Class.forName("org.drools.mvelcompiler.MvelCompiler", false, MVELConsequenceTranslator.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the java block equivalent to the given MVEL consequence, still to be verified
+     * @throws RuntimeException if the consequence cannot be translated
+     */
+    public static String translate(RuleBuildContext context, String consequence, Map<String, Declaration> declarations) {
+        MvelCompilerContext compilerContext = new MvelCompilerContext(context.getDialect().getTypeResolver());
+
+        for (Map.Entry<String, Type> global : context.getKnowledgeBuilder().getGlobals().entrySet()) {
+            compilerContext.addDeclaration(global.getKey(), toClass(global.getValue()));
+        }
+        for (Map.Entry<String, Declaration> declaration : declarations.entrySet()) {
+            compilerContext.addDeclaration(declaration.getKey(), declaration.getValue().getDeclarationClass());
+        }
+        compilerContext.addDeclaration("drools", KnowledgeHelper.class);
+        compilerContext.addDeclaration("kcontext", RuleContext.class);
+
+        BlockStmt javaBlock = new MvelCompiler(compilerContext).compileStatement("{" + consequence + "\n}").statementResults();
+        // the drools-mvel-compiler translates a modify into drools.update($p), while the java dialect computes the
+        // property reactive mask of the modified fact only for the update($p) statements
+        javaBlock.findAll(MethodCallExpr.class, MVELConsequenceTranslator::isDroolsUpdate).forEach(MethodCallExpr::removeScope);
+        return printNode(javaBlock);
+    }
+
+    /**
+     * The drools-mvel-compiler is tailored for the executable model, so its output is not guaranteed to be valid for
+     * the java dialect. To be able to fall back to the interpreted consequence, the translations are compiled in
+     * isolation, from a different package so that they cannot rely on members not accessible from the rule class.
+     * All the given translations are compiled together and only if this fails each of them is compiled on its own
+     * to find the ones in error.
+     *
+     * @return the indexes of the given translations that compile
+     */
+    static Set<Integer> verify(List<TranslatedConsequence> consequences, ClassLoader classLoader) {
+        Map<String, String> sources = new LinkedHashMap<>();
+        for (int i = 0; i < consequences.size(); i++) {
+            sources.put(VERIFICATION_PACKAGE + "." + VERIFICATION_CLASS + i, verificationSource(consequences.get(i), VERIFICATION_CLASS + i));
+        }
+
+        Set<Integer> verified = new HashSet<>();
+        try {
+            KieMemoryCompiler.compileNoLoad(sources, classLoader);
+            for (int i = 0; i < consequences.size(); i++) {
+                verified.add(i);
+            }
+            return verified;
+        } catch (RuntimeException e) {
+            if (consequences.size() == 1) {
+                return verified;
+            }
+        }
+
+        int i = 0;
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            try {
+                KieMemoryCompiler.compileNoLoad(Collections.singletonMap(source.getKey(), source.getValue()), classLoader);
+                verified.add(i);
+            } catch (RuntimeException e) {
+                // the consequence will be interpreted
+            }
+            i++;
+        }
+        return verified;
+    }
+
+    private static String verificationSource(TranslatedConsequence consequence, String className) {
+        RuleBuildContext context = consequence.getContext();
+        InternalKnowledgePackage pkg = context.getPkg();
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(VERIFICATION_PACKAGE).append(";\n");
+        String ownPackageImport = pkg.getName() + ".*";
+        // the package of the rule can be imported only if it contains some classes, otherwise javac rejects the import
+        if (!pkg.getTypeDeclarations().isEmpty()) {
+            source.append("import ").append(ownPackageImport).append(";\n");
+        }
+        for (String importName : pkg.getImports().keySet()) {
+            if (!importName.equals(ownPackageImport)) {
+                source.append("import ").append(importName).append(";\n");
+            }
+        }
+        for (String staticImport : pkg.getStaticImports()) {
+            source.append("import static ").append(staticImport).append(";\n");
+        }
+
+        source.append("public class ").append(className).append(" {\n")
+              .append("    public static void consequence(")
+              .append(KnowledgeHelper.class.getCanonicalName()).append(" drools, ")
+              .append(RuleContext.class.getCanonicalName()).append(" kcontext");
+        for (Map.Entry<String, Type> global : context.getKnowledgeBuilder().getGlobals().entrySet()) {
+            source.append(", ").append(toTypeName(toClass(global.getValue()))).append(" ").append(global.getKey());
+        }
+        for (Map.Entry<String, Declaration> declaration : consequence.getDeclarations().entrySet()) {
+            source.append(", ").append(toTypeName(declaration.getValue().getDeclarationClass())).append(" ").append(declaration.getKey());
+        }
+        source.append(") throws java.lang.Exception {\n")
+              .append(KnowledgeHelperFixer.fix(consequence.getJavaConsequence()))
+              .append("\n    }\n}\n");
+        return source.toString();
+    }
+
+    private static boolean isDroolsUpdate(MethodCallExpr methodCall) {
+        return methodCall.getNameAsString().equals("update") && methodCall.getArguments().size() == 1 &&
+                methodCall.getScope().filter(scope -> scope instanceof NameExpr && ((NameExpr) scope).getNameAsString().equals("drools")).isPresent();
+    }
+
+    private static String toTypeName(Class<?> clazz) {
+        String typeName = clazz.getCanonicalName();
+        if (typeName == null) {
+            throw new IllegalArgumentException("Type " + clazz.getName() + " cannot be referenced from java code");
+        }
+        return typeName;
+    }
+
+    private static Class<?> toClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return toClass(((ParameterizedType) type).getRawType());
+        }
+        return Object.class;
+    }
+}
@@ -98,9 +98,11 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import static org.drools.compiler.lang.DescrDumper.WM_ARGUMENT;
 
@@ -151,6 +153,8 @@ public class MVELDialect
     private PackageRegistry packageRegistry;
 
     private boolean strictMode;
+
+    private final List<TranslatedConsequence> translatedConsequences = new ArrayList<>();
     private int languageLevel;
 
     private MVELDialectRuntimeData data;
@@ -347,6 +351,19 @@ public class MVELDialect
     }
 
     public void addRule(RuleBuildContext context) {
+        if (!context.getMethods().isEmpty()) {
+            // some consequences have been compiled to java, see MVELConsequenceBuilder
+            Dialect ruleDialect = context.getDialect();
+            Dialect javaDialect = context.getDialect("java");
+            context.setDialect(javaDialect);
+            try {
+                javaDialect.addRule(context);
+            } finally {
+                context.setDialect(ruleDialect);
+            }
+            return;
+        }
+
         // MVEL: Compiler change
         final RuleDescr ruleDescr = context.getRuleDescr();
 
@@ -470,6 +487,10 @@ public class MVELDialect
         return strictMode;
     }
 
+    public boolean isCompileConsequences() {
+        return strictMode && configuration.isCompileConsequences() && MVELConsequenceTranslator.isAvailable();
+    }
+
     @Override
     public boolean isJava() {
         return false;
@@ -479,7 +500,52 @@ public class MVELDialect
         this.strictMode = strictMode;
     }
 
+    public void addTranslatedConsequence(TranslatedConsequence consequence) {
+        // the rules of a package can be built in parallel
+        synchronized (translatedConsequences) {
+            translatedConsequences.add(consequence);
+        }
+    }
+
+    /**
+     * Verifies with a single compilation all the consequences translated to java while building the rules of the package:
+     * the ones whose translation compiles are built by the java dialect, while the other ones are interpreted.
+     */
     public void compileAll() {
+        List<TranslatedConsequence> consequences;
+        synchronized (translatedConsequences) {
+            if (translatedConsequences.isEmpty()) {
+                return;
+            }
+            consequences = new ArrayList<>(translatedConsequences);
+            translatedConsequences.clear();
+        }
+
+        Dialect javaDialect = consequences.get(0).getContext().getDialect("java");
+        Set<Integer> verified = MVELConsequenceTranslator.verify(consequences, javaDialect.getPackageRegistry().getPackageClassLoader());
+
+        Set<RuleBuildContext> javaRules = new LinkedHashSet<>();
+        for (int i = 0; i < consequences.size(); i++) {
+            TranslatedConsequence consequence = consequences.get(i);
+            RuleBuildContext context = consequence.getContext();
+            int errorsCount = context.getErrors().size();
+            if (verified.contains(i)) {
+                MVELConsequenceBuilder.buildJavaConsequence(consequence);
+                javaRules.add(context);
+            } else {
+                CONSEQUENCE_BUILDER.buildInterpretedConsequence(context, consequence.getConsequenceName());
+            }
+            // the errors of the rule have already been collected when it has been built
+            this.results.addAll(context.getErrors().subList(errorsCount, context.getErrors().size()));
+        }
+
+        if (!javaRules.isEmpty()) {
+            for (RuleBuildContext context : javaRules) {
+                addRule(context);
+            }
+            // the java dialect may have already compiled the package
+            javaDialect.compileAll();
+        }
     }
 
     public AnalysisResult analyzeExpression(final PackageBuildContext context,
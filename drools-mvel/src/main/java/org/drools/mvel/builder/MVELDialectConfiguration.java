@@ -31,6 +31,13 @@ import org.drools.base.definitions.InternalKnowledgePackage;
  * 
  * Default strict is true, which means all expressions and the consequence are type safe.
  * However dynamic mode is still used while executed nested accessors in the field constraints.
+ *
+ * drools.dialect.mvel.compileConsequences = <true|false>
+ *
+ * Default is false. When true, and the dialect is strict, the consequences are translated to java by the
+ * drools-mvel-compiler and compiled to bytecode together with the java rules of the package, instead of being
+ * interpreted by MVEL. Each translated consequence is verified with the kie-memory-compiler, and consequences that
+ * cannot be translated or whose translation doesn't compile are still interpreted.
  */
 public class MVELDialectConfiguration
     implements
@@ -42,6 +49,8 @@ public class MVELDialectConfiguration
     
     private int                         langLevel;
 
+    private boolean                     compileConsequences;
+
     public MVELDialectConfiguration(KnowledgeBuilderConfigurationImpl conf) {
         this.conf = conf;
     }
@@ -54,6 +63,7 @@ public class MVELDialectConfiguration
         this.conf = conf;
         setStrict( determineStrict() );
         setLangLevel( determineLangLevel() );
+        setCompileConsequences( determineCompileConsequences() );
     }
 
     public KnowledgeBuilderConfigurationImpl getPackageBuilderConfiguration() {
@@ -76,6 +86,14 @@ public class MVELDialectConfiguration
         return this.langLevel;
     }
 
+    public void setCompileConsequences(boolean compileConsequences) {
+        this.compileConsequences = compileConsequences;
+    }
+
+    public boolean isCompileConsequences() {
+        return this.compileConsequences;
+    }
+
     private boolean determineStrict() {
         final String prop = this.conf.getChainedProperties().getProperty( "drools.dialect.mvel.strict",
                                                                           "true" );
@@ -88,4 +106,10 @@ public class MVELDialectConfiguration
         return Integer.valueOf( prop ).intValue();
     }
 
+    private boolean determineCompileConsequences() {
+        final String prop = this.conf.getChainedProperties().getProperty( "drools.dialect.mvel.compileConsequences",
+                                                                          "false" );
+        return Boolean.valueOf( prop ).booleanValue();
+    }
+
 }
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.mvel.builder;
+
+import java.util.Map;
+
+import org.drools.base.rule.Declaration;
+import org.drools.compiler.rule.builder.RuleBuildContext;
+
+/**
+ * An MVEL consequence translated to java by the {@link MVELConsequenceTranslator}, whose build is deferred until
+ * the translations of all the consequences of the package have been verified together.
+ */
+class TranslatedConsequence {
+
+    private final RuleBuildContext context;
+    private final String consequenceName;
+    private final String javaConsequence;
+    private final Map<String, Declaration> declarations;
+
+    TranslatedConsequence(RuleBuildContext context, String consequenceName, String javaConsequence, Map<String, Declaration> declarations) {
+        this.context = context;
+        this.consequenceName = consequenceName;
+        this.javaConsequence = javaConsequence;
+        this.declarations = declarations;
+    }
+
+    RuleBuildContext getContext() {
+        return context;
+    }
+
+    String getConsequenceName() {
+        return consequenceName;
+    }
+
+    String getJavaConsequence() {
+        return javaConsequence;
+    }
+
+    Map<String, Declaration> getDeclarations() {
+        return declarations;
+    }
+}
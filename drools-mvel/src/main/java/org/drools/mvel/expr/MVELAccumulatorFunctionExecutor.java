@@ -146,6 +146,11 @@ public class MVELAccumulatorFunctionExecutor
         return this.function.supportsReverse();
     }
 
+    @Override
+    public org.kie.api.runtime.rule.AccumulateFunction getAccumulateFunction() {
+        return this.function;
+    }
+
     public Object createWorkingMemoryContext() {
         return null; //this.model.clone();
     }
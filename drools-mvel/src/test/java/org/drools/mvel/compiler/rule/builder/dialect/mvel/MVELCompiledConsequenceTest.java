@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.mvel.compiler.rule.builder.dialect.mvel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.drools.base.definitions.rule.impl.RuleImpl;
+import org.drools.mvel.CommonTestMethodBase;
+import org.drools.mvel.compiler.Cheese;
+import org.drools.mvel.compiler.Person;
+import org.drools.mvel.expr.MVELConsequence;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.builder.KnowledgeBuilderConfiguration;
+import org.kie.internal.builder.KnowledgeBuilderFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MVELCompiledConsequenceTest extends CommonTestMethodBase {
+
+    private static final String DRL =
+            "import " + Person.class.getCanonicalName() + ";\n" +
+            "import " + Cheese.class.getCanonicalName() + ";\n" +
+            "global java.util.List list;\n" +
+            "rule Minor dialect \"mvel\" when\n" +
+            "    $p : Person( age < 18 )\n" +
+            "then\n" +
+            "    modify( $p ) { age = 18 };\n" +
+            "    list.add( \"minor \" + $p.name );\n" +
+            "end\n" +
+            "rule Adult dialect \"mvel\" when\n" +
+            "    $p : Person( age >= 18 )\n" +
+            "then\n" +
+            "    insert( new Cheese( $p.name, $p.age ) );\n" +
+            "end\n" +
+            "rule Eat dialect \"mvel\" when\n" +
+            "    $c : Cheese()\n" +
+            "then\n" +
+            "    list.add( $c.type + \" \" + $c.price );\n" +
+            "    delete( $c );\n" +
+            "end\n";
+
+    @Test
+    public void testConsequencesAreInterpretedByDefault() {
+        KieBase kbase = loadKnowledgeBaseFromString(DRL);
+        assertThat(getConsequence(kbase, "Minor")).isInstanceOf(MVELConsequence.class);
+        assertThat(fire(kbase)).containsExactlyInAnyOrder("minor Mario", "Mario 18", "Mark 40");
+    }
+
+    @Test
+    public void testCompiledConsequences() {
+        KieBase kbase = loadKnowledgeBaseFromString(compileConsequencesConf(), DRL);
+        assertThat(getConsequence(kbase, "Minor")).isNotInstanceOf(MVELConsequence.class);
+        assertThat(getConsequence(kbase, "Adult")).isNotInstanceOf(MVELConsequence.class);
+        assertThat(getConsequence(kbase, "Eat")).isNotInstanceOf(MVELConsequence.class);
+        assertThat(fire(kbase)).containsExactlyInAnyOrder("minor Mario", "Mario 18", "Mark 40");
+    }
+
+    @Test
+    public void testModifyOfUnconstrainedPropertyIsPropertyReactive() {
+        String drl =
+                "import " + Person.class.getCanonicalName() + ";\n" +
+                "global java.util.List list;\n" +
+                "rule R dialect \"mvel\" when\n" +
+                "    $p : Person( age > 18 )\n" +
+                "then\n" +
+                "    modify( $p ) { status = \"adult\" };\n" +
+                "    list.add( $p.name );\n" +
+                "end\n";
+
+        KieBase kbase = loadKnowledgeBaseFromString(compileConsequencesConf(), drl);
+        assertThat(getConsequence(kbase, "R")).isNotInstanceOf(MVELConsequence.class);
+
+        // status is not constrained by the rule, so its modification must not reactivate it
+        KieSession ksession = kbase.newKieSession();
+        List<String> list = new ArrayList<>();
+        ksession.setGlobal("list", list);
+        ksession.insert(new Person("Mark", 40));
+        assertThat(ksession.fireAllRules(10)).isEqualTo(1);
+        ksession.dispose();
+        assertThat(list).containsExactly("Mark");
+    }
+
+    @Test
+    public void testUntranslatableConsequenceIsInterpreted() {
+        String drl =
+                "import " + Cheese.class.getCanonicalName() + ";\n" +
+                "global java.util.List list;\n" +
+                "rule R dialect \"mvel\" when\n" +
+                "    $c : Cheese()\n" +
+                "then\n" +
+                "    c = new Cheese().{ type = $c.type + \"!\" };\n" +
+                "    list.add( c.type );\n" +
+                "end\n";
+
+        KieBase kbase = loadKnowledgeBaseFromString(compileConsequencesConf(), drl);
+        assertThat(getConsequence(kbase, "R")).isInstanceOf(MVELConsequence.class);
+
+        KieSession ksession = kbase.newKieSession();
+        List<String> list = new ArrayList<>();
+        ksession.setGlobal("list", list);
+        ksession.insert(new Cheese("brie", 10));
+        ksession.fireAllRules();
+        ksession.dispose();
+        assertThat(list).containsExactly("brie!");
+    }
+
+    @Test
+    public void testCompiledAndInterpretedConsequencesInSamePackage() {
+        String drl =
+                "import " + Cheese.class.getCanonicalName() + ";\n" +
+                "global java.util.List list;\n" +
+                "rule Interpreted dialect \"mvel\" when\n" +
+                "    $c : Cheese( price > 5 )\n" +
+                "then\n" +
+                "    c = new Cheese().{ type = $c.type + \"!\" };\n" +
+                "    list.add( c.type );\n" +
+                "end\n" +
+                "rule Compiled dialect \"mvel\" when\n" +
+                "    $c : Cheese( price <= 5 )\n" +
+                "then\n" +
+                "    list.add( $c.type + \"?\" );\n" +
+                "end\n" +
+                "rule CompiledNamed dialect \"mvel\" when\n" +
+                "    $c : Cheese( type == \"brie\" ) do[brie]\n" +
+                "then\n" +
+                "    list.add( \"default \" + $c.type );\n" +
+                "then[brie]\n" +
+                "    list.add( \"named \" + $c.type );\n" +
+                "end\n";
+
+        // all the translated consequences of the package are verified together, without affecting the interpreted one
+        KieBase kbase = loadKnowledgeBaseFromString(compileConsequencesConf(), drl);
+        assertThat(getConsequence(kbase, "Interpreted")).isInstanceOf(MVELConsequence.class);
+        assertThat(getConsequence(kbase, "Compiled")).isNotInstanceOf(MVELConsequence.class);
+        assertThat(getConsequence(kbase, "CompiledNamed")).isNotInstanceOf(MVELConsequence.class);
+        assertThat(((RuleImpl) kbase.getRule("defaultpkg", "CompiledNamed")).getNamedConsequence("brie")).isNotInstanceOf(MVELConsequence.class);
+
+        KieSession ksession = kbase.newKieSession();
+        List<String> list = new ArrayList<>();
+        ksession.setGlobal("list", list);
+        ksession.insert(new Cheese("brie", 10));
+        ksession.insert(new Cheese("gouda", 3));
+        ksession.fireAllRules();
+        ksession.dispose();
+        assertThat(list).containsExactlyInAnyOrder("brie!", "gouda?", "default brie", "named brie");
+    }
+
+    private static KnowledgeBuilderConfiguration compileConsequencesConf() {
+        Properties properties = new Properties();
+        properties.setProperty("drools.dialect.mvel.compileConsequences", "true");
+        return KnowledgeBuilderFactory.newKnowledgeBuilderConfiguration(properties, null);
+    }
+
+    private static Object getConsequence(KieBase kbase, String ruleName) {
+        return ((RuleImpl) kbase.getRule("defaultpkg", ruleName)).getConsequence();
+    }
+
+    private static List<String> fire(KieBase kbase) {
+        KieSession ksession = kbase.newKieSession();
+        List<String> list = new ArrayList<>();
+        ksession.setGlobal("list", list);
+        ksession.insert(new Person("Mario", 15));
+        ksession.insert(new Person("Mark", 40));
+        ksession.fireAllRules();
+        ksession.dispose();
+        return list;
+    }
+}
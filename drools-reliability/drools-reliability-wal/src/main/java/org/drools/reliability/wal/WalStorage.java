@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.reliability.wal;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.drools.core.common.Storage;
+import org.drools.reliability.wal.WriteAheadLog.SerializedValue;
+
+/**
+ * A storage backed by a WriteAheadLog. The content is always looked up through the log, so a handle obtained before
+ * the storage was dropped sees it empty, and writing through it recreates the storage both in memory and in the log.
+ */
+public class WalStorage<K, V> implements Storage<K, V> {
+
+    private final String name;
+    private final WriteAheadLog wal;
+
+    WalStorage(String name, WriteAheadLog wal) {
+        this.name = name;
+        this.wal = wal;
+        wal.getOrCreateStorage(name);
+    }
+
+    private Map<Object, SerializedValue> map() {
+        Map<Object, SerializedValue> map = wal.getStorage(name);
+        return map != null ? map : Collections.emptyMap();
+    }
+
+    @Override
+    public V get(K key) {
+        return valueOf(map().get(key));
+    }
+
+    @Override
+    public V getOrDefault(K key, V value) {
+        SerializedValue serializedValue = map().get(key);
+        return serializedValue != null ? valueOf(serializedValue) : value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        SerializedValue serializedValue = SerializedValue.of(value);
+        SerializedValue previousValue;
+        synchronized (wal) {
+            previousValue = wal.getOrCreateStorage(name).put(key, serializedValue);
+            wal.put(name, key, serializedValue);
+        }
+        return valueOf(previousValue);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> otherMap) {
+        synchronized (wal) {
+            Map<Object, SerializedValue> map = wal.getOrCreateStorage(name);
+            for (Map.Entry<? extends K, ? extends V> entry : otherMap.entrySet()) {
+                SerializedValue serializedValue = SerializedValue.of(entry.getValue());
+                map.put(entry.getKey(), serializedValue);
+                wal.put(name, entry.getKey(), serializedValue);
+            }
+        }
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return map().containsKey(key);
+    }
+
+    @Override
+    public V remove(K key) {
+        SerializedValue previousValue;
+        synchronized (wal) {
+            previousValue = map().remove(key);
+            if (previousValue != null) {
+                wal.remove(name, key);
+            }
+        }
+        return valueOf(previousValue);
+    }
+
+    @Override
+    public void clear() {
+        synchronized (wal) {
+            Map<Object, SerializedValue> map = wal.getStorage(name);
+            if (map != null) {
+                map.clear();
+                wal.clear(name);
+            }
+        }
+    }
+
+    @Override
+    public Collection<V> values() {
+        return map().values().stream().map(this::valueOf).collect(Collectors.toList());
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return (Set<K>) map().keySet();
+    }
+
+    @Override
+    public int size() {
+        return map().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map().isEmpty();
+    }
+
+    private V valueOf(SerializedValue serializedValue) {
+        return serializedValue != null ? (V) serializedValue.get() : null;
+    }
+}
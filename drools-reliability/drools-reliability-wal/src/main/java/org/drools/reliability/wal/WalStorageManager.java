@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.reliability.wal;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.common.Storage;
+import org.drools.reliability.core.TestableStorageManager;
+import org.drools.util.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.drools.reliability.core.StorageManager.createStorageId;
+import static org.drools.reliability.core.StorageManagerFactory.DELIMITER;
+import static org.drools.reliability.core.StorageManagerFactory.SESSION_STORAGE_PREFIX;
+import static org.drools.reliability.core.StorageManagerFactory.SHARED_STORAGE_PREFIX;
+import static org.drools.reliability.wal.WalStorageManagerFactory.WAL_STORAGE_COMMIT_INTERVAL;
+import static org.drools.reliability.wal.WalStorageManagerFactory.WAL_STORAGE_COMPACTION_THRESHOLD;
+import static org.drools.reliability.wal.WalStorageManagerFactory.WAL_STORAGE_DIRECTORY;
+import static org.drools.util.Config.getConfig;
+
+public class WalStorageManager implements TestableStorageManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WalStorageManager.class);
+
+    static final WalStorageManager INSTANCE = new WalStorageManager();
+
+    public static final String DEFAULT_STORAGE_DIRECTORY = "drools-wal";
+
+    private WriteAheadLog wal;
+
+    private WalStorageManager() {
+    }
+
+    @Override
+    public void initStorageManager() {
+        LOG.info("Using WalStorageManager");
+        wal = new WriteAheadLog(getStorageDirectory(),
+                                Long.parseLong(getConfig(WAL_STORAGE_COMMIT_INTERVAL, "10")),
+                                Long.parseLong(getConfig(WAL_STORAGE_COMPACTION_THRESHOLD, String.valueOf(64 * 1024 * 1024))));
+        wal.open();
+    }
+
+    @Override
+    public <K, V> Storage<K, V> internalGetOrCreateStorageForSession(ReteEvaluator reteEvaluator, String storageName) {
+        return new WalStorage<>(createStorageId(reteEvaluator, storageName), wal);
+    }
+
+    @Override
+    public <K, V> Storage<K, V> getOrCreateSharedStorage(String storageName) {
+        return new WalStorage<>(SHARED_STORAGE_PREFIX + storageName, wal);
+    }
+
+    @Override
+    public void close() {
+        wal.close();
+    }
+
+    @Override
+    public void removeStorage(String storageName) {
+        wal.drop(storageName);
+    }
+
+    @Override
+    public void removeStoragesBySessionId(String sessionId) {
+        getStorageNames().stream()
+                .filter(storageName -> storageName.startsWith(SESSION_STORAGE_PREFIX + sessionId + DELIMITER))
+                .forEach(this::removeStorage);
+    }
+
+    @Override
+    public void removeAllSessionStorages() {
+        getStorageNames().stream()
+                .filter(storageName -> storageName.startsWith(SESSION_STORAGE_PREFIX))
+                .forEach(this::removeStorage);
+    }
+
+    @Override
+    public Set<String> getStorageNames() {
+        return new HashSet<>(wal.getStorages().keySet());
+    }
+
+    public WriteAheadLog getWriteAheadLog() {
+        return wal;
+    }
+
+    //--- test purpose
+
+    @Override
+    public void restart() {
+        // JVM crashed
+        wal.close();
+        wal = null;
+
+        // Reboot
+        initStorageManager();
+    }
+
+    @Override
+    public void restartWithCleanUp() {
+        // JVM crashed
+        wal.close();
+        wal = null;
+
+        // remove the log files
+        cleanUpStorage();
+
+        // Reboot
+        initStorageManager();
+    }
+
+    @Override
+    public boolean isRemote() {
+        return false;
+    }
+
+    public static Path getStorageDirectory() {
+        return Path.of(getConfig(WAL_STORAGE_DIRECTORY, DEFAULT_STORAGE_DIRECTORY));
+    }
+
+    public static void cleanUpStorage() {
+        FileUtils.deleteDirectory(getStorageDirectory());
+    }
+}
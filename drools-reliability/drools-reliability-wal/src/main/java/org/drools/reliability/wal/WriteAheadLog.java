@@ -0,0 +1,452 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.reliability.wal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.drools.base.common.DroolsObjectInputStream;
+import org.drools.reliability.core.ReliabilityRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only log of the changes done to the storages of a WalStorageManager.
+ * <p>
+ * Each change is appended as a record (length, crc, payload) to a memory-mapped region of the current log file,
+ * so a write never waits for the disk and survives a crash of the JVM as soon as it is appended. The regions are
+ * forced to disk (group commit) by a background thread every commitInterval milliseconds, or after each write
+ * when the interval is 0. When the log grows over the compaction threshold the content of all the storages is
+ * written to a snapshot, and a new log file (with the next generation number) is started.
+ * <p>
+ * At startup the snapshot and the following logs are replayed in memory. The values are kept serialized until
+ * they are read for the first time, so the replay doesn't need the classes of the stored objects.
+ */
+public class WriteAheadLog implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    static final String SNAPSHOT_FILE_NAME = "snapshot.wal";
+    private static final String LOG_FILE_PREFIX = "log-";
+    private static final String LOG_FILE_SUFFIX = ".wal";
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte CLEAR = 3;
+    private static final byte DROP = 4;
+
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int REGION_SIZE = 16 * 1024 * 1024;
+
+    private final Path directory;
+    private final long commitIntervalMillis;
+    private final long compactionThreshold;
+
+    private final Map<String, Map<Object, SerializedValue>> storages = new ConcurrentHashMap<>();
+
+    private final CRC32 crc = new CRC32();
+
+    private long generation;
+    private FileChannel channel;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private boolean dirty;
+
+    private ScheduledExecutorService committer;
+
+    public WriteAheadLog(Path directory, long commitIntervalMillis, long compactionThreshold) {
+        this.directory = directory;
+        this.commitIntervalMillis = commitIntervalMillis;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    public synchronized void open() {
+        storages.clear();
+        try {
+            Files.createDirectories(directory);
+            generation = replay();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (commitIntervalMillis > 0) {
+            committer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "drools-wal-committer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            committer.scheduleWithFixedDelay(this::commit, commitIntervalMillis, commitIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    Map<String, Map<Object, SerializedValue>> getStorages() {
+        return storages;
+    }
+
+    Map<Object, SerializedValue> getStorage(String storageName) {
+        return storages.get(storageName);
+    }
+
+    Map<Object, SerializedValue> getOrCreateStorage(String storageName) {
+        return storages.computeIfAbsent(storageName, name -> new ConcurrentHashMap<>());
+    }
+
+    synchronized void put(String storageName, Object key, SerializedValue value) {
+        append(PUT, storageName, serialize(key), value.bytes);
+    }
+
+    synchronized void remove(String storageName, Object key) {
+        append(REMOVE, storageName, serialize(key), null);
+    }
+
+    synchronized void clear(String storageName) {
+        append(CLEAR, storageName, null, null);
+    }
+
+    synchronized void drop(String storageName) {
+        storages.remove(storageName);
+        append(DROP, storageName, null, null);
+    }
+
+    /**
+     * Forces the pending writes to disk, compacting the log when it grew over the threshold.
+     */
+    public synchronized void commit() {
+        if (channel == null) {
+            return;
+        }
+        if (dirty) {
+            region.force();
+            dirty = false;
+        }
+        if (compactionThreshold > 0 && size() > compactionThreshold) {
+            compact();
+        }
+    }
+
+    /**
+     * Writes the content of all the storages to a new snapshot and starts a new log.
+     */
+    public synchronized void compact() {
+        Path tmpSnapshot = directory.resolve(SNAPSHOT_FILE_NAME + ".tmp");
+        try {
+            try (FileChannel snapshotChannel = FileChannel.open(tmpSnapshot, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(snapshotChannel)));
+                out.writeLong(generation);
+                for (Map.Entry<String, Map<Object, SerializedValue>> storage : storages.entrySet()) {
+                    // the clear record also recreates the storages that are empty
+                    writeRecord(out, encode(CLEAR, storage.getKey(), null, null));
+                    for (Map.Entry<Object, SerializedValue> entry : storage.getValue().entrySet()) {
+                        writeRecord(out, encode(PUT, storage.getKey(), serialize(entry.getKey()), entry.getValue().bytes));
+                    }
+                }
+                out.flush();
+                snapshotChannel.force(true);
+            }
+            Files.move(tmpSnapshot, directory.resolve(SNAPSHOT_FILE_NAME), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            long compactedGeneration = generation;
+            closeLog();
+            openLog(compactedGeneration + 1, 0);
+            Files.deleteIfExists(logFile(compactedGeneration));
+            LOG.debug("Compacted write-ahead log generation {}", compactedGeneration);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the size in bytes of the current log file
+     */
+    public synchronized long size() {
+        return region == null ? 0 : regionStart + region.position();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (committer != null) {
+            committer.shutdownNow();
+            committer = null;
+        }
+        if (channel != null) {
+            if (dirty) {
+                region.force();
+                dirty = false;
+            }
+            closeLog();
+        }
+    }
+
+    private void append(byte op, String storageName, byte[] key, byte[] value) {
+        byte[] payload = encode(op, storageName, key, value);
+        int recordSize = RECORD_HEADER_SIZE + payload.length;
+        if (region.remaining() < recordSize) {
+            mapRegion(regionStart + region.position(), recordSize);
+        }
+        region.putInt(payload.length);
+        region.putInt(checksum(payload));
+        region.put(payload);
+        dirty = true;
+        if (commitIntervalMillis <= 0) {
+            commit();
+        }
+    }
+
+    private void mapRegion(long position, int minSize) {
+        try {
+            if (region != null && dirty) {
+                region.force();
+                dirty = false;
+            }
+            // the regions are mapped one after the other starting from the logical end of the log,
+            // so the records are contiguous even if the former region wasn't completely filled
+            region = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(REGION_SIZE, minSize));
+            regionStart = position;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void openLog(long logGeneration, long position) throws IOException {
+        generation = logGeneration;
+        channel = FileChannel.open(logFile(logGeneration), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // discards the zeroed tail of the last mapped region and a record that was only partially written
+        channel.truncate(position);
+        region = null;
+        mapRegion(position, 0);
+    }
+
+    private void closeLog() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            channel = null;
+            region = null;
+        }
+    }
+
+    private long replay() throws IOException {
+        long snapshotGeneration = -1;
+        Path snapshot = directory.resolve(SNAPSHOT_FILE_NAME);
+        if (Files.exists(snapshot)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+                snapshotGeneration = in.readLong();
+                readRecords(in);
+            }
+        }
+
+        long lastGeneration = snapshotGeneration + 1;
+        long lastPosition = 0;
+        for (long logGeneration : listLogGenerations()) {
+            if (logGeneration <= snapshotGeneration) {
+                // already compacted in the snapshot
+                Files.deleteIfExists(logFile(logGeneration));
+                continue;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logFile(logGeneration))))) {
+                lastPosition = readRecords(in);
+            }
+            lastGeneration = logGeneration;
+        }
+
+        openLog(lastGeneration, lastPosition);
+        LOG.info("Replayed write-ahead log in {} with {} storages", directory, storages.size());
+        return lastGeneration;
+    }
+
+    private List<Long> listLogGenerations() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(LOG_FILE_PREFIX) && name.endsWith(LOG_FILE_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(LOG_FILE_PREFIX.length(), name.length() - LOG_FILE_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path logFile(long logGeneration) {
+        return directory.resolve(LOG_FILE_PREFIX + logGeneration + LOG_FILE_SUFFIX);
+    }
+
+    /**
+     * Applies the records of the given stream to the storages, stopping at the end of the log or at the first
+     * record that was not completely written.
+     * @return the position after the last valid record
+     */
+    private long readRecords(DataInputStream in) throws IOException {
+        long position = 0;
+        while (true) {
+            byte[] payload;
+            try {
+                int length = in.readInt();
+                if (length <= 0) {
+                    break;
+                }
+                int checksum = in.readInt();
+                payload = new byte[length];
+                in.readFully(payload);
+                if (checksum(payload) != checksum) {
+                    LOG.warn("Discarding corrupted write-ahead log record at position {}", position);
+                    break;
+                }
+            } catch (EOFException e) {
+                break;
+            }
+            apply(payload);
+            position += RECORD_HEADER_SIZE + payload.length;
+        }
+        return position;
+    }
+
+    private void apply(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte op = in.readByte();
+        String storageName = in.readUTF();
+        switch (op) {
+            case PUT:
+                Object key = deserialize(readBytes(in));
+                getOrCreateStorage(storageName).put(key, new SerializedValue(readBytes(in), null));
+                break;
+            case REMOVE:
+                getOrCreateStorage(storageName).remove(deserialize(readBytes(in)));
+                break;
+            case CLEAR:
+                getOrCreateStorage(storageName).clear();
+                break;
+            case DROP:
+                storages.remove(storageName);
+                break;
+            default:
+                throw new ReliabilityRuntimeException("Unknown write-ahead log record type: " + op);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static byte[] encode(byte op, String storageName, byte[] key, byte[] value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + (key != null ? key.length : 0) + (value != null ? value.length : 0));
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(op);
+            out.writeUTF(storageName);
+            if (key != null) {
+                out.writeInt(key.length);
+                out.write(key);
+            }
+            if (value != null) {
+                out.writeInt(value.length);
+                out.write(value);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeRecord(DataOutputStream out, byte[] payload) throws IOException {
+        out.writeInt(payload.length);
+        out.writeInt(checksum(payload));
+        out.write(payload);
+    }
+
+    private int checksum(byte[] payload) {
+        crc.reset();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    static byte[] serialize(Object object) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(object);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Object deserialize(byte[] bytes) {
+        try (ObjectInputStream in = new DroolsObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new ReliabilityRuntimeException(e);
+        }
+    }
+
+    /**
+     * A stored value together with the bytes written to the log when it was put, so the snapshots contain
+     * exactly what the log contained. The values replayed from the log are deserialized only when they are read.
+     */
+    static class SerializedValue {
+
+        private final byte[] bytes;
+        private volatile Object value;
+
+        SerializedValue(byte[] bytes, Object value) {
+            this.bytes = bytes;
+            this.value = value;
+        }
+
+        static SerializedValue of(Object value) {
+            return new SerializedValue(serialize(value), value);
+        }
+
+        Object get() {
+            Object result = value;
+            if (result == null) {
+                result = deserialize(bytes);
+                value = result;
+            }
+            return result;
+        }
+    }
+}
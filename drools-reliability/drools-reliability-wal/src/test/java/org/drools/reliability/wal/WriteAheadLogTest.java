@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.reliability.wal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteAheadLogTest {
+
+    private static final long NO_COMMIT_INTERVAL = 0;
+    private static final long NO_COMPACTION = 0;
+
+    @TempDir
+    Path directory;
+
+    private WriteAheadLog wal;
+
+    @AfterEach
+    void closeWal() {
+        if (wal != null) {
+            wal.close();
+        }
+    }
+
+    private WalStorage<String, String> open(long compactionThreshold) {
+        openWal(compactionThreshold);
+        return new WalStorage<>("storage", wal);
+    }
+
+    private void openWal(long compactionThreshold) {
+        wal = new WriteAheadLog(directory, NO_COMMIT_INTERVAL, compactionThreshold);
+        wal.open();
+    }
+
+    private WalStorage<String, String> reopen() {
+        wal.close();
+        return open(NO_COMPACTION);
+    }
+
+    @Test
+    void replayAfterClose() {
+        WalStorage<String, String> storage = open(NO_COMPACTION);
+        storage.put("a", "1");
+        storage.put("b", "2");
+        storage.put("a", "3");
+        storage.remove("b");
+
+        storage = reopen();
+        assertThat(storage.keySet()).containsExactly("a");
+        assertThat(storage.get("a")).isEqualTo("3");
+    }
+
+    @Test
+    void tornTrailingRecordIsDiscarded() throws IOException {
+        WalStorage<String, String> storage = open(NO_COMPACTION);
+        storage.put("a", "1");
+        long end = wal.size();
+        wal.close();
+
+        // a record whose header was written but whose payload was only partially flushed before a crash
+        try (FileChannel channel = FileChannel.open(lastLogFile(), StandardOpenOption.WRITE)) {
+            ByteBuffer tornRecord = ByteBuffer.allocate(12).putInt(100).putInt(12345).putInt(42);
+            channel.write(tornRecord.flip(), end);
+        }
+
+        storage = open(NO_COMPACTION);
+        assertThat(storage.keySet()).containsExactly("a");
+        assertThat(wal.size()).isEqualTo(end);
+
+        // the records appended after the recovery overwrite the torn one and are replayed
+        storage.put("b", "2");
+        storage = reopen();
+        assertThat(storage.get("a")).isEqualTo("1");
+        assertThat(storage.get("b")).isEqualTo("2");
+    }
+
+    @Test
+    void truncatedTrailingRecordIsDiscarded() throws IOException {
+        WalStorage<String, String> storage = open(NO_COMPACTION);
+        storage.put("a", "1");
+        long afterFirstRecord = wal.size();
+        storage.put("b", "2");
+        long end = wal.size();
+        wal.close();
+
+        try (FileChannel channel = FileChannel.open(lastLogFile(), StandardOpenOption.WRITE)) {
+            channel.truncate(end - 3);
+        }
+
+        storage = open(NO_COMPACTION);
+        assertThat(storage.keySet()).containsExactly("a");
+        assertThat(wal.size()).isEqualTo(afterFirstRecord);
+    }
+
+    @Test
+    void compactionWritesSnapshotAndStartsNewLog() throws IOException {
+        WalStorage<String, String> storage = open(NO_COMPACTION);
+        for (int i = 0; i < 100; i++) {
+            storage.put("key" + (i % 10), "value" + i);
+        }
+        Path compactedLog = lastLogFile();
+
+        wal.compact();
+        assertThat(directory.resolve(WriteAheadLog.SNAPSHOT_FILE_NAME)).exists();
+        assertThat(compactedLog).doesNotExist();
+        assertThat(wal.size()).isZero();
+
+        storage.put("key0", "afterCompaction");
+        storage = reopen();
+        assertThat(storage.size()).isEqualTo(10);
+        assertThat(storage.get("key0")).isEqualTo("afterCompaction");
+        assertThat(storage.get("key9")).isEqualTo("value99");
+    }
+
+    @Test
+    void compactionIsTriggeredByThreshold() throws IOException {
+        WalStorage<String, String> storage = open(1024);
+        for (int i = 0; i < 100; i++) {
+            storage.put("key", "value" + i);
+        }
+        assertThat(directory.resolve(WriteAheadLog.SNAPSHOT_FILE_NAME)).exists();
+        assertThat(wal.size()).isLessThanOrEqualTo(1024);
+
+        storage = reopen();
+        assertThat(storage.get("key")).isEqualTo("value99");
+    }
+
+    @Test
+    void droppedStorageIsNotReplayed() {
+        WalStorage<String, String> storage = open(NO_COMPACTION);
+        storage.put("a", "1");
+        wal.drop("storage");
+        assertThat(wal.getStorages()).doesNotContainKey("storage");
+
+        // a handle obtained before the drop sees the storage empty
+        assertThat(storage.isEmpty()).isTrue();
+        assertThat(storage.get("a")).isNull();
+
+        wal.close();
+        openWal(NO_COMPACTION);
+        assertThat(wal.getStorages()).doesNotContainKey("storage");
+    }
+
+    @Test
+    void writeThroughHandleObtainedBeforeDropDoesNotResurrectDroppedEntries() {
+        WalStorage<String, String> storage = open(NO_COMPACTION);
+        storage.put("a", "1");
+        wal.drop("storage");
+
+        storage.put("b", "2");
+        assertThat(storage.keySet()).containsExactly("b");
+
+        storage = reopen();
+        assertThat(storage.keySet()).containsExactly("b");
+        assertThat(storage.get("b")).isEqualTo("2");
+    }
+
+    @Test
+    void logGrowsPastMappedRegion() {
+        WalStorage<String, String> storage = open(NO_COMPACTION);
+        String value = "x".repeat(1024 * 1024);
+        for (int i = 0; i < 20; i++) {
+            storage.put("key" + i, value + i);
+        }
+        // a single record larger than a whole region
+        String largeValue = "y".repeat(17 * 1024 * 1024);
+        storage.put("large", largeValue);
+        storage.put("last", "value");
+        assertThat(wal.size()).isGreaterThan(2L * 16 * 1024 * 1024);
+
+        storage = reopen();
+        assertThat(storage.size()).isEqualTo(22);
+        assertThat(storage.get("key0")).isEqualTo(value + 0);
+        assertThat(storage.get("key19")).isEqualTo(value + 19);
+        assertThat(storage.get("large")).isEqualTo(largeValue);
+        assertThat(storage.get("last")).isEqualTo("value");
+    }
+
+    private Path lastLogFile() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> logs = files.filter(file -> file.getFileName().toString().startsWith("log-")).sorted().toList();
+            assertThat(logs).isNotEmpty();
+            return logs.get(logs.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.serialization.protobuf;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.kie.api.runtime.KieSession;
+
+/**
+ * Writes periodic snapshots of a session as chains made of a base snapshot followed by deltas containing only
+ * what changed since the former snapshot. A new chain is started, rebasing it on a complete snapshot, after
+ * the configured number of deltas or as soon as the deltas written since the base became bigger than the base
+ * itself, so that restoring the session never requires to replay an unbounded chain.
+ * A session is restored from the last base snapshot and the deltas following it with
+ * {@link ProtobufMarshaller#unmarshallWithDeltas(java.io.InputStream, java.util.List, org.kie.api.runtime.KieSessionConfiguration, org.kie.api.runtime.Environment)}
+ */
+public class IncrementalSnapshotWriter {
+
+    public enum SnapshotType {
+        BASE, DELTA
+    }
+
+    private final ProtobufMarshaller marshaller;
+    private final SessionChangeTracker tracker;
+    private final int maxDeltas;
+
+    private int deltasCount;
+    private long baseSize;
+    private long deltasSize;
+
+    public IncrementalSnapshotWriter(ProtobufMarshaller marshaller, KieSession ksession, int maxDeltas) {
+        this.marshaller = marshaller;
+        this.tracker = new SessionChangeTracker(ksession);
+        this.maxDeltas = maxDeltas;
+    }
+
+    /**
+     * Writes the next snapshot of the session on the given stream, returning whether it is
+     * the base of a new chain or a delta to be replayed on top of the former snapshots.
+     */
+    public SnapshotType writeSnapshot(OutputStream stream) throws IOException {
+        CountingOutputStream out = new CountingOutputStream(stream);
+        if (isRebaseRequired()) {
+            marshaller.marshallBase(out, tracker);
+            baseSize = out.count;
+            deltasSize = 0;
+            deltasCount = 0;
+            return SnapshotType.BASE;
+        }
+        marshaller.marshallDelta(out, tracker);
+        deltasSize += out.count;
+        deltasCount++;
+        return SnapshotType.DELTA;
+    }
+
+    /**
+     * Forces the next snapshot to be the base of a new chain
+     */
+    public void rebase() {
+        tracker.invalidate();
+    }
+
+    public void dispose() {
+        tracker.dispose();
+    }
+
+    private boolean isRebaseRequired() {
+        return tracker.isBaseRequired() || deltasCount >= maxDeltas || deltasSize > baseSize;
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
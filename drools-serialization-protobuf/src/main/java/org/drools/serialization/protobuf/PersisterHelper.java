@@ -21,6 +21,7 @@ package org.drools.serialization.protobuf;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.security.InvalidKeyException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
@@ -153,6 +154,29 @@ public class PersisterHelper extends MarshallingHelper {
     
     public static void writeToStreamWithHeader( MarshallerWriteContext context,
                                                 Message payload ) throws IOException {
+        writeToStreamWithHeader( context, payload.toByteString() );
+    }
+
+    public static void writeToStreamWithHeader( MarshallerWriteContext context,
+                                                ByteString payload ) throws IOException {
+        context.write( buildHeader( context, payload ).toByteArray() );
+    }
+
+    /**
+     * Writes the header, with the given payload, as a length delimited message, so that the stream can carry
+     * further messages after it. Those messages aren't covered by the header signature, so this isn't allowed
+     * when the environment is configured to sign the serialized sessions.
+     */
+    public static void writeToStreamWithDelimitedHeader( MarshallerWriteContext context,
+                                                         Message payload ) throws IOException {
+        if ( KeyStoreHelper.get().isSigned() ) {
+            throw new IllegalStateException( "This environment is configured to work with signed serialized objects, which isn't supported by the streamed session format" );
+        }
+        buildHeader( context, payload.toByteString() ).writeDelimitedTo( (OutputStream) context );
+    }
+
+    private static ProtobufMessages.Header buildHeader( MarshallerWriteContext context,
+                                                        ByteString payload ) throws IOException {
         ProtobufMessages.Header.Builder _header = ProtobufMessages.Header.newBuilder();
         _header.setVersion( ProtobufMessages.Version.newBuilder()
                                             .setVersionMajor( Drools.getMajorVersion() )
@@ -173,9 +197,9 @@ public class PersisterHelper extends MarshallingHelper {
         byte[] buff = payload.toByteArray();
         byte[] headerFieldsBytes = _header.build().toByteArray();
         sign( _header, buildSignedData( buff, headerFieldsBytes ) );
-        _header.setPayload( ByteString.copyFrom( buff ) );
+        _header.setPayload( payload );
 
-        context.write( _header.build().toByteArray() );
+        return _header.build();
     }
 
     private static void writeRuntimeDefinedClasses( TraitFactory traitFactory, MarshallerWriteContext context, ProtobufMessages.Header.Builder _header) {
@@ -257,6 +281,15 @@ public class PersisterHelper extends MarshallingHelper {
         return loadStrategiesCheckSignature(context, _header);
     }
     
+    public static ProtobufMessages.Header readFromStreamWithDelimitedHeader( MarshallerReaderContext context, ExtensionRegistry registry ) throws IOException, ClassNotFoundException {
+        ProtobufMessages.Header _header = ProtobufMessages.Header.parseDelimitedFrom( (InputStream) context, registry );
+        if ( _header == null ) {
+            throw new IOException( "Unexpected end of stream while reading the session header" );
+        }
+
+        return loadStrategiesCheckSignature(context, _header);
+    }
+    
     /* Method that preloads the source stream into a byte array to bypass the message size limitations in Protobuf unmarshalling.
        (Protobuf does not enforce a message size limit when unmarshalling from a byte array)
     */
@@ -78,6 +78,7 @@ import org.kie.api.runtime.rule.EntryPoint;
 import org.kie.api.runtime.rule.Match;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.Date;
@@ -131,7 +132,62 @@ public class ProtobufInputMarshaller {
                                                   SessionConfiguration config,
                                                   KieSessionInitializer initializer) throws IOException, ClassNotFoundException {
 
-        ProtobufMessages.KnowledgeSession _session = loadAndParseSession( context );
+        return readSession( loadAndParseSession( context ), context, id, environment, config, initializer );
+    }
+
+    /**
+     * Reads a session from a base snapshot, whose stream is the one of the given context, replaying on top of it
+     * the chain of deltas written by {@link ProtobufOutputMarshaller#writeSessionDelta(ProtobufMarshallerWriteContext, SessionChangeTracker)}
+     * and read through the given delta contexts, in the same order they were written.
+     */
+    public static ReadSessionResult readSession( ProtobufMarshallerReaderContext context,
+                                                 List<ProtobufMarshallerReaderContext> deltaContexts,
+                                                 int id,
+                                                 Environment environment,
+                                                 SessionConfiguration config,
+                                                 KieSessionInitializer initializer) throws IOException, ClassNotFoundException {
+
+        return readSession( loadAndMergeSessionDeltas( context, deltaContexts ), context, id, environment, config, initializer );
+    }
+
+    /**
+     * Reads a session written by {@link ProtobufOutputMarshaller#writeStreamedSession(ProtobufMarshallerWriteContext)},
+     * consuming its fact handles and timers chunk by chunk instead of preloading the whole stream.
+     * When parallelism is greater than 1 the facts of the chunks ahead of the one being inserted
+     * are deserialized by that number of threads, while their insertion into the session stays single threaded.
+     */
+    public static ReadSessionResult readStreamedSession( ProtobufMarshallerReaderContext context,
+                                                         int parallelism,
+                                                         int id,
+                                                         Environment environment,
+                                                         SessionConfiguration config,
+                                                         KieSessionInitializer initializer) throws IOException, ClassNotFoundException {
+        ExtensionRegistry registry = PersisterHelper.buildRegistry( context, PROCESS_MARSHALLER );
+
+        ProtobufMessages.Header _header = PersisterHelper.readFromStreamWithDelimitedHeader( context, registry );
+        ProtobufMessages.KnowledgeSession _session = ProtobufMessages.KnowledgeSession.parseFrom( _header.getPayload(), registry );
+
+        try (StreamedSessionReader streamReader = new StreamedSessionReader( context, registry, parallelism )) {
+            return readSession( _session, context, id, environment, config, initializer, streamReader );
+        }
+    }
+
+    private static ReadSessionResult readSession( ProtobufMessages.KnowledgeSession _session,
+                                                  ProtobufMarshallerReaderContext context,
+                                                  int id,
+                                                  Environment environment,
+                                                  SessionConfiguration config,
+                                                  KieSessionInitializer initializer) throws IOException, ClassNotFoundException {
+        return readSession( _session, context, id, environment, config, initializer, null );
+    }
+
+    private static ReadSessionResult readSession( ProtobufMessages.KnowledgeSession _session,
+                                                  ProtobufMarshallerReaderContext context,
+                                                  int id,
+                                                  Environment environment,
+                                                  SessionConfiguration config,
+                                                  KieSessionInitializer initializer,
+                                                  StreamedSessionReader streamReader) throws IOException, ClassNotFoundException {
 
         StatefulKnowledgeSessionImpl session = createAndInitializeSession( context,
                                                                            id,
@@ -146,7 +202,8 @@ public class ProtobufInputMarshaller {
         return new ReadSessionResult(readSession(_session,
                                                  session,
                                                  session.getAgenda(),
-                                                 context),
+                                                 context,
+                                                 streamReader),
                                      _session);
     }
 
@@ -191,11 +248,37 @@ public class ProtobufInputMarshaller {
         return ProtobufMessages.KnowledgeSession.parseFrom( _header.getPayload(), registry );
     }
 
+    private static ProtobufMessages.KnowledgeSession loadAndMergeSessionDeltas( ProtobufMarshallerReaderContext context,
+                                                                                List<ProtobufMarshallerReaderContext> deltaContexts) throws IOException,
+                                                                                                                                   ClassNotFoundException {
+        SessionDeltaMerger merger = new SessionDeltaMerger( context, loadAndParseSession( context ) );
+
+        ExtensionRegistry registry = PersisterHelper.buildRegistry( context, PROCESS_MARSHALLER );
+        for ( ProtobufMarshallerReaderContext deltaContext : deltaContexts ) {
+            ProtobufMessages.Header _header = PersisterHelper.readFromStreamWithHeaderPreloaded( deltaContext, registry );
+
+            InputStream payload = _header.getPayload().newInput();
+            ProtobufMessages.KnowledgeSession _changed = ProtobufMessages.KnowledgeSession.parseDelimitedFrom( payload, registry );
+            ProtobufMessages.KnowledgeSession _removed = ProtobufMessages.KnowledgeSession.parseDelimitedFrom( payload, registry );
+            merger.applyDelta( deltaContext, _changed, _removed );
+        }
+        return merger.getSession( context );
+    }
+
     public static StatefulKnowledgeSessionImpl readSession( ProtobufMessages.KnowledgeSession _session,
                                                             StatefulKnowledgeSessionImpl session,
                                                             InternalAgenda agenda,
                                                             ProtobufMarshallerReaderContext context) throws IOException,
                                                                                     ClassNotFoundException {
+        return readSession( _session, session, agenda, context, null );
+    }
+
+    private static StatefulKnowledgeSessionImpl readSession( ProtobufMessages.KnowledgeSession _session,
+                                                             StatefulKnowledgeSessionImpl session,
+                                                             InternalAgenda agenda,
+                                                             ProtobufMarshallerReaderContext context,
+                                                             StreamedSessionReader streamReader) throws IOException,
+                                                                                                        ClassNotFoundException {
         GlobalResolver globalResolver = (GlobalResolver) context.env.get( EnvironmentName.GLOBALS );
         if ( globalResolver != null ) {
             session.setGlobalResolver( globalResolver );
@@ -223,7 +306,11 @@ public class ProtobufInputMarshaller {
 
         for ( ProtobufMessages.EntryPoint _ep : _session.getRuleData().getEntryPointList() ) {
             WorkingMemoryEntryPoint wmep = context.getWorkingMemory().getEntryPoint(_ep.getEntryPointId());
-            readFactHandles( context, _ep, wmep.getObjectStore(), pctxs );
+            if ( streamReader != null ) {
+                streamReader.readFactHandles( _ep, wmep.getObjectStore(), pctxs );
+            } else {
+                readFactHandles( context, _ep, wmep.getObjectStore(), pctxs );
+            }
 
             context.getWorkingMemory().getFactHandleFactory().doRecycleIds( context.getHandles().keySet() );
 
@@ -256,7 +343,9 @@ public class ProtobufInputMarshaller {
             }
         }
 
-        if ( _session.hasTimers() ) {
+        if ( streamReader != null ) {
+            streamReader.readTimers();
+        } else if ( _session.hasTimers() ) {
             for ( ProtobufMessages.Timers.Timer _timer : _session.getTimers().getTimerList() ) {
                 readTimer( context, _timer );
             }
@@ -411,23 +500,33 @@ public class ProtobufInputMarshaller {
         
         // load the handles
         for ( ProtobufMessages.FactHandle _handle : _ep.getHandleList() ) {
-            InternalFactHandle handle = readFactHandle( context, entryPoint, _handle );
-
-            context.getHandles().put( handle.getId(), handle );
-
-            if ( !_handle.getIsJustified() ) {
-                // BeliefSystem handles the Object type 
-                if ( handle.getObject() != null ) {
-                    objectStore.addHandle( handle, handle.getObject() );
-                }
+            loadFactHandle( context, wm, entryPoint, objectStore, _handle, unmarshallObject( context, _handle ), pctxs );
+        }
+    }
 
-                // add handle to object type node
-                assertHandleIntoOTN( context, wm, handle, pctxs );
+    static void loadFactHandle( ProtobufMarshallerReaderContext context,
+                                InternalWorkingMemory wm,
+                                EntryPoint entryPoint,
+                                ObjectStore objectStore,
+                                ProtobufMessages.FactHandle _handle,
+                                Object object,
+                                List<PropagationContext> pctxs) {
+        InternalFactHandle handle = readFactHandle( entryPoint, _handle, object );
+
+        context.getHandles().put( handle.getId(), handle );
+
+        if ( !_handle.getIsJustified() ) {
+            // BeliefSystem handles the Object type 
+            if ( handle.getObject() != null ) {
+                objectStore.addHandle( handle, handle.getObject() );
             }
 
-            if (handle.isExpired()) {
-                wm.addPropagation(new WorkingMemoryReteExpireAction((DefaultEventHandle) handle));
-            }
+            // add handle to object type node
+            assertHandleIntoOTN( context, wm, handle, pctxs );
+        }
+
+        if (handle.isExpired()) {
+            wm.addPropagation(new WorkingMemoryReteExpireAction((DefaultEventHandle) handle));
         }
     }
 
@@ -463,17 +562,25 @@ public class ProtobufInputMarshaller {
                                                      EntryPoint entryPoint,
                                                      FactHandle _handle) throws IOException,
                                                                        ClassNotFoundException {
-        Object object = null;
-        ObjectMarshallingStrategy strategy = null;
-        if ( _handle.hasStrategyIndex() ) {
-            strategy = context.getUsedStrategies().get( _handle.getStrategyIndex() );
-            object = strategy.unmarshal( context.getStrategyContexts().get( strategy ),
-                                         context,
-                                         _handle.getObject().toByteArray(),
-                                         (context.getKnowledgeBase() == null) ? null : context.getKnowledgeBase().getRootClassLoader() );
-        }
+        return readFactHandle( entryPoint, _handle, unmarshallObject( context, _handle ) );
+    }
 
+    static Object unmarshallObject( ProtobufMarshallerReaderContext context,
+                                    FactHandle _handle) throws IOException,
+                                                               ClassNotFoundException {
+        if ( !_handle.hasStrategyIndex() ) {
+            return null;
+        }
+        ObjectMarshallingStrategy strategy = context.getUsedStrategies().get( _handle.getStrategyIndex() );
+        return strategy.unmarshal( context.getStrategyContexts().get( strategy ),
+                                   context,
+                                   _handle.getObject().toByteArray(),
+                                   (context.getKnowledgeBase() == null) ? null : context.getKnowledgeBase().getRootClassLoader() );
+    }
 
+    private static InternalFactHandle readFactHandle( EntryPoint entryPoint,
+                                                      FactHandle _handle,
+                                                      Object object) {
         InternalFactHandle handle;
         switch ( _handle.getType() ) {
             case FACT : {
@@ -21,7 +21,9 @@ package org.drools.serialization.protobuf;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.drools.core.RuleBaseConfiguration;
@@ -111,6 +113,62 @@ public class ProtobufMarshaller
     public void marshall(final OutputStream stream,
                          final KieSession ksession,
                          final long clockTime) throws IOException {
+        ProtobufMarshallerWriteContext context = getMarshallerWriteContext( stream, ksession, clockTime );
+        ProtobufOutputMarshaller.writeSession( context );
+        context.close();
+    }
+
+    /**
+     * Writes the session in a streamed format, which can be read incrementally by
+     * {@link #unmarshallStreamed(InputStream, int, KieSessionConfiguration, Environment)}
+     */
+    public void marshallStreamed(final OutputStream stream,
+                                 final KieSession ksession) throws IOException {
+        ProtobufMarshallerWriteContext context = getMarshallerWriteContext( stream, ksession, ksession.getSessionClock().getCurrentTime() );
+        ProtobufOutputMarshaller.writeStreamedSession( context );
+        context.close();
+    }
+
+    /**
+     * Writes a complete snapshot of the session tracked by the given tracker, which becomes the base
+     * for the deltas written by {@link #marshallDelta(OutputStream, SessionChangeTracker)}
+     */
+    public void marshallBase(final OutputStream stream,
+                             final SessionChangeTracker tracker) throws IOException {
+        KieSession ksession = tracker.getSession();
+        try {
+            ProtobufMarshallerWriteContext context = getMarshallerWriteContext( stream, ksession, ksession.getSessionClock().getCurrentTime() );
+            ProtobufOutputMarshaller.writeBaseSession( context, tracker );
+            context.close();
+        } catch (IOException | RuntimeException e) {
+            tracker.invalidate();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes only what changed in the session tracked by the given tracker since its former snapshot.
+     * If the delta can't be written the tracker requires a new base snapshot.
+     */
+    public void marshallDelta(final OutputStream stream,
+                              final SessionChangeTracker tracker) throws IOException {
+        if ( tracker.isBaseRequired() ) {
+            throw new IllegalStateException( "A base snapshot of the session has to be written before any delta" );
+        }
+        KieSession ksession = tracker.getSession();
+        try {
+            ProtobufMarshallerWriteContext context = getMarshallerWriteContext( stream, ksession, ksession.getSessionClock().getCurrentTime() );
+            ProtobufOutputMarshaller.writeSessionDelta( context, tracker );
+            context.close();
+        } catch (IOException | RuntimeException e) {
+            tracker.invalidate();
+            throw e;
+        }
+    }
+
+    private ProtobufMarshallerWriteContext getMarshallerWriteContext( final OutputStream stream,
+                                                                      final KieSession ksession,
+                                                                      final long clockTime) throws IOException {
         ((InternalWorkingMemory) ksession).flushPropagations();
         ProtobufMarshallerWriteContext context = new ProtobufMarshallerWriteContext( stream,
                                                                      (InternalKnowledgeBase) kbase,
@@ -121,8 +179,7 @@ public class ProtobufMarshaller
                                                                      this.marshallingConfig.isMarshallWorkItems(),
                                                                      ksession.getEnvironment() );
         context.setClockTime( clockTime );
-        ProtobufOutputMarshaller.writeSession( context );
-        context.close();
+        return context;
     }
 
     public MarshallingConfiguration getMarshallingConfiguration() {
@@ -154,6 +211,77 @@ public class ProtobufMarshaller
         return readSessionResult;
     }
 
+    /**
+     * Reads a session from a base snapshot written by {@link #marshallBase(OutputStream, SessionChangeTracker)} and
+     * the following deltas written by {@link #marshallDelta(OutputStream, SessionChangeTracker)}, in the same order.
+     */
+    public ReadSessionResult unmarshallWithDeltas( final InputStream baseStream,
+                                                   final List<InputStream> deltaStreams,
+                                                   KieSessionConfiguration config,
+                                                   Environment environment) throws IOException, ClassNotFoundException {
+        if ( config == null ) {
+            config = RuleBaseFactory.newKnowledgeSessionConfiguration();
+        }
+
+        if ( environment == null ) {
+            environment = KieServices.get().newEnvironment();
+        }
+
+        ProtobufMarshallerReaderContext context = getMarshallerReaderContext(baseStream, environment);
+        List<ProtobufMarshallerReaderContext> deltaContexts = new ArrayList<>();
+        for ( InputStream deltaStream : deltaStreams ) {
+            deltaContexts.add( getMarshallerReaderContext( deltaStream, environment ) );
+        }
+
+        int id = ((InternalKnowledgeBase) this.kbase).nextWorkingMemoryCounter();
+        ReadSessionResult readSessionResult = ProtobufInputMarshaller.readSession(context,
+                                                                                  deltaContexts,
+                                                                                  id,
+                                                                                  environment,
+                                                                                  config.as(SessionConfiguration.KEY),
+                                                                                  initializer);
+        context.close();
+        for ( ProtobufMarshallerReaderContext deltaContext : deltaContexts ) {
+            deltaContext.close();
+        }
+        if ( (config.as(SessionConfiguration.KEY)).isKeepReference() ) {
+            ((InternalKnowledgeBase) this.kbase).addStatefulSession(readSessionResult.getSession());
+        }
+        return readSessionResult;
+    }
+
+    /**
+     * Reads a session written by {@link #marshallStreamed(OutputStream, KieSession)} without preloading the whole stream.
+     * With a parallelism greater than 1 the facts are deserialized by that number of threads ahead of their
+     * insertion into the session.
+     */
+    public ReadSessionResult unmarshallStreamed( final InputStream stream,
+                                                 final int parallelism,
+                                                 KieSessionConfiguration config,
+                                                 Environment environment) throws IOException, ClassNotFoundException {
+        if ( config == null ) {
+            config = RuleBaseFactory.newKnowledgeSessionConfiguration();
+        }
+
+        if ( environment == null ) {
+            environment = KieServices.get().newEnvironment();
+        }
+
+        ProtobufMarshallerReaderContext context = getMarshallerReaderContext(stream, environment);
+        int id = ((InternalKnowledgeBase) this.kbase).nextWorkingMemoryCounter();
+        ReadSessionResult readSessionResult = ProtobufInputMarshaller.readStreamedSession(context,
+                                                                                          parallelism,
+                                                                                          id,
+                                                                                          environment,
+                                                                                          config.as(SessionConfiguration.KEY),
+                                                                                          initializer);
+        context.close();
+        if ( (config.as(SessionConfiguration.KEY)).isKeepReference() ) {
+            ((InternalKnowledgeBase) this.kbase).addStatefulSession(readSessionResult.getSession());
+        }
+        return readSessionResult;
+    }
+
     private ProtobufMarshallerReaderContext getMarshallerReaderContext( final InputStream inputStream, final Environment environment) throws IOException {
         return new ProtobufMarshallerReaderContext(inputStream,
                                            (InternalKnowledgeBase) kbase,
@@ -84,13 +84,16 @@ import org.kie.api.runtime.rule.EntryPoint;
 
 import java.io.IOException;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -101,6 +104,11 @@ import java.util.Map;
  */
 public class ProtobufOutputMarshaller {
 
+    /**
+     * The max number of fact handles or timers written in a single chunk of a streamed session
+     */
+    public static final int STREAMED_CHUNK_SIZE = 1000;
+
     private static ProcessMarshaller processMarshaller = createProcessMarshaller();
 
     private static ProcessMarshaller createProcessMarshaller() {
@@ -112,12 +120,88 @@ public class ProtobufOutputMarshaller {
     }
 
     public static void writeSession( ProtobufMarshallerWriteContext context) throws IOException {
-        ProtobufMessages.KnowledgeSession _session = serializeSession( context );
+        ProtobufMessages.KnowledgeSession _session = serializeSession( context, null, null );
+        PersisterHelper.writeToStreamWithHeader( context, _session );
+    }
+
+    /**
+     * Writes the session in a streamed format, made of a sequence of length delimited messages: the header, whose payload
+     * is the session without fact handles and timers, followed by the fact handles of each entry point, in the same order
+     * of the entry points in the payload, and finally by the timers. Both fact handles and timers are split in chunks of
+     * at most {@link #STREAMED_CHUNK_SIZE} elements, and each sequence of chunks is terminated by an empty one, so that
+     * they can be consumed incrementally by {@link ProtobufInputMarshaller#readStreamedSession}
+     */
+    public static void writeStreamedSession( ProtobufMarshallerWriteContext context) throws IOException {
+        ProtobufMessages.KnowledgeSession _session = serializeSession( context, null, null );
+
+        ProtobufMessages.RuleData.Builder _ruleData = _session.getRuleData().toBuilder().clearEntryPoint();
+        for ( ProtobufMessages.EntryPoint _ep : _session.getRuleData().getEntryPointList() ) {
+            _ruleData.addEntryPoint( _ep.toBuilder().clearHandle() );
+        }
+        PersisterHelper.writeToStreamWithDelimitedHeader( context, _session.toBuilder()
+                                                                           .setRuleData( _ruleData )
+                                                                           .clearTimers()
+                                                                           .build() );
+
+        OutputStream stream = (OutputStream) context;
+        for ( ProtobufMessages.EntryPoint _ep : _session.getRuleData().getEntryPointList() ) {
+            List<ProtobufMessages.FactHandle> handles = _ep.getHandleList();
+            for ( int i = 0; i < handles.size(); i += STREAMED_CHUNK_SIZE ) {
+                ProtobufMessages.EntryPoint.newBuilder()
+                        .setEntryPointId( _ep.getEntryPointId() )
+                        .addAllHandle( handles.subList( i, Math.min( i + STREAMED_CHUNK_SIZE, handles.size() ) ) )
+                        .build()
+                        .writeDelimitedTo( stream );
+            }
+            ProtobufMessages.EntryPoint.newBuilder()
+                    .setEntryPointId( _ep.getEntryPointId() )
+                    .build()
+                    .writeDelimitedTo( stream );
+        }
+
+        List<ProtobufMessages.Timers.Timer> timers = _session.getTimers().getTimerList();
+        for ( int i = 0; i < timers.size(); i += STREAMED_CHUNK_SIZE ) {
+            ProtobufMessages.Timers.newBuilder()
+                    .addAllTimer( timers.subList( i, Math.min( i + STREAMED_CHUNK_SIZE, timers.size() ) ) )
+                    .build()
+                    .writeDelimitedTo( stream );
+        }
+        ProtobufMessages.Timers.getDefaultInstance().writeDelimitedTo( stream );
+    }
+
+    /**
+     * Writes a complete snapshot of the session, from which the given tracker starts recording
+     * the changes to be written by the following deltas
+     */
+    public static void writeBaseSession( ProtobufMarshallerWriteContext context, SessionChangeTracker tracker) throws IOException {
+        ProtobufMessages.KnowledgeSession _session = serializeSession( context, tracker, null );
         PersisterHelper.writeToStreamWithHeader( context, _session );
     }
 
-    private static ProtobufMessages.KnowledgeSession serializeSession( MarshallerWriteContext context) throws IOException {
+    /**
+     * Writes only what changed since the former snapshot recorded by the given tracker. The payload of a delta is made of
+     * two length delimited KnowledgeSession messages: the first one contains the inserted and updated fact handles,
+     * the changed node memories, the new timers and the parts of the session that are always written completely
+     * (agenda, action queue, truth maintenance system and process data), while the second one only lists the
+     * deleted fact handles, node memories and timers. The deltas are replayed on top of their base snapshot by the
+     * {@link ProtobufInputMarshaller}
+     */
+    public static void writeSessionDelta( ProtobufMarshallerWriteContext context, SessionChangeTracker tracker) throws IOException {
+        ProtobufMessages.KnowledgeSession.Builder _removed = ProtobufMessages.KnowledgeSession.newBuilder();
+        ProtobufMessages.KnowledgeSession _changed = serializeSession( context, tracker, _removed );
+
+        ByteString.Output payload = ByteString.newOutput();
+        _changed.writeDelimitedTo( payload );
+        _removed.build().writeDelimitedTo( payload );
+        PersisterHelper.writeToStreamWithHeader( context, payload.toByteString() );
+    }
+
+    private static ProtobufMessages.KnowledgeSession serializeSession( MarshallerWriteContext context,
+                                                                       SessionChangeTracker tracker,
+                                                                       ProtobufMessages.KnowledgeSession.Builder _removed) throws IOException {
         StatefulKnowledgeSessionImpl wm = (StatefulKnowledgeSessionImpl) context.getWorkingMemory();
+        boolean delta = _removed != null;
+        ProtobufMessages.RuleData.Builder _removedRuleData = ProtobufMessages.RuleData.newBuilder();
 
         try {
             wm.getLock().lock();
@@ -151,7 +235,20 @@ public class ProtobufOutputMarshaller {
 
             writeAgenda( context, _ruleData );
 
-            writeNodeMemories( context, _ruleData );
+            // the changes have to be collected before writing the node memories, since they tell which of them could be dirty
+            Map<String, SessionChangeTracker.EntryPointChanges> changes = new HashMap<>();
+            if ( delta ) {
+                for ( EntryPoint wmep : wm.getEntryPoints() ) {
+                    changes.put( wmep.getEntryPointId(), tracker.takeChanges( wmep.getEntryPointId(), ((NamedEntryPoint) wmep).getObjectStore() ) );
+                }
+            }
+
+            Map<Integer, ProtobufMessages.NodeMemory> nodeMemories = writeNodeMemories( context, tracker, delta );
+            if ( delta ) {
+                writeNodeMemoriesDelta( nodeMemories, tracker.getNodeMemories(), _ruleData, _removedRuleData );
+            } else {
+                _ruleData.addAllNodeMemory( nodeMemories.values() );
+            }
 
             for ( EntryPoint wmep : wm.getEntryPoints() ) {
                 ProtobufMessages.EntryPoint.Builder _epb = ProtobufMessages.EntryPoint.newBuilder();
@@ -159,9 +256,21 @@ public class ProtobufOutputMarshaller {
 
                 writeObjectTypeConfiguration( ((WorkingMemoryEntryPoint)wmep).getObjectTypeConfigurationRegistry(), _epb );
 
-                writeFactHandles( context,
-                                  _epb,
-                                  ((NamedEntryPoint) wmep).getObjectStore() );
+                ObjectStore objectStore = ((NamedEntryPoint) wmep).getObjectStore();
+                if ( delta ) {
+                    SessionChangeTracker.EntryPointChanges epChanges = changes.get( wmep.getEntryPointId() );
+                    writeFactHandles( context, _epb, epChanges.dirtyHandles );
+                    if ( !epChanges.deletedHandles.isEmpty() ) {
+                        ProtobufMessages.EntryPoint.Builder _removedEpb = ProtobufMessages.EntryPoint.newBuilder();
+                        _removedEpb.setEntryPointId( wmep.getEntryPointId() );
+                        for ( Long id : epChanges.deletedHandles ) {
+                            _removedEpb.addHandle( ProtobufMessages.FactHandle.newBuilder().setId( id ).build() );
+                        }
+                        _removedRuleData.addEntryPoint( _removedEpb.build() );
+                    }
+                } else {
+                    writeFactHandles( context, _epb, orderFacts( objectStore ) );
+                }
 
                 writeTruthMaintenanceSystem( context,
                                              wmep,
@@ -199,10 +308,17 @@ public class ProtobufOutputMarshaller {
 
             ProtobufMessages.Timers _timers = writeTimers( context.getWorkingMemory().getTimerJobInstances( context.getWorkingMemory().getIdentifier() ),
                                           context );
-            if ( _timers != null ) {
+            if ( delta ) {
+                writeTimersDelta( _timers, tracker.getTimers(), _session, _removed );
+                _removed.setRuleData( _removedRuleData.build() );
+            } else if ( _timers != null ) {
                 _session.setTimers( _timers );
             }
 
+            if ( tracker != null ) {
+                tracker.snapshotWritten( wm, !delta, nodeMemories, _timers != null ? _timers.getTimerList() : Collections.emptyList() );
+            }
+
             return _session.build();
         } finally {
             for (EntryPoint ep : wm.getEntryPoints()) {
@@ -319,9 +435,15 @@ public class ProtobufOutputMarshaller {
         _ksb.setAgenda( _ab.build() );
     }
 
-    private static void writeNodeMemories( MarshallerWriteContext context,
-                                           ProtobufMessages.RuleData.Builder _ksb) throws IOException {
+    /**
+     * Serializes the node memories requiring it. When writing a delta, the memories that cannot have been changed by
+     * the facts modified since the former snapshot are not serialized again, but copied from the former snapshot.
+     */
+    private static Map<Integer, ProtobufMessages.NodeMemory> writeNodeMemories( MarshallerWriteContext context,
+                                                                                SessionChangeTracker tracker,
+                                                                                boolean delta ) throws IOException {
         InternalWorkingMemory wm = context.getWorkingMemory();
+        Map<Integer, ProtobufMessages.NodeMemory> nodeMemories = new LinkedHashMap<>();
         NodeMemories memories = wm.getNodeMemories();
         // only some of the node memories require special serialization handling
         // so we iterate over all of them and process only those that require it
@@ -331,15 +453,77 @@ public class ProtobufOutputMarshaller {
                 ProtobufMessages.NodeMemory _node = null;
                 switch ( memory.getNodeType() ) {
                     case NodeTypeEnums.QueryElementNode: {
-                        _node = writeQueryElementNodeMemory( baseNode.getId(), memory, wm );
+                        // the tracker has to see the node memories written by a base snapshot too, to check them in the next delta
+                        boolean dirty = tracker == null || tracker.isNodeMemoryDirty( baseNode, wm );
+                        _node = delta && !dirty ?
+                                tracker.getNodeMemories().get( baseNode.getId() ) :
+                                writeQueryElementNodeMemory( baseNode.getId(), memory, wm );
                         break;
                     }
                 }
                 if ( _node != null ) {
                     // not all node memories require serialization
-                    _ksb.addNodeMemory( _node );
+                    nodeMemories.put( _node.getNodeId(), _node );
+                }
+            }
+        }
+        return nodeMemories;
+    }
+
+    private static void writeNodeMemoriesDelta( Map<Integer, ProtobufMessages.NodeMemory> nodeMemories,
+                                                Map<Integer, ProtobufMessages.NodeMemory> formerNodeMemories,
+                                                ProtobufMessages.RuleData.Builder _changed,
+                                                ProtobufMessages.RuleData.Builder _removed) {
+        for ( ProtobufMessages.NodeMemory _node : nodeMemories.values() ) {
+            if ( !_node.equals( formerNodeMemories.get( _node.getNodeId() ) ) ) {
+                _changed.addNodeMemory( _node );
+            }
+        }
+        for ( ProtobufMessages.NodeMemory _node : formerNodeMemories.values() ) {
+            if ( !nodeMemories.containsKey( _node.getNodeId() ) ) {
+                _removed.addNodeMemory( ProtobufMessages.NodeMemory.newBuilder()
+                                                .setNodeId( _node.getNodeId() )
+                                                .setNodeType( _node.getNodeType() )
+                                                .build() );
+            }
+        }
+    }
+
+    private static void writeTimersDelta( ProtobufMessages.Timers _timers,
+                                          List<Timer> formerTimers,
+                                          ProtobufMessages.KnowledgeSession.Builder _changed,
+                                          ProtobufMessages.KnowledgeSession.Builder _removed) {
+        // timers have no identity of their own, so they are compared by value counting the duplicates
+        Map<Timer, Integer> former = new HashMap<>();
+        for ( Timer _timer : formerTimers ) {
+            former.merge( _timer, 1, Integer::sum );
+        }
+
+        ProtobufMessages.Timers.Builder _added = ProtobufMessages.Timers.newBuilder();
+        if ( _timers != null ) {
+            for ( Timer _timer : _timers.getTimerList() ) {
+                Integer count = former.get( _timer );
+                if ( count == null ) {
+                    _added.addTimer( _timer );
+                } else if ( count == 1 ) {
+                    former.remove( _timer );
+                } else {
+                    former.put( _timer, count - 1 );
+                }
+            }
+        }
+        if ( _added.getTimerCount() > 0 ) {
+            _changed.setTimers( _added.build() );
+        }
+
+        if ( !former.isEmpty() ) {
+            ProtobufMessages.Timers.Builder _deleted = ProtobufMessages.Timers.newBuilder();
+            for ( Map.Entry<Timer, Integer> entry : former.entrySet() ) {
+                for ( int i = 0; i < entry.getValue(); i++ ) {
+                    _deleted.addTimer( entry.getKey() );
                 }
             }
+            _removed.setTimers( _deleted.build() );
         }
     }
 
@@ -538,11 +722,11 @@ public class ProtobufOutputMarshaller {
 
     private static void writeFactHandles( MarshallerWriteContext context,
                                           ProtobufMessages.EntryPoint.Builder _epb,
-                                          ObjectStore objectStore) throws IOException {
+                                          InternalFactHandle[] handles) throws IOException {
         ObjectMarshallingStrategyStore objectMarshallingStrategyStore = context.getObjectMarshallingStrategyStore();
 
         // Write out FactHandles
-        for ( InternalFactHandle handle : orderFacts( objectStore ) ) {
+        for ( InternalFactHandle handle : handles ) {
             ProtobufMessages.FactHandle _handle = writeFactHandle( context, objectMarshallingStrategyStore, handle );
             _epb.addHandle( _handle );
         }
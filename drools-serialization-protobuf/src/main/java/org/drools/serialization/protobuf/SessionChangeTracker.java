@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.serialization.protobuf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.drools.base.base.ObjectType;
+import org.drools.core.common.BaseNode;
+import org.drools.core.common.DefaultEventHandle;
+import org.drools.core.common.InternalFactHandle;
+import org.drools.core.common.InternalWorkingMemory;
+import org.drools.core.common.ObjectStore;
+import org.drools.core.reteoo.BetaNode;
+import org.drools.core.reteoo.ObjectTypeNode;
+import org.drools.core.reteoo.QueryElementNode;
+import org.drools.core.reteoo.QueryTerminalNode;
+import org.drools.core.reteoo.ReteooBuilder;
+import org.drools.core.reteoo.TupleToObjectNode;
+import org.drools.kiesession.entrypoints.NamedEntryPoint;
+import org.kie.api.event.rule.ObjectDeletedEvent;
+import org.kie.api.event.rule.ObjectInsertedEvent;
+import org.kie.api.event.rule.ObjectUpdatedEvent;
+import org.kie.api.event.rule.RuleRuntimeEventListener;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.EntryPoint;
+
+/**
+ * Keeps track of what changed in a session since its last snapshot, so that the next one can be written
+ * as a delta containing only the inserted, updated and deleted fact handles, the node memories and the
+ * timers that differ from the former snapshot.
+ *
+ * Fact handles are tracked through the rule runtime events, so objects modified without notifying the
+ * session are not detected. Events expiring with their entry point are not notified either, so the ones
+ * with a pending expiration are checked against the object store when the delta is written.
+ * The node memories are serialized again only if the type of a changed fact matches one of the object type nodes
+ * feeding them, directly or through the queries they invoke, otherwise the ones of the former snapshot are reused.
+ * Agenda, action queue, truth maintenance and process data are always written completely.
+ */
+public class SessionChangeTracker implements RuleRuntimeEventListener {
+
+    private final KieSession session;
+
+    private final Map<String, Map<Long, InternalFactHandle>> dirtyHandles = new HashMap<>();
+    private final Map<String, Set<Long>> deletedHandles = new HashMap<>();
+    private final Map<String, Map<Long, DefaultEventHandle>> expiringEvents = new HashMap<>();
+
+    // the types of the facts inserted, updated or deleted since the last snapshot
+    private final Set<Class<?>> changedTypes = new HashSet<>();
+    private boolean allNodeMemoriesDirty = false;
+
+    // node ids can be reused when rules are removed, so the nodes are compared by identity
+    private final Map<BaseNode, Set<ObjectType>> nodeInputTypes = new IdentityHashMap<>();
+
+    private Map<Integer, ProtobufMessages.NodeMemory> nodeMemories = Collections.emptyMap();
+    private List<ProtobufMessages.Timers.Timer> timers = Collections.emptyList();
+
+    private boolean baseRequired = true;
+
+    public SessionChangeTracker(KieSession session) {
+        this.session = session;
+        session.addEventListener(this);
+    }
+
+    public KieSession getSession() {
+        return session;
+    }
+
+    /**
+     * Returns true until a base snapshot has been written, or after a snapshot failed and the
+     * tracked changes can no longer be trusted.
+     */
+    public synchronized boolean isBaseRequired() {
+        return baseRequired;
+    }
+
+    /**
+     * Forces the next snapshot to be a base one.
+     */
+    public synchronized void invalidate() {
+        baseRequired = true;
+    }
+
+    public void dispose() {
+        session.removeEventListener(this);
+    }
+
+    @Override
+    public synchronized void objectInserted(ObjectInsertedEvent event) {
+        markDirty((InternalFactHandle) event.getFactHandle());
+        markTypeChanged(event.getObject());
+    }
+
+    @Override
+    public synchronized void objectUpdated(ObjectUpdatedEvent event) {
+        markDirty((InternalFactHandle) event.getFactHandle());
+        markTypeChanged(event.getOldObject());
+        markTypeChanged(event.getObject());
+    }
+
+    @Override
+    public synchronized void objectDeleted(ObjectDeletedEvent event) {
+        markTypeChanged(event.getOldObject());
+        InternalFactHandle handle = (InternalFactHandle) event.getFactHandle();
+        String entryPointName = handle.getEntryPointName();
+        Map<Long, InternalFactHandle> dirty = dirtyHandles.get(entryPointName);
+        if (dirty != null) {
+            dirty.remove(handle.getId());
+        }
+        Map<Long, DefaultEventHandle> events = expiringEvents.get(entryPointName);
+        if (events != null) {
+            events.remove(handle.getId());
+        }
+        deletedHandles.computeIfAbsent(entryPointName, k -> new HashSet<>()).add(handle.getId());
+    }
+
+    private void markDirty(InternalFactHandle handle) {
+        dirtyHandles.computeIfAbsent(handle.getEntryPointName(), k -> new HashMap<>()).put(handle.getId(), handle);
+    }
+
+    private void markTypeChanged(Object object) {
+        if (object != null) {
+            changedTypes.add(object.getClass());
+        } else {
+            allNodeMemoriesDirty = true;
+        }
+    }
+
+    /**
+     * Returns true if the memory of the given node could have been changed since the last snapshot. A node not met by
+     * the former snapshots is always dirty.
+     */
+    synchronized boolean isNodeMemoryDirty(BaseNode node, InternalWorkingMemory wm) {
+        Set<ObjectType> inputTypes = nodeInputTypes.get(node);
+        if (inputTypes == null) {
+            inputTypes = new HashSet<>();
+            collectInputTypes(node, wm.getKnowledgeBase().getReteooBuilder(), inputTypes, Collections.newSetFromMap(new IdentityHashMap<>()));
+            nodeInputTypes.put(node, inputTypes);
+            return true;
+        }
+        if (allNodeMemoriesDirty) {
+            return true;
+        }
+        for (Class<?> changedType : changedTypes) {
+            for (ObjectType inputType : inputTypes) {
+                if (inputType.isAssignableFrom(changedType)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void collectInputTypes(BaseNode node, ReteooBuilder reteooBuilder, Set<ObjectType> types, Set<BaseNode> visited) {
+        if (node == null || !visited.add(node)) {
+            return;
+        }
+        if (node instanceof ObjectTypeNode otn) {
+            types.add(otn.getObjectType());
+            return;
+        }
+        if (node instanceof BetaNode betaNode) {
+            collectInputTypes(betaNode.getRightInput(), reteooBuilder, types, visited);
+        }
+        if (node instanceof QueryElementNode queryNode) {
+            QueryTerminalNode[] queryTerminals = reteooBuilder.getTerminalNodesForQuery(queryNode.getQueryElement().getQueryName());
+            if (queryTerminals != null) {
+                for (QueryTerminalNode queryTerminal : queryTerminals) {
+                    collectInputTypes(queryTerminal, reteooBuilder, types, visited);
+                }
+            }
+        }
+        if (node instanceof TupleToObjectNode tupleToObject) {
+            collectInputTypes(tupleToObject.getLeftTupleSource(), reteooBuilder, types, visited);
+        }
+        collectInputTypes(node.getParent(), reteooBuilder, types, visited);
+    }
+
+    synchronized Map<Integer, ProtobufMessages.NodeMemory> getNodeMemories() {
+        return nodeMemories;
+    }
+
+    synchronized List<ProtobufMessages.Timers.Timer> getTimers() {
+        return timers;
+    }
+
+    /**
+     * Collects the changes of the given entry point since the last snapshot and forgets them,
+     * assuming they are going to be written in the delta being created.
+     */
+    synchronized EntryPointChanges takeChanges(String entryPointName, ObjectStore objectStore) {
+        Map<Long, InternalFactHandle> dirty = dirtyHandles.remove(entryPointName);
+        if (dirty == null) {
+            dirty = new HashMap<>();
+        }
+        Set<Long> deleted = deletedHandles.remove(entryPointName);
+        if (deleted == null) {
+            deleted = new HashSet<>();
+        }
+
+        Map<Long, DefaultEventHandle> events = expiringEvents.computeIfAbsent(entryPointName, k -> new HashMap<>());
+        for (Iterator<DefaultEventHandle> it = events.values().iterator(); it.hasNext(); ) {
+            DefaultEventHandle event = it.next();
+            if (!isInStore(event, objectStore)) {
+                deleted.add(event.getId());
+                markTypeChanged(event.getObject());
+                it.remove();
+            } else if (event.isExpired()) {
+                dirty.put(event.getId(), event);
+                markTypeChanged(event.getObject());
+            }
+        }
+
+        List<InternalFactHandle> changed = new ArrayList<>(dirty.size());
+        for (InternalFactHandle handle : dirty.values()) {
+            if (!isInStore(handle, objectStore)) {
+                // expired and removed before the snapshot was taken
+                deleted.add(handle.getId());
+                markTypeChanged(handle.getObject());
+                events.remove(handle.getId());
+                continue;
+            }
+            changed.add(handle);
+            trackExpiration(events, handle);
+        }
+        return new EntryPointChanges(ProtobufOutputMarshaller.orderFacts(changed), deleted);
+    }
+
+    /**
+     * Records the state written by a snapshot: for a base one the tracked changes are discarded
+     * and the events waiting for expiration are collected again from the entry points.
+     */
+    synchronized void snapshotWritten(InternalWorkingMemory wm,
+                                      boolean base,
+                                      Map<Integer, ProtobufMessages.NodeMemory> nodeMemories,
+                                      List<ProtobufMessages.Timers.Timer> timers) {
+        if (base) {
+            dirtyHandles.clear();
+            deletedHandles.clear();
+            expiringEvents.clear();
+            for (EntryPoint ep : wm.getEntryPoints()) {
+                Map<Long, DefaultEventHandle> events = expiringEvents.computeIfAbsent(ep.getEntryPointId(), k -> new HashMap<>());
+                for (Iterator<InternalFactHandle> it = ((NamedEntryPoint) ep).getObjectStore().iterateFactHandles(); it.hasNext(); ) {
+                    trackExpiration(events, it.next());
+                }
+            }
+            baseRequired = false;
+        }
+        changedTypes.clear();
+        allNodeMemoriesDirty = false;
+        this.nodeMemories = nodeMemories;
+        this.timers = timers;
+    }
+
+    private static void trackExpiration(Map<Long, DefaultEventHandle> events, InternalFactHandle handle) {
+        if (handle instanceof DefaultEventHandle && ((DefaultEventHandle) handle).getOtnCount() > 0) {
+            events.put(handle.getId(), (DefaultEventHandle) handle);
+        }
+    }
+
+    private static boolean isInStore(InternalFactHandle handle, ObjectStore objectStore) {
+        return handle.getObject() != null && objectStore.getHandleForObject(handle.getObject()) == handle;
+    }
+
+    static class EntryPointChanges {
+        final InternalFactHandle[] dirtyHandles;
+        final Set<Long> deletedHandles;
+
+        private EntryPointChanges(InternalFactHandle[] dirtyHandles, Set<Long> deletedHandles) {
+            this.dirtyHandles = dirtyHandles;
+            this.deletedHandles = deletedHandles;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.serialization.protobuf;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.drools.serialization.protobuf.ProtobufMessages.Timers.Timer;
+import org.kie.api.marshalling.ObjectMarshallingStrategy;
+
+/**
+ * Replays a chain of deltas written by {@link ProtobufOutputMarshaller#writeSessionDelta(ProtobufMarshallerWriteContext, SessionChangeTracker)}
+ * on top of their base snapshot, producing a single KnowledgeSession message that can be read as a complete one.
+ *
+ * Each snapshot of the chain has its own strategies index, and the contexts of those strategies may be needed to
+ * unmarshal the fact handles coming from it. The indexes of the last snapshot are kept as they are, since all the
+ * parts of the session that are completely rewritten by each delta refer to them, while the ones of the fact handles
+ * retained from the former snapshots are shifted after them and bound to the context of the snapshot they come from.
+ */
+class SessionDeltaMerger {
+
+    private final Map<Integer, ObjectMarshallingStrategy> strategies;
+    private final Map<ObjectMarshallingStrategy, ObjectMarshallingStrategy.Context> strategyContexts;
+
+    private ProtobufMessages.KnowledgeSession _session;
+
+    SessionDeltaMerger(ProtobufMarshallerReaderContext context, ProtobufMessages.KnowledgeSession _base) {
+        this.strategies = new HashMap<>(context.getUsedStrategies());
+        this.strategyContexts = new HashMap<>(context.getStrategyContexts());
+        this._session = _base;
+    }
+
+    void applyDelta(ProtobufMarshallerReaderContext deltaContext,
+                    ProtobufMessages.KnowledgeSession _changed,
+                    ProtobufMessages.KnowledgeSession _removed) {
+        int shift = shiftStrategies(deltaContext);
+        _session = merge(_session, _changed, _removed, shift);
+    }
+
+    ProtobufMessages.KnowledgeSession getSession(ProtobufMarshallerReaderContext context) {
+        context.getUsedStrategies().clear();
+        context.getUsedStrategies().putAll(strategies);
+        context.getStrategyContexts().clear();
+        context.getStrategyContexts().putAll(strategyContexts);
+        return _session;
+    }
+
+    private int shiftStrategies(ProtobufMarshallerReaderContext deltaContext) {
+        int shift = 0;
+        for (Integer id : deltaContext.getUsedStrategies().keySet()) {
+            shift = Math.max(shift, id + 1);
+        }
+        if (shift == 0) {
+            return 0;
+        }
+
+        Map<Integer, ObjectMarshallingStrategy> shifted = new HashMap<>();
+        for (Map.Entry<Integer, ObjectMarshallingStrategy> entry : strategies.entrySet()) {
+            ObjectMarshallingStrategy strategy = entry.getValue();
+            if (!(strategy instanceof FormerSnapshotStrategy)) {
+                // the same strategy is going to be used by the delta with a different context
+                FormerSnapshotStrategy former = new FormerSnapshotStrategy(strategy);
+                strategyContexts.put(former, strategyContexts.remove(strategy));
+                strategy = former;
+            }
+            shifted.put(entry.getKey() + shift, strategy);
+        }
+        strategies.clear();
+        strategies.putAll(shifted);
+
+        for (Map.Entry<Integer, ObjectMarshallingStrategy> entry : deltaContext.getUsedStrategies().entrySet()) {
+            strategies.put(entry.getKey(), entry.getValue());
+            strategyContexts.put(entry.getValue(), deltaContext.getStrategyContexts().get(entry.getValue()));
+        }
+        return shift;
+    }
+
+    static ProtobufMessages.KnowledgeSession merge(ProtobufMessages.KnowledgeSession _base,
+                                                   ProtobufMessages.KnowledgeSession _changed,
+                                                   ProtobufMessages.KnowledgeSession _removed,
+                                                   int strategyShift) {
+        // time, process data and everything else not listed below is always completely written by a delta
+        ProtobufMessages.KnowledgeSession.Builder _session = _changed.toBuilder();
+
+        List<Timer> timers = mergeTimers(_base, _changed, _removed);
+        if (timers.isEmpty()) {
+            _session.clearTimers();
+        } else {
+            _session.setTimers(ProtobufMessages.Timers.newBuilder().addAllTimer(timers).build());
+        }
+
+        ProtobufMessages.RuleData _baseRuleData = _base.getRuleData();
+        ProtobufMessages.RuleData _changedRuleData = _changed.getRuleData();
+        ProtobufMessages.RuleData.Builder _ruleData = _changedRuleData.toBuilder();
+        if (!_changedRuleData.hasInitialFact() && _baseRuleData.hasInitialFact()) {
+            _ruleData.setInitialFact(_baseRuleData.getInitialFact());
+        }
+
+        Map<Integer, ProtobufMessages.NodeMemory> nodeMemories = new LinkedHashMap<>();
+        for (ProtobufMessages.NodeMemory _node : _baseRuleData.getNodeMemoryList()) {
+            nodeMemories.put(_node.getNodeId(), _node);
+        }
+        for (ProtobufMessages.NodeMemory _node : _removed.getRuleData().getNodeMemoryList()) {
+            nodeMemories.remove(_node.getNodeId());
+        }
+        for (ProtobufMessages.NodeMemory _node : _changedRuleData.getNodeMemoryList()) {
+            nodeMemories.put(_node.getNodeId(), _node);
+        }
+        _ruleData.clearNodeMemory().addAllNodeMemory(nodeMemories.values());
+
+        Map<String, Set<Long>> removedHandles = new HashMap<>();
+        for (ProtobufMessages.EntryPoint _ep : _removed.getRuleData().getEntryPointList()) {
+            Set<Long> ids = removedHandles.computeIfAbsent(_ep.getEntryPointId(), k -> new HashSet<>());
+            for (ProtobufMessages.FactHandle _handle : _ep.getHandleList()) {
+                ids.add(_handle.getId());
+            }
+        }
+
+        Map<String, ProtobufMessages.EntryPoint> baseEntryPoints = new LinkedHashMap<>();
+        for (ProtobufMessages.EntryPoint _ep : _baseRuleData.getEntryPointList()) {
+            baseEntryPoints.put(_ep.getEntryPointId(), _ep);
+        }
+        _ruleData.clearEntryPoint();
+        for (ProtobufMessages.EntryPoint _ep : _changedRuleData.getEntryPointList()) {
+            _ruleData.addEntryPoint(mergeEntryPoint(baseEntryPoints.remove(_ep.getEntryPointId()),
+                                                    _ep,
+                                                    removedHandles.getOrDefault(_ep.getEntryPointId(), Collections.emptySet()),
+                                                    strategyShift));
+        }
+        for (ProtobufMessages.EntryPoint _ep : baseEntryPoints.values()) {
+            _ruleData.addEntryPoint(mergeEntryPoint(_ep,
+                                                    ProtobufMessages.EntryPoint.newBuilder().setEntryPointId(_ep.getEntryPointId()).addAllOtc(_ep.getOtcList()).build(),
+                                                    removedHandles.getOrDefault(_ep.getEntryPointId(), Collections.emptySet()),
+                                                    strategyShift));
+        }
+
+        return _session.setRuleData(_ruleData.build()).build();
+    }
+
+    private static ProtobufMessages.EntryPoint mergeEntryPoint(ProtobufMessages.EntryPoint _baseEp,
+                                                               ProtobufMessages.EntryPoint _changedEp,
+                                                               Set<Long> removedHandles,
+                                                               int strategyShift) {
+        ProtobufMessages.EntryPoint.Builder _ep = _changedEp.toBuilder().clearHandle();
+
+        // both lists are sorted by fact handle id, so they can be merged in a single pass keeping the same order
+        List<ProtobufMessages.FactHandle> baseHandles = _baseEp != null ? _baseEp.getHandleList() : Collections.emptyList();
+        List<ProtobufMessages.FactHandle> changedHandles = _changedEp.getHandleList();
+        int i = 0;
+        int j = 0;
+        while (i < baseHandles.size() || j < changedHandles.size()) {
+            if (j == changedHandles.size() || (i < baseHandles.size() && baseHandles.get(i).getId() < changedHandles.get(j).getId())) {
+                ProtobufMessages.FactHandle _handle = baseHandles.get(i++);
+                if (!removedHandles.contains(_handle.getId())) {
+                    _ep.addHandle(shiftStrategy(_handle, strategyShift));
+                }
+            } else {
+                ProtobufMessages.FactHandle _handle = changedHandles.get(j++);
+                if (i < baseHandles.size() && baseHandles.get(i).getId() == _handle.getId()) {
+                    i++;
+                }
+                _ep.addHandle(_handle);
+            }
+        }
+        return _ep.build();
+    }
+
+    private static ProtobufMessages.FactHandle shiftStrategy(ProtobufMessages.FactHandle _handle, int strategyShift) {
+        if (strategyShift == 0 || !_handle.hasStrategyIndex()) {
+            return _handle;
+        }
+        return _handle.toBuilder().setStrategyIndex(_handle.getStrategyIndex() + strategyShift).build();
+    }
+
+    private static List<Timer> mergeTimers(ProtobufMessages.KnowledgeSession _base,
+                                           ProtobufMessages.KnowledgeSession _changed,
+                                           ProtobufMessages.KnowledgeSession _removed) {
+        Map<Timer, Integer> removed = new HashMap<>();
+        for (Timer _timer : _removed.getTimers().getTimerList()) {
+            removed.merge(_timer, 1, Integer::sum);
+        }
+
+        List<Timer> timers = new ArrayList<>();
+        for (Timer _timer : _base.getTimers().getTimerList()) {
+            Integer count = removed.get(_timer);
+            if (count == null) {
+                timers.add(_timer);
+            } else if (count == 1) {
+                removed.remove(_timer);
+            } else {
+                removed.put(_timer, count - 1);
+            }
+        }
+        timers.addAll(_changed.getTimers().getTimerList());
+        return timers;
+    }
+
+    /**
+     * Binds a strategy to the context loaded from a former snapshot of the chain
+     */
+    private static class FormerSnapshotStrategy implements ObjectMarshallingStrategy {
+
+        private final ObjectMarshallingStrategy delegate;
+
+        private FormerSnapshotStrategy(ObjectMarshallingStrategy delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public boolean accept(Object object) {
+            return delegate.accept(object);
+        }
+
+        @Override
+        public void write(ObjectOutputStream os, Object object) throws IOException {
+            delegate.write(os, object);
+        }
+
+        @Override
+        public Object read(ObjectInputStream os) throws IOException, ClassNotFoundException {
+            return delegate.read(os);
+        }
+
+        @Override
+        public byte[] marshal(Context context, ObjectOutputStream os, Object object) throws IOException {
+            return delegate.marshal(context, os, object);
+        }
+
+        @Override
+        public Object unmarshal(Context context, ObjectInputStream is, byte[] object, ClassLoader classloader) throws IOException, ClassNotFoundException {
+            return delegate.unmarshal(context, is, object, classloader);
+        }
+
+        @Override
+        public Context createContext() {
+            return delegate.createContext();
+        }
+    }
+}
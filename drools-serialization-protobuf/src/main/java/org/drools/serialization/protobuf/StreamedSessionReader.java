@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.serialization.protobuf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.google.protobuf.ExtensionRegistry;
+import org.drools.core.common.InternalWorkingMemory;
+import org.drools.core.common.ObjectStore;
+import org.drools.core.common.PropagationContext;
+import org.drools.serialization.protobuf.marshalling.JavaSerializableResolverStrategy;
+import org.kie.api.marshalling.ObjectMarshallingStrategy;
+import org.kie.api.runtime.rule.EntryPoint;
+import org.kie.internal.concurrent.ExecutorProviderFactory;
+
+/**
+ * Reads the chunks of fact handles and timers following the header of a session written by
+ * {@link ProtobufOutputMarshaller#writeStreamedSession(ProtobufMarshallerWriteContext)}, keeping in memory only
+ * a bounded number of chunks at a time.
+ *
+ * When created with a parallelism greater than 1, the facts serialized with the {@link JavaSerializableResolverStrategy},
+ * which don't depend on any shared strategy context, are deserialized by a pool of threads while the chunks before them
+ * are still being inserted into the session. All the other strategies, together with the insertion and propagation
+ * of the fact handles, are always invoked by the reading thread and in the original order.
+ */
+class StreamedSessionReader implements AutoCloseable {
+
+    private static final Object NOT_UNMARSHALLED = new Object();
+
+    private final ProtobufMarshallerReaderContext context;
+    private final InputStream stream;
+    private final ExtensionRegistry registry;
+
+    private final ExecutorService executor;
+    private final int maxPendingChunks;
+
+    StreamedSessionReader( ProtobufMarshallerReaderContext context, ExtensionRegistry registry, int parallelism ) {
+        this.context = context;
+        this.stream = context;
+        this.registry = registry;
+        if ( parallelism > 1 ) {
+            this.executor = ExecutorProviderFactory.getExecutorProvider().newFixedThreadPool( parallelism );
+            // keeps all the threads busy while the reading thread is inserting the handles of the oldest chunk
+            this.maxPendingChunks = parallelism * 2;
+        } else {
+            this.executor = null;
+            this.maxPendingChunks = 1;
+        }
+    }
+
+    void readFactHandles( ProtobufMessages.EntryPoint _ep,
+                          ObjectStore objectStore,
+                          List<PropagationContext> pctxs ) throws IOException, ClassNotFoundException {
+        InternalWorkingMemory wm = context.getWorkingMemory();
+        EntryPoint entryPoint = wm.getEntryPoint( _ep.getEntryPointId() );
+
+        Deque<PendingChunk> pendingChunks = new ArrayDeque<>();
+        boolean lastChunkRead = false;
+        while ( !lastChunkRead || !pendingChunks.isEmpty() ) {
+            while ( !lastChunkRead && pendingChunks.size() < maxPendingChunks ) {
+                ProtobufMessages.EntryPoint _chunk = ProtobufMessages.EntryPoint.parseDelimitedFrom( stream, registry );
+                if ( _chunk == null ) {
+                    throw new IOException( "Unexpected end of stream while reading the fact handles of entry point " + _ep.getEntryPointId() );
+                }
+                if ( !_chunk.getEntryPointId().equals( _ep.getEntryPointId() ) ) {
+                    throw new IllegalStateException( "Expected the fact handles of entry point " + _ep.getEntryPointId() +
+                                                     " but found the ones of entry point " + _chunk.getEntryPointId() );
+                }
+                if ( _chunk.getHandleCount() == 0 ) {
+                    lastChunkRead = true;
+                } else {
+                    pendingChunks.add( new PendingChunk( _chunk.getHandleList(), executor != null ? executor.submit( () -> unmarshallObjects( _chunk.getHandleList() ) ) : null ) );
+                }
+            }
+
+            PendingChunk chunk = pendingChunks.poll();
+            if ( chunk != null ) {
+                Object[] objects = chunk.getObjects();
+                for ( int i = 0; i < objects.length; i++ ) {
+                    ProtobufMessages.FactHandle _handle = chunk.handles.get( i );
+                    Object object = objects[i] == NOT_UNMARSHALLED ? ProtobufInputMarshaller.unmarshallObject( context, _handle ) : objects[i];
+                    ProtobufInputMarshaller.loadFactHandle( context, wm, entryPoint, objectStore, _handle, object, pctxs );
+                }
+            }
+        }
+    }
+
+    void readTimers() throws IOException {
+        while ( true ) {
+            ProtobufMessages.Timers _chunk = ProtobufMessages.Timers.parseDelimitedFrom( stream, registry );
+            if ( _chunk == null ) {
+                throw new IOException( "Unexpected end of stream while reading the timers" );
+            }
+            if ( _chunk.getTimerCount() == 0 ) {
+                return;
+            }
+            for ( ProtobufMessages.Timers.Timer _timer : _chunk.getTimerList() ) {
+                ProtobufInputMarshaller.readTimer( context, _timer );
+            }
+        }
+    }
+
+    private Object[] unmarshallObjects( List<ProtobufMessages.FactHandle> handles ) throws IOException, ClassNotFoundException {
+        Object[] objects = new Object[handles.size()];
+        for ( int i = 0; i < objects.length; i++ ) {
+            ProtobufMessages.FactHandle _handle = handles.get( i );
+            objects[i] = isThreadSafe( _handle ) ? ProtobufInputMarshaller.unmarshallObject( context, _handle ) : NOT_UNMARSHALLED;
+        }
+        return objects;
+    }
+
+    private boolean isThreadSafe( ProtobufMessages.FactHandle _handle ) {
+        if ( !_handle.hasStrategyIndex() ) {
+            return true;
+        }
+        ObjectMarshallingStrategy strategy = context.getUsedStrategies().get( _handle.getStrategyIndex() );
+        return strategy instanceof JavaSerializableResolverStrategy;
+    }
+
+    @Override
+    public void close() {
+        if ( executor != null ) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class PendingChunk {
+        private final List<ProtobufMessages.FactHandle> handles;
+        private final Future<Object[]> objects;
+
+        private PendingChunk( List<ProtobufMessages.FactHandle> handles, Future<Object[]> objects ) {
+            this.handles = handles;
+            this.objects = objects;
+        }
+
+        private Object[] getObjects() throws IOException, ClassNotFoundException {
+            if ( objects == null ) {
+                Object[] notUnmarshalled = new Object[handles.size()];
+                Arrays.fill( notUnmarshalled, NOT_UNMARSHALLED );
+                return notUnmarshalled;
+            }
+            try {
+                return objects.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException( "Interrupted while deserializing the facts of the session", e );
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if ( cause instanceof IOException ) {
+                    throw (IOException) cause;
+                }
+                if ( cause instanceof ClassNotFoundException ) {
+                    throw (ClassNotFoundException) cause;
+                }
+                if ( cause instanceof RuntimeException ) {
+                    throw (RuntimeException) cause;
+                }
+                throw new RuntimeException( cause );
+            }
+        }
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.serialization.protobuf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.core.common.BaseNode;
+import org.drools.core.common.InternalWorkingMemory;
+import org.drools.core.impl.InternalRuleBase;
+import org.drools.core.impl.RuleBaseFactory;
+import org.drools.core.reteoo.QueryElementNode;
+import org.drools.mvel.CommonTestMethodBase;
+import org.drools.mvel.compiler.Cheese;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieBaseConfiguration;
+import org.kie.api.conf.EventProcessingOption;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionConfiguration;
+import org.kie.api.runtime.conf.ClockTypeOption;
+import org.kie.api.runtime.rule.FactHandle;
+import org.kie.api.time.SessionPseudoClock;
+import org.kie.internal.marshalling.MarshallerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IncrementalSnapshotTest extends CommonTestMethodBase {
+
+    private final DeserializationFilterTestSupport filterSupport = new DeserializationFilterTestSupport();
+
+    @BeforeEach
+    public void setUpDeserializationFilter() {
+        filterSupport.setUp("org.drools.mvel.compiler.Cheese",
+                            "org.drools.serialization.protobuf.IncrementalSnapshotTest$Reading");
+    }
+
+    @AfterEach
+    public void clearDeserializationFilter() {
+        filterSupport.tearDown();
+    }
+
+    @Test
+    public void testDeltaChainRestoresFactsAndActivations() throws Exception {
+        String drl =
+                "import " + Cheese.class.getCanonicalName() + ";\n" +
+                "global java.util.List list;\n" +
+                "rule Expensive when\n" +
+                "    $c : Cheese( price > 10 )\n" +
+                "then\n" +
+                "    list.add( $c.getType() );\n" +
+                "end\n";
+
+        KieBase kbase = loadKnowledgeBaseFromString(drl);
+        KieSession ksession = kbase.newKieSession();
+        List<String> list = new ArrayList<>();
+        ksession.setGlobal("list", list);
+
+        ProtobufMarshaller marshaller = (ProtobufMarshaller) MarshallerFactory.newMarshaller(kbase);
+        SessionChangeTracker tracker = new SessionChangeTracker(ksession);
+
+        ksession.insert(new Cheese("stilton", 20));
+        FactHandle brie = ksession.insert(new Cheese("brie", 5));
+        FactHandle cheddar = ksession.insert(new Cheese("cheddar", 15));
+        for (int i = 0; i < 100; i++) {
+            ksession.insert(new Cheese("cheap" + i, 1));
+        }
+        ksession.fireAllRules();
+        assertThat(list).containsExactlyInAnyOrder("stilton", "cheddar");
+
+        byte[] base = marshallBase(marshaller, tracker);
+
+        ksession.update(brie, new Cheese("brie", 30));
+        ksession.insert(new Cheese("gouda", 40));
+        byte[] firstDelta = marshallDelta(marshaller, tracker);
+
+        ksession.delete(cheddar);
+        ksession.insert(new Cheese("emmental", 50));
+        byte[] secondDelta = marshallDelta(marshaller, tracker);
+
+        assertThat(firstDelta.length).isLessThan(base.length / 4);
+        assertThat(secondDelta.length).isLessThan(base.length / 4);
+
+        KieSession restored = unmarshall(marshaller, ksession, base, firstDelta, secondDelta);
+        assertThat(restored.getObjects()).hasSize(ksession.getObjects().size());
+        assertThat(restored.getObjects(Cheese.class::isInstance).stream().map(c -> ((Cheese) c).getType()))
+                .containsExactlyInAnyOrderElementsOf(ksession.getObjects(Cheese.class::isInstance).stream().map(c -> ((Cheese) c).getType()).toList());
+
+        // the activations already fired before the base snapshot must not fire again
+        List<String> restoredList = new ArrayList<>();
+        restored.setGlobal("list", restoredList);
+        assertThat(restored.fireAllRules()).isEqualTo(3);
+        assertThat(restoredList).containsExactlyInAnyOrder("brie", "gouda", "emmental");
+
+        list.clear();
+        ksession.fireAllRules();
+        assertThat(list).containsExactlyInAnyOrderElementsOf(restoredList);
+
+        tracker.dispose();
+        ksession.dispose();
+        restored.dispose();
+    }
+
+    @Test
+    public void testExpiredEventsAreRemovedByDelta() throws Exception {
+        String drl =
+                "import " + Reading.class.getCanonicalName() + ";\n" +
+                "declare Reading @role( event ) @expires( 10s ) end\n" +
+                "global java.util.List list;\n" +
+                "rule High when\n" +
+                "    $r : Reading( value > 100 )\n" +
+                "then\n" +
+                "    list.add( $r.getValue() );\n" +
+                "end\n";
+
+        KieBaseConfiguration kbaseConf = RuleBaseFactory.newKnowledgeBaseConfiguration();
+        kbaseConf.setOption(EventProcessingOption.STREAM);
+        KieBase kbase = loadKnowledgeBaseFromString(kbaseConf, drl);
+
+        KieSessionConfiguration ksconf = RuleBaseFactory.newKnowledgeSessionConfiguration();
+        ksconf.setOption(ClockTypeOption.PSEUDO);
+        KieSession ksession = kbase.newKieSession(ksconf, null);
+        ksession.setGlobal("list", new ArrayList<>());
+        SessionPseudoClock clock = ksession.getSessionClock();
+
+        ProtobufMarshaller marshaller = (ProtobufMarshaller) MarshallerFactory.newMarshaller(kbase);
+        SessionChangeTracker tracker = new SessionChangeTracker(ksession);
+
+        ksession.insert(new Reading(50));
+        ksession.insert(new Reading(150));
+        ksession.fireAllRules();
+        byte[] base = marshallBase(marshaller, tracker);
+
+        clock.advanceTime(5, TimeUnit.SECONDS);
+        ksession.insert(new Reading(200));
+        ksession.fireAllRules();
+        byte[] firstDelta = marshallDelta(marshaller, tracker);
+
+        // the first two readings silently expire
+        clock.advanceTime(6, TimeUnit.SECONDS);
+        ksession.fireAllRules();
+        assertThat(ksession.getObjects()).hasSize(1);
+        byte[] secondDelta = marshallDelta(marshaller, tracker);
+
+        KieSession restored = unmarshall(marshaller, ksession, base, firstDelta, secondDelta);
+        assertThat(restored.getObjects()).hasSize(1);
+        assertThat(((Reading) restored.getObjects().iterator().next()).getValue()).isEqualTo(200);
+
+        // the expiration of the last reading has been restored as well
+        restored.setGlobal("list", new ArrayList<>());
+        ((SessionPseudoClock) restored.getSessionClock()).advanceTime(10, TimeUnit.SECONDS);
+        restored.fireAllRules();
+        assertThat(restored.getObjects()).isEmpty();
+
+        tracker.dispose();
+        ksession.dispose();
+        restored.dispose();
+    }
+
+    @Test
+    public void testWriterRebasesAfterMaxDeltas() throws Exception {
+        String drl =
+                "import " + Cheese.class.getCanonicalName() + ";\n" +
+                "rule R when\n" +
+                "    Cheese( price > 10 )\n" +
+                "then\n" +
+                "end\n";
+
+        KieBase kbase = loadKnowledgeBaseFromString(drl);
+        KieSession ksession = kbase.newKieSession();
+        ProtobufMarshaller marshaller = (ProtobufMarshaller) MarshallerFactory.newMarshaller(kbase);
+        for (int i = 0; i < 100; i++) {
+            ksession.insert(new Cheese("cheese" + i, i));
+        }
+
+        IncrementalSnapshotWriter writer = new IncrementalSnapshotWriter(marshaller, ksession, 2);
+        assertThat(writer.writeSnapshot(new ByteArrayOutputStream())).isEqualTo(IncrementalSnapshotWriter.SnapshotType.BASE);
+        ksession.insert(new Cheese("brie", 1));
+        assertThat(writer.writeSnapshot(new ByteArrayOutputStream())).isEqualTo(IncrementalSnapshotWriter.SnapshotType.DELTA);
+        assertThat(writer.writeSnapshot(new ByteArrayOutputStream())).isEqualTo(IncrementalSnapshotWriter.SnapshotType.DELTA);
+        assertThat(writer.writeSnapshot(new ByteArrayOutputStream())).isEqualTo(IncrementalSnapshotWriter.SnapshotType.BASE);
+        assertThat(writer.writeSnapshot(new ByteArrayOutputStream())).isEqualTo(IncrementalSnapshotWriter.SnapshotType.DELTA);
+
+        writer.rebase();
+        assertThat(writer.writeSnapshot(new ByteArrayOutputStream())).isEqualTo(IncrementalSnapshotWriter.SnapshotType.BASE);
+
+        writer.dispose();
+        ksession.dispose();
+    }
+
+    @Test
+    public void testDeltaOnlyRewritesNodeMemoriesFedByChangedFacts() throws Exception {
+        String drl =
+                "import " + Cheese.class.getCanonicalName() + ";\n" +
+                "global java.util.List list;\n" +
+                "query cheeseOfType( String $t )\n" +
+                "    Cheese( type == $t )\n" +
+                "end\n" +
+                "rule InStock when\n" +
+                "    $s : String()\n" +
+                "    cheeseOfType( $s; )\n" +
+                "then\n" +
+                "    list.add( $s );\n" +
+                "end\n";
+
+        KieBase kbase = loadKnowledgeBaseFromString(drl);
+        KieSession ksession = kbase.newKieSession();
+        List<String> list = new ArrayList<>();
+        ksession.setGlobal("list", list);
+
+        ProtobufMarshaller marshaller = (ProtobufMarshaller) MarshallerFactory.newMarshaller(kbase);
+        SessionChangeTracker tracker = new SessionChangeTracker(ksession);
+
+        ksession.insert(new Cheese("brie", 10));
+        ksession.insert("brie");
+        ksession.insert("gouda");
+        ksession.fireAllRules();
+        assertThat(list).containsExactly("brie");
+
+        byte[] base = marshallBase(marshaller, tracker);
+
+        BaseNode queryNode = ((InternalRuleBase) kbase).getReteooBuilder().getTerminalNodes("defaultpkg.InStock")[0];
+        while (!(queryNode instanceof QueryElementNode)) {
+            queryNode = queryNode.getParent();
+        }
+        InternalWorkingMemory wm = (InternalWorkingMemory) ksession;
+
+        // no fact feeding the query element node changed, so its memory is reused from the base snapshot
+        ksession.insert(new Reading(1));
+        assertThat(tracker.isNodeMemoryDirty(queryNode, wm)).isFalse();
+        byte[] firstDelta = marshallDelta(marshaller, tracker);
+
+        ksession.insert(new Cheese("gouda", 20));
+        assertThat(tracker.isNodeMemoryDirty(queryNode, wm)).isTrue();
+        byte[] secondDelta = marshallDelta(marshaller, tracker);
+
+        KieSession restored = unmarshall(marshaller, ksession, base, firstDelta, secondDelta);
+        List<String> restoredList = new ArrayList<>();
+        restored.setGlobal("list", restoredList);
+        assertThat(restored.fireAllRules()).isEqualTo(1);
+        assertThat(restoredList).containsExactly("gouda");
+
+        list.clear();
+        ksession.fireAllRules();
+        assertThat(list).containsExactlyElementsOf(restoredList);
+
+        tracker.dispose();
+        ksession.dispose();
+        restored.dispose();
+    }
+
+    @Test
+    public void testDeltaRequiresBase() {
+        KieBase kbase = loadKnowledgeBaseFromString("rule R when String() then end\n");
+        KieSession ksession = kbase.newKieSession();
+        ProtobufMarshaller marshaller = (ProtobufMarshaller) MarshallerFactory.newMarshaller(kbase);
+        SessionChangeTracker tracker = new SessionChangeTracker(ksession);
+
+        assertThatThrownBy(() -> marshaller.marshallDelta(new ByteArrayOutputStream(), tracker))
+                .isInstanceOf(IllegalStateException.class);
+
+        tracker.dispose();
+        ksession.dispose();
+    }
+
+    private static byte[] marshallBase(ProtobufMarshaller marshaller, SessionChangeTracker tracker) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        marshaller.marshallBase(baos, tracker);
+        return baos.toByteArray();
+    }
+
+    private static byte[] marshallDelta(ProtobufMarshaller marshaller, SessionChangeTracker tracker) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        marshaller.marshallDelta(baos, tracker);
+        return baos.toByteArray();
+    }
+
+    private static KieSession unmarshall(ProtobufMarshaller marshaller, KieSession ksession, byte[] base, byte[]... deltas) throws Exception {
+        List<InputStream> deltaStreams = new ArrayList<>();
+        for (byte[] delta : deltas) {
+            deltaStreams.add(new ByteArrayInputStream(delta));
+        }
+        return marshaller.unmarshallWithDeltas(new ByteArrayInputStream(base),
+                                               deltaStreams,
+                                               ksession.getSessionConfiguration(),
+                                               null).getSession();
+    }
+
+    public static class Reading implements Serializable {
+
+        private final int value;
+
+        public Reading(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+}
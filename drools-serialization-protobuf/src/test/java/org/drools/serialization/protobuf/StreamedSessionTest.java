@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.serialization.protobuf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.core.impl.RuleBaseFactory;
+import org.drools.core.marshalling.ClassObjectMarshallingStrategyAcceptor;
+import org.drools.mvel.CommonTestMethodBase;
+import org.drools.mvel.compiler.Cheese;
+import org.drools.serialization.protobuf.marshalling.JavaSerializableResolverStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+import org.kie.api.KieBaseConfiguration;
+import org.kie.api.conf.EventProcessingOption;
+import org.kie.api.marshalling.ObjectMarshallingStrategy;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionConfiguration;
+import org.kie.api.runtime.conf.ClockTypeOption;
+import org.kie.api.time.SessionPseudoClock;
+import org.kie.internal.marshalling.MarshallerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StreamedSessionTest extends CommonTestMethodBase {
+
+    private static final String CHEESE_DRL =
+            "import " + Cheese.class.getCanonicalName() + ";\n" +
+            "global java.util.List list;\n" +
+            "rule Expensive when\n" +
+            "    $c : Cheese( price > 10 )\n" +
+            "then\n" +
+            "    list.add( $c.getType() );\n" +
+            "end\n" +
+            "rule ExpensiveStream when\n" +
+            "    $c : Cheese( price > 10 ) from entry-point \"stream\"\n" +
+            "then\n" +
+            "    list.add( $c.getType() );\n" +
+            "end\n";
+
+    private final DeserializationFilterTestSupport filterSupport = new DeserializationFilterTestSupport();
+
+    @BeforeEach
+    public void setUpDeserializationFilter() {
+        filterSupport.setUp("org.drools.mvel.compiler.Cheese",
+                            "org.drools.serialization.protobuf.StreamedSessionTest$Reading");
+    }
+
+    @AfterEach
+    public void clearDeserializationFilter() {
+        filterSupport.tearDown();
+    }
+
+    @Test
+    public void testParallelDeserializationOfJavaSerializedFacts() throws Exception {
+        KieBase kbase = loadKnowledgeBaseFromString(CHEESE_DRL);
+        ProtobufMarshaller marshaller = (ProtobufMarshaller) MarshallerFactory.newMarshaller(kbase,
+                new ObjectMarshallingStrategy[] { new JavaSerializableResolverStrategy(ClassObjectMarshallingStrategyAcceptor.DEFAULT) });
+        assertRestoredSession(kbase, marshaller, 4);
+    }
+
+    @Test
+    public void testPlaceholderStrategyIsReadSerially() throws Exception {
+        KieBase kbase = loadKnowledgeBaseFromString(CHEESE_DRL);
+        ProtobufMarshaller marshaller = (ProtobufMarshaller) MarshallerFactory.newMarshaller(kbase);
+        assertRestoredSession(kbase, marshaller, 4);
+        assertRestoredSession(kbase, marshaller, 1);
+    }
+
+    private void assertRestoredSession(KieBase kbase, ProtobufMarshaller marshaller, int parallelism) throws Exception {
+        KieSession ksession = kbase.newKieSession();
+        List<String> list = new ArrayList<>();
+        ksession.setGlobal("list", list);
+
+        for (int i = 0; i < 2500; i++) {
+            ksession.insert(new Cheese("cheese" + i, i % 20));
+            ksession.getEntryPoint("stream").insert(new Cheese("streamed" + i, i % 20));
+        }
+        ksession.fireAllRules();
+        list.clear();
+
+        // these facts are restored with activations still to be fired
+        for (int i = 0; i < 1500; i++) {
+            ksession.insert(new Cheese("late" + i, i % 20));
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        marshaller.marshallStreamed(baos, ksession);
+
+        KieSession restored = marshaller.unmarshallStreamed(new ByteArrayInputStream(baos.toByteArray()), parallelism, null, null).getSession();
+        assertThat(restored.getObjects()).hasSize(ksession.getObjects().size());
+        assertThat(restored.getEntryPoint("stream").getObjects()).hasSize(2500);
+        assertThat(restored.getObjects().stream().map(c -> ((Cheese) c).getType()))
+                .containsExactlyInAnyOrderElementsOf(ksession.getObjects().stream().map(c -> ((Cheese) c).getType()).toList());
+
+        List<String> restoredList = new ArrayList<>();
+        restored.setGlobal("list", restoredList);
+        restored.fireAllRules();
+        ksession.fireAllRules();
+        assertThat(restoredList).hasSize(1500 * 9 / 20).containsExactlyInAnyOrderElementsOf(list);
+
+        ksession.dispose();
+        restored.dispose();
+    }
+
+    @Test
+    public void testTimersAreReadInChunks() throws Exception {
+        String drl =
+                "import " + Reading.class.getCanonicalName() + ";\n" +
+                "declare Reading @role( event ) @expires( 10s ) end\n" +
+                "rule High when\n" +
+                "    Reading( value > 100 )\n" +
+                "then\n" +
+                "end\n";
+
+        KieBaseConfiguration kbaseConf = RuleBaseFactory.newKnowledgeBaseConfiguration();
+        kbaseConf.setOption(EventProcessingOption.STREAM);
+        KieBase kbase = loadKnowledgeBaseFromString(kbaseConf, drl);
+
+        KieSessionConfiguration ksconf = RuleBaseFactory.newKnowledgeSessionConfiguration();
+        ksconf.setOption(ClockTypeOption.PSEUDO);
+        KieSession ksession = kbase.newKieSession(ksconf, null);
+        SessionPseudoClock clock = ksession.getSessionClock();
+
+        // more expiration timers than the ones fitting in a single chunk
+        int readings = ProtobufOutputMarshaller.STREAMED_CHUNK_SIZE * 2 + 10;
+        for (int i = 0; i < readings; i++) {
+            ksession.insert(new Reading(i));
+            clock.advanceTime(1, TimeUnit.MILLISECONDS);
+        }
+        ksession.fireAllRules();
+
+        ProtobufMarshaller marshaller = (ProtobufMarshaller) MarshallerFactory.newMarshaller(kbase,
+                new ObjectMarshallingStrategy[] { new JavaSerializableResolverStrategy(ClassObjectMarshallingStrategyAcceptor.DEFAULT) });
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        marshaller.marshallStreamed(baos, ksession);
+
+        KieSession restored = marshaller.unmarshallStreamed(new ByteArrayInputStream(baos.toByteArray()), 2, ksconf, null).getSession();
+        assertThat(restored.getObjects()).hasSize(readings);
+
+        SessionPseudoClock restoredClock = restored.getSessionClock();
+        restoredClock.advanceTime(9, TimeUnit.SECONDS);
+        restored.fireAllRules();
+        assertThat(restored.getObjects()).isNotEmpty().hasSizeLessThan(readings);
+        restoredClock.advanceTime(10, TimeUnit.SECONDS);
+        restored.fireAllRules();
+        assertThat(restored.getObjects()).isEmpty();
+
+        ksession.dispose();
+        restored.dispose();
+    }
+
+    @Test
+    public void testTruncatedStreamIsRejected() throws Exception {
+        KieBase kbase = loadKnowledgeBaseFromString(CHEESE_DRL);
+        KieSession ksession = kbase.newKieSession();
+        ksession.setGlobal("list", new ArrayList<>());
+        for (int i = 0; i < 2500; i++) {
+            ksession.insert(new Cheese("cheese" + i, i));
+        }
+
+        ProtobufMarshaller marshaller = (ProtobufMarshaller) MarshallerFactory.newMarshaller(kbase);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        marshaller.marshallStreamed(baos, ksession);
+        byte[] truncated = Arrays.copyOf(baos.toByteArray(), baos.size() - 10);
+
+        assertThatThrownBy(() -> marshaller.unmarshallStreamed(new ByteArrayInputStream(truncated), 2, null, null))
+                .isInstanceOf(IOException.class);
+
+        ksession.dispose();
+    }
+
+    public static class Reading implements Serializable {
+
+        private final int value;
+
+        public Reading(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+}
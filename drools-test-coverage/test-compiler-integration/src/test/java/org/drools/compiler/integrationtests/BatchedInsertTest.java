@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.compiler.integrationtests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.drools.testcoverage.common.model.Cheese;
+import org.drools.testcoverage.common.model.Person;
+import org.drools.testcoverage.common.util.KieBaseTestConfiguration;
+import org.drools.testcoverage.common.util.KieBaseUtil;
+import org.drools.testcoverage.common.util.TestParametersUtil2;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.kie.api.KieBase;
+import org.kie.api.event.rule.DefaultRuleRuntimeEventListener;
+import org.kie.api.event.rule.ObjectInsertedEvent;
+import org.kie.api.event.rule.ObjectUpdatedEvent;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.EntryPoint;
+import org.kie.api.runtime.rule.FactHandle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchedInsertTest {
+
+    private static final String DRL =
+            "import " + Person.class.getCanonicalName() + ";\n" +
+            "import " + Cheese.class.getCanonicalName() + ";\n" +
+            "global java.util.List list;\n" +
+            "rule Join when\n" +
+            "    $person : Person( age > 10 )\n" +
+            "    $cheese : Cheese( price == $person.age )\n" +
+            "then\n" +
+            "    list.add( $person.getName() + \"-\" + $cheese.getType() );\n" +
+            "end\n" +
+            "rule FromEntryPoint when\n" +
+            "    $cheese : Cheese( price > 15 ) from entry-point \"cheeses\"\n" +
+            "then\n" +
+            "    list.add( \"ep:\" + $cheese.getType() );\n" +
+            "end\n";
+
+    public static Stream<KieBaseTestConfiguration> parameters() {
+        return TestParametersUtil2.getKieBaseCloudConfigurations(true).stream();
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testInsertAllFiresAsSingleInserts(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        KieBase kbase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("batched-insert-test", kieBaseTestConfiguration, DRL);
+
+        List<String> single = new ArrayList<>();
+        KieSession ksession = kbase.newKieSession();
+        try {
+            ksession.setGlobal("list", single);
+            for (Object fact : createFacts()) {
+                ksession.insert(fact);
+            }
+            for (Object cheese : createCheeses()) {
+                ksession.getEntryPoint("cheeses").insert(cheese);
+            }
+            ksession.fireAllRules();
+        } finally {
+            ksession.dispose();
+        }
+
+        List<String> batched = new ArrayList<>();
+        ksession = kbase.newKieSession();
+        try {
+            ksession.setGlobal("list", batched);
+            CountingListener listener = new CountingListener();
+            ksession.addEventListener(listener);
+
+            List<Object> facts = createFacts();
+            List<FactHandle> handles = ksession.insertAll(facts);
+            assertThat(handles).hasSize(facts.size());
+            for (int i = 0; i < facts.size(); i++) {
+                assertThat(handles.get(i).getObject()).isSameAs(facts.get(i));
+            }
+            EntryPoint entryPoint = ksession.getEntryPoint("cheeses");
+            entryPoint.insertAll(createCheeses());
+
+            assertThat(listener.inserted).isEqualTo(facts.size() + 20);
+            assertThat(ksession.getFactCount()).isEqualTo(facts.size());
+            assertThat(entryPoint.getFactCount()).isEqualTo(20);
+
+            // inserting again the same objects returns the existing handles without creating new facts
+            assertThat(ksession.insertAll(facts.subList(0, 2))).containsExactlyElementsOf(handles.subList(0, 2));
+            assertThat(ksession.getFactCount()).isEqualTo(facts.size());
+
+            ksession.fireAllRules();
+        } finally {
+            ksession.dispose();
+        }
+
+        assertThat(single).hasSize(9 + 4);
+        assertThat(batched).containsExactlyElementsOf(single);
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testUpdateAll(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        KieBase kbase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("batched-update-test", kieBaseTestConfiguration, DRL);
+
+        List<String> list = new ArrayList<>();
+        KieSession ksession = kbase.newKieSession();
+        try {
+            ksession.setGlobal("list", list);
+            CountingListener listener = new CountingListener();
+            ksession.addEventListener(listener);
+
+            Person mario = new Person("mario", 5);
+            Person mark = new Person("mark", 6);
+            List<FactHandle> handles = ksession.insertAll(Arrays.asList(mario, mark, new Cheese("gouda", 12), new Cheese("brie", 13)));
+            assertThat(ksession.fireAllRules()).isZero();
+
+            mario.setAge(12);
+            mark.setAge(13);
+            ksession.updateAll(handles.subList(0, 2));
+            assertThat(listener.updated).isEqualTo(2);
+
+            assertThat(ksession.fireAllRules()).isEqualTo(2);
+            assertThat(list).containsExactlyInAnyOrder("mario-gouda", "mark-brie");
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    private static List<Object> createFacts() {
+        List<Object> facts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            facts.add(new Cheese("cheese" + i, i));
+        }
+        for (int i = 0; i < 40; i++) {
+            facts.add(new Person("person" + i, i));
+        }
+        return facts;
+    }
+
+    private static List<Object> createCheeses() {
+        List<Object> cheeses = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            cheeses.add(new Cheese("ep" + i, i));
+        }
+        return cheeses;
+    }
+
+    private static class CountingListener extends DefaultRuleRuntimeEventListener {
+        private int inserted;
+        private int updated;
+
+        @Override
+        public void objectInserted(ObjectInsertedEvent event) {
+            inserted++;
+        }
+
+        @Override
+        public void objectUpdated(ObjectUpdatedEvent event) {
+            updated++;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.compiler.integrationtests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.drools.testcoverage.common.util.KieBaseTestConfiguration;
+import org.drools.testcoverage.common.util.KieBaseUtil;
+import org.drools.testcoverage.common.util.KieUtil;
+import org.drools.testcoverage.common.util.TestParametersUtil2;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.kie.api.KieBase;
+import org.kie.api.builder.KieModule;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.conf.BucketedAgendaOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BucketedAgendaTest {
+
+    private static final String RULES =
+            "global java.util.List list;\n" +
+            "rule R1 when\n" +
+            "    String( this == \"a\" )\n" +
+            "then\n" +
+            "    list.add( \"R1\" );\n" +
+            "end\n" +
+            "rule R2 when\n" +
+            "    String( this == \"b\" )\n" +
+            "then\n" +
+            "    list.add( \"R2\" );\n" +
+            "end\n" +
+            "rule R3 salience 10 when\n" +
+            "    Integer()\n" +
+            "then\n" +
+            "    list.add( \"R3\" );\n" +
+            "end\n" +
+            "rule R4 salience -10 when\n" +
+            "    Long()\n" +
+            "then\n" +
+            "    list.add( \"R4\" );\n" +
+            "    insert( 2 );\n" +
+            "end\n";
+
+    private static final String DYNAMIC_SALIENCE_RULE =
+            "rule R5 salience( $s.length() ) when\n" +
+            "    $s : String( this == \"c\" )\n" +
+            "then\n" +
+            "    list.add( \"R5\" );\n" +
+            "end\n";
+
+    public static Stream<KieBaseTestConfiguration> parameters() {
+        return TestParametersUtil2.getKieBaseCloudConfigurations(true).stream();
+    }
+
+    private KieBase getKieBase(KieBaseTestConfiguration kieBaseTestConfiguration, BucketedAgendaOption option, String drl) {
+        KieModule kieModule = KieUtil.getKieModuleFromDrls("bucketed-agenda-test", kieBaseTestConfiguration, drl);
+        return KieBaseUtil.newKieBaseFromKieModuleWithAdditionalOptions(kieModule, kieBaseTestConfiguration, option);
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testSameSalienceRulesFireInActivationOrder(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        assertThat(fire(getKieBase(kieBaseTestConfiguration, BucketedAgendaOption.YES, RULES)))
+                .containsExactly("R3", "R2", "R1", "R4", "R3");
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testSameSalienceRulesFireInLoadOrderByDefault(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        assertThat(fire(getKieBase(kieBaseTestConfiguration, BucketedAgendaOption.NO, RULES)))
+                .containsExactly("R3", "R1", "R2", "R4", "R3");
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testDynamicSalienceUsesPriorityQueue(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        assertThat(fire(getKieBase(kieBaseTestConfiguration, BucketedAgendaOption.YES, RULES + DYNAMIC_SALIENCE_RULE)))
+                .containsExactly("R3", "R1", "R2", "R4", "R3");
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testBucketedAgendaUnderLoad(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        StringBuilder drl = new StringBuilder("global java.util.List list;\n");
+        for (int i = 0; i < 50; i++) {
+            drl.append("rule R").append(i).append(" salience ").append(i % 3).append(" when\n")
+               .append("    $i : Integer( intValue % 50 == ").append(i).append(" )\n")
+               .append("then\n")
+               .append("    list.add( ").append(i % 3).append(" );\n")
+               .append("    if ($i < 1000) insert( $i + 49 );\n")
+               .append("end\n");
+        }
+        KieBase bucketed = getKieBase(kieBaseTestConfiguration, BucketedAgendaOption.YES, drl.toString());
+        KieBase priority = getKieBase(kieBaseTestConfiguration, BucketedAgendaOption.NO, drl.toString());
+
+        List<Integer> bucketedResult = fireIntegers(bucketed);
+        List<Integer> priorityResult = fireIntegers(priority);
+        assertThat(bucketedResult).hasSize(priorityResult.size()).containsExactlyInAnyOrderElementsOf(priorityResult);
+    }
+
+    private static List<String> fire(KieBase kbase) {
+        List<String> list = new ArrayList<>();
+        KieSession ksession = kbase.newKieSession();
+        try {
+            ksession.setGlobal("list", list);
+            ksession.insert("b");
+            ksession.insert("a");
+            ksession.insert(1L);
+            ksession.insert(1);
+            ksession.fireAllRules();
+            return list;
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    private static List<Integer> fireIntegers(KieBase kbase) {
+        List<Integer> list = new ArrayList<>();
+        KieSession ksession = kbase.newKieSession();
+        try {
+            ksession.setGlobal("list", list);
+            for (int i = 0; i < 50; i++) {
+                ksession.insert(i);
+            }
+            ksession.fireAllRules();
+            return list;
+        } finally {
+            ksession.dispose();
+        }
+    }
+}
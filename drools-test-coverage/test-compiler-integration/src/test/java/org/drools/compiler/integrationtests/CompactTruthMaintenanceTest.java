@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.compiler.integrationtests;
+
+import java.util.stream.Stream;
+
+import org.drools.core.common.TruthMaintenanceSystem;
+import org.drools.core.common.TruthMaintenanceSystemFactory;
+import org.drools.kiesession.session.StatefulKnowledgeSessionImpl;
+import org.drools.testcoverage.common.model.Person;
+import org.drools.testcoverage.common.util.KieBaseTestConfiguration;
+import org.drools.testcoverage.common.util.KieBaseUtil;
+import org.drools.testcoverage.common.util.TestParametersUtil2;
+import org.drools.tms.TruthMaintenanceSystemImpl;
+import org.drools.tms.beliefsystem.simple.CompactBeliefSystem;
+import org.drools.tms.beliefsystem.simple.SimpleBeliefSystem;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.runtime.ClassObjectFilter;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionConfiguration;
+import org.kie.api.runtime.rule.FactHandle;
+import org.kie.internal.runtime.conf.TruthMaintenanceModeOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompactTruthMaintenanceTest {
+
+    private static final String DRL =
+            "import " + Person.class.getCanonicalName() + ";\n" +
+            "rule Fanout when\n" +
+            "    Person( $age : age )\n" +
+            "then\n" +
+            "    for (int i = 0; i < $age; i++) {\n" +
+            "        insertLogical( Integer.valueOf( i ) );\n" +
+            "    }\n" +
+            "end\n";
+
+    public static Stream<KieBaseTestConfiguration> parameters() {
+        return TestParametersUtil2.getKieBaseCloudConfigurations(true).stream();
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testBulkRetractionOfSharedJustifications(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        KieBase kieBase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("compact-tms-test", kieBaseTestConfiguration, DRL);
+        for (TruthMaintenanceModeOption mode : TruthMaintenanceModeOption.values()) {
+            KieSession ksession = newKieSession(kieBase, mode);
+            try {
+                FactHandle first = ksession.insert(new Person("first", 1000));
+                FactHandle second = ksession.insert(new Person("second", 500));
+                ksession.fireAllRules();
+                assertThat(ksession.getObjects(new ClassObjectFilter(Integer.class))).hasSize(1000);
+
+                TruthMaintenanceSystem tms = TruthMaintenanceSystemFactory.get().getOrCreateTruthMaintenanceSystem((StatefulKnowledgeSessionImpl) ksession);
+                assertThat(((TruthMaintenanceSystemImpl) tms).getBeliefSystem()).isExactlyInstanceOf(mode == TruthMaintenanceModeOption.COMPACT ?
+                                                                                                      CompactBeliefSystem.class :
+                                                                                                      SimpleBeliefSystem.class);
+                assertThat(tms.getEqualityKeysSize()).isEqualTo(1000);
+
+                // the integers below 500 are still justified by the second person
+                ksession.delete(first);
+                ksession.fireAllRules();
+                assertThat(ksession.getObjects(new ClassObjectFilter(Integer.class))).hasSize(500);
+                assertThat(tms.getEqualityKeysSize()).isEqualTo(500);
+
+                FactHandle third = ksession.insert(new Person("third", 800));
+                ksession.fireAllRules();
+                assertThat(ksession.getObjects(new ClassObjectFilter(Integer.class))).hasSize(800);
+
+                ksession.delete(second);
+                ksession.delete(third);
+                ksession.fireAllRules();
+                assertThat(ksession.getObjects(new ClassObjectFilter(Integer.class))).isEmpty();
+                assertThat(tms.getEqualityKeysSize()).isZero();
+            } finally {
+                ksession.dispose();
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testStatedOverridesJustifiedInCompactMode(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        KieBase kieBase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("compact-tms-test", kieBaseTestConfiguration, DRL);
+        KieSession ksession = newKieSession(kieBase, TruthMaintenanceModeOption.COMPACT);
+        try {
+            FactHandle person = ksession.insert(new Person("person", 10));
+            ksession.fireAllRules();
+            assertThat(ksession.getObjects(new ClassObjectFilter(Integer.class))).hasSize(10);
+
+            // stating an equal object stages the justified one
+            FactHandle stated = ksession.insert(Integer.valueOf(5));
+            assertThat(ksession.getObjects(new ClassObjectFilter(Integer.class))).hasSize(10);
+
+            ksession.delete(person);
+            ksession.fireAllRules();
+            assertThat(ksession.getObjects(new ClassObjectFilter(Integer.class))).hasSize(1);
+            assertThat(ksession.getObject(stated)).isEqualTo(5);
+
+            ksession.delete(stated);
+            assertThat(ksession.getObjects(new ClassObjectFilter(Integer.class))).isEmpty();
+            TruthMaintenanceSystem tms = TruthMaintenanceSystemFactory.get().getOrCreateTruthMaintenanceSystem((StatefulKnowledgeSessionImpl) ksession);
+            assertThat(tms.getEqualityKeysSize()).isZero();
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    private static KieSession newKieSession(KieBase kieBase, TruthMaintenanceModeOption mode) {
+        KieSessionConfiguration conf = KieServices.get().newKieSessionConfiguration();
+        conf.setOption(mode);
+        return kieBase.newKieSession(conf, null);
+    }
+}
@@ -29,11 +29,14 @@ import java.util.stream.Stream;
 
 import org.drools.ancompiler.CompiledNetwork;
 import org.drools.core.common.BetaConstraints;
+import org.drools.core.common.InternalWorkingMemory;
+import org.drools.core.reteoo.BetaMemory;
 import org.drools.core.reteoo.JoinNode;
 import org.drools.core.reteoo.JoinRightAdapterNode;
 import org.drools.core.reteoo.ObjectSink;
 import org.drools.core.reteoo.ObjectSinkPropagator;
 import org.drools.core.reteoo.ObjectTypeNode;
+import org.drools.core.reteoo.TupleMemory;
 import org.drools.testcoverage.common.model.Cheese;
 import org.drools.testcoverage.common.model.Person;
 import org.drools.testcoverage.common.model.Pet;
@@ -49,6 +52,7 @@ import org.kie.api.KieBase;
 import org.kie.api.builder.KieModule;
 import org.kie.api.conf.BetaRangeIndexOption;
 import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -531,4 +535,138 @@ public class JoinNodeRangeIndexingTest {
             ksession.dispose();
         }
     }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+	@MethodSource("parameters")
+    public void testEqualityAndIntervalOnSameJoin(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        final String drl = "import " + Window.class.getCanonicalName() + ";\n" +
+                           "import " + Reading.class.getCanonicalName() + ";\n" +
+                           "global java.util.Set result;\n" +
+                           "rule R1\n" +
+                           "when\n" +
+                           "   $w : Window()\n" +
+                           "   $r : Reading( sensor == $w.sensor, ts > $w.start, ts < $w.end )\n" +
+                           "then\n" +
+                           "   result.add( $w.getName() + \":\" + $r.getTs() );\n" +
+                           "end\n";
+
+        final KieBase kbase = getKieBaseWithRangeIndexOption(kieBaseTestConfiguration, drl);
+        final KieBase kbaseWithoutRangeIndex = KieBaseUtil.getKieBaseFromKieModuleFromDrl("indexing-test", kieBaseTestConfiguration, drl);
+
+        final KieSession ksession = kbase.newKieSession();
+        try {
+            JoinNode join = getJoinNode(kieBaseTestConfiguration, kbase, Reading.class);
+            BetaMemory bm = (BetaMemory) ((InternalWorkingMemory) ksession).getNodeMemory(join);
+            assertThat(bm.getRightTupleMemory().getIndexType()).isEqualTo(TupleMemory.IndexType.RANGE);
+
+            assertThat(runWindowsAndReadings(ksession)).isEqualTo(runWindowsAndReadings(kbaseWithoutRangeIndex.newKieSession()))
+                                                       .contains("w1:4", "w1:6", "w2:16", "w3:4")
+                                                       .doesNotContain("w1:3", "w1:8", "w2:10", "w2:20");
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    private Set<String> runWindowsAndReadings(KieSession ksession) {
+        final Set<String> result = new HashSet<>();
+        ksession.setGlobal("result", result);
+        try {
+            ksession.insert(new Window("w1", "s1", 3, 8));
+            ksession.insert(new Window("w2", "s1", 10, 20));
+            FactHandle w3 = ksession.insert(new Window("w3", "s2", 0, 5));
+
+            List<FactHandle> readings = new ArrayList<>();
+            for (int ts = 0; ts < 25; ts++) {
+                readings.add(ksession.insert(new Reading(ts % 2 == 0 ? "s1" : "s2", ts)));
+            }
+            ksession.insert(new Reading("s2", 4));
+            ksession.fireAllRules();
+
+            // move some readings between sensors and timestamps and retract some of them
+            for (int ts = 0; ts < 25; ts += 3) {
+                Reading reading = (Reading) ksession.getObject(readings.get(ts));
+                reading.setSensor(reading.getSensor().equals("s1") ? "s2" : "s1");
+                reading.setTs(reading.getTs() + 1);
+                ksession.update(readings.get(ts), reading);
+            }
+            ksession.delete(readings.get(5));
+            Window window = (Window) ksession.getObject(w3);
+            window.setEnd(12);
+            ksession.update(w3, window);
+            ksession.fireAllRules();
+            return result;
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    private JoinNode getJoinNode(KieBaseTestConfiguration kieBaseTestConfiguration, KieBase kbase, Class<?> factClass) {
+        ObjectSinkPropagator objectSinkPropagator = KieUtil.getObjectTypeNode(kbase, factClass).getObjectSinkPropagator();
+        if (kieBaseTestConfiguration.useAlphaNetworkCompiler()) {
+            objectSinkPropagator = ((CompiledNetwork) objectSinkPropagator).getOriginalSinkPropagator();
+        }
+        return ((JoinRightAdapterNode) objectSinkPropagator.getSinks()[0]).getBetaNode();
+    }
+
+    public static class Window {
+
+        private final String name;
+        private final String sensor;
+        private final int start;
+        private int end;
+
+        public Window(String name, String sensor, int start, int end) {
+            this.name = name;
+            this.sensor = sensor;
+            this.start = start;
+            this.end = end;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getSensor() {
+            return sensor;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public void setEnd(int end) {
+            this.end = end;
+        }
+    }
+
+    public static class Reading {
+
+        private String sensor;
+        private int ts;
+
+        public Reading(String sensor, int ts) {
+            this.sensor = sensor;
+            this.ts = ts;
+        }
+
+        public String getSensor() {
+            return sensor;
+        }
+
+        public void setSensor(String sensor) {
+            this.sensor = sensor;
+        }
+
+        public int getTs() {
+            return ts;
+        }
+
+        public void setTs(int ts) {
+            this.ts = ts;
+        }
+    }
 }
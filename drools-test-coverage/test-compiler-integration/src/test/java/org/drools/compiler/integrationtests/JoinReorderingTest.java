@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.compiler.integrationtests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.drools.base.definitions.rule.impl.RuleImpl;
+import org.drools.base.rule.Pattern;
+import org.drools.core.common.ReteEvaluator;
+import org.drools.core.impl.InternalRuleBase;
+import org.drools.core.reteoo.builder.JoinOrderPlanner;
+import org.drools.core.reteoo.builder.JoinStatistics;
+import org.drools.testcoverage.common.model.Cheese;
+import org.drools.testcoverage.common.model.Person;
+import org.drools.testcoverage.common.model.Pet;
+import org.drools.testcoverage.common.util.KieBaseTestConfiguration;
+import org.drools.testcoverage.common.util.KieBaseUtil;
+import org.drools.testcoverage.common.util.KieUtil;
+import org.drools.testcoverage.common.util.TestParametersUtil2;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.kie.api.KieBase;
+import org.kie.api.builder.KieModule;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.conf.JoinReorderingOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JoinReorderingTest {
+
+    private static final String DRL =
+            "import " + Person.class.getCanonicalName() + ";\n" +
+            "import " + Cheese.class.getCanonicalName() + ";\n" +
+            "import " + Pet.class.getCanonicalName() + ";\n" +
+            "global java.util.List list;\n" +
+            "rule R when\n" +
+            "    $person : Person()\n" +
+            "    $cheese : Cheese( type == \"stilton\" )\n" +
+            "    $pet : Pet( age == $person.age )\n" +
+            "then\n" +
+            "    list.add( $person.getName() + \"-\" + $cheese.getType() + \"-\" + $pet.getName() );\n" +
+            "end\n";
+
+    public static Stream<KieBaseTestConfiguration> parameters() {
+        return TestParametersUtil2.getKieBaseCloudConfigurations(true).stream();
+    }
+
+    private KieBase getKieBase(KieBaseTestConfiguration kieBaseTestConfiguration, JoinReorderingOption option) {
+        KieModule kieModule = KieUtil.getKieModuleFromDrls("join-reordering-test", kieBaseTestConfiguration, DRL);
+        return KieBaseUtil.newKieBaseFromKieModuleWithAdditionalOptions(kieModule, kieBaseTestConfiguration, option);
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testReorderJoinsBySelectivity(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        KieBase kbase = getKieBase(kieBaseTestConfiguration, JoinReorderingOption.YES);
+
+        List<String> expected = new ArrayList<>();
+        JoinStatistics statistics = new JoinStatistics();
+        KieSession ksession = kbase.newKieSession();
+        try {
+            ksession.setGlobal("list", expected);
+            insertFacts(ksession);
+            assertThat(ksession.fireAllRules()).isEqualTo(40);
+            statistics.collect((ReteEvaluator) ksession);
+        } finally {
+            ksession.dispose();
+        }
+
+        RuleImpl rule = (RuleImpl) kbase.getRule("defaultpkg", "R");
+        assertThat(statistics.getCardinality(rule, pattern(rule, 0))).isEqualTo(20);
+        assertThat(statistics.getCardinality(rule, pattern(rule, 1))).isEqualTo(1);
+        assertThat(statistics.getCardinality(rule, pattern(rule, 2))).isEqualTo(10);
+
+        List<RuleImpl> reordered = JoinOrderPlanner.reorderJoins((InternalRuleBase) kbase, statistics);
+        if (kieBaseTestConfiguration.isExecutableModel()) {
+            assertThat(reordered).containsExactly(rule);
+            // the single stilton is joined first, the pet still follows the person it depends on
+            assertThat(pattern(rule, 0).getObjectType().getClassName()).isEqualTo(Cheese.class.getName());
+            assertThat(pattern(rule, 1).getObjectType().getClassName()).isEqualTo(Person.class.getName());
+            assertThat(pattern(rule, 2).getObjectType().getClassName()).isEqualTo(Pet.class.getName());
+        } else {
+            // the bytecode generated for the DRL consequence refers to the original positions of the facts in the tuple
+            assertThat(reordered).isEmpty();
+            assertThat(pattern(rule, 0).getObjectType().getClassName()).isEqualTo(Person.class.getName());
+        }
+
+        // a second planning with the same statistics doesn't find anything better
+        assertThat(JoinOrderPlanner.reorderJoins((InternalRuleBase) kbase, statistics)).isEmpty();
+
+        List<String> actual = new ArrayList<>();
+        ksession = kbase.newKieSession();
+        try {
+            ksession.setGlobal("list", actual);
+            insertFacts(ksession);
+            assertThat(ksession.fireAllRules()).isEqualTo(40);
+        } finally {
+            ksession.dispose();
+        }
+        assertThat(actual).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testReorderJoinsRequiresOption(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        KieBase kbase = getKieBase(kieBaseTestConfiguration, JoinReorderingOption.NO);
+        assertThatThrownBy(() -> JoinOrderPlanner.reorderJoins((InternalRuleBase) kbase, new JoinStatistics()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static Pattern pattern(RuleImpl rule, int position) {
+        return (Pattern) rule.getLhs().getChildren().get(position);
+    }
+
+    private static void insertFacts(KieSession ksession) {
+        for (int i = 0; i < 20; i++) {
+            ksession.insert(new Person("person" + i, i % 5));
+        }
+        ksession.insert(new Cheese("stilton", 10));
+        for (int i = 0; i < 10; i++) {
+            ksession.insert(new Cheese("brie", i));
+            ksession.insert(new Pet("pet" + i, i % 5));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.compiler.integrationtests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.drools.core.common.InternalWorkingMemory;
+import org.drools.core.impl.InternalRuleBase;
+import org.drools.core.reteoo.PathMemory;
+import org.drools.core.reteoo.SegmentMemory;
+import org.drools.core.reteoo.SessionMemoriesTemplate;
+import org.drools.core.reteoo.TerminalNode;
+import org.drools.testcoverage.common.util.KieBaseTestConfiguration;
+import org.drools.testcoverage.common.util.KieBaseUtil;
+import org.drools.testcoverage.common.util.KieUtil;
+import org.drools.testcoverage.common.util.TestParametersUtil2;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.kie.api.KieBase;
+import org.kie.api.builder.KieModule;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.conf.MaterializedMemoriesOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MaterializedMemoriesTest {
+
+    private static final String RULES =
+            "package org.drools.test;\n" +
+            "global java.util.List list;\n" +
+            "rule Join when\n" +
+            "    $s : String()\n" +
+            "    $i : Integer( this == $s.length() )\n" +
+            "then\n" +
+            "    list.add( \"Join \" + $s );\n" +
+            "end\n" +
+            "rule Not when\n" +
+            "    $s : String()\n" +
+            "    not Integer( this == $s.length() )\n" +
+            "then\n" +
+            "    list.add( \"Not \" + $s );\n" +
+            "end\n" +
+            "rule Subnetwork when\n" +
+            "    $s : String()\n" +
+            "    not( Integer( this > 10 ) and Long() )\n" +
+            "then\n" +
+            "    list.add( \"Subnetwork \" + $s );\n" +
+            "end\n" +
+            "rule Accumulate when\n" +
+            "    $l : Long()\n" +
+            "    accumulate( Integer( $v : this ); $sum : sum( $v ) )\n" +
+            "then\n" +
+            "    list.add( \"Accumulate \" + $sum );\n" +
+            "end\n" +
+            "query lengths( int $l )\n" +
+            "    String( length == $l )\n" +
+            "end\n";
+
+    public static Stream<KieBaseTestConfiguration> parameters() {
+        return TestParametersUtil2.getKieBaseCloudConfigurations(true).stream();
+    }
+
+    private KieBase getKieBase(KieBaseTestConfiguration kieBaseTestConfiguration, MaterializedMemoriesOption option) {
+        KieModule kieModule = KieUtil.getKieModuleFromDrls("materialized-memories-test", kieBaseTestConfiguration, RULES);
+        return KieBaseUtil.newKieBaseFromKieModuleWithAdditionalOptions(kieModule, kieBaseTestConfiguration, option);
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testMemoriesAreCreatedWithTheSession(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        KieBase kbase = getKieBase(kieBaseTestConfiguration, MaterializedMemoriesOption.YES);
+        KieSession ksession = kbase.newKieSession();
+        try {
+            InternalWorkingMemory wm = (InternalWorkingMemory) ksession;
+            for (TerminalNode[] terminalNodes : ((InternalRuleBase) kbase).getReteooBuilder().getTerminalNodes().values()) {
+                for (TerminalNode tn : terminalNodes) {
+                    PathMemory pmem = (PathMemory) wm.getNodeMemories().peekNodeMemory(tn);
+                    assertThat(pmem).isNotNull();
+                    for (SegmentMemory smem : pmem.getSegmentMemories()) {
+                        assertThat(smem).isNotNull();
+                    }
+                }
+            }
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testMaterializedSessionFiresAsLazyOne(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        List<String> materialized = fire(getKieBase(kieBaseTestConfiguration, MaterializedMemoriesOption.YES));
+        List<String> lazy = fire(getKieBase(kieBaseTestConfiguration, MaterializedMemoriesOption.NO));
+        assertThat(materialized).isNotEmpty().containsExactlyInAnyOrderElementsOf(lazy);
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testTemplateIsRecalculatedWhenRulesAreRemoved(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        KieBase kbase = getKieBase(kieBaseTestConfiguration, MaterializedMemoriesOption.YES);
+        InternalRuleBase ruleBase = (InternalRuleBase) kbase;
+
+        SessionMemoriesTemplate template = ruleBase.getSessionMemoriesTemplate();
+        assertThat(template.getPathsCount()).isEqualTo(5);
+        assertThat(ruleBase.getSessionMemoriesTemplate()).isSameAs(template);
+
+        kbase.removeRule("org.drools.test", "Not");
+        assertThat(ruleBase.getSessionMemoriesTemplate().getPathsCount()).isEqualTo(4);
+
+        List<String> list = fire(kbase);
+        assertThat(list).contains("Join abc").doesNotContain("Not abcd");
+    }
+
+    private List<String> fire(KieBase kbase) {
+        KieSession ksession = kbase.newKieSession();
+        try {
+            List<String> list = new ArrayList<>();
+            ksession.setGlobal("list", list);
+            ksession.insert("abc");
+            ksession.insert("abcd");
+            ksession.insert(3);
+            ksession.insert(20);
+            ksession.fireAllRules();
+            ksession.insert(1L);
+            ksession.fireAllRules();
+            assertThat(ksession.getQueryResults("lengths", 3)).hasSize(1);
+            return list;
+        } finally {
+            ksession.dispose();
+        }
+    }
+}
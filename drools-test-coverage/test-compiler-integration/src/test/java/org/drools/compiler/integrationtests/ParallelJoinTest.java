@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.compiler.integrationtests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.drools.testcoverage.common.model.Cheese;
+import org.drools.testcoverage.common.model.Person;
+import org.drools.testcoverage.common.model.Pet;
+import org.drools.testcoverage.common.util.KieBaseTestConfiguration;
+import org.drools.testcoverage.common.util.KieBaseUtil;
+import org.drools.testcoverage.common.util.KieUtil;
+import org.drools.testcoverage.common.util.TestParametersUtil2;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.kie.api.KieBase;
+import org.kie.api.builder.KieModule;
+import org.kie.api.runtime.KieSession;
+import org.kie.internal.conf.ParallelJoinThresholdOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParallelJoinTest {
+
+    private static final String DRL =
+            "import " + Person.class.getCanonicalName() + ";\n" +
+            "import " + Cheese.class.getCanonicalName() + ";\n" +
+            "import " + Pet.class.getCanonicalName() + ";\n" +
+            "global java.util.List list;\n" +
+            "rule IndexedJoin when\n" +
+            "    $person : Person()\n" +
+            "    $pet : Pet( age == $person.age )\n" +
+            "then\n" +
+            "    list.add( \"join:\" + $person.getName() + \"-\" + $pet.getName() );\n" +
+            "end\n" +
+            "rule NotIndexedJoin when\n" +
+            "    $person : Person()\n" +
+            "    $cheese : Cheese( price < $person.age )\n" +
+            "then\n" +
+            "    list.add( \"range:\" + $person.getName() + \"-\" + $cheese.getType() );\n" +
+            "end\n" +
+            "rule Accumulate when\n" +
+            "    $person : Person()\n" +
+            "    accumulate( Pet( age <= $person.age, $age : age ); $sum : sum( $age ) )\n" +
+            "then\n" +
+            "    list.add( \"acc:\" + $person.getName() + \"-\" + $sum );\n" +
+            "end\n";
+
+    public static Stream<KieBaseTestConfiguration> parameters() {
+        return TestParametersUtil2.getKieBaseCloudConfigurations(true).stream();
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testParallelJoinFiresAsSequential(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        List<String> sequential = fire(kieBaseTestConfiguration, ParallelJoinThresholdOption.get(ParallelJoinThresholdOption.DEFAULT_VALUE));
+        List<String> parallel = fire(kieBaseTestConfiguration, ParallelJoinThresholdOption.get(0));
+
+        assertThat(sequential).hasSize(500 + 450 + 100);
+        // the child tuples are created in the same order, so also the activations are fired in the same order
+        assertThat(parallel).containsExactlyElementsOf(sequential);
+    }
+
+    private List<String> fire(KieBaseTestConfiguration kieBaseTestConfiguration, ParallelJoinThresholdOption option) {
+        KieModule kieModule = KieUtil.getKieModuleFromDrls("parallel-join-test", kieBaseTestConfiguration, DRL);
+        KieBase kbase = KieBaseUtil.newKieBaseFromKieModuleWithAdditionalOptions(kieModule, kieBaseTestConfiguration, option);
+
+        List<String> list = new ArrayList<>();
+        KieSession ksession = kbase.newKieSession();
+        try {
+            ksession.setGlobal("list", list);
+            for (int i = 0; i < 10; i++) {
+                ksession.insert(new Cheese("cheese" + i, i));
+            }
+            for (int i = 0; i < 100; i++) {
+                ksession.insert(new Pet("pet" + i, i % 20));
+            }
+            for (int i = 0; i < 100; i++) {
+                ksession.insert(new Person("person" + i, i % 10));
+            }
+            ksession.fireAllRules();
+        } finally {
+            ksession.dispose();
+        }
+        return list;
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.compiler.integrationtests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.drools.core.common.InternalWorkingMemory;
+import org.drools.core.reteoo.ObjectSink;
+import org.drools.core.reteoo.ObjectTypeNode;
+import org.drools.core.reteoo.WindowAggregate;
+import org.drools.core.reteoo.WindowNode;
+import org.drools.core.rule.SlidingLengthWindow;
+import org.drools.core.rule.SlidingTimeWindow;
+import org.drools.core.impl.RuleBaseFactory;
+import org.drools.kiesession.rulebase.InternalKnowledgeBase;
+import org.drools.testcoverage.common.model.StockTick;
+import org.drools.testcoverage.common.util.KieBaseTestConfiguration;
+import org.drools.testcoverage.common.util.KieBaseUtil;
+import org.drools.testcoverage.common.util.KieUtil;
+import org.drools.testcoverage.common.util.TestParametersUtil2;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.kie.api.KieBase;
+import org.kie.api.builder.KieModule;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionConfiguration;
+import org.kie.api.runtime.conf.ClockTypeOption;
+import org.kie.api.runtime.rule.FactHandle;
+import org.kie.api.time.SessionPseudoClock;
+import org.kie.internal.conf.SharedWindowAggregatesOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SharedWindowAggregatesTest {
+
+    private static final String DRL =
+            "import " + StockTick.class.getCanonicalName() + ";\n" +
+            "global java.util.List results;\n" +
+            "declare StockTick @role( event ) end\n" +
+            "declare window Ticks\n" +
+            "    StockTick() over window:time( 1m )\n" +
+            "end\n" +
+            "declare window LastTicks\n" +
+            "    StockTick() over window:length( 150 )\n" +
+            "end\n" +
+            "rule Stats when\n" +
+            "    accumulate( $t : StockTick() from window Ticks;\n" +
+            "                $sum : sum( $t.getPrice() ), $count : count( $t ), $avg : average( $t.getPrice() ),\n" +
+            "                $min : min( $t.getPrice() ), $max : max( $t.getPrice() ); $count > 0 )\n" +
+            "then\n" +
+            "    results.add( \"Stats \" + $sum + \" \" + $count + \" \" + $avg + \" \" + $min + \" \" + $max );\n" +
+            "end\n" +
+            "rule HighVolume when\n" +
+            "    accumulate( $t : StockTick() from window Ticks;\n" +
+            "                $sum : sum( $t.getPrice() ), $count : count( $t ), $avg : average( $t.getPrice() ),\n" +
+            "                $min : min( $t.getPrice() ), $max : max( $t.getPrice() ); $count > 20 )\n" +
+            "then\n" +
+            "    results.add( \"HighVolume \" + $count + \" \" + $max );\n" +
+            "end\n" +
+            "rule LastMax when\n" +
+            "    accumulate( $t : StockTick() from window LastTicks; $max : max( $t.getPrice() ) )\n" +
+            "then\n" +
+            "    results.add( \"LastMax \" + $max );\n" +
+            "end\n" +
+            "rule LastMin when\n" +
+            "    accumulate( $t : StockTick() from window LastTicks; $min : min( $t.getPrice() ) )\n" +
+            "then\n" +
+            "    results.add( \"LastMin \" + $min );\n" +
+            "end\n";
+
+    public static Stream<KieBaseTestConfiguration> parameters() {
+        return TestParametersUtil2.getKieBaseStreamConfigurations(true).stream();
+    }
+
+    private KieBase getKieBase(KieBaseTestConfiguration kieBaseTestConfiguration, SharedWindowAggregatesOption option) {
+        KieModule kieModule = KieUtil.getKieModuleFromDrls("shared-window-aggregates-test", kieBaseTestConfiguration, DRL);
+        return KieBaseUtil.newKieBaseFromKieModuleWithAdditionalOptions(kieModule, kieBaseTestConfiguration, option);
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testSharedAggregatesFireAsNotShared(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        List<String> notShared = runTicks(getKieBase(kieBaseTestConfiguration, SharedWindowAggregatesOption.NO));
+        List<String> shared = runTicks(getKieBase(kieBaseTestConfiguration, SharedWindowAggregatesOption.YES));
+
+        assertThat(notShared).isNotEmpty();
+        assertThat(shared).containsExactlyElementsOf(notShared);
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testEqualAccumulatesShareOneAggregate(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        InternalKnowledgeBase kbase = (InternalKnowledgeBase) getKieBase(kieBaseTestConfiguration, SharedWindowAggregatesOption.YES);
+        KieSession ksession = newPseudoClockSession(kbase);
+        try {
+            ksession.setGlobal("results", new ArrayList<>());
+            for (int i = 0; i < 30; i++) {
+                ksession.insert(new StockTick(i, "ACME", i, 0));
+            }
+            ksession.fireAllRules();
+
+            // Stats and HighVolume use the same accumulate over the time window
+            WindowNode ticks = getWindowNode(kbase, SlidingTimeWindow.class);
+            WindowNode.WindowMemory ticksMemory = ((InternalWorkingMemory) ksession).getNodeMemory(ticks);
+            assertThat(ticksMemory.aggregates).hasSize(1);
+            assertThat(ticksMemory.aggregates[0].size()).isEqualTo(30);
+
+            WindowNode lastTicks = getWindowNode(kbase, SlidingLengthWindow.class);
+            WindowNode.WindowMemory lastTicksMemory = ((InternalWorkingMemory) ksession).getNodeMemory(lastTicks);
+            assertThat(lastTicksMemory.aggregates).hasSize(2);
+
+            ((SessionPseudoClock) ksession.getSessionClock()).advanceTime(1, TimeUnit.MINUTES);
+            ksession.fireAllRules();
+            assertThat(ticksMemory.aggregates[0].size()).isZero();
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testRemovedRuleAggregateIsNoLongerMaintained(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        InternalKnowledgeBase kbase = (InternalKnowledgeBase) getKieBase(kieBaseTestConfiguration, SharedWindowAggregatesOption.YES);
+        KieSession ksession = newPseudoClockSession(kbase);
+        try {
+            List<String> results = new ArrayList<>();
+            ksession.setGlobal("results", results);
+            for (int i = 0; i < 30; i++) {
+                ksession.insert(new StockTick(i, "ACME", i, 0));
+            }
+            ksession.fireAllRules();
+
+            WindowNode ticks = getWindowNode(kbase, SlidingTimeWindow.class);
+            WindowNode.WindowMemory ticksMemory = ((InternalWorkingMemory) ksession).getNodeMemory(ticks);
+            WindowNode lastTicks = getWindowNode(kbase, SlidingLengthWindow.class);
+            WindowNode.WindowMemory lastTicksMemory = ((InternalWorkingMemory) ksession).getNodeMemory(lastTicks);
+            assertThat(lastTicksMemory.aggregates).doesNotContainNull().hasSize(2);
+
+            // HighVolume still reads the aggregate that Stats was sharing
+            kbase.removeRule("defaultpkg", "Stats");
+            // nothing else reads the max over the LastTicks window
+            kbase.removeRule("defaultpkg", "LastMax");
+
+            results.clear();
+            ksession.insert(new StockTick(30, "ACME", 1000, 0));
+            ksession.fireAllRules();
+            assertThat(results).containsExactlyInAnyOrder("HighVolume 31 1000.0", "LastMin 0.0");
+
+            assertThat(ticksMemory.aggregates).hasSize(1);
+            assertThat(ticksMemory.aggregates[0].size()).isEqualTo(31);
+
+            List<WindowAggregate> lastTicksAggregates = new ArrayList<>();
+            for (WindowAggregate aggregate : lastTicksMemory.aggregates) {
+                if (aggregate != null) {
+                    lastTicksAggregates.add(aggregate);
+                }
+            }
+            assertThat(lastTicksAggregates).hasSize(1);
+            assertThat(lastTicksAggregates.get(0).getAccumulate().getAccumulators()).hasSize(1);
+            assertThat(lastTicksAggregates.get(0).size()).isEqualTo(31);
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    private static WindowNode getWindowNode(InternalKnowledgeBase kbase, Class<?> behaviorClass) {
+        List<WindowNode> windowNodes = new ArrayList<>();
+        for (ObjectTypeNode otn : kbase.getRete().getObjectTypeNodes()) {
+            for (ObjectSink sink : otn.getObjectSinkPropagator().getSinks()) {
+                if (sink instanceof WindowNode windowNode && behaviorClass.isInstance(windowNode.getBehaviors()[0])) {
+                    windowNodes.add(windowNode);
+                }
+            }
+        }
+        assertThat(windowNodes).hasSize(1);
+        return windowNodes.get(0);
+    }
+
+    private List<String> runTicks(KieBase kbase) {
+        KieSession ksession = newPseudoClockSession(kbase);
+        try {
+            List<String> results = new ArrayList<>();
+            ksession.setGlobal("results", results);
+            SessionPseudoClock clock = ksession.getSessionClock();
+
+            Random random = new Random(0);
+            List<FactHandle> handles = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                handles.add(ksession.insert(new StockTick(i, "ACME", random.nextInt(1000), 0)));
+                if (i % 7 == 0 && handles.size() > 1) {
+                    ksession.delete(handles.remove(random.nextInt(handles.size())));
+                }
+                if (i % 11 == 0) {
+                    FactHandle handle = handles.get(random.nextInt(handles.size()));
+                    StockTick tick = (StockTick) ksession.getObject(handle);
+                    tick.setPrice(random.nextInt(1000));
+                    ksession.update(handle, tick);
+                }
+                clock.advanceTime(random.nextInt(500), TimeUnit.MILLISECONDS);
+                if (i % 5 == 0) {
+                    ksession.fireAllRules();
+                }
+            }
+            clock.advanceTime(1, TimeUnit.MINUTES);
+            ksession.fireAllRules();
+            return results;
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    private static KieSession newPseudoClockSession(KieBase kbase) {
+        KieSessionConfiguration ksConf = RuleBaseFactory.newKnowledgeSessionConfiguration();
+        ksConf.setOption(ClockTypeOption.PSEUDO);
+        return kbase.newKieSession(ksConf, null);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.compiler.integrationtests.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.drools.core.phreak.LockFreePropagationList;
+import org.drools.core.phreak.SynchronizedPropagationList;
+import org.drools.kiesession.agenda.DefaultAgenda;
+import org.drools.kiesession.session.StatefulKnowledgeSessionImpl;
+import org.drools.testcoverage.common.model.Person;
+import org.drools.testcoverage.common.util.KieBaseTestConfiguration;
+import org.drools.testcoverage.common.util.KieBaseUtil;
+import org.drools.testcoverage.common.util.TestParametersUtil2;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionConfiguration;
+import org.kie.internal.runtime.conf.PropagationListOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrentInsertsTest {
+
+    private static final int PRODUCERS = 8;
+    private static final int INSERTS_PER_PRODUCER = 1000;
+
+    public static Stream<KieBaseTestConfiguration> parameters() {
+        return TestParametersUtil2.getKieBaseCloudConfigurations(true).stream();
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    @Timeout(60)
+    public void testConcurrentInsertsWithLockFreePropagationList(KieBaseTestConfiguration kieBaseTestConfiguration) throws Exception {
+        checkConcurrentInserts(kieBaseTestConfiguration, PropagationListOption.LOCK_FREE, LockFreePropagationList.class);
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    @Timeout(60)
+    public void testConcurrentInsertsWithDefaultPropagationList(KieBaseTestConfiguration kieBaseTestConfiguration) throws Exception {
+        checkConcurrentInserts(kieBaseTestConfiguration, PropagationListOption.DEFAULT, SynchronizedPropagationList.class);
+    }
+
+    private void checkConcurrentInserts(KieBaseTestConfiguration kieBaseTestConfiguration, PropagationListOption option,
+                                        Class<?> expectedListClass) throws Exception {
+        String drl =
+                "import " + Person.class.getCanonicalName() + ";\n" +
+                "global java.util.concurrent.atomic.AtomicInteger counter;\n" +
+                "rule R when\n" +
+                "    Person( age >= 18 )\n" +
+                "then\n" +
+                "    counter.incrementAndGet();\n" +
+                "end\n";
+
+        KieBase kieBase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("concurrent-inserts-test", kieBaseTestConfiguration, drl);
+        KieSessionConfiguration conf = KieServices.get().newKieSessionConfiguration();
+        conf.setOption(option);
+        KieSession ksession = kieBase.newKieSession(conf, null);
+
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS + 1);
+        try {
+            assertThat(((DefaultAgenda) ((StatefulKnowledgeSessionImpl) ksession).getAgenda()).getPropagationList()).isExactlyInstanceOf(expectedListClass);
+
+            AtomicInteger counter = new AtomicInteger();
+            ksession.setGlobal("counter", counter);
+            CompletableFuture<Void> firing = CompletableFuture.runAsync(ksession::fireUntilHalt, executor);
+
+            List<CompletableFuture<Void>> producers = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                producers.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < INSERTS_PER_PRODUCER; i++) {
+                        ksession.insert(new Person("person" + i, i % 36));
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(producers.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+            int expected = PRODUCERS * (int) IntStream.range(0, INSERTS_PER_PRODUCER).filter(i -> i % 36 >= 18).count();
+            while (counter.get() < expected) {
+                Thread.sleep(10);
+            }
+            ksession.halt();
+            firing.get(30, TimeUnit.SECONDS);
+
+            assertThat(counter.get()).isEqualTo(expected);
+            assertThat(ksession.getFactCount()).isEqualTo(PRODUCERS * INSERTS_PER_PRODUCER);
+        } finally {
+            executor.shutdownNow();
+            ksession.dispose();
+        }
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.compiler.integrationtests.incrementalcompilation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.drools.base.definitions.InternalKnowledgePackage;
+import org.drools.base.definitions.rule.impl.RuleImpl;
+import org.drools.kiesession.rulebase.InternalKnowledgeBase;
+import org.drools.testcoverage.common.model.Person;
+import org.drools.testcoverage.common.util.KieBaseTestConfiguration;
+import org.drools.testcoverage.common.util.KieBaseUtil;
+import org.drools.testcoverage.common.util.KieUtil;
+import org.drools.testcoverage.common.util.TestParametersUtil2;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.ReleaseId;
+import org.kie.api.event.kiebase.AfterRuleAddedEvent;
+import org.kie.api.event.kiebase.AfterRuleRemovedEvent;
+import org.kie.api.event.kiebase.BeforeRuleAddedEvent;
+import org.kie.api.event.kiebase.BeforeRuleRemovedEvent;
+import org.kie.api.event.kiebase.DefaultKieBaseEventListener;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchRuleUpdateTest {
+
+    private static final int FACTS = 100;
+
+    public static Stream<KieBaseTestConfiguration> parameters() {
+        return TestParametersUtil2.getKieBaseCloudConfigurations(true).stream();
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testUpdateToVersionWithManyRules(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        final KieServices ks = KieServices.Factory.get();
+        final ReleaseId releaseId1 = ks.newReleaseId("org.kie", "test-batch-rule-update", "1.0.0");
+        KieUtil.getKieModuleFromDrls(releaseId1, kieBaseTestConfiguration, firstVersion());
+
+        final KieContainer kc = ks.newKieContainer(releaseId1);
+        final KieSession ksession = kc.newKieSession();
+        final List<String> list = new ArrayList<>();
+        ksession.setGlobal("list", list);
+        insertFacts(ksession);
+
+        ksession.fireAllRules();
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final int min = i * 10;
+            addMatches(expected, "R" + i, k -> k % 2 == 0 && k >= min);
+        }
+        assertThat(list).containsExactlyInAnyOrderElementsOf(expected);
+        list.clear();
+
+        final ReleaseId releaseId2 = ks.newReleaseId("org.kie", "test-batch-rule-update", "1.1.0");
+        KieUtil.getKieModuleFromDrls(releaseId2, kieBaseTestConfiguration, secondVersion());
+        kc.updateToVersion(releaseId2);
+
+        // the unchanged rules must not fire again, while the modified and the new ones see all the existing facts
+        ksession.fireAllRules();
+        expected.clear();
+        for (int i = 5; i < 10; i++) {
+            final int min = i * 10 + 5;
+            addMatches(expected, "R" + i, k -> k % 2 == 0 && k >= min);
+        }
+        for (int j = 0; j < 10; j++) {
+            final int max = (j + 1) * 10;
+            addMatches(expected, "N" + j, k -> k % 2 == 1 && k < max);
+            final int min = j * 10;
+            addMatches(expected, "M" + j, k -> k % 2 == 0 && k >= min);
+        }
+        assertThat(list).containsExactlyInAnyOrderElementsOf(expected);
+        list.clear();
+
+        // the memories created by the update are fully functional
+        ksession.insert(new Person("p" + FACTS, 55));
+        ksession.insert("p" + FACTS);
+        ksession.fireAllRules();
+        assertThat(list).containsExactlyInAnyOrder("R0:p100", "R1:p100", "R2:p100", "R3:p100", "R4:p100", "R5:p100",
+                                                   "M0:p100", "M1:p100", "M2:p100", "M3:p100", "M4:p100", "M5:p100");
+
+        ksession.dispose();
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testUpdateRulesMatchesRuleByRuleUpdate(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        final KieBase batchKieBase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("test", kieBaseTestConfiguration, firstVersion());
+        final KieBase singleKieBase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("test", kieBaseTestConfiguration, firstVersion());
+
+        final KieSession batchSession = batchKieBase.newKieSession();
+        final List<String> batchList = new ArrayList<>();
+        batchSession.setGlobal("list", batchList);
+        insertFacts(batchSession);
+        batchSession.fireAllRules();
+
+        final KieSession singleSession = singleKieBase.newKieSession();
+        final List<String> singleList = new ArrayList<>();
+        singleSession.setGlobal("list", singleList);
+        insertFacts(singleSession);
+        singleSession.fireAllRules();
+
+        // the rules are taken from 2 distinct KieBases, so they don't share any state
+        final Collection<RuleImpl> newRules = getRules(KieBaseUtil.getKieBaseFromKieModuleFromDrl("test", kieBaseTestConfiguration, newRules()));
+        ((InternalKnowledgeBase) batchKieBase).updateRules(getRules(batchKieBase, "R8", "R9"), newRules);
+
+        final InternalKnowledgeBase singleInternalKieBase = (InternalKnowledgeBase) singleKieBase;
+        singleInternalKieBase.removeRules(getRules(singleKieBase, "R8", "R9"));
+        for (RuleImpl rule : getRules(KieBaseUtil.getKieBaseFromKieModuleFromDrl("test", kieBaseTestConfiguration, newRules()))) {
+            singleInternalKieBase.addRules(List.of(rule));
+        }
+
+        batchList.clear();
+        singleList.clear();
+        assertThat(batchSession.fireAllRules()).isEqualTo(singleSession.fireAllRules()).isPositive();
+        assertThat(batchList).containsExactlyInAnyOrderElementsOf(singleList);
+
+        batchSession.dispose();
+        singleSession.dispose();
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testUpdateAndDeleteAfterBatchedAddPackages(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        // the Persons and the Strings are also matched by the Object patterns, so each of them has its right tuples
+        // linked from 2 ObjectTypeNodes: those created by the batch must be in the same order as in a fresh session
+        final KieBase batchKieBase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("test", kieBaseTestConfiguration, baseRule());
+        final KieBase freshKieBase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("test", kieBaseTestConfiguration, baseRule() + multiOtnRules());
+
+        final KieSession batchSession = batchKieBase.newKieSession();
+        final List<String> batchList = new ArrayList<>();
+        batchSession.setGlobal("list", batchList);
+        final List<Person> batchPersons = insertFacts(batchSession);
+        batchSession.fireAllRules();
+
+        final KieSession freshSession = freshKieBase.newKieSession();
+        final List<String> freshList = new ArrayList<>();
+        freshSession.setGlobal("list", freshList);
+        final List<Person> freshPersons = insertFacts(freshSession);
+
+        final KieBase addedKieBase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("test", kieBaseTestConfiguration, header() + multiOtnRules());
+        ((InternalKnowledgeBase) batchKieBase).addPackages(addedKieBase.getKiePackages());
+
+        batchList.clear();
+        freshSession.fireAllRules();
+        freshList.removeIf(s -> s.startsWith("Base:"));
+        assertFiredAlike(batchSession, batchList, freshSession, freshList);
+
+        // update the Persons moving them across the constraints of the added rules
+        updatePersons(batchSession, batchPersons, 7);
+        updatePersons(freshSession, freshPersons, 7);
+        assertFiredAlike(batchSession, batchList, freshSession, freshList);
+
+        // delete half of the Strings, then update the Persons back, so the deleted matches can't fire again
+        deleteStrings(batchSession, i -> i % 4 == 0);
+        deleteStrings(freshSession, i -> i % 4 == 0);
+        updatePersons(batchSession, batchPersons, -7);
+        updatePersons(freshSession, freshPersons, -7);
+        assertFiredAlike(batchSession, batchList, freshSession, freshList);
+
+        // delete all the Persons: the remaining Strings must join only with the newly inserted ones
+        deletePersons(batchSession);
+        deletePersons(freshSession);
+        assertThat(batchSession.getObjects(Person.class::isInstance)).isEmpty();
+        for (int i = 0; i < FACTS; i += 10) {
+            batchSession.insert(new Person("p" + i, 95));
+            freshSession.insert(new Person("p" + i, 95));
+        }
+        assertFiredAlike(batchSession, batchList, freshSession, freshList);
+        assertThat(batchList).isNotEmpty();
+
+        batchSession.dispose();
+        freshSession.dispose();
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testUpdateRulesEventsOrder(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        final KieBase kieBase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("test", kieBaseTestConfiguration, firstVersion());
+        final KieSession ksession = kieBase.newKieSession();
+
+        final List<String> events = new ArrayList<>();
+        kieBase.addEventListener(new DefaultKieBaseEventListener() {
+            @Override
+            public void beforeRuleRemoved(BeforeRuleRemovedEvent event) {
+                events.add("beforeRemoved:" + event.getRule().getName());
+            }
+
+            @Override
+            public void afterRuleRemoved(AfterRuleRemovedEvent event) {
+                events.add("afterRemoved:" + event.getRule().getName());
+            }
+
+            @Override
+            public void beforeRuleAdded(BeforeRuleAddedEvent event) {
+                events.add("beforeAdded:" + event.getRule().getName());
+            }
+
+            @Override
+            public void afterRuleAdded(AfterRuleAddedEvent event) {
+                events.add("afterAdded:" + event.getRule().getName());
+            }
+        });
+
+        final Collection<RuleImpl> newRules = getRules(KieBaseUtil.getKieBaseFromKieModuleFromDrl("test", kieBaseTestConfiguration,
+                                                                                                   header() + joinRule("A0", 0)));
+        ((InternalKnowledgeBase) kieBase).updateRules(getRules(kieBase, "R9"), newRules);
+
+        // the same order as a removeRules followed by an addRules
+        assertThat(events).containsExactly("beforeRemoved:R9", "afterRemoved:R9", "beforeAdded:A0", "afterAdded:A0");
+
+        ksession.dispose();
+    }
+
+    private static void assertFiredAlike(KieSession batchSession, List<String> batchList, KieSession freshSession, List<String> freshList) {
+        batchSession.fireAllRules();
+        freshSession.fireAllRules();
+        assertThat(batchList).containsExactlyInAnyOrderElementsOf(freshList);
+        batchList.clear();
+        freshList.clear();
+    }
+
+    private static void updatePersons(KieSession ksession, List<Person> persons, int delta) {
+        for (Person person : persons) {
+            FactHandle fh = ksession.getFactHandle(person);
+            person.setAge(person.getAge() + delta);
+            ksession.update(fh, person);
+        }
+    }
+
+    private static void deleteStrings(KieSession ksession, IntPredicate toBeDeleted) {
+        new ArrayList<>(ksession.getFactHandles(o -> o instanceof String && toBeDeleted.test(Integer.parseInt(((String) o).substring(1)))))
+                .forEach(ksession::delete);
+    }
+
+    private static void deletePersons(KieSession ksession) {
+        new ArrayList<>(ksession.getFactHandles(Person.class::isInstance)).forEach(ksession::delete);
+    }
+
+    private static List<Person> insertFacts(KieSession ksession) {
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < FACTS; i++) {
+            Person person = new Person("p" + i, i);
+            persons.add(person);
+            ksession.insert(person);
+            if (i % 2 == 0) {
+                ksession.insert("p" + i);
+            }
+        }
+        return persons;
+    }
+
+    private static String baseRule() {
+        return header() + joinRule("Base", 0);
+    }
+
+    private static String multiOtnRules() {
+        StringBuilder drl = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            drl.append(joinRule("P" + i, i * 20));
+            drl.append("rule O" + i + " when\n" +
+                    "  Person( age >= " + (i * 20) + ", $n : name )\n" +
+                    "  Object( this == $n )\n" +
+                    "then\n" +
+                    "  list.add( \"O" + i + ":\" + $n );\n" +
+                    "end\n");
+            drl.append("rule S" + i + " when\n" +
+                    "  $s : String()\n" +
+                    "  $o : Object( this == $s )\n" +
+                    "  Person( name == $s, age < " + ((i + 1) * 20) + " )\n" +
+                    "then\n" +
+                    "  list.add( \"S" + i + ":\" + $s );\n" +
+                    "end\n");
+        }
+        return drl.toString();
+    }
+
+    private static void addMatches(List<String> expected, String ruleName, IntPredicate matching) {
+        IntStream.range(0, FACTS).filter(matching).forEach(k -> expected.add(ruleName + ":p" + k));
+    }
+
+    private static Collection<RuleImpl> getRules(KieBase kieBase, String... names) {
+        InternalKnowledgePackage pkg = (InternalKnowledgePackage) kieBase.getKiePackage("org.drools.batch");
+        List<RuleImpl> rules = new ArrayList<>();
+        if (names.length == 0) {
+            pkg.getRules().forEach(r -> rules.add((RuleImpl) r));
+        } else {
+            Stream.of(names).forEach(name -> rules.add(pkg.getRule(name)));
+        }
+        return rules;
+    }
+
+    private static String header() {
+        return "package org.drools.batch\n" +
+                "import " + Person.class.getCanonicalName() + ";\n" +
+                "global java.util.List list;\n";
+    }
+
+    private static String joinRule(String name, int minAge) {
+        return "rule " + name + " when\n" +
+                "  Person( age >= " + minAge + ", $n : name )\n" +
+                "  String( this == $n )\n" +
+                "then\n" +
+                "  list.add( \"" + name + ":\" + $n );\n" +
+                "end\n";
+    }
+
+    private static String notRule(String name, int maxAge) {
+        return "rule " + name + " when\n" +
+                "  Person( age < " + maxAge + ", $n : name )\n" +
+                "  not String( this == $n )\n" +
+                "then\n" +
+                "  list.add( \"" + name + ":\" + $n );\n" +
+                "end\n";
+    }
+
+    private static String firstVersion() {
+        StringBuilder drl = new StringBuilder(header());
+        for (int i = 0; i < 10; i++) {
+            drl.append(joinRule("R" + i, i * 10));
+        }
+        return drl.toString();
+    }
+
+    private static String secondVersion() {
+        StringBuilder drl = new StringBuilder(header());
+        for (int i = 0; i < 10; i++) {
+            drl.append(joinRule("R" + i, i < 5 ? i * 10 : i * 10 + 5));
+        }
+        for (int j = 0; j < 10; j++) {
+            drl.append(notRule("N" + j, (j + 1) * 10));
+            drl.append(joinRule("M" + j, j * 10));
+        }
+        return drl.toString();
+    }
+
+    private static String newRules() {
+        StringBuilder drl = new StringBuilder(header());
+        for (int j = 0; j < 10; j++) {
+            drl.append(notRule("N" + j, (j + 1) * 10));
+            drl.append(joinRule("M" + j, j * 10));
+        }
+        return drl.toString();
+    }
+}
@@ -29,6 +29,7 @@ import org.drools.core.common.InternalFactHandle;
 import org.drools.core.reteoo.AlphaNode;
 import org.drools.core.reteoo.RightInputAdapterNode;
 import org.drools.core.reteoo.CompositeObjectSinkAdapter;
+import org.drools.core.reteoo.CompositeObjectSinkAdapter.FieldIndex;
 import org.drools.core.reteoo.CompositeObjectSinkAdapter.HashKey;
 import org.drools.core.reteoo.JoinRightAdapterNode;
 import org.drools.core.reteoo.MockObjectSink;
@@ -39,16 +40,23 @@ import org.drools.kiesession.entrypoints.DisconnectedWorkingMemoryEntryPoint;
 import org.drools.kiesession.rulebase.InternalKnowledgeBase;
 import org.drools.kiesession.rulebase.KnowledgeBaseFactory;
 import org.drools.mvel.accessors.ClassFieldAccessorStore;
+import org.drools.mvel.compiler.Triangle;
+import org.drools.mvel.integrationtests.SerializationHelper;
 import org.drools.mvel.model.Cheese;
 import org.drools.mvel.model.MockObjectSource;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.kie.api.runtime.rule.FactHandle;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInput;
+import java.io.ObjectInputStream;
 import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -407,6 +415,33 @@ public class CompositeObjectSinkAdapterTest {
 
     }
 
+    @Test
+    public void testEnumHashKeySerialization() throws Exception {
+        extractor = store.getReader( Triangle.class, "type" );
+        final Triangle triangle = new Triangle();
+        triangle.setType( Triangle.Type.ACUTE );
+        final HashKey hashKey = new HashKey( new FieldIndex( extractor.getIndex(), extractor ), triangle );
+
+        final HashKey deserialized = SerializationHelper.serializeObject( hashKey );
+        assertThat(deserialized).isEqualTo(hashKey);
+        assertThat(deserialized.hashCode()).isEqualTo(hashKey.hashCode());
+
+        // a key written by another JVM, where the identity hash of the enum constant was different
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream( bytes )) {
+            out.writeInt( extractor.getIndex() );
+            out.writeObject( Triangle.Type.ACUTE );
+            out.writeBoolean( false );
+            out.writeInt( hashKey.hashCode() + 1 );
+        }
+        final HashKey foreign = new HashKey();
+        try (ObjectInputStream in = new ObjectInputStream( new ByteArrayInputStream( bytes.toByteArray() ) )) {
+            foreign.readExternal( in );
+        }
+        assertThat(foreign).isEqualTo(hashKey);
+        assertThat(foreign.hashCode()).isEqualTo(hashKey.hashCode());
+    }
+
 	private AlphaNodeFieldConstraint cheeseTypeEqualsTo(boolean useLambdaConstraint, String value) {
 		return ConstraintTestUtil.createCheeseTypeEqualsConstraint(extractor, value, useLambdaConstraint);
 	}
@@ -25,6 +25,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
+import org.drools.core.reteoo.AlphaNode;
+import org.drools.core.reteoo.ObjectTypeNode;
+import org.drools.mvel.ConstraintJittingService;
 import org.drools.mvel.compiler.Person;
 import org.drools.mvel.integrationtests.facts.AnEnum;
 import org.drools.mvel.integrationtests.facts.FactWithEnum;
@@ -36,7 +39,10 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.kie.api.KieBase;
+import org.kie.api.KieBaseConfiguration;
+import org.kie.api.KieServices;
 import org.kie.api.builder.KieModule;
+import org.kie.api.runtime.KieContainer;
 import org.kie.api.runtime.KieSession;
 import org.kie.internal.conf.ConstraintJittingThresholdOption;
 
@@ -523,4 +529,160 @@ public class JittingTest {
             ksession.dispose();
         }
     }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testJittedClassIsSharedAcrossKieBasesOfTheSameContainer(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        assumeFalse(kieBaseTestConfiguration.isExecutableModel(), "The executable model doesn't use MVEL jitting");
+
+        final String drl =
+                "import " + Person.class.getCanonicalName() + ";\n" +
+                "rule R when\n" +
+                "    Person( name.length() == 7 && age * 3 > 123 )\n" +
+                "then\n" +
+                "end\n";
+
+        final ConstraintJittingService jittingService = ConstraintJittingService.get();
+        final long jittedBefore = jittingService.getJittedCount();
+
+        final KieModule kieModule = KieUtil.getKieModuleFromDrls("test", kieBaseTestConfiguration, drl);
+        final KieContainer kieContainer = KieServices.get().newKieContainer(kieModule.getReleaseId());
+        final KieBaseConfiguration kieBaseConfiguration = kieBaseTestConfiguration.getKieBaseConfiguration();
+        kieBaseConfiguration.setOption(ConstraintJittingThresholdOption.get(0));
+
+        assertThat(fireAll(kieContainer.newKieBase(kieBaseConfiguration), new Person("Luciano", 42))).isEqualTo(1);
+        final long jittedByFirstKieBase = jittingService.getJittedCount() - jittedBefore;
+        assertThat(jittedByFirstKieBase).isPositive();
+
+        // a second KieBase of the same container shares its classloader and then reuses the classes jitted for the first one
+        final long cacheHitsBefore = jittingService.getCacheHitCount();
+        assertThat(fireAll(kieContainer.newKieBase(kieBaseConfiguration), new Person("Luciano", 42))).isEqualTo(1);
+        assertThat(jittingService.getJittedCount() - jittedBefore).isEqualTo(jittedByFirstKieBase);
+        assertThat(jittingService.getCacheHitCount() - cacheHitsBefore).isEqualTo(jittedByFirstKieBase);
+
+        // a KieBase of another container must not keep the classloader of the first one alive, so it jits its own classes
+        assertThat(fireWithForcedJitting(kieBaseTestConfiguration, drl, new Person("Luciano", 42))).isEqualTo(1);
+        assertThat(jittingService.getJittedCount() - jittedBefore).isEqualTo(2 * jittedByFirstKieBase);
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testJittedClassIsNotSharedAcrossDifferentDeclaredTypes(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        assumeFalse(kieBaseTestConfiguration.isExecutableModel(), "The executable model doesn't use MVEL jitting");
+
+        // each KieBase defines its own version of the Item class, so the jitted classes cannot be shared
+        final String drl =
+                "declare Item\n" +
+                "    name : String\n" +
+                "end\n" +
+                "rule Init when then insert(new Item(\"shared\")); end\n" +
+                "rule R when\n" +
+                "    Item( name.length() * 2 == 12 )\n" +
+                "then\n" +
+                "end\n";
+
+        final ConstraintJittingService jittingService = ConstraintJittingService.get();
+        final long jittedBefore = jittingService.getJittedCount();
+
+        assertThat(fireWithForcedJitting(kieBaseTestConfiguration, drl)).isEqualTo(2);
+        final long jittedByFirstKieBase = jittingService.getJittedCount() - jittedBefore;
+        assertThat(jittedByFirstKieBase).isPositive();
+
+        assertThat(fireWithForcedJitting(kieBaseTestConfiguration, drl)).isEqualTo(2);
+        assertThat(jittingService.getJittedCount() - jittedBefore).isEqualTo(2 * jittedByFirstKieBase);
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testBackgroundJitting(KieBaseTestConfiguration kieBaseTestConfiguration) throws InterruptedException {
+        assumeFalse(kieBaseTestConfiguration.isExecutableModel(), "The executable model doesn't use MVEL jitting");
+
+        final String drl =
+                "import " + Person.class.getCanonicalName() + ";\n" +
+                "rule R when\n" +
+                "    Person( name.length() == 5 && age * 2 > 41 )\n" +
+                "then\n" +
+                "end\n";
+
+        final ConstraintJittingService jittingService = ConstraintJittingService.get();
+        final long submittedBefore = jittingService.getSubmittedCount();
+
+        final KieModule kieModule = KieUtil.getKieModuleFromDrls("test", kieBaseTestConfiguration, drl);
+        final KieBase kieBase = KieBaseUtil.newKieBaseFromKieModuleWithAdditionalOptions(kieModule, kieBaseTestConfiguration, ConstraintJittingThresholdOption.get(5));
+        final KieSession ksession = kieBase.newKieSession();
+        try {
+            for (int i = 0; i < 10; i++) {
+                ksession.insert(new Person("Mario", 40 + i));
+            }
+            assertThat(ksession.fireAllRules()).isEqualTo(10);
+            assertThat(jittingService.getSubmittedCount()).isGreaterThan(submittedBefore);
+
+            for (int i = 0; i < 100 && jittingService.getBacklog() > 0; i++) {
+                Thread.sleep(100);
+            }
+            assertThat(jittingService.getBacklog()).isZero();
+
+            // the evaluation keeps working once the jitted evaluator replaced the interpreted one
+            for (int i = 0; i < 10; i++) {
+                ksession.insert(new Person("Mario", 30 + i));
+            }
+            assertThat(ksession.fireAllRules()).isEqualTo(10);
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testEagerJittingEnabledAfterInterpretedEvaluation(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        assumeFalse(kieBaseTestConfiguration.isExecutableModel(), "The executable model doesn't use MVEL jitting");
+
+        final String drl =
+                "import " + Person.class.getCanonicalName() + ";\n" +
+                "rule R when\n" +
+                "    Person( name.length() == 4 && age * 7 > 111 )\n" +
+                "then\n" +
+                "end\n";
+
+        final ConstraintJittingService jittingService = ConstraintJittingService.get();
+
+        final KieModule kieModule = KieUtil.getKieModuleFromDrls("test", kieBaseTestConfiguration, drl);
+        final KieBase kieBase = KieBaseUtil.newKieBaseFromKieModuleWithAdditionalOptions(kieModule, kieBaseTestConfiguration, ConstraintJittingThresholdOption.get(1000));
+        final KieSession ksession = kieBase.newKieSession();
+        try {
+            // the first evaluation creates the interpreted evaluator
+            ksession.insert(new Person("Mark", 40));
+            assertThat(ksession.fireAllRules()).isEqualTo(1);
+
+            final long jittedBefore = jittingService.getJittedCount() + jittingService.getCacheHitCount();
+            final ObjectTypeNode otn = LinkingTest.getObjectTypeNode(kieBase, Person.class);
+            final AlphaNode alphaNode = (AlphaNode) otn.getObjectSinkPropagator().getSinks()[0];
+            alphaNode.getConstraint().enableEagerJitting();
+
+            // the following evaluation jits the constraint, even if its evaluator already exists
+            ksession.insert(new Person("Mark", 41));
+            assertThat(ksession.fireAllRules()).isEqualTo(1);
+            assertThat(jittingService.getJittedCount() + jittingService.getCacheHitCount()).isGreaterThan(jittedBefore);
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    private static int fireWithForcedJitting(KieBaseTestConfiguration kieBaseTestConfiguration, String drl, Object... facts) {
+        final KieModule kieModule = KieUtil.getKieModuleFromDrls("test", kieBaseTestConfiguration, drl);
+        final KieBase kieBase = KieBaseUtil.newKieBaseFromKieModuleWithAdditionalOptions(kieModule, kieBaseTestConfiguration, ConstraintJittingThresholdOption.get(0));
+        return fireAll(kieBase, facts);
+    }
+
+    private static int fireAll(KieBase kieBase, Object... facts) {
+        final KieSession ksession = kieBase.newKieSession();
+        try {
+            for (Object fact : facts) {
+                ksession.insert(fact);
+            }
+            return ksession.fireAllRules();
+        } finally {
+            ksession.dispose();
+        }
+    }
 }
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.mvel.integrationtests.session;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.drools.kiesession.session.PartitionedKieSession;
+import org.drools.testcoverage.common.util.KieBaseTestConfiguration;
+import org.drools.testcoverage.common.util.KieBaseUtil;
+import org.drools.testcoverage.common.util.TestParametersUtil2;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.kie.api.KieBase;
+import org.kie.api.definition.type.Partition;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.QueryResultsRow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PartitionedKieSessionTest {
+
+    public static Stream<KieBaseTestConfiguration> parameters() {
+        return TestParametersUtil2.getKieBaseCloudConfigurations(true).stream();
+    }
+
+    private static final String DRL =
+            "import " + Transaction.class.getCanonicalName() + ";\n" +
+            "import " + Threshold.class.getCanonicalName() + ";\n" +
+            "global java.util.List alerts;\n" +
+            "rule TwoLargeTransactions when\n" +
+            "    Threshold( $limit : limit )\n" +
+            "    Transaction( $account : account, $id : id, amount > $limit )\n" +
+            "    Transaction( account == $account, id > $id, amount > $limit )\n" +
+            "then\n" +
+            "    alerts.add( $account );\n" +
+            "end\n" +
+            "query largeTransactions( int $min )\n" +
+            "    $t : Transaction( amount >= $min )\n" +
+            "end\n" +
+            "query thresholds()\n" +
+            "    $th : Threshold()\n" +
+            "end\n" +
+            "query partitionTotals()\n" +
+            "    accumulate( Transaction( $a : amount ); $sum : sum( $a ) )\n" +
+            "end\n";
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testPartitionedSessionFiresAsSingleSession(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        KieBase kbase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("partitioned-test", kieBaseTestConfiguration, DRL);
+        List<Object> facts = createFacts();
+
+        KieSession single = kbase.newKieSession();
+        List<String> singleAlerts = new ArrayList<>();
+        single.setGlobal("alerts", singleAlerts);
+        facts.forEach(single::insert);
+        int singleFired = single.fireAllRules();
+        single.dispose();
+        assertThat(singleFired).isPositive();
+
+        try (PartitionedKieSession partitioned = PartitionedKieSession.create(kbase, 4)) {
+            List<String> alerts = Collections.synchronizedList(new ArrayList<>());
+            partitioned.setGlobal("alerts", alerts);
+            facts.forEach(partitioned::insert);
+
+            assertThat(partitioned.fireAllRules()).isEqualTo(singleFired);
+            assertThat(alerts).containsExactlyInAnyOrderElementsOf(singleAlerts);
+
+            // the threshold is broadcast to all the partitions, but returned only once
+            assertThat(partitioned.getObjects()).hasSize(facts.size());
+            assertThat(partitioned.getFactCounts()).hasSize(4);
+            assertThat(Arrays.stream(partitioned.getFactCounts()).sum()).isEqualTo(facts.size() - 1 + 4);
+        }
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testRoutingByPartitionKey(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        KieBase kbase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("partitioned-test", kieBaseTestConfiguration, DRL);
+
+        try (PartitionedKieSession partitioned = PartitionedKieSession.create(kbase, 4)) {
+            assertThat(partitioned.partitionOf(new Threshold(100))).isEqualTo(PartitionedKieSession.BROADCAST);
+
+            int partition = partitioned.partitionOf(new Transaction(0, "ACC-1", 10));
+            assertThat(partition).isBetween(0, 3);
+            for (int i = 1; i < 10; i++) {
+                assertThat(partitioned.partitionOf(new Transaction(i, "ACC-1", i * 10))).isEqualTo(partition);
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testQueryAndDeleteAcrossPartitions(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        KieBase kbase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("partitioned-test", kieBaseTestConfiguration, DRL);
+
+        try (PartitionedKieSession partitioned = PartitionedKieSession.create(kbase, 3)) {
+            partitioned.setGlobal("alerts", Collections.synchronizedList(new ArrayList<>()));
+            List<Transaction> large = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                Transaction transaction = new Transaction(i, "ACC-" + i, i % 2 == 0 ? 500 : 5);
+                partitioned.insert(transaction);
+                if (transaction.getAmount() >= 100) {
+                    large.add(transaction);
+                }
+            }
+
+            List<QueryResultsRow> rows = partitioned.getQueryResults("largeTransactions", 100);
+            assertThat(rows.stream().map(row -> row.get("$t"))).containsExactlyInAnyOrderElementsOf(large);
+
+            partitioned.delete(large.get(0)).join();
+            assertThat(partitioned.getQueryResults("largeTransactions", 100)).hasSize(large.size() - 1);
+        }
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testQueryOnBroadcastFactsReturnsThemOnce(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        KieBase kbase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("partitioned-test", kieBaseTestConfiguration, DRL);
+
+        try (PartitionedKieSession partitioned = PartitionedKieSession.create(kbase, 3)) {
+            partitioned.setGlobal("alerts", Collections.synchronizedList(new ArrayList<>()));
+            Threshold threshold = new Threshold(100);
+            partitioned.insert(threshold);
+            for (int i = 0; i < 30; i++) {
+                partitioned.insert(new Transaction(i, "ACC-" + i, 10));
+            }
+
+            List<QueryResultsRow> rows = partitioned.getQueryResults("thresholds");
+            assertThat(rows).hasSize(1);
+            assertThat(rows.get(0).get("$th")).isSameAs(threshold);
+
+            // each partition accumulates its own facts, so all their results are returned
+            List<QueryResultsRow> totals = partitioned.getQueryResults("partitionTotals");
+            assertThat(totals).hasSize(3);
+            assertThat(totals.stream().mapToDouble(row -> ((Number) row.get("$sum")).doubleValue()).sum()).isEqualTo(300.0);
+        }
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testNullPartitionKeyIsRejected(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        KieBase kbase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("partitioned-test", kieBaseTestConfiguration, DRL);
+
+        try (PartitionedKieSession partitioned = PartitionedKieSession.create(kbase, 3)) {
+            Transaction transaction = new Transaction(0, null, 500);
+            assertThatThrownBy(() -> partitioned.partitionOf(transaction)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> partitioned.insert(transaction)).isInstanceOf(IllegalArgumentException.class);
+            assertThat(partitioned.getObjects()).isEmpty();
+        }
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testRuleOnBroadcastFactsFiresInEveryPartition(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        String drl =
+                "import " + Threshold.class.getCanonicalName() + ";\n" +
+                "global java.util.List alerts;\n" +
+                "rule ThresholdSet when\n" +
+                "    Threshold( $limit : limit )\n" +
+                "then\n" +
+                "    alerts.add( \"Threshold \" + $limit );\n" +
+                "end\n";
+        KieBase kbase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("partitioned-test", kieBaseTestConfiguration, drl);
+
+        try (PartitionedKieSession partitioned = PartitionedKieSession.create(kbase, 3)) {
+            List<String> alerts = Collections.synchronizedList(new ArrayList<>());
+            partitioned.setGlobal("alerts", alerts);
+            Threshold threshold = new Threshold(100);
+            partitioned.insert(threshold);
+
+            // each partition evaluates the broadcast fact on its own
+            assertThat(partitioned.fireAllRules()).isEqualTo(3);
+            assertThat(alerts).containsExactly("Threshold 100", "Threshold 100", "Threshold 100");
+
+            // a broadcast fact is shared by all the partitions, so it can only be replaced
+            assertThatThrownBy(() -> partitioned.update(threshold)).isInstanceOf(UnsupportedOperationException.class);
+            partitioned.delete(threshold);
+            partitioned.insert(new Threshold(200));
+            assertThat(partitioned.fireAllRules()).isEqualTo(3);
+            assertThat(alerts).endsWith("Threshold 200", "Threshold 200", "Threshold 200");
+        }
+    }
+
+    private static List<Object> createFacts() {
+        List<Object> facts = new ArrayList<>();
+        facts.add(new Threshold(100));
+        for (int i = 0; i < 200; i++) {
+            facts.add(new Transaction(i, "ACC-" + (i % 20), (i * 37) % 250));
+        }
+        return facts;
+    }
+
+    public static class Transaction {
+
+        private final int id;
+
+        @Partition
+        private final String account;
+
+        private final int amount;
+
+        public Transaction(int id, String account, int amount) {
+            this.id = id;
+            this.account = account;
+            this.amount = amount;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getAccount() {
+            return account;
+        }
+
+        public int getAmount() {
+            return amount;
+        }
+    }
+
+    public static class Threshold {
+
+        private final int limit;
+
+        public Threshold(int limit) {
+            this.limit = limit;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+    }
+}
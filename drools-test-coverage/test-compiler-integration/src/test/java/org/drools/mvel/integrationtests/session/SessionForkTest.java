@@ -0,0 +1,299 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.mvel.integrationtests.session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.drools.core.common.InternalFactHandle;
+import org.drools.kiesession.session.StatefulKnowledgeSessionImpl;
+import org.drools.testcoverage.common.model.Person;
+import org.drools.testcoverage.common.util.KieBaseTestConfiguration;
+import org.drools.testcoverage.common.util.KieBaseUtil;
+import org.drools.testcoverage.common.util.TestParametersUtil2;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionConfiguration;
+import org.kie.api.runtime.conf.ClockTypeOption;
+import org.kie.api.runtime.rule.FactHandle;
+import org.kie.api.time.SessionPseudoClock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SessionForkTest {
+
+    public static Stream<KieBaseTestConfiguration> parameters() {
+        return TestParametersUtil2.getKieBaseCloudConfigurations(true).stream();
+    }
+
+    public static Stream<KieBaseTestConfiguration> streamParameters() {
+        return TestParametersUtil2.getKieBaseStreamConfigurations(true).stream();
+    }
+
+    private static final String RULES =
+            "import " + Person.class.getCanonicalName() + ";\n" +
+            "global java.util.List list;\n" +
+            "rule Adult when\n" +
+            "    $p : Person( age >= 18 )\n" +
+            "then\n" +
+            "    list.add( \"Adult \" + $p.getName() );\n" +
+            "end\n" +
+            "rule SameAge when\n" +
+            "    $p1 : Person( $a : age )\n" +
+            "    $p2 : Person( this != $p1, age == $a, name > $p1.name )\n" +
+            "then\n" +
+            "    list.add( \"SameAge \" + $p1.getName() + \" \" + $p2.getName() );\n" +
+            "end\n" +
+            "rule TotalAge when\n" +
+            "    $s : String()\n" +
+            "    accumulate( Person( $a : age ); $sum : sum( $a ) )\n" +
+            "then\n" +
+            "    list.add( \"TotalAge \" + $sum );\n" +
+            "end\n";
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testForkDoesNotRefireFiredMatches(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        KieBase kbase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("fork-test", kieBaseTestConfiguration, RULES);
+        StatefulKnowledgeSessionImpl parent = (StatefulKnowledgeSessionImpl) kbase.newKieSession();
+        List<String> parentList = new ArrayList<>();
+        parent.setGlobal("list", parentList);
+
+        parent.insert(new Person("Mario", 40));
+        FactHandle luca = parent.insert(new Person("Luca", 40));
+        parent.insert("total");
+        parent.fireAllRules();
+        assertThat(parentList).containsExactlyInAnyOrder("Adult Mario", "Adult Luca", "SameAge Luca Mario", "TotalAge 80");
+
+        // still on the agenda of the parent when it is forked
+        parent.insert(new Person("Edson", 16));
+
+        StatefulKnowledgeSessionImpl fork = parent.fork();
+        try {
+            assertThat(fork.getObjects()).hasSize(parent.getObjects().size());
+            FactHandle forkLuca = forkHandle(fork, luca);
+            assertThat(fork.getObject(forkLuca)).isNotSameAs(parent.getObject(luca)).isEqualTo(parent.getObject(luca));
+
+            List<String> forkList = new ArrayList<>();
+            fork.setGlobal("list", forkList);
+            assertThat(fork.fireAllRules()).isEqualTo(1);
+            assertThat(forkList).containsExactly("TotalAge 96");
+
+            // the fork evolves independently from its parent
+            fork.delete(forkLuca);
+            fork.insert(new Person("Mark", 20));
+            fork.fireAllRules();
+            assertThat(forkList).containsExactly("TotalAge 96", "Adult Mark", "TotalAge 76");
+
+            assertThat(parent.getObjects()).hasSize(4);
+            assertThat(parent.fireAllRules()).isEqualTo(1);
+            assertThat(parentList).endsWith("TotalAge 96");
+        } finally {
+            fork.dispose();
+            parent.dispose();
+        }
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testModifyInForkDoesNotAffectParent(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        KieBase kbase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("fork-test", kieBaseTestConfiguration, RULES);
+        StatefulKnowledgeSessionImpl parent = (StatefulKnowledgeSessionImpl) kbase.newKieSession();
+        List<String> parentList = new ArrayList<>();
+        parent.setGlobal("list", parentList);
+
+        Person mario = new Person("Mario", 40);
+        FactHandle marioHandle = parent.insert(mario);
+        parent.insert(new Person("Luca", 40));
+        parent.insert("total");
+        parent.fireAllRules();
+        parentList.clear();
+
+        StatefulKnowledgeSessionImpl fork = parent.fork();
+        try {
+            List<String> forkList = new ArrayList<>();
+            fork.setGlobal("list", forkList);
+
+            FactHandle forkMario = forkHandle(fork, marioHandle);
+            Person forkedMario = (Person) fork.getObject(forkMario);
+            forkedMario.setAge(16);
+            fork.update(forkMario, forkedMario);
+            fork.fireAllRules();
+            assertThat(forkList).containsExactly("TotalAge 56");
+
+            // the parent still sees its own unchanged facts and has nothing to fire
+            assertThat(mario.getAge()).isEqualTo(40);
+            assertThat(parent.getObject(marioHandle)).isSameAs(mario);
+            assertThat(parent.fireAllRules()).isZero();
+            assertThat(parentList).isEmpty();
+
+            parent.insert(new Person("Edson", 40));
+            parent.fireAllRules();
+            assertThat(parentList).containsExactlyInAnyOrder("Adult Edson", "SameAge Edson Luca", "SameAge Edson Mario", "TotalAge 120");
+        } finally {
+            fork.dispose();
+            parent.dispose();
+        }
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testForkWithCustomFactCloner(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        KieBase kbase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("fork-test", kieBaseTestConfiguration, RULES);
+        StatefulKnowledgeSessionImpl parent = (StatefulKnowledgeSessionImpl) kbase.newKieSession();
+        List<String> parentList = new ArrayList<>();
+        parent.setGlobal("list", parentList);
+
+        FactHandle mario = parent.insert(new Person("Mario", 40));
+        parent.fireAllRules();
+
+        List<Object> cloned = new ArrayList<>();
+        StatefulKnowledgeSessionImpl fork = parent.fork(object -> {
+            cloned.add(object);
+            if (object instanceof Person p) {
+                return new Person(p.getName(), p.getAge());
+            }
+            return object instanceof List<?> l ? new ArrayList<>(l) : object;
+        });
+        try {
+            assertThat(cloned).containsExactly(parent.getObject(mario), parentList);
+            assertThat(fork.getObject(forkHandle(fork, mario))).isNotSameAs(parent.getObject(mario));
+            assertThat(fork.getGlobal("list")).isNotSameAs(parentList).isEqualTo(parentList);
+        } finally {
+            fork.dispose();
+            parent.dispose();
+        }
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testForkCopiesTheGlobals(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        KieBase kbase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("fork-test", kieBaseTestConfiguration, RULES);
+        StatefulKnowledgeSessionImpl parent = (StatefulKnowledgeSessionImpl) kbase.newKieSession();
+        List<String> parentList = new ArrayList<>();
+        parent.setGlobal("list", parentList);
+
+        parent.insert(new Person("Mario", 40));
+        parent.fireAllRules();
+        assertThat(parentList).containsExactly("Adult Mario");
+
+        StatefulKnowledgeSessionImpl fork = parent.fork();
+        try {
+            // the fork has its own copy of the global list, so its consequences don't change the one of the parent
+            List<String> forkList = (List<String>) fork.getGlobal("list");
+            assertThat(forkList).isNotSameAs(parentList).containsExactly("Adult Mario");
+
+            fork.insert(new Person("Luca", 20));
+            fork.fireAllRules();
+            assertThat(forkList).containsExactly("Adult Mario", "Adult Luca");
+            assertThat(parentList).containsExactly("Adult Mario");
+        } finally {
+            fork.dispose();
+            parent.dispose();
+        }
+    }
+
+    private static FactHandle forkHandle(KieSession fork, FactHandle parentHandle) {
+        long id = ((InternalFactHandle) parentHandle).getId();
+        return fork.getFactHandles().stream()
+                .filter(fh -> ((InternalFactHandle) fh).getId() == id)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("streamParameters")
+    public void testForkKeepsClockAndEventsExpiration(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        String drl =
+                "import " + Person.class.getCanonicalName() + ";\n" +
+                "declare Person @role( event ) @expires( 10s ) end\n" +
+                "global java.util.List list;\n" +
+                "rule Adult when\n" +
+                "    $p : Person( age >= 18 )\n" +
+                "then\n" +
+                "    list.add( $p.getName() );\n" +
+                "end\n";
+
+        KieBase kbase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("fork-test", kieBaseTestConfiguration, drl);
+        KieSessionConfiguration conf = KieServices.get().newKieSessionConfiguration();
+        conf.setOption(ClockTypeOption.PSEUDO);
+        StatefulKnowledgeSessionImpl parent = (StatefulKnowledgeSessionImpl) kbase.newKieSession(conf, null);
+        parent.setGlobal("list", new ArrayList<>());
+        SessionPseudoClock parentClock = (SessionPseudoClock) parent.getSessionClock();
+
+        parent.insert(new Person("Mario", 40));
+        parent.fireAllRules();
+        parentClock.advanceTime(6, TimeUnit.SECONDS);
+        parent.insert(new Person("Luca", 40));
+
+        KieSession fork = parent.fork();
+        try {
+            SessionPseudoClock forkClock = fork.getSessionClock();
+            assertThat(forkClock.getCurrentTime()).isEqualTo(parentClock.getCurrentTime());
+
+            List<String> forkList = new ArrayList<>();
+            fork.setGlobal("list", forkList);
+            fork.fireAllRules();
+            assertThat(forkList).containsExactly("Luca");
+
+            // the expiration of the first event has been scheduled in the fork as well
+            forkClock.advanceTime(5, TimeUnit.SECONDS);
+            fork.fireAllRules();
+            assertThat(fork.getObjects()).hasSize(1);
+
+            forkClock.advanceTime(6, TimeUnit.SECONDS);
+            fork.fireAllRules();
+            assertThat(fork.getObjects()).isEmpty();
+
+            // advancing the clock of the fork doesn't affect the parent
+            assertThat(parent.getObjects()).hasSize(2);
+        } finally {
+            fork.dispose();
+            parent.dispose();
+        }
+    }
+
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testForkWithLogicalInsertIsNotSupported(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        String drl =
+                "import " + Person.class.getCanonicalName() + ";\n" +
+                "rule Logical when\n" +
+                "    $p : Person( age >= 18 )\n" +
+                "then\n" +
+                "    insertLogical( $p.getName() );\n" +
+                "end\n";
+
+        KieBase kbase = KieBaseUtil.getKieBaseFromKieModuleFromDrl("fork-test", kieBaseTestConfiguration, drl);
+        StatefulKnowledgeSessionImpl parent = (StatefulKnowledgeSessionImpl) kbase.newKieSession();
+        try {
+            parent.insert(new Person("Mario", 40));
+            parent.fireAllRules();
+            assertThatThrownBy(parent::fork).isInstanceOf(UnsupportedOperationException.class);
+        } finally {
+            parent.dispose();
+        }
+    }
+}
@@ -28,9 +28,13 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
+import org.drools.compiler.kie.builder.impl.KieContainerImpl;
+import org.drools.compiler.kie.builder.impl.KieContainerSessionsPoolImpl;
 import org.drools.core.common.EventSupport;
 import org.drools.core.event.DefaultAgendaEventListener;
 import org.drools.core.event.DefaultRuleRuntimeEventListener;
+import org.drools.core.util.ScalablePool;
+import org.drools.kiesession.session.KieSessionsPoolOptions;
 import org.drools.mvel.compiler.FactA;
 import org.drools.mvel.compiler.FactB;
 import org.drools.mvel.compiler.FactC;
@@ -174,6 +178,42 @@ public class SessionsPoolTest {
         } catch (IllegalStateException e) { }
     }
 
+    @ParameterizedTest(name = "KieBase type={0}")
+    @MethodSource("parameters")
+    public void testPreWarmedKieSessionsPoolWithAsyncReset(KieBaseTestConfiguration kieBaseTestConfiguration) {
+        List<Runnable> resetTasks = new ArrayList<>();
+        KieSessionsPoolOptions options = KieSessionsPoolOptions.of( 1 )
+                .withMaxIdle( 1 )
+                .withAsyncReset( resetTasks::add )
+                .withPreWarmedMemories();
+        KieContainerImpl kieContainer = (KieContainerImpl) getKieContainer(kieBaseTestConfiguration);
+        KieContainerSessionsPoolImpl pool = (KieContainerSessionsPoolImpl) kieContainer.newKieSessionsPool( options );
+
+        KieSession ksession = pool.newKieSession();
+        KieSession ksession2 = pool.newKieSession();
+        checkKieSession( ksession );
+        checkKieSession( ksession2 );
+        ksession.dispose();
+        ksession2.dispose();
+
+        // the sessions are reset only when the executor runs the reset tasks, the second one exceeds the max idle size
+        assertThat(resetTasks).hasSize(2);
+        resetTasks.forEach( Runnable::run );
+
+        ScalablePool.Statistics statistics = pool.getStatistics().values().iterator().next();
+        assertThat(statistics.getBorrows()).isEqualTo(2);
+        assertThat(statistics.getMisses()).isEqualTo(1);
+        assertThat(statistics.getResets()).isEqualTo(1);
+        assertThat(statistics.getDiscarded()).isEqualTo(1);
+        assertThat(statistics.getIdle()).isEqualTo(1);
+
+        KieSession reused = pool.newKieSession();
+        assertThat(reused).isSameAs(ksession);
+        checkKieSession( reused );
+
+        pool.shutdown();
+    }
+
     @ParameterizedTest(name = "KieBase type={0}")
     @MethodSource("parameters")
     public void testStatelessKieSessionsPool(KieBaseTestConfiguration kieBaseTestConfiguration) {
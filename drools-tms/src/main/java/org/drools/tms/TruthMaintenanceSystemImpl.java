@@ -23,7 +23,9 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.function.BiFunction;
 
+import org.drools.core.BeliefSystemType;
 import org.drools.core.RuleBaseConfiguration.AssertBehaviour;
+import org.drools.core.RuleSessionConfiguration;
 import org.drools.base.beliefsystem.Mode;
 import org.drools.core.common.ClassAwareObjectStore;
 import org.drools.core.common.EqualityKey;
@@ -42,8 +44,11 @@ import org.drools.tms.beliefsystem.BeliefSystem;
 import org.drools.tms.beliefsystem.BeliefSystemMode;
 import org.drools.tms.beliefsystem.ModedAssertion;
 import org.drools.tms.beliefsystem.jtms.JTMSBeliefSetImpl;
+import org.drools.tms.beliefsystem.simple.CompactBeliefSystem;
 import org.drools.tms.util.CustomKeyTransformerHashMap;
+import org.drools.tms.util.EqualityKeyTable;
 import org.kie.api.runtime.rule.FactHandle;
+import org.kie.internal.runtime.conf.TruthMaintenanceModeOption;
 
 public class TruthMaintenanceSystemImpl implements TruthMaintenanceSystem {
 
@@ -64,9 +69,16 @@ public class TruthMaintenanceSystemImpl implements TruthMaintenanceSystem {
 
         this.typeConfReg = ep.getObjectTypeConfigurationRegistry();
 
-        this.equalityKeyMap = new CustomKeyTransformerHashMap<>(EqualityKeyPlaceholder::transformEqualityKey);
-
-        this.defaultBeliefSystem = BeliefSystemFactory.createBeliefSystem(ep.getReteEvaluator().getRuleSessionConfiguration().getBeliefSystemType(), ep, this);
+        RuleSessionConfiguration sessionConf = ep.getReteEvaluator().getRuleSessionConfiguration();
+        if (sessionConf.getTruthMaintenanceModeOption() == TruthMaintenanceModeOption.COMPACT) {
+            this.equalityKeyMap = new EqualityKeyTable();
+            this.defaultBeliefSystem = sessionConf.getBeliefSystemType() == BeliefSystemType.SIMPLE ?
+                    new CompactBeliefSystem(ep, this) :
+                    BeliefSystemFactory.createBeliefSystem(sessionConf.getBeliefSystemType(), ep, this);
+        } else {
+            this.equalityKeyMap = new CustomKeyTransformerHashMap<>(EqualityKeyPlaceholder::transformEqualityKey);
+            this.defaultBeliefSystem = BeliefSystemFactory.createBeliefSystem(sessionConf.getBeliefSystemType(), ep, this);
+        }
     }
 
     private static class EqualityKeyPlaceholder {
@@ -349,8 +361,14 @@ public class TruthMaintenanceSystemImpl implements TruthMaintenanceSystem {
 
         PropagationContext context = ((Tuple)activation).findMostRecentPropagationContext();
 
-        for ( LogicalDependency<M> node = list.getFirst(); node != null; node = node.getNext() ) {
-            removeLogicalDependency( node, context );
+        BeliefSystem beliefSystem = ((BeliefSet) list.getFirst().getJustified()).getBeliefSystem();
+        if ( beliefSystem instanceof CompactBeliefSystem ) {
+            // the activation is gone, so all its justifications can be retracted and recycled at once
+            ((CompactBeliefSystem) beliefSystem).deleteAll( (LinkedList) list, context );
+        } else {
+            for ( LogicalDependency<M> node = list.getFirst(); node != null; node = node.getNext() ) {
+                removeLogicalDependency( node, context );
+            }
         }
         activation.setLogicalDependencies( null );
     }
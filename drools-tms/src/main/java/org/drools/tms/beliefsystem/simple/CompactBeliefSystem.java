@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.tms.beliefsystem.simple;
+
+import java.util.Arrays;
+
+import org.drools.base.util.LinkedList;
+import org.drools.core.common.InternalWorkingMemoryEntryPoint;
+import org.drools.core.common.PropagationContext;
+import org.drools.core.common.TruthMaintenanceSystem;
+import org.drools.core.reteoo.ClassObjectTypeConf;
+import org.drools.core.reteoo.ObjectTypeConf;
+import org.drools.tms.LogicalDependency;
+import org.drools.tms.SimpleMode;
+import org.drools.tms.agenda.TruthMaintenanceSystemInternalMatch;
+import org.drools.tms.beliefsystem.BeliefSet;
+
+/**
+ * The SimpleBeliefSystem used by the compact truth maintenance mode. Each justification is a single
+ * {@link CompactLogicalDependency} record owning its mode, and the records of an activation retracted in bulk
+ * are kept in a bounded pool and reused by the following logical insertions.
+ */
+public class CompactBeliefSystem extends SimpleBeliefSystem {
+
+    static final int MAX_POOLED_DEPENDENCIES = 4096;
+
+    private CompactLogicalDependency[] pool = new CompactLogicalDependency[16];
+    private int pooled;
+
+    // the type conf of the last deleted fact, only cached while deleting the dependencies of an activation
+    private boolean deletingAll;
+    private Class<?> bulkTypeConfClass;
+    private ObjectTypeConf bulkTypeConf;
+
+    public CompactBeliefSystem(InternalWorkingMemoryEntryPoint ep,
+                               TruthMaintenanceSystem tms) {
+        super(ep, tms);
+    }
+
+    @Override
+    public LogicalDependency newLogicalDependency(TruthMaintenanceSystemInternalMatch activation,
+                                                  BeliefSet beliefSet,
+                                                  Object object,
+                                                  Object value) {
+        CompactLogicalDependency dep = pooled > 0 ? pool[--pooled] : new CompactLogicalDependency();
+        pool[pooled] = null;
+        dep.init( activation, beliefSet, object );
+        return dep;
+    }
+
+    /**
+     * Deletes all the dependencies justified by a cancelled activation. Dependencies belonging to another belief
+     * system are delegated to it, while the records of this one are returned to the pool.
+     * The list must not be used anymore by the caller.
+     */
+    public void deleteAll(LinkedList<LogicalDependency<SimpleMode>> dependencies,
+                          PropagationContext context) {
+        deletingAll = true;
+        try {
+            for ( LogicalDependency<SimpleMode> node = dependencies.getFirst(); node != null; ) {
+                LogicalDependency<SimpleMode> next = node.getNext();
+                BeliefSet<SimpleMode> beliefSet = (BeliefSet<SimpleMode>) node.getJustified();
+                beliefSet.getBeliefSystem().delete( node, beliefSet, context );
+                if ( node instanceof CompactLogicalDependency && beliefSet.getBeliefSystem() == this ) {
+                    release( (CompactLogicalDependency) node );
+                }
+                node = next;
+            }
+        } finally {
+            deletingAll = false;
+            bulkTypeConfClass = null;
+            bulkTypeConf = null;
+        }
+    }
+
+    private void release(CompactLogicalDependency dep) {
+        dep.release();
+        if ( pooled == pool.length ) {
+            if ( pooled == MAX_POOLED_DEPENDENCIES ) {
+                return;
+            }
+            pool = Arrays.copyOf( pool, pooled << 1 );
+        }
+        pool[pooled++] = dep;
+    }
+
+    @Override
+    protected ObjectTypeConf getObjectTypeConf(BeliefSet beliefSet) {
+        if ( !deletingAll ) {
+            return super.getObjectTypeConf( beliefSet );
+        }
+        Class<?> factClass = beliefSet.getFactHandle().getObject().getClass();
+        if ( factClass == bulkTypeConfClass ) {
+            return bulkTypeConf;
+        }
+        ObjectTypeConf typeConf = super.getObjectTypeConf( beliefSet );
+        if ( typeConf instanceof ClassObjectTypeConf ) {
+            bulkTypeConfClass = factClass;
+            bulkTypeConf = typeConf;
+        }
+        return typeConf;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.tms.beliefsystem.simple;
+
+import org.drools.base.util.AbstractLinkedListNode;
+import org.drools.tms.LogicalDependency;
+import org.drools.tms.SimpleMode;
+import org.drools.tms.agenda.TruthMaintenanceSystemInternalMatch;
+
+/**
+ * The LogicalDependency used by the {@link CompactBeliefSystem}. It owns its SimpleMode, and both of them are
+ * recycled by the belief system once the justification has been retracted in bulk.
+ */
+public class CompactLogicalDependency extends AbstractLinkedListNode<LogicalDependency<SimpleMode>>
+        implements
+        LogicalDependency<SimpleMode> {
+
+    private final SimpleMode mode;
+
+    private TruthMaintenanceSystemInternalMatch<SimpleMode> justifier;
+    private Object justified;
+    private Object object;
+
+    public CompactLogicalDependency() {
+        this.mode = new SimpleMode( this );
+    }
+
+    void init(TruthMaintenanceSystemInternalMatch<SimpleMode> justifier, Object justified, Object object) {
+        this.justifier = justifier;
+        this.justified = justified;
+        this.object = object;
+    }
+
+    void release() {
+        this.justifier = null;
+        this.justified = null;
+        this.object = null;
+        this.mode.clear();
+        clear();
+    }
+
+    @Override
+    public SimpleMode getMode() {
+        return mode;
+    }
+
+    @Override
+    public Object getJustified() {
+        return this.justified;
+    }
+
+    @Override
+    public TruthMaintenanceSystemInternalMatch<SimpleMode> getJustifier() {
+        return this.justifier;
+    }
+
+    @Override
+    public Object getObject() {
+        return this.object;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactLogicalDependency [justifier=" + (justifier != null ? justifier.getRule().getName() : null) + ",\n justified=" + justified + ",\n object=" + object + "]";
+    }
+}
@@ -169,7 +169,7 @@ public class SimpleBeliefSystem
         ep.insert(bfh, bfh.getObject(), context.getRuleOrigin(), null, getObjectTypeConf(beliefSet) );
     }
 
-    private ObjectTypeConf getObjectTypeConf(BeliefSet beliefSet) {
+    protected ObjectTypeConf getObjectTypeConf(BeliefSet beliefSet) {
         InternalFactHandle fh = beliefSet.getFactHandle();
         ObjectTypeConfigurationRegistry reg;
         ObjectTypeConf typeConf;
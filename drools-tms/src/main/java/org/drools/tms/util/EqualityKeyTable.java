@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.tms.util;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.drools.core.common.EqualityKey;
+
+/**
+ * A map of the EqualityKeys of a Truth Maintenance System, where each key is mapped to itself and can be looked up
+ * either with the key or with any object equal to the one of its fact handles, like the
+ * {@link CustomKeyTransformerHashMap} used by default does.
+ *
+ * The keys are split in stripes chosen by the high bits of their hash code. Each stripe is an open addressing table
+ * with linear probing made of two parallel arrays: the cached hash codes of the keys, that are compared before
+ * calling equals, and the keys themselves. This avoids one map entry per key and the placeholder allocated by each
+ * lookup with an object, while growing a stripe only rehashes the keys of that stripe.
+ */
+public class EqualityKeyTable extends AbstractMap<EqualityKey, EqualityKey> {
+
+    private static final int STRIPE_BITS = 4;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+
+    private static final int INITIAL_STRIPE_CAPACITY = 16;
+
+    private static final int FREE = 0;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private int size;
+
+    private Values values;
+
+    public EqualityKeyTable() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public EqualityKey get(Object object) {
+        if (object == null) {
+            return null;
+        }
+        int hash = object.hashCode();
+        return stripeFor(hash).get(object, hash);
+    }
+
+    @Override
+    public boolean containsKey(Object object) {
+        return get(object) != null;
+    }
+
+    @Override
+    public EqualityKey put(EqualityKey key, EqualityKey value) {
+        if (key != value) {
+            throw new IllegalArgumentException("An EqualityKey can only be mapped to itself");
+        }
+        int hash = key.hashCode();
+        EqualityKey previous = stripeFor(hash).put(key, hash);
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    @Override
+    public EqualityKey remove(Object object) {
+        if (object == null) {
+            return null;
+        }
+        int hash = object.hashCode();
+        EqualityKey removed = stripeFor(hash).remove(object, hash);
+        if (removed != null) {
+            size--;
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+        size = 0;
+    }
+
+    @Override
+    public Collection<EqualityKey> values() {
+        if (values == null) {
+            values = new Values();
+        }
+        return values;
+    }
+
+    @Override
+    public Set<Map.Entry<EqualityKey, EqualityKey>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<EqualityKey, EqualityKey>> iterator() {
+                KeyIterator it = new KeyIterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<EqualityKey, EqualityKey> next() {
+                        EqualityKey key = it.next();
+                        return new SimpleImmutableEntry<>(key, key);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private Stripe stripeFor(int hash) {
+        return stripes[mix(hash) >>> (Integer.SIZE - STRIPE_BITS)];
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static class Stripe {
+
+        private int[] hashes;
+        private EqualityKey[] keys;
+        private int size;
+
+        private Stripe() {
+            clear();
+        }
+
+        private void clear() {
+            hashes = new int[INITIAL_STRIPE_CAPACITY];
+            keys = new EqualityKey[INITIAL_STRIPE_CAPACITY];
+            size = 0;
+        }
+
+        private EqualityKey get(Object object, int hash) {
+            int stored = stored(hash);
+            int mask = hashes.length - 1;
+            for (int i = mix(stored) & mask; hashes[i] != FREE; i = (i + 1) & mask) {
+                if (hashes[i] == stored && matches(keys[i], object)) {
+                    return keys[i];
+                }
+            }
+            return null;
+        }
+
+        private EqualityKey put(EqualityKey key, int hash) {
+            int stored = stored(hash);
+            int mask = hashes.length - 1;
+            int i = mix(stored) & mask;
+            for (; hashes[i] != FREE; i = (i + 1) & mask) {
+                if (hashes[i] == stored && keys[i] == key) {
+                    return key;
+                }
+            }
+            hashes[i] = stored;
+            keys[i] = key;
+            if (++size * 4 > keys.length * 3) {
+                resize(keys.length << 1);
+            }
+            return null;
+        }
+
+        private EqualityKey remove(Object object, int hash) {
+            int stored = stored(hash);
+            int mask = hashes.length - 1;
+            for (int i = mix(stored) & mask; hashes[i] != FREE; i = (i + 1) & mask) {
+                if (hashes[i] == stored && matches(keys[i], object)) {
+                    EqualityKey removed = keys[i];
+                    shiftBack(i);
+                    size--;
+                    return removed;
+                }
+            }
+            return null;
+        }
+
+        // the free slots are marked in the hash column, so that probing doesn't need to read the keys
+        private static int stored(int hash) {
+            return hash == FREE ? 1 : hash;
+        }
+
+        private static boolean matches(EqualityKey key, Object object) {
+            // when looking up with an object the comparison is delegated to the key, that checks its fact handle's object
+            return key == object || (!(object instanceof EqualityKey) && key.equals(object));
+        }
+
+        // backward shift deletion keeps the probe sequences intact without tombstones
+        private void shiftBack(int hole) {
+            int mask = hashes.length - 1;
+            for (int i = (hole + 1) & mask; hashes[i] != FREE; i = (i + 1) & mask) {
+                int home = mix(hashes[i]) & mask;
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    hashes[hole] = hashes[i];
+                    keys[hole] = keys[i];
+                    hole = i;
+                }
+            }
+            hashes[hole] = FREE;
+            keys[hole] = null;
+        }
+
+        private void resize(int newLength) {
+            int[] oldHashes = hashes;
+            EqualityKey[] oldKeys = keys;
+            hashes = new int[newLength];
+            keys = new EqualityKey[newLength];
+            int mask = newLength - 1;
+            for (int j = 0; j < oldHashes.length; j++) {
+                if (oldHashes[j] != FREE) {
+                    int i = mix(oldHashes[j]) & mask;
+                    while (hashes[i] != FREE) {
+                        i = (i + 1) & mask;
+                    }
+                    hashes[i] = oldHashes[j];
+                    keys[i] = oldKeys[j];
+                }
+            }
+        }
+    }
+
+    private class Values extends AbstractCollection<EqualityKey> {
+
+        @Override
+        public Iterator<EqualityKey> iterator() {
+            return new KeyIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private class KeyIterator implements Iterator<EqualityKey> {
+
+        private int stripe;
+        private int index = -1;
+        private EqualityKey next;
+
+        private KeyIterator() {
+            fetchNext();
+        }
+
+        private void fetchNext() {
+            next = null;
+            while (stripe < STRIPES) {
+                EqualityKey[] keys = stripes[stripe].keys;
+                while (++index < keys.length) {
+                    if (keys[index] != null) {
+                        next = keys[index];
+                        return;
+                    }
+                }
+                stripe++;
+                index = -1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public EqualityKey next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            EqualityKey current = next;
+            fetchNext();
+            return current;
+        }
+    }
+}
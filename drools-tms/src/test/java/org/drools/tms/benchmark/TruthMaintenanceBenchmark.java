@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.tms.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.drools.model.Model;
+import org.drools.model.Rule;
+import org.drools.model.Variable;
+import org.drools.model.impl.ModelImpl;
+import org.drools.modelcompiler.KieBaseBuilder;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionConfiguration;
+import org.kie.api.runtime.rule.FactHandle;
+import org.kie.internal.runtime.conf.TruthMaintenanceModeOption;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.drools.model.DSL.declarationOf;
+import static org.drools.model.DSL.on;
+import static org.drools.model.PatternDSL.pattern;
+import static org.drools.model.PatternDSL.rule;
+
+/**
+ * Compares the default and the compact truth maintenance modes when logically inserting and then retracting
+ * a large number of derived facts, either justified by one activation each or all by the same activation.
+ * Run it with the JMH gc profiler (-prof gc) to also compare the allocations of the two modes.
+ */
+@Fork(1)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TruthMaintenanceBenchmark {
+
+    public enum Scenario {
+        // every derived fact is justified by its own activation
+        ONE_TO_ONE,
+        // all the derived facts are justified by a single activation
+        FAN_OUT
+    }
+
+    @Param({"1000000"})
+    private int numberOfFacts;
+
+    @Param({"DEFAULT", "COMPACT"})
+    private TruthMaintenanceModeOption mode;
+
+    @Param({"ONE_TO_ONE", "FAN_OUT"})
+    private Scenario scenario;
+
+    private KieBase kieBase;
+
+    private Source[] sources;
+
+    @Setup(Level.Trial)
+    public void setUpKieBase() {
+        kieBase = buildKieBase();
+        sources = createSources(scenario, numberOfFacts);
+    }
+
+    @Benchmark
+    public int insertAndRetractLogical() {
+        KieSession ksession = newKieSession(kieBase, mode);
+        try {
+            FactHandle[] handles = insertSources(ksession, sources);
+            for (FactHandle handle : handles) {
+                ksession.delete(handle);
+            }
+            ksession.fireAllRules();
+            return handles.length;
+        } finally {
+            ksession.dispose();
+        }
+    }
+
+    private static KieBase buildKieBase() {
+        Variable<Source> sourceV = declarationOf(Source.class);
+
+        Rule derive = rule("Derive")
+                .build(
+                        pattern(sourceV).expr("fanOutIsOne", s -> s.getFanOut() == 1),
+                        on(sourceV).execute((drools, s) -> drools.logicalInsert(new Derived(s.getValue())))
+                );
+
+        Rule fanOut = rule("FanOut")
+                .build(
+                        pattern(sourceV).expr("fanOutIsMany", s -> s.getFanOut() > 1),
+                        on(sourceV).execute((drools, s) -> {
+                            for (int i = 0; i < s.getFanOut(); i++) {
+                                drools.logicalInsert(new Derived(s.getValue() + i));
+                            }
+                        })
+                );
+
+        Model model = new ModelImpl().addRule(derive).addRule(fanOut);
+        return KieBaseBuilder.createKieBaseFromModel(model);
+    }
+
+    private static KieSession newKieSession(KieBase kieBase, TruthMaintenanceModeOption mode) {
+        KieSessionConfiguration conf = KieServices.get().newKieSessionConfiguration();
+        conf.setOption(mode);
+        return kieBase.newKieSession(conf, null);
+    }
+
+    private static Source[] createSources(Scenario scenario, int numberOfFacts) {
+        if (scenario == Scenario.FAN_OUT) {
+            return new Source[] { new Source(0, numberOfFacts) };
+        }
+        Source[] sources = new Source[numberOfFacts];
+        for (int i = 0; i < numberOfFacts; i++) {
+            sources[i] = new Source(i, 1);
+        }
+        return sources;
+    }
+
+    private static FactHandle[] insertSources(KieSession ksession, Source[] sources) {
+        FactHandle[] handles = new FactHandle[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            handles[i] = ksession.insert(sources[i]);
+        }
+        ksession.fireAllRules();
+        return handles;
+    }
+
+    public static class Source {
+        private final int value;
+        private final int fanOut;
+
+        public Source(int value, int fanOut) {
+            this.value = value;
+            this.fanOut = fanOut;
+        }
+
+        public int getValue() {
+            return value;
+        }
+
+        public int getFanOut() {
+            return fanOut;
+        }
+    }
+
+    public static class Derived {
+        private final int value;
+
+        public Derived(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Derived && ((Derived) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.drools.tms.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.drools.core.common.EqualityKey;
+import org.drools.core.common.InternalFactHandle;
+import org.drools.core.reteoo.ReteooFactHandleFactory;
+import org.drools.core.test.model.Cheese;
+import org.drools.tms.TruthMaintenanceSystemEqualityKey;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EqualityKeyTableTest {
+
+    private final ReteooFactHandleFactory factory = new ReteooFactHandleFactory();
+
+    @Test
+    public void lookupByKeyAndByEqualObject() {
+        EqualityKeyTable underTest = new EqualityKeyTable();
+        EqualityKey key = keyFor(new Cheese("stilton", 10));
+        underTest.put(key, key);
+
+        assertThat(underTest.size()).isEqualTo(1);
+        assertThat(underTest.get(key)).isSameAs(key);
+        assertThat(underTest.get(new Cheese("stilton", 10))).isSameAs(key);
+        assertThat(underTest.get(new Cheese("brie", 10))).isNull();
+
+        // another key for an equal object is a different entry
+        EqualityKey otherKey = keyFor(new Cheese("stilton", 10));
+        assertThat(underTest.get(otherKey)).isNull();
+        assertThat(underTest.remove(otherKey)).isNull();
+
+        assertThat(underTest.remove(key)).isSameAs(key);
+        assertThat(underTest.isEmpty()).isTrue();
+        assertThat(underTest.get(new Cheese("stilton", 10))).isNull();
+    }
+
+    @Test
+    public void growAndRemoveWithCollidingHashes() {
+        EqualityKeyTable underTest = new EqualityKeyTable();
+        int numberOfKeys = 10_000;
+        List<EqualityKey> keys = new ArrayList<>();
+        for (int i = 0; i < numberOfKeys; i++) {
+            // only 100 different hash codes, so the probe sequences are long and interleaved
+            EqualityKey key = keyFor(new Collider(i, i % 100));
+            underTest.put(key, key);
+            keys.add(key);
+        }
+        assertThat(underTest.size()).isEqualTo(numberOfKeys);
+        assertThat(underTest.values()).containsExactlyInAnyOrderElementsOf(keys);
+
+        for (int i = 0; i < numberOfKeys; i += 3) {
+            assertThat(underTest.remove(keys.get(i))).isSameAs(keys.get(i));
+        }
+        for (int i = 0; i < numberOfKeys; i++) {
+            EqualityKey expected = i % 3 == 0 ? null : keys.get(i);
+            assertThat(underTest.get(new Collider(i, i % 100))).isSameAs(expected);
+        }
+        assertThat(underTest.size()).isEqualTo(numberOfKeys - (numberOfKeys + 2) / 3);
+        assertThat(underTest.entrySet()).hasSize(underTest.size());
+
+        underTest.clear();
+        assertThat(underTest.isEmpty()).isTrue();
+        assertThat(underTest.values()).isEmpty();
+    }
+
+    @Test
+    public void keysAreMappedToThemselves() {
+        EqualityKeyTable underTest = new EqualityKeyTable();
+        EqualityKey key = keyFor(new Cheese("stilton", 10));
+        assertThat(underTest.put(key, key)).isNull();
+        assertThat(underTest.put(key, key)).isSameAs(key);
+        assertThat(underTest.size()).isEqualTo(1);
+
+        assertThatThrownBy(() -> underTest.put(key, keyFor(new Cheese("brie", 10))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private EqualityKey keyFor(Object object) {
+        InternalFactHandle handle = factory.newFactHandle(object, null, null, null);
+        EqualityKey key = new TruthMaintenanceSystemEqualityKey(handle, EqualityKey.JUSTIFIED);
+        handle.setEqualityKey(key);
+        return key;
+    }
+
+    private static class Collider {
+        private final int id;
+        private final int hash;
+
+        private Collider(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Collider && ((Collider) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.api.definition.type;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ *
+ * Annotation used to declare that a field is the partition key of the class it belongs to: when a fact of this class is
+ * inserted into a partitioned session, the value of this field is used to route it to one of the sessions partitions,
+ * so that all the facts having the same key are always evaluated by the same partition.
+ *
+ * The facts of classes not having a field annotated as partition key are broadcast to all the partitions, while the
+ * facts whose partition key is null are rejected. A broadcast fact is the same instance in all the partitions, which
+ * evaluate it concurrently, so it must be immutable, and a rule matching only broadcast facts fires once per partition.
+ * Works for concrete classes on fields and only one field of a class can be annotated.
+ *
+ */
+@Retention(value = RetentionPolicy.RUNTIME)
+@Target(value = ElementType.FIELD)
+public @interface Partition {
+}
@@ -18,7 +18,9 @@
  */
 package org.kie.api.runtime.rule;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 import org.kie.api.runtime.ClassObjectFilter;
@@ -114,6 +116,36 @@ public interface EntryPoint {
                 Object object,
                 String... modifiedProperties);
 
+    /**
+     * Inserts all the given facts into this entry point. This produces the same result of inserting
+     * them one by one in the iteration order of the collection, but allows the engine to amortize
+     * the cost of the insertion over the whole batch.
+     *
+     * @param objects the facts to be inserted
+     *
+     * @return the fact handles created for the given facts, in the same order of the facts
+     */
+    default List<FactHandle> insertAll(Collection<?> objects) {
+        List<FactHandle> handles = new ArrayList<>(objects.size());
+        for (Object object : objects) {
+            handles.add(insert(object));
+        }
+        return handles;
+    }
+
+    /**
+     * Notifies the engine that the facts for which the given FactHandles were assigned have been modified.
+     * This produces the same result of updating them one by one with their current values, but allows
+     * the engine to amortize the cost of the update over the whole batch.
+     *
+     * @param handles the FactHandles of the facts to be updated.
+     */
+    default void updateAll(Collection<? extends FactHandle> handles) {
+        for (FactHandle handle : handles) {
+            update(handle, handle.getObject());
+        }
+    }
+
     /**
      * Returns the fact handle associated with the given object. It is important to note that this
      * method behaves in accordance with the configured assert behaviour for this {@link org.kie.api.KieBase}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.internal.conf;
+
+import org.kie.api.conf.OptionKey;
+import org.kie.api.conf.SingleValueRuleBaseOption;
+import org.kie.api.annotations.KieProperty;
+
+/**
+ * An option to define the minimum number of left tuples staged for insertion on a join node
+ * that makes the node match them against its right memory in parallel, splitting them in chunks
+ * evaluated on a fork-join pool. A negative value disables the parallel evaluation.
+ */
+public class ParallelJoinThresholdOption implements SingleValueRuleBaseOption {
+
+    private static final long serialVersionUID = 510l;
+
+    /**
+     * The property name for the parallel join threshold option
+     */
+    @KieProperty(type = "int", defaultValue = "-1")
+    public static final String PROPERTY_NAME = "drools.parallelJoinThreshold";
+
+    public static OptionKey<ParallelJoinThresholdOption> KEY = new OptionKey<>(TYPE, PROPERTY_NAME);
+
+    /**
+     * The default value for this option, the parallel evaluation is disabled
+     */
+    public static final int DEFAULT_VALUE = -1;
+
+    /**
+     * The number of staged left tuples from which a join is evaluated in parallel
+     */
+    private final int threshold;
+
+    /**
+     * Private constructor to enforce the use of the factory method
+     * @param threshold
+     */
+    private ParallelJoinThresholdOption( int threshold ) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * This is a factory method for this Parallel Join Threshold configuration.
+     *
+     * @param threshold the threshold value for the Parallel Join option
+     *
+     * @return the actual type safe Parallel Join threshold configuration.
+     */
+    public static ParallelJoinThresholdOption get( int threshold ) {
+        return new ParallelJoinThresholdOption( threshold );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getPropertyName() {
+        return PROPERTY_NAME;
+    }
+
+    /**
+     * Returns the number of staged left tuples from which a join is evaluated in parallel
+     *
+     * @return
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public boolean isEnabled() {
+        return threshold >= 0;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + threshold;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( this == obj ) { return true; }
+        if ( obj == null ) { return false; }
+        if ( getClass() != obj.getClass() ) { return false; }
+        ParallelJoinThresholdOption other = (ParallelJoinThresholdOption) obj;
+        return threshold == other.threshold;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.internal.runtime.conf;
+
+import org.kie.api.conf.OptionKey;
+import org.kie.api.runtime.conf.SingleValueRuleRuntimeOption;
+
+/**
+ * An Enum for the ObjectStore used by the entry points of a KieSession to keep track of the inserted facts.
+ * The SLAB store keeps the fact handles in slabs of primitive columns and reduces the heap used by sessions
+ * with a very high number of long-lived facts. It is only used with identity assert behaviour.
+ *
+ * drools.objectStore = &lt;default|slab&gt;
+ *
+ * DEFAULT = default
+ */
+public enum ObjectStoreOption implements SingleValueRuleRuntimeOption {
+
+    DEFAULT("default"),
+    SLAB("slab");
+
+    /**
+     * The property name for the object store option
+     */
+    public static final String PROPERTY_NAME = "drools.objectStore";
+
+    public static OptionKey<ObjectStoreOption> KEY = new OptionKey<>(TYPE, PROPERTY_NAME);
+
+    private final String string;
+
+    ObjectStoreOption(String string) {
+        this.string = string;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getPropertyName() {
+        return PROPERTY_NAME;
+    }
+
+    public String getAsString() {
+        return string;
+    }
+
+    public static ObjectStoreOption determineObjectStore(String value) {
+        if ( SLAB.getAsString().equalsIgnoreCase( value ) ) {
+            return SLAB;
+        }
+        return DEFAULT;
+    }
+}
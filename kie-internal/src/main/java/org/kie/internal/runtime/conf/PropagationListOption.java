@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.internal.runtime.conf;
+
+import org.kie.api.conf.OptionKey;
+import org.kie.api.runtime.conf.SingleValueRuleRuntimeOption;
+
+/**
+ * An Enum for the PropagationList used by a thread safe KieSession to enqueue the actions (inserts, updates,
+ * deletes ...) coming from threads other than the one evaluating the network. The LOCK_FREE list lets many
+ * producer threads enqueue their actions with a single CAS instead of contending on the list monitor.
+ * It is ignored when the session isn't thread safe or has a force eager activation filter.
+ *
+ * drools.propagationList = &lt;default|lockfree&gt;
+ *
+ * DEFAULT = default
+ */
+public enum PropagationListOption implements SingleValueRuleRuntimeOption {
+
+    DEFAULT("default"),
+    LOCK_FREE("lockfree");
+
+    /**
+     * The property name for the propagation list option
+     */
+    public static final String PROPERTY_NAME = "drools.propagationList";
+
+    public static OptionKey<PropagationListOption> KEY = new OptionKey<>(TYPE, PROPERTY_NAME);
+
+    private final String string;
+
+    PropagationListOption(String string) {
+        this.string = string;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getPropertyName() {
+        return PROPERTY_NAME;
+    }
+
+    public String getAsString() {
+        return string;
+    }
+
+    public static PropagationListOption determinePropagationList(String value) {
+        if ( LOCK_FREE.getAsString().equalsIgnoreCase( value ) ) {
+            return LOCK_FREE;
+        }
+        return DEFAULT;
+    }
+}
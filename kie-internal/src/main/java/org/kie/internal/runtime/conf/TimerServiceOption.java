@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.internal.runtime.conf;
+
+import org.kie.api.conf.OptionKey;
+import org.kie.api.runtime.conf.SingleValueKieSessionOption;
+
+/**
+ * An Enum for the data structure used by the TimerService of a KieSession to keep the scheduled jobs.
+ * The TIMING_WHEEL one keeps them in a hierarchical timing wheel where scheduling and cancelling a job take
+ * constant time, and is meant for sessions with a very high number of pending timers and event expirations.
+ * It works with both the realtime and the pseudo clock.
+ *
+ * drools.timerService = &lt;default|timingwheel&gt;
+ *
+ * DEFAULT = default
+ */
+public enum TimerServiceOption implements SingleValueKieSessionOption {
+
+    DEFAULT("default"),
+    TIMING_WHEEL("timingwheel");
+
+    /**
+     * The property name for the timer service option
+     */
+    public static final String PROPERTY_NAME = "drools.timerService";
+
+    public static OptionKey<TimerServiceOption> KEY = new OptionKey<>(TYPE, PROPERTY_NAME);
+
+    private final String string;
+
+    TimerServiceOption(String string) {
+        this.string = string;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getPropertyName() {
+        return PROPERTY_NAME;
+    }
+
+    public String getAsString() {
+        return string;
+    }
+
+    public static TimerServiceOption determineTimerService(String value) {
+        if ( TIMING_WHEEL.getAsString().equalsIgnoreCase( value ) ) {
+            return TIMING_WHEEL;
+        }
+        return DEFAULT;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.kie.internal.runtime.conf;
+
+import org.kie.api.conf.OptionKey;
+import org.kie.api.runtime.conf.SingleValueRuleRuntimeOption;
+
+/**
+ * An Enum for the storage used by the Truth Maintenance System of a KieSession.
+ * The COMPACT mode keeps the equality keys in a striped open addressing table indexed by their hash code,
+ * recycles the logical dependency records and retracts all the justifications of a cancelled activation
+ * in bulk. It reduces the heap and the time spent in bookkeeping for sessions with a very high number
+ * of logically inserted facts.
+ *
+ * drools.truthMaintenanceMode = &lt;default|compact&gt;
+ *
+ * DEFAULT = default
+ */
+public enum TruthMaintenanceModeOption implements SingleValueRuleRuntimeOption {
+
+    DEFAULT("default"),
+    COMPACT("compact");
+
+    /**
+     * The property name for the truth maintenance mode option
+     */
+    public static final String PROPERTY_NAME = "drools.truthMaintenanceMode";
+
+    public static OptionKey<TruthMaintenanceModeOption> KEY = new OptionKey<>(TYPE, PROPERTY_NAME);
+
+    private final String string;
+
+    TruthMaintenanceModeOption(String string) {
+        this.string = string;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getPropertyName() {
+        return PROPERTY_NAME;
+    }
+
+    public String getAsString() {
+        return string;
+    }
+
+    public static TruthMaintenanceModeOption determineTruthMaintenanceMode(String value) {
+        if ( COMPACT.getAsString().equalsIgnoreCase( value ) ) {
+            return COMPACT;
+        }
+        return DEFAULT;
+    }
+}
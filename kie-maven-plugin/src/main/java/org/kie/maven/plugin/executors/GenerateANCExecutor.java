@@ -27,6 +27,8 @@ import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
@@ -78,6 +80,7 @@ public class GenerateANCExecutor {
                                                                              project.getVersion()));
 
             Map<String, String> classNameSourceMap = new HashMap<>();
+            Map<String, String> classNameFingerprintMap = new TreeMap<>();
 
             for (String kbase : kieContainer.getKieBaseNames()) {
                 InternalKnowledgeBase kieBase = (InternalKnowledgeBase) kieContainer.getKieBase(kbase);
@@ -91,6 +94,7 @@ public class GenerateANCExecutor {
                 for (CompiledNetworkSources generatedFile : ancSourceFiles) {
                     String className = toClassName(generatedFile.getSourceName());
                     classNameSourceMap.put(className, generatedFile.getSource());
+                    classNameFingerprintMap.put(className, generatedFile.getFingerprint());
                     log.info("Generated Alpha Network class: " + className);
                 }
             }
@@ -98,7 +102,7 @@ public class GenerateANCExecutor {
             compileAndWriteClasses(targetDirectory, projectClassLoader, javaCompilerSettings, compilerType,
                                    classNameSourceMap, dumpKieSourcesFolder);
 
-            // generate the ANC file
+            // generate the ANC file, listing the fingerprint of the network each class has been compiled from
             String ancFile = CanonicalKieModule.getANCFile(new ReleaseIdImpl(
                     project.getGroupId(),
                     project.getArtifactId(),
@@ -111,7 +115,9 @@ public class GenerateANCExecutor {
             try {
                 Files.deleteIfExists(ancFilePath);
                 Files.createDirectories(ancFilePath.getParent());
-                Files.createFile(ancFilePath);
+                Files.write(ancFilePath, classNameFingerprintMap.entrySet().stream()
+                        .map(e -> e.getKey() + "=" + e.getValue())
+                        .collect(Collectors.toList()));
                 log.info("Written ANC File: " + ancFilePath.toAbsolutePath());
             } catch (IOException e) {
                 throw new MojoExecutionException("Unable to write file: ", e);